@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.pipeline.io.mappers.VariantVcfFactory;
+import uk.ac.ebi.eva.test.data.SyntheticVcf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the conversion of a {@link VariantSourceEntry} with samples into a {@link VariantSourceEntryMongo},
+ * which classifies the samples by genotype in buildSampleData, depending on the number of samples and alternate
+ * alleles.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class VariantSourceEntryMongoBenchmark {
+
+    private static final int VARIANTS = 100;
+
+    private static final String FILE_ID = "fileId";
+
+    private static final String STUDY_ID = "studyId";
+
+    @Param({"10", "100", "1000"})
+    public int samples;
+
+    @Param({"1", "3", "6"})
+    public int alternates;
+
+    private List<VariantSourceEntry> sourceEntries;
+
+    private GenotypeDictionary genotypeDictionary;
+
+    @Setup
+    public void setUp() {
+        genotypeDictionary = new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE);
+        VariantVcfFactory factory = new VariantVcfFactory(genotypeDictionary);
+        sourceEntries = new ArrayList<>(VARIANTS);
+        for (String line : new SyntheticVcf(samples, alternates).genotypedLines(VARIANTS)) {
+            sourceEntries.add(factory.create(FILE_ID, STUDY_ID, line).get(0).getSourceEntry(FILE_ID, STUDY_ID));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void convert(Blackhole blackhole) {
+        for (VariantSourceEntry sourceEntry : sourceEntries) {
+            blackhole.consume(new VariantSourceEntryMongo(sourceEntry.getFileId(), sourceEntry.getStudyId(),
+                                                          sourceEntry.getSecondaryAlternates(),
+                                                          sourceEntry.getAttributes(), sourceEntry.getFormat(),
+                                                          sourceEntry.getSamplesData(), false,
+                                                          genotypeDictionary));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.test.data.SyntheticVepOutput;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link AnnotationLineMapper#mapLine(String, int)} per variant of a VEP output. Each alternate allele
+ * of a variant adds 3 lines to the output, see {@link SyntheticVepOutput}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AnnotationLineMapperBenchmark {
+
+    private static final int VARIANTS = 300;
+
+    @Param({"1", "3"})
+    public int alternates;
+
+    private List<String> lines;
+
+    private AnnotationLineMapper mapper;
+
+    @Setup
+    public void setUp() {
+        mapper = new AnnotationLineMapper("78", "78");
+        lines = new SyntheticVepOutput(alternates).lines(VARIANTS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void mapLines(Blackhole blackhole) {
+        int lineNumber = 0;
+        for (String line : lines) {
+            blackhole.consume(mapper.mapLine(line, lineNumber++));
+        }
+    }
+}
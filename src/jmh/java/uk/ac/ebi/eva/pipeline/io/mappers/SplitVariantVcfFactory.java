@@ -0,0 +1,218 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import org.apache.commons.lang3.StringUtils;
+import org.opencb.biodata.models.feature.Genotype;
+import org.opencb.biodata.models.variant.VariantFactory;
+import org.opencb.biodata.models.variant.exceptions.NonStandardCompliantSampleField;
+import org.opencb.biodata.models.variant.exceptions.NotAVariantException;
+
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.pipeline.exception.IncompleteInformationException;
+import uk.ac.ebi.eva.pipeline.exception.NonVariantException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link VariantVcfFactory} as it was before {@link VcfLineTokenizer}, kept as the baseline of
+ * {@link VariantVcfFactoryBenchmark}: the line, the sample columns and the INFO attributes are split with
+ * {@link String#split}, each sample is parsed into a {@link TreeMap}, the genotypes are interned, and the alternate
+ * allele calls are found splitting the genotypes with a regex.
+ * <p>
+ * The variants are stored in the current model, so the samples are added through
+ * {@link VariantSourceEntry#addSampleData(Map)}, the same as the old factory did.
+ */
+public class SplitVariantVcfFactory extends VariantVcfFactory {
+
+    @Override
+    public List<Variant> create(String fileId, String studyId,
+                                String line) throws IllegalArgumentException, NotAVariantException {
+        String[] fields = line.split("\t");
+        if (fields.length < 8) {
+            throw new IllegalArgumentException("Not enough fields provided (min 8)");
+        }
+
+        String chromosome = fields[0];
+        int position = Integer.parseInt(fields[1]);
+        Set<String> ids = new HashSet<>();
+        String reference = fields[3].equals(".") ? "" : fields[3];
+        String[] alternateAlleles = fields[4].split(",");
+        float quality = fields[5].equals(".") ? -1 : Float.parseFloat(fields[5]);
+        String filter = fields[6].equals(".") ? "" : fields[6];
+        String info = fields[7].equals(".") ? "" : fields[7];
+        String format = (fields.length <= 8 || fields[8].equals(".")) ? "" : fields[8];
+
+        List<VariantKeyFields> generatedKeyFields = new ArrayList<>();
+        for (int i = 0; i < alternateAlleles.length; i++) {
+            VariantKeyFields keyFields = normalizeLeftAlign(chromosome, position, reference, alternateAlleles[i]);
+            keyFields.setNumAllele(i);
+            alternateAlleles[i] = keyFields.alternate;
+            generatedKeyFields.add(keyFields);
+        }
+
+        List<Variant> variants = new LinkedList<>();
+        for (int altAlleleIdx = 0; altAlleleIdx < alternateAlleles.length; altAlleleIdx++) {
+            VariantKeyFields keyFields = generatedKeyFields.get(altAlleleIdx);
+            Variant variant = new Variant(chromosome, keyFields.start, keyFields.end, keyFields.reference,
+                                          keyFields.alternate);
+            String[] secondaryAlternates = getSecondaryAlternates(keyFields.getNumAllele(), alternateAlleles);
+            VariantSourceEntry file = new VariantSourceEntry(fileId, studyId, secondaryAlternates, format);
+            variant.addSourceEntry(file);
+
+            try {
+                parseSamples(file, fields, altAlleleIdx);
+                variant.setIds(ids);
+                if (quality > -1) {
+                    file.addAttribute("QUAL", String.valueOf(quality));
+                }
+                if (!filter.isEmpty()) {
+                    file.addAttribute("FILTER", filter);
+                }
+                if (!info.isEmpty()) {
+                    parseInfo(file, info, keyFields.getNumAllele());
+                }
+                file.addAttribute("src", getSourceLine(line));
+                checkVariantInformation(variant, fileId, studyId);
+                variants.add(variant);
+            } catch (NonStandardCompliantSampleField ex) {
+                Logger.getLogger(VariantFactory.class.getName())
+                      .log(Level.SEVERE, String.format("Variant %s:%d:%s>%s will not be saved\n%s",
+                                                       chromosome, position, reference, alternateAlleles[altAlleleIdx],
+                                                       ex.getMessage()));
+            }
+        }
+
+        return variants;
+    }
+
+    private void parseSamples(VariantSourceEntry file, String[] fields,
+                              int alternateAlleleIdx) throws NonStandardCompliantSampleField {
+        String[] formatFields = file.getFormat().split(":");
+        for (int i = 9; i < fields.length; i++) {
+            Map<String, String> map = new TreeMap<>();
+            String[] sampleFields = fields[i].split(":");
+            for (int j = 0; j < sampleFields.length; j++) {
+                String formatField = formatFields[j];
+                String sampleField = sampleFields[j];
+                if (formatField.equalsIgnoreCase("GT")) {
+                    sampleField = processGenotypeField(alternateAlleleIdx, sampleField);
+                }
+                map.put(formatField, sampleField);
+            }
+            file.addSampleData(map);
+        }
+    }
+
+    private String processGenotypeField(int alternateAlleleIdx, String genotype) {
+        if (alternateAlleleIdx >= 1) {
+            Genotype parsedGenotype = new Genotype(genotype);
+
+            StringBuilder genotypeStr = new StringBuilder();
+            for (int allele : parsedGenotype.getAllelesIdx()) {
+                if (allele < 0) {
+                    genotypeStr.append(".");
+                } else {
+                    genotypeStr.append(String.valueOf(mapToMultiallelicIndex(allele, alternateAlleleIdx)));
+                }
+                genotypeStr.append(parsedGenotype.isPhased() ? "|" : "/");
+            }
+            genotype = genotypeStr.substring(0, genotypeStr.length() - 1);
+        }
+        return genotype.intern();
+    }
+
+    private void parseInfo(VariantSourceEntry file, String info, int numAllele) {
+        SamplesData samplesData = file.getSamplesData();
+        for (String var : info.split(";")) {
+            String[] splits = var.split("=");
+            if (splits.length == 2) {
+                switch (splits[0]) {
+                    case "ACC":
+                    case "AC":
+                    case "AF":
+                        file.addAttribute(splits[0], splits[1].split(",")[numAllele]);
+                        break;
+                    case "NS":
+                        file.addAttribute(splits[0], String.valueOf(samplesData.size()));
+                        break;
+                    case "DP":
+                        int dp = 0;
+                        for (int sample = 0; sample < samplesData.size(); sample++) {
+                            String sampleDp = samplesData.getValue(sample, "DP");
+                            if (StringUtils.isNumeric(sampleDp)) {
+                                dp += Integer.parseInt(sampleDp);
+                            }
+                        }
+                        file.addAttribute(splits[0], String.valueOf(dp));
+                        break;
+                    case "MQ":
+                    case "MQ0":
+                        int mq = 0;
+                        int mq0 = 0;
+                        for (int sample = 0; sample < samplesData.size(); sample++) {
+                            String sampleGq = samplesData.getValue(sample, "GQ");
+                            if (StringUtils.isNumeric(sampleGq)) {
+                                int gq = Integer.parseInt(sampleGq);
+                                mq += gq * gq;
+                                if (gq == 0) {
+                                    mq0++;
+                                }
+                            }
+                        }
+                        file.addAttribute("MQ", String.valueOf(mq));
+                        file.addAttribute("MQ0", String.valueOf(mq0));
+                        break;
+                    default:
+                        file.addAttribute(splits[0], splits[1]);
+                        break;
+                }
+            } else {
+                file.addAttribute(splits[0], "");
+            }
+        }
+    }
+
+    @Override
+    protected void checkVariantInformation(Variant variant, String fileId,
+                                           String studyId) throws NonVariantException, IncompleteInformationException {
+        if (variant.getAlternate().equalsIgnoreCase(variant.getReference())) {
+            throw new NonVariantException("The variant " + variant + " reference and alternate alleles are the same");
+        } else if (variant.getAlternate().equals(".")) {
+            throw new NonVariantException("The variant " + variant + " has no alternate allele");
+        }
+
+        SamplesData samplesData = variant.getSourceEntry(fileId, studyId).getSamplesData();
+        for (int sample = 0; sample < samplesData.size(); sample++) {
+            String genotype = samplesData.getValue(sample, "GT");
+            if (genotype != null && Arrays.asList(genotype.split("[/|]")).contains("1")) {
+                return;
+            }
+        }
+        throw new NonVariantException("The variant " + variant + " has no alternate allele genotype calls");
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.test.data.SyntheticVcf;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput per line of the factories of aggregated VCFs: {@link VariantAggregatedVcfFactory},
+ * {@link VariantVcfExacFactory} and {@link VariantVcfEVSFactory}, with their default tag mappings.
+ * <p>
+ * The lines of an aggregated VCF don't have sample columns, so the number of samples only changes the values of the
+ * counts, and the lines are parameterised by the number of alternate alleles alone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class VariantAggregatedVcfFactoryBenchmark {
+
+    private static final int LINES = 1000;
+
+    private static final int SAMPLES = 1000;
+
+    private static final String FILE_ID = "fileId";
+
+    private static final String STUDY_ID = "studyId";
+
+    public enum Aggregation {
+        BASIC, EXAC, EVS
+    }
+
+    @Param({"BASIC", "EXAC", "EVS"})
+    public Aggregation aggregation;
+
+    @Param({"1", "3", "6"})
+    public int alternates;
+
+    private List<String> lines;
+
+    private VariantVcfFactory factory;
+
+    @Setup
+    public void setUp() {
+        SyntheticVcf syntheticVcf = new SyntheticVcf(SAMPLES, alternates);
+        switch (aggregation) {
+            case BASIC:
+                factory = new VariantAggregatedVcfFactory();
+                lines = syntheticVcf.aggregatedLines(LINES);
+                break;
+            case EXAC:
+                factory = new VariantVcfExacFactory();
+                lines = syntheticVcf.exacLines(LINES);
+                break;
+            case EVS:
+                factory = new VariantVcfEVSFactory();
+                lines = syntheticVcf.evsLines(LINES);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown aggregation " + aggregation);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parseLines(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(factory.create(FILE_ID, STUDY_ID, line));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Throughput of {@link VariantVcfFactory#create(String, String, String)} parsing the genotyped VCFs used in the tests,
+ * compared with {@link SplitVariantVcfFactory}, the factory before the lines were tokenized by offsets. Run with
+ * "-prof gc" to see the allocation rate per line.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class VariantVcfFactoryBenchmark {
+
+    private static final String VCF_FOLDER = "/input-files/vcf/";
+
+    private static final String FILE_ID = "fileId";
+
+    private static final String STUDY_ID = "studyId";
+
+    @Param({"genotyped.vcf.gz", "small_genotyped.vcf.gz", "multialt_genotyped.vcf.gz"})
+    public String vcf;
+
+    private List<String> lines;
+
+    private VariantVcfFactory factory;
+
+    private VariantVcfFactory splitFactory;
+
+    @Setup
+    public void setUp() throws IOException {
+        factory = new VariantVcfFactory();
+        splitFactory = new SplitVariantVcfFactory();
+        lines = new ArrayList<>();
+        try (InputStream inputStream = getClass().getResourceAsStream(VCF_FOLDER + vcf);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(inputStream)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseFile(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(factory.create(FILE_ID, STUDY_ID, line));
+        }
+    }
+
+    @Benchmark
+    public void parseFileWithSplit(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(splitFactory.create(FILE_ID, STUDY_ID, line));
+        }
+    }
+}
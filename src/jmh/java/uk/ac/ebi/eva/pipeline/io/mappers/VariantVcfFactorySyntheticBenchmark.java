@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.test.data.SyntheticVcf;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link VariantVcfFactory#create(String, String, String)} per line of a genotyped VCF, depending on
+ * the number of samples and alternate alleles of the line.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class VariantVcfFactorySyntheticBenchmark {
+
+    private static final int LINES = 100;
+
+    private static final String FILE_ID = "fileId";
+
+    private static final String STUDY_ID = "studyId";
+
+    @Param({"10", "100", "1000"})
+    public int samples;
+
+    @Param({"1", "3", "6"})
+    public int alternates;
+
+    private List<String> lines;
+
+    private VariantVcfFactory factory;
+
+    @Setup
+    public void setUp() {
+        factory = new VariantVcfFactory();
+        lines = new SyntheticVcf(samples, alternates).genotypedLines(LINES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parseLines(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(factory.create(FILE_ID, STUDY_ID, line));
+        }
+    }
+}
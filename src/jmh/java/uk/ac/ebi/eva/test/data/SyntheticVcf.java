@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.test.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates VCF data lines for the benchmarks, with a given number of samples and alternate alleles per line.
+ * <p>
+ * The lines are reproducible, as the random numbers are seeded, and most of the genotypes are homozygous for the
+ * reference, like in the real studies. The aggregated lines have the INFO tags expected by each of the aggregated
+ * factories: AN/AC/AF/GTC, the ExAC ones (AC_Adj, AN_Adj, AC_Het, AC_Hom) or the EVS ones (TAC, GTS, GTC, MAF, plus
+ * the AF that the pipeline requires).
+ */
+public class SyntheticVcf {
+
+    private static final String CHROMOSOME = "20";
+
+    private static final int FIRST_POSITION = 60000;
+
+    private static final String REFERENCE = "A";
+
+    private static final String[] SNV_ALTERNATES = {"C", "G", "T"};
+
+    private static final double REFERENCE_GENOTYPE_RATIO = 0.8;
+
+    private final int samples;
+
+    private final int alternates;
+
+    private final Random random;
+
+    public SyntheticVcf(int samples, int alternates) {
+        if (samples < alternates) {
+            throw new IllegalArgumentException("There must be at least as many samples as alternate alleles");
+        }
+        this.samples = samples;
+        this.alternates = alternates;
+        this.random = new Random(samples * 31L + alternates);
+    }
+
+    /**
+     * Lines with GT:DP sample columns, as parsed by VariantVcfFactory
+     */
+    public List<String> genotypedLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder line = fixedColumns(i);
+            appendValues(line.append("\tAC="), counts(alternates));
+            line.append(";DP=").append(samples * 10);
+            line.append("\tGT:DP");
+            for (int sample = 0; sample < samples; sample++) {
+                // every alternate allele is called at least once, otherwise the factory rejects the line
+                int firstAllele = sample < alternates ? 0 : allele();
+                int secondAllele = sample < alternates ? sample + 1 : allele();
+                line.append('\t').append(firstAllele).append(random.nextBoolean() ? '|' : '/').append(secondAllele)
+                    .append(':').append(random.nextInt(50));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Lines with the allele counts and the genotype counts (in the order 0/0, 0/1, 1/1, 0/2, 1/2, 2/2...), as parsed
+     * by VariantAggregatedVcfFactory
+     */
+    public List<String> aggregatedLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int[] alleleCounts = counts(alternates);
+            StringBuilder line = fixedColumns(i);
+            line.append("\tAN=").append(samples * 2);
+            appendValues(line.append(";AC="), alleleCounts);
+            line.append(";AF=");
+            for (int allele = 0; allele < alternates; allele++) {
+                line.append(allele == 0 ? "" : ",").append((float) alleleCounts[allele] / (samples * 2));
+            }
+            appendValues(line.append(";GTC="), counts((alternates + 1) * (alternates + 2) / 2));
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Lines with the adjusted counts of the ExAC VCF, with the heterozygous counts in the order of
+     * VariantVcfExacFactory.getHeterozygousGenotype
+     */
+    public List<String> exacLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int[] alleleCounts = counts(alternates);
+            StringBuilder line = fixedColumns(i);
+            appendValues(line.append("\tAC="), alleleCounts);
+            appendValues(line.append(";AC_Adj="), alleleCounts);
+            appendValues(line.append(";AC_Het="), counts(alternates * (alternates + 1) / 2));
+            appendValues(line.append(";AC_Hom="), counts(alternates));
+            line.append(";AN=").append(samples * 2).append(";AN_Adj=").append(samples * 2);
+            line.append(";DP=").append(samples * 10);
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Lines with the total counts of the EVS VCF, the genotypes in GTS being written as A1A1, A1R, RR...
+     */
+    public List<String> evsLines(int count) {
+        List<String> genotypes = new ArrayList<>();
+        for (int first = 1; first <= alternates; first++) {
+            for (int second = first; second <= alternates; second++) {
+                genotypes.add("A" + first + "A" + second);
+            }
+            genotypes.add("A" + first + "R");
+        }
+        genotypes.add("RR");
+
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder line = fixedColumns(i);
+            line.append("\tAF=");
+            for (int allele = 0; allele < alternates; allele++) {
+                line.append(allele == 0 ? "" : ",").append(random.nextFloat());
+            }
+            line.append(";MAF=").append(random.nextFloat() * 50).append(',').append(random.nextFloat() * 50)
+                .append(',').append(random.nextFloat() * 50);
+            appendValues(line.append(";TAC="), counts(alternates + 1));
+            line.append(";GTS=").append(String.join(",", genotypes));
+            appendValues(line.append(";GTC="), counts(genotypes.size()));
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private StringBuilder fixedColumns(int index) {
+        StringBuilder line = new StringBuilder();
+        line.append(CHROMOSOME).append('\t').append(FIRST_POSITION + index * 10).append("\trs").append(index + 1)
+            .append('\t').append(REFERENCE).append('\t');
+        for (int allele = 0; allele < alternates; allele++) {
+            line.append(allele == 0 ? "" : ",").append(alternate(allele));
+        }
+        line.append("\t100\tPASS");
+        return line;
+    }
+
+    /**
+     * The first alternates are SNVs, and the rest insertions of increasing length
+     */
+    private static String alternate(int allele) {
+        if (allele < SNV_ALTERNATES.length) {
+            return SNV_ALTERNATES[allele];
+        }
+        StringBuilder insertion = new StringBuilder(REFERENCE);
+        for (int i = SNV_ALTERNATES.length; i <= allele; i++) {
+            insertion.append('C');
+        }
+        return insertion.toString();
+    }
+
+    private int allele() {
+        if (random.nextDouble() < REFERENCE_GENOTYPE_RATIO) {
+            return 0;
+        }
+        return random.nextInt(alternates + 1);
+    }
+
+    /**
+     * Counts between 1 and the number of samples, as the factories reject the alleles not found in any sample
+     */
+    private int[] counts(int size) {
+        int[] counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = random.nextInt(samples) + 1;
+        }
+        return counts;
+    }
+
+    private static void appendValues(StringBuilder line, int[] values) {
+        for (int i = 0; i < values.length; i++) {
+            line.append(i == 0 ? "" : ",").append(values[i]);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.test.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates VEP output lines for the benchmarks, in the default format of 14 tab-separated columns used by
+ * {@link VepOutputContent}.
+ * <p>
+ * Each variant has a given number of alternate alleles, and VEP writes one line per alternate allele and feature:
+ * a protein coding transcript, a processed transcript upstream of the variant and a regulatory region.
+ */
+public class SyntheticVepOutput {
+
+    private static final String CHROMOSOME = "20";
+
+    private static final int FIRST_POSITION = 60000;
+
+    private static final String REFERENCE = "A";
+
+    private static final String[] ALTERNATES = {"C", "G", "T"};
+
+    private final int alternates;
+
+    public SyntheticVepOutput(int alternates) {
+        if (alternates > ALTERNATES.length) {
+            throw new IllegalArgumentException("At most " + ALTERNATES.length + " alternate alleles are supported");
+        }
+        this.alternates = alternates;
+    }
+
+    /**
+     * @return the lines of the given number of variants, which are variants * alternates * 3 lines
+     */
+    public List<String> lines(int variants) {
+        List<String> lines = new ArrayList<>(variants * alternates * 3);
+        for (int i = 0; i < variants; i++) {
+            int position = FIRST_POSITION + i * 10;
+            int gene = i / 10;
+            for (int allele = 0; allele < alternates; allele++) {
+                String alternate = ALTERNATES[allele];
+                String prefix = CHROMOSOME + "_" + position + "_" + REFERENCE + "/" + alternate + "\t" + CHROMOSOME
+                        + ":" + position + "\t" + alternate + "\t";
+                lines.add(prefix + String.format("ENSG%011d\tENST%011d\tTranscript\tmissense_variant\t%d\t%d\t%d\t"
+                                                         + "K/E\taAg/gAg\trs%d\tSTRAND=1;SYMBOL=GENE%d;"
+                                                         + "SYMBOL_SOURCE=HGNC;BIOTYPE=protein_coding;CANONICAL=YES;"
+                                                         + "ENSP=ENSP%011d;polyphen=possibly_damaging(0.859);"
+                                                         + "sift=tolerated(0.07)",
+                                                 gene, gene * 2, i + 100, i + 50, i / 3 + 17, i + 1, gene, gene * 2));
+                lines.add(prefix + String.format("ENSG%011d\tENST%011d\tTranscript\tupstream_gene_variant\t-\t-\t-\t"
+                                                         + "-\t-\trs%d\tDISTANCE=%d;STRAND=1;SYMBOL=GENE%d;"
+                                                         + "SYMBOL_SOURCE=HGNC;BIOTYPE=processed_transcript",
+                                                 gene, gene * 2 + 1, i + 1, 4000 + i, gene));
+                lines.add(prefix + String.format("-\tENSR%011d\tRegulatoryFeature\tregulatory_region_variant\t-\t-\t"
+                                                         + "-\t-\t-\t-\t", gene));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import org.opencb.biodata.models.feature.AllelesCode;
+import org.opencb.biodata.models.feature.Genotype;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Genotype (GT field) parsed only once by a {@link GenotypeDictionary}, and shared by all the samples that have it.
+ * <p>
+ * Unlike {@link Genotype}, instances are immutable, so they can be shared between threads. Two instances are equal
+ * if they have the same alleles and phase, even if they were written differently in the VCF (as in "0/1" and "0/01").
+ */
+public final class EncodedGenotype {
+
+    static final int MAX_CACHED_ALTERNATES = 16;
+
+    private final String value;
+
+    private final String normalizedValue;
+
+    private final int[] alleles;
+
+    private final boolean phased;
+
+    private final AllelesCode code;
+
+    private final AtomicReferenceArray<EncodedGenotype> secondaryAlternates;
+
+    EncodedGenotype(String value) {
+        Genotype genotype = new Genotype(value);
+        this.value = value;
+        this.normalizedValue = genotype.toString();
+        this.alleles = genotype.getAllelesIdx().clone();
+        this.phased = genotype.isPhased();
+        this.code = genotype.getCode();
+        this.secondaryAlternates = new AtomicReferenceArray<>(MAX_CACHED_ALTERNATES);
+    }
+
+    /**
+     * @return the genotype as it was written in the VCF, e.g. "0|1"
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return the genotype as written by {@link Genotype#toString()}, e.g. "0|1", or "./." for missing alleles
+     */
+    public String getNormalizedValue() {
+        return normalizedValue;
+    }
+
+    public int getAllele(int i) {
+        return alleles[i];
+    }
+
+    public boolean isAlleleRef(int i) {
+        return alleles[i] == 0;
+    }
+
+    public int ploidy() {
+        return alleles.length;
+    }
+
+    public boolean isPhased() {
+        return phased;
+    }
+
+    public AllelesCode getCode() {
+        return code;
+    }
+
+    /**
+     * @return a new {@link Genotype} with the same alleles, for the given reference and alternate
+     */
+    public Genotype toGenotype(String reference, String alternate) {
+        return new Genotype(value, reference, alternate);
+    }
+
+    EncodedGenotype getSecondaryAlternate(int alternateAlleleIdx) {
+        return alternateAlleleIdx < MAX_CACHED_ALTERNATES ? secondaryAlternates.get(alternateAlleleIdx) : null;
+    }
+
+    void setSecondaryAlternate(int alternateAlleleIdx, EncodedGenotype genotype) {
+        if (alternateAlleleIdx < MAX_CACHED_ALTERNATES) {
+            secondaryAlternates.set(alternateAlleleIdx, genotype);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EncodedGenotype that = (EncodedGenotype) o;
+        return phased == that.phased && Arrays.equals(alleles, that.alleles);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(alleles) + (phased ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return normalizedValue;
+    }
+}
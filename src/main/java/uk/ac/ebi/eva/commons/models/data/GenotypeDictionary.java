@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dictionary of the genotypes (GT field) found in the samples, so that each distinct genotype is parsed only once and
+ * the same {@link EncodedGenotype} is used by the VCF parser, the conversion of the samples to Mongo and the
+ * calculation of statistics. Once a genotype is known, getting it is a hash lookup that doesn't allocate any object.
+ * <p>
+ * VCFs only have a few distinct genotypes, but to protect against files with unexpected values, the dictionary stops
+ * growing after a maximum size; from then on, unknown genotypes are parsed every time they are requested.
+ * <p>
+ * This class is thread safe, so the threads of a step can share an instance. The pipeline creates one for each step
+ * that parses, converts or calculates the statistics of the samples.
+ */
+public class GenotypeDictionary {
+
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final int maxSize;
+
+    private final ConcurrentMap<String, EncodedGenotype> genotypes;
+
+    public GenotypeDictionary(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maximum size (" + maxSize + ") must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.genotypes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param genotype GT field of a sample, e.g. "0|1"
+     * @return the parsed genotype. {@link EncodedGenotype#getValue()} is the same String instance for all the equal
+     * genotypes, so the samples don't keep copies of it.
+     */
+    public EncodedGenotype get(String genotype) {
+        EncodedGenotype encodedGenotype = genotypes.get(genotype);
+        if (encodedGenotype == null) {
+            encodedGenotype = new EncodedGenotype(genotype);
+            if (genotypes.size() < maxSize) {
+                EncodedGenotype previous = genotypes.putIfAbsent(genotype, encodedGenotype);
+                if (previous != null) {
+                    encodedGenotype = previous;
+                }
+            }
+        }
+        return encodedGenotype;
+    }
+
+    /**
+     * Gets a genotype of a multiallelic variant, with the allele codes changed to represent the alternate that is
+     * being processed as allele 1. For details on changing these indexes, see
+     * {@link #mapToMultiallelicIndex(int, int)}
+     *
+     * @param genotype           GT field of a sample, e.g. "1/2"
+     * @param alternateAlleleIdx current alternate being processed. 0 for first alternate, 1 or more for a secondary
+     *                           alternate.
+     * @return the parsed genotype, e.g. "2/1" for the second alternate
+     */
+    public EncodedGenotype get(String genotype, int alternateAlleleIdx) {
+        EncodedGenotype encodedGenotype = get(genotype);
+        if (alternateAlleleIdx < 1) {
+            return encodedGenotype;
+        }
+
+        EncodedGenotype remappedGenotype = encodedGenotype.getSecondaryAlternate(alternateAlleleIdx);
+        if (remappedGenotype == null) {
+            StringBuilder remappedValue = new StringBuilder();
+            for (int i = 0; i < encodedGenotype.ploidy(); i++) {
+                if (i > 0) {
+                    remappedValue.append(encodedGenotype.isPhased() ? '|' : '/');
+                }
+                int allele = encodedGenotype.getAllele(i);
+                if (allele < 0) {
+                    remappedValue.append('.');
+                } else {
+                    remappedValue.append(mapToMultiallelicIndex(allele, alternateAlleleIdx));
+                }
+            }
+            remappedGenotype = get(remappedValue.toString());
+            encodedGenotype.setSecondaryAlternate(alternateAlleleIdx, remappedGenotype);
+        }
+        return remappedGenotype;
+    }
+
+    /**
+     * In multiallelic variants, we have a list of alternates, where numAllele is the one whose variant we are parsing
+     * now. If we are parsing the first variant (numAllele == 0) A1 refers to first alternative, (i.e.
+     * alternateAlleles[0]), A2 to second alternative (alternateAlleles[1]), and so on. However, if numAllele == 1, A1
+     * refers to second alternate (alternateAlleles[1]), A2 to first (alternateAlleles[0]) and higher alleles remain
+     * unchanged. Moreover, if NumAllele == 2, A1 is third alternate, A2 is first alternate and A3 is second alternate.
+     * It's also assumed that A0 would be the reference, so it remains unchanged too.
+     *
+     * @param parsedAllele the original allele index
+     * @param numAllele    current alternate being processed. 0 for first alternate, 1 or more for a secondary
+     *                     alternate.
+     * @return the allele index referring to the current alternate
+     */
+    public static int mapToMultiallelicIndex(int parsedAllele, int numAllele) {
+        int correctedAllele = parsedAllele;
+        if (parsedAllele > 0) {
+            if (parsedAllele == numAllele + 1) {
+                correctedAllele = 1;
+            } else if (parsedAllele < numAllele + 1) {
+                correctedAllele = parsedAllele + 1;
+            }
+        }
+        return correctedAllele;
+    }
+
+    public int size() {
+        return genotypes.size();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sample-related information of a {@link VariantSourceEntry}, stored by column: there is one column per field of the
+ * FORMAT (GT, DP...), and each column keeps the distinct values of that field and, for each sample, the code (index)
+ * of its value. As most samples share a few genotypes, a column of thousands of samples costs an array of ints
+ * instead of thousands of maps.
+ * <p>
+ * This is still a list of maps (field name, field value), so it can be used as the former samples data. Each map
+ * returned by {@link #get(int)} is a copy, built when requested, so modifying it doesn't affect the stored values.
+ * Code that processes many samples should use the columns directly (see {@link #getColumnIndex(String)},
+ * {@link #getCode(int, int)} and {@link #getDistinctValues(int)}) to avoid building the maps.
+ */
+public class SamplesData extends AbstractList<Map<String, String>> {
+
+    public static final int MISSING_CODE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<String> fields;
+
+    private final List<Column> columns;
+
+    private int size;
+
+    private int capacity;
+
+    public SamplesData() {
+        fields = new ArrayList<>();
+        columns = new ArrayList<>();
+        size = 0;
+        capacity = INITIAL_CAPACITY;
+    }
+
+    /**
+     * @return the index of the column of the given field, or -1 if no sample has a value for it
+     */
+    public int getColumnIndex(String field) {
+        return fields.indexOf(field);
+    }
+
+    /**
+     * @return the index of the column of the given field, which is created if it didn't exist
+     */
+    public int addColumn(String field) {
+        int columnIndex = fields.indexOf(field);
+        if (columnIndex < 0) {
+            fields.add(field);
+            columns.add(new Column(capacity));
+            columnIndex = fields.size() - 1;
+        }
+        return columnIndex;
+    }
+
+    /**
+     * Adds a sample without values. They can be set afterwards with {@link #setValue(int, int, String)}.
+     *
+     * @return The index where the sample was inserted
+     */
+    public int addSample() {
+        if (size == capacity) {
+            capacity *= 2;
+            for (Column column : columns) {
+                column.grow(capacity);
+            }
+        }
+        return size++;
+    }
+
+    public void setValue(int sampleIndex, int columnIndex, String value) {
+        checkSampleIndex(sampleIndex);
+        columns.get(columnIndex).setValue(sampleIndex, value);
+    }
+
+    public String getValue(int sampleIndex, String field) {
+        int columnIndex = getColumnIndex(field);
+        return columnIndex < 0 ? null : getValue(sampleIndex, columnIndex);
+    }
+
+    public String getValue(int sampleIndex, int columnIndex) {
+        checkSampleIndex(sampleIndex);
+        return columns.get(columnIndex).getValue(sampleIndex);
+    }
+
+    /**
+     * @return the code of the value of a sample, which is an index in {@link #getDistinctValues(int)}, or
+     * {@link #MISSING_CODE} if the sample has no value for that column
+     */
+    public int getCode(int sampleIndex, int columnIndex) {
+        checkSampleIndex(sampleIndex);
+        return columns.get(columnIndex).codes[sampleIndex];
+    }
+
+    /**
+     * @return the values of a column, without duplicates and in order of appearance
+     */
+    public List<String> getDistinctValues(int columnIndex) {
+        return Collections.unmodifiableList(columns.get(columnIndex).values);
+    }
+
+    /**
+     * @return for each sample, the value of each field it has
+     */
+    @Override
+    public Map<String, String> get(int sampleIndex) {
+        checkSampleIndex(sampleIndex);
+        Map<String, String> sampleData = new TreeMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String value = columns.get(i).getValue(sampleIndex);
+            if (value != null) {
+                sampleData.put(fields.get(i), value);
+            }
+        }
+        return sampleData;
+    }
+
+    @Override
+    public boolean add(Map<String, String> sampleData) {
+        int sampleIndex = addSample();
+        for (Map.Entry<String, String> entry : sampleData.entrySet()) {
+            setValue(sampleIndex, addColumn(entry.getKey()), entry.getValue());
+        }
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void checkSampleIndex(int sampleIndex) {
+        if (sampleIndex < 0 || sampleIndex >= size) {
+            throw new IndexOutOfBoundsException("Sample index: " + sampleIndex + ", number of samples: " + size);
+        }
+    }
+
+    private static class Column {
+
+        private int[] codes;
+
+        private final List<String> values;
+
+        private final Map<String, Integer> codesByValue;
+
+        Column(int capacity) {
+            codes = new int[capacity];
+            Arrays.fill(codes, MISSING_CODE);
+            values = new ArrayList<>();
+            codesByValue = new HashMap<>();
+        }
+
+        void grow(int capacity) {
+            int previousCapacity = codes.length;
+            codes = Arrays.copyOf(codes, capacity);
+            Arrays.fill(codes, previousCapacity, capacity, MISSING_CODE);
+        }
+
+        void setValue(int sampleIndex, String value) {
+            if (value == null) {
+                codes[sampleIndex] = MISSING_CODE;
+                return;
+            }
+            Integer code = codesByValue.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codesByValue.put(value, code);
+            }
+            codes[sampleIndex] = code;
+        }
+
+        String getValue(int sampleIndex) {
+            int code = codes[sampleIndex];
+            return code == MISSING_CODE ? null : values.get(code);
+        }
+    }
+}
@@ -16,10 +16,8 @@
  */
 package uk.ac.ebi.eva.commons.models.data;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -50,11 +48,11 @@ public class VariantSourceEntry {
     private String format;
 
     /**
-     * Genotypes and other sample-related information. The keys are the names
-     * of the samples. The values are pairs (field name, field value), such as
-     * (GT, A/C).
+     * Genotypes and other sample-related information. There is an element per
+     * sample, with pairs (field name, field value), such as (GT, A/C). It is
+     * stored by column, see {@link SamplesData}.
      */
-    private List<Map<String, String>> samplesData;
+    private SamplesData samplesData;
 
     /**
      * Statistics of the genomic variation, such as its alleles/genotypes count
@@ -85,7 +83,7 @@ public class VariantSourceEntry {
         this.secondaryAlternates = secondaryAlternates;
         this.format = format;
 
-        this.samplesData = new ArrayList<>();
+        this.samplesData = new SamplesData();
         this.attributes = new LinkedHashMap<>();
         this.cohortStats = new LinkedHashMap<>();
     }
@@ -122,12 +120,12 @@ public class VariantSourceEntry {
         this.format = format;
     }
 
-    public List<Map<String, String>> getSamplesData() {
+    public SamplesData getSamplesData() {
         return samplesData;
     }
 
     public String getSampleData(int sampleIndex, String field) {
-        return getSampleData(sampleIndex).get(field.toUpperCase());
+        return samplesData.getValue(sampleIndex, field.toUpperCase());
     }
 
     public Map<String, String> getSampleData(int sampleIndex) {
@@ -402,6 +402,15 @@ public class VariantStats {
 
     public VariantStats calculate(List<Map<String, String>> samplesData, Map<String, String> attributes,
                                   Pedigree pedigree) {
+        return calculate(samplesData, attributes, pedigree,
+                         new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * @param genotypeDictionary where the genotypes of the samples are looked up, shared with the rest of the step
+     */
+    public VariantStats calculate(List<Map<String, String>> samplesData, Map<String, String> attributes,
+                                  Pedigree pedigree, GenotypeDictionary genotypeDictionary) {
         int[] allelesCount = new int[2];
         int totalAllelesCount = 0, totalGenotypesCount = 0;
 
@@ -415,59 +424,63 @@ public class VariantStats {
             this.setMendelianErrors(0);
         }
 
-        for (Map<String, String> sample : samplesData) {
-            Genotype g = new Genotype(sample.get("GT"), this.getRefAllele(), this.getAltAllele());
-            this.addGenotype(g);
+        // Samples with the same genotype are processed together
+        for (Map.Entry<String, Integer> genotypeCount : countGenotypes(samplesData).entrySet()) {
+            EncodedGenotype g = genotypeDictionary.get(genotypeCount.getKey());
+            int count = genotypeCount.getValue();
+            this.addGenotype(g.toGenotype(this.getRefAllele(), this.getAltAllele()), count);
 
             // Check missing alleles and genotypes
             switch (g.getCode()) {
                 case ALLELES_OK:
                     // Both alleles set
-                    allelesCount[g.getAllele(0)]++;
-                    allelesCount[g.getAllele(1)]++;
+                    allelesCount[g.getAllele(0)] += count;
+                    allelesCount[g.getAllele(1)] += count;
 
-                    totalAllelesCount += 2;
-                    totalGenotypesCount++;
+                    totalAllelesCount += 2 * count;
+                    totalGenotypesCount += count;
 
                     // Counting genotypes for Hardy-Weinberg (all phenotypes)
-                    if (g.isAlleleRef(0) && g.isAlleleRef(1)) { // 0|0
-                        this.getHw().incN_AA();
-                    } else if ((g.isAlleleRef(0) && g.getAllele(1) == 1)
-                            || (g.getAllele(0) == 1 && g.isAlleleRef(1))) {  // 0|1, 1|0
-                        this.getHw().incN_Aa();
-
-                    } else if (g.getAllele(0) == 1 && g.getAllele(1) == 1) {
-                        this.getHw().incN_aa();
+                    for (int i = 0; i < count; i++) {
+                        if (g.isAlleleRef(0) && g.isAlleleRef(1)) { // 0|0
+                            this.getHw().incN_AA();
+                        } else if ((g.isAlleleRef(0) && g.getAllele(1) == 1)
+                                || (g.getAllele(0) == 1 && g.isAlleleRef(1))) {  // 0|1, 1|0
+                            this.getHw().incN_Aa();
+
+                        } else if (g.getAllele(0) == 1 && g.getAllele(1) == 1) {
+                            this.getHw().incN_aa();
+                        }
                     }
 
                     break;
                 case HAPLOID:
                     // Haploid (chromosome X/Y)
-                    allelesCount[g.getAllele(0)]++;
-                    totalAllelesCount++;
+                    allelesCount[g.getAllele(0)] += count;
+                    totalAllelesCount += count;
                     break;
                 case MULTIPLE_ALTERNATES:
                     // Alternate with different "index" than the one that is being handled
                     break;
                 default:
                     // Missing genotype (one or both alleles missing)
-                    this.setMissingGenotypes(this.getMissingGenotypes() + 1);
+                    this.setMissingGenotypes(this.getMissingGenotypes() + count);
                     if (g.getAllele(0) < 0) {
-                        this.setMissingAlleles(this.getMissingAlleles() + 1);
+                        this.setMissingAlleles(this.getMissingAlleles() + count);
                     } else {
-                        allelesCount[g.getAllele(0)]++;
-                        totalAllelesCount++;
+                        allelesCount[g.getAllele(0)] += count;
+                        totalAllelesCount += count;
                     }
 
                     if (g.getAllele(1) < 0) {
-                        this.setMissingAlleles(this.getMissingAlleles() + 1);
+                        this.setMissingAlleles(this.getMissingAlleles() + count);
                     } else {
-                        allelesCount[g.getAllele(1)]++;
-                        totalAllelesCount++;
+                        allelesCount[g.getAllele(1)] += count;
+                        totalAllelesCount += count;
                     }
                     break;
             }
-        }  // Finish all samples loop
+        }  // Finish all genotypes loop
 
         // Set counts for each allele
         this.setRefAlleleCount(allelesCount[0]);
@@ -508,6 +521,45 @@ public class VariantStats {
         return this;
     }
 
+    /**
+     * @return the number of samples with each genotype (GT field), in order of appearance
+     */
+    private Map<String, Integer> countGenotypes(List<Map<String, String>> samplesData) {
+        Map<String, Integer> genotypeCounts = new LinkedHashMap<>();
+        if (samplesData instanceof SamplesData) {
+            SamplesData columns = (SamplesData) samplesData;
+            int genotypeColumn = columns.getColumnIndex("GT");
+            if (genotypeColumn < 0) {
+                genotypeCounts.put(null, columns.size());
+                return genotypeCounts;
+            }
+            List<String> genotypes = columns.getDistinctValues(genotypeColumn);
+            int[] counts = new int[genotypes.size()];
+            int missing = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                int code = columns.getCode(i, genotypeColumn);
+                if (code == SamplesData.MISSING_CODE) {
+                    missing++;
+                } else {
+                    counts[code]++;
+                }
+            }
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    genotypeCounts.put(genotypes.get(code), counts[code]);
+                }
+            }
+            if (missing > 0) {
+                genotypeCounts.put(null, missing);
+            }
+        } else {
+            for (Map<String, String> sample : samplesData) {
+                genotypeCounts.merge(sample.get("GT"), 1, Integer::sum);
+            }
+        }
+        return genotypeCounts;
+    }
+
     /**
      * Calculates the statistics for some variants read from a set of files, and
      * optionally given pedigree information. Some statistics like inheritance
@@ -517,10 +569,11 @@ public class VariantStats {
      * @param ped Optional pedigree information to calculate some statistics
      */
     public static void calculateStatsForVariantsList(List<Variant> variants, Pedigree ped) {
+        GenotypeDictionary genotypeDictionary = new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE);
         for (Variant variant : variants) {
             for (VariantSourceEntry file : variant.getSourceEntries().values()) {
                 VariantStats stats = new VariantStats(variant)
-                        .calculate(file.getSamplesData(), file.getAttributes(), ped);
+                        .calculate(file.getSamplesData(), file.getAttributes(), ped, genotypeDictionary);
                 file.setStats(stats); // TODO Correct?
             }
         }
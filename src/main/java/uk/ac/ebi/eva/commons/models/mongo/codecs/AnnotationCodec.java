@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Xref;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readInt;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeString;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.CHROMOSOME_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.CONSEQUENCE_TYPE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.END_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.START_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.VEP_CACHE_VERSION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.VEP_VERSION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.XREFS_FIELD;
+
+/**
+ * Codec of the documents of the annotations collection, {@link Annotation}
+ * <p>
+ * When decoding, the xrefs are generated again from the consequence types, and the stored ones are added to them.
+ */
+public class AnnotationCodec implements Codec<Annotation> {
+
+    private static final String ID_FIELD = "_id";
+
+    private final ConsequenceTypeCodec consequenceTypeCodec;
+
+    private final XrefCodec xrefCodec;
+
+    public AnnotationCodec(ConsequenceTypeCodec consequenceTypeCodec, XrefCodec xrefCodec) {
+        this.consequenceTypeCodec = consequenceTypeCodec;
+        this.xrefCodec = xrefCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Annotation annotation, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, ID_FIELD, annotation.getId());
+        writeString(writer, CHROMOSOME_FIELD, annotation.getChromosome());
+        writer.writeInt32(START_FIELD, annotation.getStart());
+        writer.writeInt32(END_FIELD, annotation.getEnd());
+        writeString(writer, VEP_VERSION_FIELD, annotation.getVepVersion());
+        writeString(writer, VEP_CACHE_VERSION_FIELD, annotation.getVepCacheVersion());
+        if (annotation.getConsequenceTypes() != null) {
+            writer.writeStartArray(CONSEQUENCE_TYPE_FIELD);
+            for (ConsequenceType consequenceType : annotation.getConsequenceTypes()) {
+                encoderContext.encodeWithChildContext(consequenceTypeCodec, writer, consequenceType);
+            }
+            writer.writeEndArray();
+        }
+        if (annotation.getXrefs() != null) {
+            writer.writeStartArray(XREFS_FIELD);
+            for (Xref xref : annotation.getXrefs()) {
+                encoderContext.encodeWithChildContext(xrefCodec, writer, xref);
+            }
+            writer.writeEndArray();
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Annotation decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String chromosome = null;
+        int start = 0;
+        int end = 0;
+        String vepVersion = null;
+        String vepCacheVersion = null;
+        Set<ConsequenceType> consequenceTypes = new HashSet<>();
+        List<Xref> xrefs = new ArrayList<>();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case ID_FIELD:
+                    id = readString(reader);
+                    break;
+                case CHROMOSOME_FIELD:
+                    chromosome = readString(reader);
+                    break;
+                case START_FIELD:
+                    start = readInt(reader);
+                    break;
+                case END_FIELD:
+                    end = readInt(reader);
+                    break;
+                case VEP_VERSION_FIELD:
+                    vepVersion = readString(reader);
+                    break;
+                case VEP_CACHE_VERSION_FIELD:
+                    vepCacheVersion = readString(reader);
+                    break;
+                case CONSEQUENCE_TYPE_FIELD:
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        consequenceTypes.add(consequenceTypeCodec.decode(reader, decoderContext));
+                    }
+                    reader.readEndArray();
+                    break;
+                case XREFS_FIELD:
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        xrefs.add(xrefCodec.decode(reader, decoderContext));
+                    }
+                    reader.readEndArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        Annotation annotation = new Annotation(id, chromosome, start, end, vepVersion, vepCacheVersion);
+        annotation.addConsequenceTypes(consequenceTypes);
+        annotation.getXrefs().addAll(xrefs);
+        return annotation;
+    }
+
+    @Override
+    public Class<Annotation> getEncoderClass() {
+        return Annotation.class;
+    }
+}
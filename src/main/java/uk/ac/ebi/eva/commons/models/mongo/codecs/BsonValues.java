@@ -0,0 +1,243 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import org.bson.BsonBinary;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.configuration.CodecConfigurationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads and writes the values of the entity fields. Null values are not written, the same as the Spring Data
+ * converter does, and numbers are read whatever their BSON type is.
+ */
+final class BsonValues {
+
+    private BsonValues() {
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeInt32(BsonWriter writer, String name, Integer value) {
+        if (value != null) {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    static void writeDouble(BsonWriter writer, String name, Double value) {
+        if (value != null) {
+            writer.writeDouble(name, value);
+        }
+    }
+
+    static void writeStrings(BsonWriter writer, String name, Collection<String> values) {
+        if (values != null) {
+            writer.writeStartArray(name);
+            for (String value : values) {
+                writer.writeString(value);
+            }
+            writer.writeEndArray();
+        }
+    }
+
+    static void writeInt32s(BsonWriter writer, String name, Collection<Integer> values) {
+        if (values != null) {
+            writer.writeStartArray(name);
+            for (Integer value : values) {
+                writer.writeInt32(value);
+            }
+            writer.writeEndArray();
+        }
+    }
+
+    static void writeDoubles(BsonWriter writer, String name, Collection<Double> values) {
+        if (values != null) {
+            writer.writeStartArray(name);
+            for (Double value : values) {
+                writer.writeDouble(value);
+            }
+            writer.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes a map as a subdocument, replacing the dots of the keys the same way as the Spring Data converter of the
+     * pipeline.
+     */
+    static void writeMap(BsonWriter writer, String name, Map<String, ?> values) {
+        if (values != null) {
+            writer.writeStartDocument(name);
+            for (Map.Entry<String, ?> entry : values.entrySet()) {
+                writer.writeName(entry.getKey().replace('.', EntityCodecs.MAP_KEY_DOT_REPLACEMENT));
+                writeValue(writer, entry.getValue());
+            }
+            writer.writeEndDocument();
+        }
+    }
+
+    /**
+     * Writes the values that can appear in the maps of the entities: strings, numbers, binary data and lists of them.
+     */
+    static void writeValue(BsonWriter writer, Object value) {
+        if (value == null) {
+            writer.writeNull();
+        } else if (value instanceof String) {
+            writer.writeString((String) value);
+        } else if (value instanceof Integer) {
+            writer.writeInt32((Integer) value);
+        } else if (value instanceof Long) {
+            writer.writeInt64((Long) value);
+        } else if (value instanceof Number) {
+            writer.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof byte[]) {
+            writer.writeBinaryData(new BsonBinary((byte[]) value));
+        } else if (value instanceof Collection) {
+            writer.writeStartArray();
+            for (Object element : (Collection<?>) value) {
+                writeValue(writer, element);
+            }
+            writer.writeEndArray();
+        } else {
+            throw new CodecConfigurationException("Can't encode values of type " + value.getClass());
+        }
+    }
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        return reader.readString();
+    }
+
+    static Integer readInteger(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                throw new CodecConfigurationException("Expected a number, found " + reader.getCurrentBsonType());
+        }
+    }
+
+    static int readInt(BsonReader reader) {
+        Integer value = readInteger(reader);
+        return value == null ? 0 : value;
+    }
+
+    static Double readDouble(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOUBLE:
+                return reader.readDouble();
+            case INT32:
+                return (double) reader.readInt32();
+            case INT64:
+                return (double) reader.readInt64();
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                throw new CodecConfigurationException("Expected a number, found " + reader.getCurrentBsonType());
+        }
+    }
+
+    static void readIntegers(BsonReader reader, Collection<Integer> values) {
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readInteger(reader));
+        }
+        reader.readEndArray();
+    }
+
+    static void readStrings(BsonReader reader, Collection<String> values) {
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readString(reader));
+        }
+        reader.readEndArray();
+    }
+
+    static void readDoubles(BsonReader reader, Collection<Double> values) {
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readDouble(reader));
+        }
+        reader.readEndArray();
+    }
+
+    /**
+     * Reads a subdocument written by {@link #writeMap}. The keys are kept as they are stored, the same as the Spring
+     * Data converter does with the maps of the entities.
+     */
+    static <V> Map<String, V> readMap(BsonReader reader, Function<BsonReader, V> valueReader) {
+        Map<String, V> values = new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.put(reader.readName(), valueReader.apply(reader));
+        }
+        reader.readEndDocument();
+        return values;
+    }
+
+    /**
+     * Reads the values written by {@link #writeValue}
+     */
+    static Object readValue(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case STRING:
+                return reader.readString();
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return reader.readDouble();
+            case BINARY:
+                return reader.readBinaryData().getData();
+            case ARRAY:
+                List<Object> values = new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    values.add(readValue(reader));
+                }
+                reader.readEndArray();
+                return values;
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                throw new CodecConfigurationException("Can't decode values of type " + reader.getCurrentBsonType());
+        }
+    }
+}
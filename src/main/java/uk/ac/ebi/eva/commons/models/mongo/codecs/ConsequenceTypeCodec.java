@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Score;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readDouble;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readInteger;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readIntegers;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeDouble;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeInt32;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeInt32s;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeString;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.AA_CHANGE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.AA_POSITION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.BIOTYPE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.CDS_POSITION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.CODON_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.C_DNA_POSITION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.ENSEMBL_GENE_ID_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.ENSEMBL_TRANSCRIPT_ID_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.GENE_NAME_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.POLYPHEN_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.RELATIVE_POS_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.SIFT_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.SO_ACCESSION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType.STRAND_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Score.SCORE_DESCRIPTION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Score.SCORE_SCORE_FIELD;
+
+/**
+ * Codec of {@link ConsequenceType}, including its sift and polyphen {@link Score}s, used in the annotations collection
+ */
+public class ConsequenceTypeCodec implements Codec<ConsequenceType> {
+
+    @Override
+    public void encode(BsonWriter writer, ConsequenceType consequenceType, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, GENE_NAME_FIELD, consequenceType.getGeneName());
+        writeString(writer, ENSEMBL_GENE_ID_FIELD, consequenceType.getEnsemblGeneId());
+        writeString(writer, ENSEMBL_TRANSCRIPT_ID_FIELD, consequenceType.getEnsemblTranscriptId());
+        writeString(writer, STRAND_FIELD, consequenceType.getStrand());
+        writeString(writer, BIOTYPE_FIELD, consequenceType.getBiotype());
+        writeInt32(writer, C_DNA_POSITION_FIELD, consequenceType.getcDnaPosition());
+        writeInt32(writer, CDS_POSITION_FIELD, consequenceType.getCdsPosition());
+        writeInt32(writer, AA_POSITION_FIELD, consequenceType.getAaPosition());
+        writeString(writer, AA_CHANGE_FIELD, consequenceType.getAaChange());
+        writeString(writer, CODON_FIELD, consequenceType.getCodon());
+        writeScore(writer, SIFT_FIELD, consequenceType.getSift());
+        writeScore(writer, POLYPHEN_FIELD, consequenceType.getPolyphen());
+        writeInt32s(writer, SO_ACCESSION_FIELD, consequenceType.getSoAccessions());
+        writeInt32(writer, RELATIVE_POS_FIELD, consequenceType.getRelativePosition());
+        writer.writeEndDocument();
+    }
+
+    private void writeScore(BsonWriter writer, String name, Score score) {
+        if (score != null) {
+            writer.writeStartDocument(name);
+            writeDouble(writer, SCORE_SCORE_FIELD, score.getScore());
+            writeString(writer, SCORE_DESCRIPTION_FIELD, score.getDescription());
+            writer.writeEndDocument();
+        }
+    }
+
+    @Override
+    public ConsequenceType decode(BsonReader reader, DecoderContext decoderContext) {
+        ConsequenceType consequenceType = new ConsequenceType();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case GENE_NAME_FIELD:
+                    consequenceType.setGeneName(readString(reader));
+                    break;
+                case ENSEMBL_GENE_ID_FIELD:
+                    consequenceType.setEnsemblGeneId(readString(reader));
+                    break;
+                case ENSEMBL_TRANSCRIPT_ID_FIELD:
+                    consequenceType.setEnsemblTranscriptId(readString(reader));
+                    break;
+                case STRAND_FIELD:
+                    consequenceType.setStrand(readString(reader));
+                    break;
+                case BIOTYPE_FIELD:
+                    consequenceType.setBiotype(readString(reader));
+                    break;
+                case C_DNA_POSITION_FIELD:
+                    consequenceType.setcDnaPosition(readInteger(reader));
+                    break;
+                case CDS_POSITION_FIELD:
+                    consequenceType.setCdsPosition(readInteger(reader));
+                    break;
+                case AA_POSITION_FIELD:
+                    consequenceType.setAaPosition(readInteger(reader));
+                    break;
+                case AA_CHANGE_FIELD:
+                    consequenceType.setAaChange(readString(reader));
+                    break;
+                case CODON_FIELD:
+                    consequenceType.setCodon(readString(reader));
+                    break;
+                case SIFT_FIELD:
+                    consequenceType.setSift(readScore(reader));
+                    break;
+                case POLYPHEN_FIELD:
+                    consequenceType.setPolyphen(readScore(reader));
+                    break;
+                case SO_ACCESSION_FIELD:
+                    Set<Integer> soAccessions = new HashSet<>();
+                    readIntegers(reader, soAccessions);
+                    consequenceType.setSoAccessions(soAccessions);
+                    break;
+                case RELATIVE_POS_FIELD:
+                    consequenceType.setRelativePosition(readInteger(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return consequenceType;
+    }
+
+    private Score readScore(BsonReader reader) {
+        Double score = null;
+        String description = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case SCORE_SCORE_FIELD:
+                    score = readDouble(reader);
+                    break;
+                case SCORE_DESCRIPTION_FIELD:
+                    description = readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new Score(score, description);
+    }
+
+    @Override
+    public Class<ConsequenceType> getEncoderClass() {
+        return ConsequenceType.class;
+    }
+}
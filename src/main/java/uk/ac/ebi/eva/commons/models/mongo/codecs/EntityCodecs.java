@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+
+/**
+ * Codecs that write the Mongo entities straight to BSON, producing the same documents as the Spring Data converter
+ * but without its reflection and intermediate {@link org.bson.Document}s.
+ * <p>
+ * A collection returned by {@link #withEntityCodecs} accepts entities as values of its filters and updates, and as
+ * inserted documents. With {@link MongoCollection#withDocumentClass(Class)}, it can read its documents as
+ * {@link uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument},
+ * {@link uk.ac.ebi.eva.commons.models.mongo.entity.projections.SimplifiedVariant} or
+ * {@link uk.ac.ebi.eva.commons.models.mongo.entity.Annotation}.
+ */
+public final class EntityCodecs {
+
+    /**
+     * Same replacement of the dots in map keys as the Spring Data converter configured in the pipeline
+     */
+    static final char MAP_KEY_DOT_REPLACEMENT = VariantSourceEntryMongo.CHARACTER_TO_REPLACE_DOTS;
+
+    private static final ConsequenceTypeCodec CONSEQUENCE_TYPE_CODEC = new ConsequenceTypeCodec();
+
+    private static final XrefCodec XREF_CODEC = new XrefCodec();
+
+    private static final VariantSourceEntryMongoCodec SOURCE_ENTRY_CODEC = new VariantSourceEntryMongoCodec();
+
+    private static final VariantStatsMongoCodec STATS_CODEC = new VariantStatsMongoCodec();
+
+    private static final VariantAnnotationCodec VARIANT_ANNOTATION_CODEC = new VariantAnnotationCodec();
+
+    public static final CodecRegistry CODEC_REGISTRY = CodecRegistries.fromCodecs(
+            new VariantDocumentCodec(SOURCE_ENTRY_CODEC, STATS_CODEC, VARIANT_ANNOTATION_CODEC),
+            new SimplifiedVariantCodec(),
+            SOURCE_ENTRY_CODEC,
+            STATS_CODEC,
+            VARIANT_ANNOTATION_CODEC,
+            new AnnotationCodec(CONSEQUENCE_TYPE_CODEC, XREF_CODEC),
+            CONSEQUENCE_TYPE_CODEC,
+            XREF_CODEC);
+
+    private EntityCodecs() {
+    }
+
+    /**
+     * @return the same collection, with the entity codecs taking precedence over its own ones
+     */
+    public static <T> MongoCollection<T> withEntityCodecs(MongoCollection<T> collection) {
+        return collection.withCodecRegistry(CodecRegistries.fromRegistries(CODEC_REGISTRY,
+                                                                           collection.getCodecRegistry()));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.mongo.entity.projections.SimplifiedVariant;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.HgvsMongo;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAt;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readInt;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeStrings;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.ALTERNATE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.AT_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.CHROMOSOME_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.END_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.HGVS_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.LENGTH_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.REFERENCE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.START_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.TYPE_FIELD;
+
+/**
+ * Codec of {@link SimplifiedVariant}, the fields of a variant document that don't depend on the studies it is in
+ * <p>
+ * When decoding, the id and the "_at" field are generated again from the coordinates and alleles, and any other field
+ * of the variant document is skipped.
+ */
+public class SimplifiedVariantCodec implements Codec<SimplifiedVariant> {
+
+    private static final String ID_FIELD = "_id";
+
+    @Override
+    public void encode(BsonWriter writer, SimplifiedVariant variant, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, ID_FIELD, variant.getId());
+        if (variant.getVariantType() != null) {
+            writer.writeString(TYPE_FIELD, variant.getVariantType().name());
+        }
+        writeString(writer, CHROMOSOME_FIELD, variant.getChromosome());
+        writer.writeInt32(START_FIELD, variant.getStart());
+        writer.writeInt32(END_FIELD, variant.getEnd());
+        writer.writeInt32(LENGTH_FIELD, variant.getLength());
+        writeString(writer, REFERENCE_FIELD, variant.getReference());
+        writeString(writer, ALTERNATE_FIELD, variant.getAlternate());
+        writeAt(writer, variant.getAt());
+        writeHgvs(writer, variant.getHgvs());
+        writer.writeEndDocument();
+    }
+
+    static void writeAt(BsonWriter writer, VariantAt at) {
+        if (at != null) {
+            writer.writeStartDocument(AT_FIELD);
+            writeStrings(writer, VariantAt.CHUNK_IDS_FIELD, at.getChunkIds());
+            writer.writeEndDocument();
+        }
+    }
+
+    static void writeHgvs(BsonWriter writer, Set<HgvsMongo> hgvsSet) {
+        if (hgvsSet != null) {
+            writer.writeStartArray(HGVS_FIELD);
+            for (HgvsMongo hgvs : hgvsSet) {
+                writer.writeStartDocument();
+                writeString(writer, HgvsMongo.TYPE_FIELD, hgvs.getType());
+                writeString(writer, HgvsMongo.NAME_FIELD, hgvs.getName());
+                writer.writeEndDocument();
+            }
+            writer.writeEndArray();
+        }
+    }
+
+    @Override
+    public SimplifiedVariant decode(BsonReader reader, DecoderContext decoderContext) {
+        Variant.VariantType variantType = null;
+        String chromosome = null;
+        int start = 0;
+        int end = 0;
+        int length = 0;
+        String reference = null;
+        String alternate = null;
+        Map<String, Set<String>> hgvs = new HashMap<>();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case TYPE_FIELD:
+                    String type = readString(reader);
+                    variantType = type == null ? null : Variant.VariantType.valueOf(type);
+                    break;
+                case CHROMOSOME_FIELD:
+                    chromosome = readString(reader);
+                    break;
+                case START_FIELD:
+                    start = readInt(reader);
+                    break;
+                case END_FIELD:
+                    end = readInt(reader);
+                    break;
+                case LENGTH_FIELD:
+                    length = readInt(reader);
+                    break;
+                case REFERENCE_FIELD:
+                    reference = readString(reader);
+                    break;
+                case ALTERNATE_FIELD:
+                    alternate = readString(reader);
+                    break;
+                case HGVS_FIELD:
+                    readHgvs(reader, hgvs);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new SimplifiedVariant(variantType, chromosome, start, end, length, reference, alternate, hgvs);
+    }
+
+    static void readHgvs(BsonReader reader, Map<String, Set<String>> hgvs) {
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String type = null;
+            String name = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case HgvsMongo.TYPE_FIELD:
+                        type = readString(reader);
+                        break;
+                    case HgvsMongo.NAME_FIELD:
+                        name = readString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            hgvs.computeIfAbsent(type, key -> new HashSet<>()).add(name);
+        }
+        reader.readEndArray();
+    }
+
+    @Override
+    public Class<SimplifiedVariant> getEncoderClass() {
+        return SimplifiedVariant.class;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readDoubles;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readIntegers;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readStrings;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeDoubles;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeInt32s;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeStrings;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.POLYPHEN_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.SIFT_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.SO_ACCESSION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.VEP_CACHE_VERSION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.VEP_VERSION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.XREFS_FIELD;
+
+/**
+ * Codec of {@link VariantAnnotation}, the "annot" subdocuments of a variant
+ */
+public class VariantAnnotationCodec implements Codec<VariantAnnotation> {
+
+    @Override
+    public void encode(BsonWriter writer, VariantAnnotation annotation, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, VEP_VERSION_FIELD, annotation.getVepVersion());
+        writeString(writer, VEP_CACHE_VERSION_FIELD, annotation.getVepCacheVersion());
+        writeDoubles(writer, SIFT_FIELD, annotation.getSifts());
+        writeDoubles(writer, POLYPHEN_FIELD, annotation.getPolyphens());
+        writeInt32s(writer, SO_ACCESSION_FIELD, annotation.getSoAccessions());
+        writeStrings(writer, XREFS_FIELD, annotation.getXrefIds());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public VariantAnnotation decode(BsonReader reader, DecoderContext decoderContext) {
+        String vepVersion = null;
+        String vepCacheVersion = null;
+        List<Double> sifts = null;
+        List<Double> polyphens = null;
+        Set<Integer> soAccessions = new HashSet<>();
+        Set<String> xrefIds = new HashSet<>();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case VEP_VERSION_FIELD:
+                    vepVersion = readString(reader);
+                    break;
+                case VEP_CACHE_VERSION_FIELD:
+                    vepCacheVersion = readString(reader);
+                    break;
+                case SIFT_FIELD:
+                    sifts = new ArrayList<>();
+                    readDoubles(reader, sifts);
+                    break;
+                case POLYPHEN_FIELD:
+                    polyphens = new ArrayList<>();
+                    readDoubles(reader, polyphens);
+                    break;
+                case SO_ACCESSION_FIELD:
+                    readIntegers(reader, soAccessions);
+                    break;
+                case XREFS_FIELD:
+                    readStrings(reader, xrefIds);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new VariantAnnotation(vepVersion, vepCacheVersion, sifts, polyphens, soAccessions, xrefIds);
+    }
+
+    @Override
+    public Class<VariantAnnotation> getEncoderClass() {
+        return VariantAnnotation.class;
+    }
+}
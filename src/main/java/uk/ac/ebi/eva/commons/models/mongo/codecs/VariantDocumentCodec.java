@@ -0,0 +1,194 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readInt;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readStrings;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.SimplifiedVariantCodec.readHgvs;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeStrings;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.SimplifiedVariantCodec.writeAt;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.SimplifiedVariantCodec.writeHgvs;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.ALTERNATE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.ANNOTATION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.CHROMOSOME_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.END_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.FILES_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.HGVS_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.IDS_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.LENGTH_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.REFERENCE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.START_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.STATS_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.TYPE_FIELD;
+
+/**
+ * Codec of a whole {@link VariantDocument}, used to insert the variants that are not in the database yet
+ * <p>
+ * When decoding, the id and the "_at" field are generated again from the coordinates and alleles, the same as
+ * {@link SimplifiedVariantCodec} does.
+ */
+public class VariantDocumentCodec implements Codec<VariantDocument> {
+
+    private static final String ID_FIELD = "_id";
+
+    private final VariantSourceEntryMongoCodec sourceEntryCodec;
+
+    private final VariantStatsMongoCodec statsCodec;
+
+    private final VariantAnnotationCodec annotationCodec;
+
+    public VariantDocumentCodec(VariantSourceEntryMongoCodec sourceEntryCodec, VariantStatsMongoCodec statsCodec,
+                                VariantAnnotationCodec annotationCodec) {
+        this.sourceEntryCodec = sourceEntryCodec;
+        this.statsCodec = statsCodec;
+        this.annotationCodec = annotationCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, VariantDocument variant, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, ID_FIELD, variant.getId());
+        if (variant.getVariantType() != null) {
+            writer.writeString(TYPE_FIELD, variant.getVariantType().name());
+        }
+        writeString(writer, CHROMOSOME_FIELD, variant.getChromosome());
+        writer.writeInt32(START_FIELD, variant.getStart());
+        writer.writeInt32(END_FIELD, variant.getEnd());
+        writer.writeInt32(LENGTH_FIELD, variant.getLength());
+        writeString(writer, REFERENCE_FIELD, variant.getReference());
+        writeString(writer, ALTERNATE_FIELD, variant.getAlternate());
+        writeAt(writer, variant.getAt());
+        writeHgvs(writer, variant.getHgvs());
+        writeStrings(writer, IDS_FIELD, variant.getIds());
+        writeArray(writer, FILES_FIELD, sourceEntryCodec, variant.getVariantSources(), encoderContext);
+        writeArray(writer, STATS_FIELD, statsCodec, variant.getVariantStatsMongo(), encoderContext);
+        writeArray(writer, ANNOTATION_FIELD, annotationCodec, variant.getAnnotations(), encoderContext);
+        writer.writeEndDocument();
+    }
+
+    private <T> void writeArray(BsonWriter writer, String name, Codec<T> codec, Collection<T> values,
+                                EncoderContext encoderContext) {
+        if (values != null) {
+            writer.writeStartArray(name);
+            for (T value : values) {
+                encoderContext.encodeWithChildContext(codec, writer, value);
+            }
+            writer.writeEndArray();
+        }
+    }
+
+    @Override
+    public VariantDocument decode(BsonReader reader, DecoderContext decoderContext) {
+        Variant.VariantType variantType = null;
+        String chromosome = null;
+        int start = 0;
+        int end = 0;
+        int length = 0;
+        String reference = null;
+        String alternate = null;
+        Map<String, Set<String>> hgvs = null;
+        Set<String> ids = null;
+        Set<VariantSourceEntryMongo> variantSources = null;
+        Set<VariantStatsMongo> variantStats = null;
+        Set<VariantAnnotation> annotations = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case TYPE_FIELD:
+                    String type = readString(reader);
+                    variantType = type == null ? null : Variant.VariantType.valueOf(type);
+                    break;
+                case CHROMOSOME_FIELD:
+                    chromosome = readString(reader);
+                    break;
+                case START_FIELD:
+                    start = readInt(reader);
+                    break;
+                case END_FIELD:
+                    end = readInt(reader);
+                    break;
+                case LENGTH_FIELD:
+                    length = readInt(reader);
+                    break;
+                case REFERENCE_FIELD:
+                    reference = readString(reader);
+                    break;
+                case ALTERNATE_FIELD:
+                    alternate = readString(reader);
+                    break;
+                case HGVS_FIELD:
+                    hgvs = new HashMap<>();
+                    readHgvs(reader, hgvs);
+                    break;
+                case IDS_FIELD:
+                    ids = new HashSet<>();
+                    readStrings(reader, ids);
+                    break;
+                case FILES_FIELD:
+                    variantSources = readSet(reader, sourceEntryCodec, decoderContext);
+                    break;
+                case STATS_FIELD:
+                    variantStats = readSet(reader, statsCodec, decoderContext);
+                    break;
+                case ANNOTATION_FIELD:
+                    annotations = readSet(reader, annotationCodec, decoderContext);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new VariantDocument(variantType, chromosome, start, end, length, reference, alternate, hgvs, ids,
+                                   variantSources, variantStats, annotations);
+    }
+
+    private <T> Set<T> readSet(BsonReader reader, Codec<T> codec, DecoderContext decoderContext) {
+        Set<T> values = new HashSet<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(decoderContext.decodeWithChildContext(codec, reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    @Override
+    public Class<VariantDocument> getEncoderClass() {
+        return VariantDocument.class;
+    }
+}
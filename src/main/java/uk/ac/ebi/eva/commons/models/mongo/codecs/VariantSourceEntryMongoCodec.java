@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import com.mongodb.BasicDBObject;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readMap;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readStrings;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeMap;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeStrings;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo.ALTERNATES_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo.ATTRIBUTES_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo.FILEID_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo.FORMAT_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo.SAMPLES_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo.STUDYID_FIELD;
+
+/**
+ * Codec of {@link VariantSourceEntryMongo}, the "files" subdocuments of a variant
+ * <p>
+ * When decoding, the attributes and samples are kept as they are stored: the "src" attribute stays compressed, and
+ * the samples of each genotype stay as a list of indexes or packed.
+ */
+public class VariantSourceEntryMongoCodec implements Codec<VariantSourceEntryMongo> {
+
+    @Override
+    public void encode(BsonWriter writer, VariantSourceEntryMongo sourceEntry, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, FILEID_FIELD, sourceEntry.getFileId());
+        writeString(writer, STUDYID_FIELD, sourceEntry.getStudyId());
+        if (sourceEntry.getAlternates() != null) {
+            writeStrings(writer, ALTERNATES_FIELD, Arrays.asList(sourceEntry.getAlternates()));
+        }
+        writeMap(writer, ATTRIBUTES_FIELD, sourceEntry.getAttrs());
+        writeString(writer, FORMAT_FIELD, sourceEntry.getFormat());
+        writeMap(writer, SAMPLES_FIELD, sourceEntry.getSamp());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public VariantSourceEntryMongo decode(BsonReader reader, DecoderContext decoderContext) {
+        String fileId = null;
+        String studyId = null;
+        String[] alternates = null;
+        BasicDBObject attrs = null;
+        String format = null;
+        BasicDBObject samp = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case FILEID_FIELD:
+                    fileId = readString(reader);
+                    break;
+                case STUDYID_FIELD:
+                    studyId = readString(reader);
+                    break;
+                case ALTERNATES_FIELD:
+                    List<String> alternatesList = new ArrayList<>();
+                    readStrings(reader, alternatesList);
+                    alternates = alternatesList.toArray(new String[0]);
+                    break;
+                case ATTRIBUTES_FIELD:
+                    attrs = new BasicDBObject(readMap(reader, BsonValues::readValue));
+                    break;
+                case FORMAT_FIELD:
+                    format = readString(reader);
+                    break;
+                case SAMPLES_FIELD:
+                    samp = new BasicDBObject(readMap(reader, BsonValues::readValue));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new VariantSourceEntryMongo(fileId, studyId, alternates, attrs, format, samp);
+    }
+
+    @Override
+    public Class<VariantSourceEntryMongo> getEncoderClass() {
+        return VariantSourceEntryMongo.class;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo;
+
+import java.util.Map;
+
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readDouble;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readInt;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readMap;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeMap;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeString;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.COHORT_ID;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.FILE_ID;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.MAFALLELE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.MAF_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.MGFGENOTYPE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.MGF_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.MISSALLELE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.MISSGENOTYPE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.NUMGT_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo.STUDY_ID;
+
+/**
+ * Codec of {@link VariantStatsMongo}, the "st" subdocuments of a variant
+ * <p>
+ * The frequencies are written as doubles, the same as the driver does with the floats left by the Spring Data
+ * converter, and read back as floats.
+ */
+public class VariantStatsMongoCodec implements Codec<VariantStatsMongo> {
+
+    @Override
+    public void encode(BsonWriter writer, VariantStatsMongo stats, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, STUDY_ID, stats.getStudyId());
+        writeString(writer, FILE_ID, stats.getFileId());
+        writeString(writer, COHORT_ID, stats.getCohortId());
+        writer.writeDouble(MAF_FIELD, stats.getMaf());
+        writer.writeDouble(MGF_FIELD, stats.getMgf());
+        writeString(writer, MAFALLELE_FIELD, stats.getMafAllele());
+        writeString(writer, MGFGENOTYPE_FIELD, stats.getMgfGenotype());
+        writer.writeInt32(MISSALLELE_FIELD, stats.getMissingAlleles());
+        writer.writeInt32(MISSGENOTYPE_FIELD, stats.getMissingGenotypes());
+        writeMap(writer, NUMGT_FIELD, stats.getNumGt());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public VariantStatsMongo decode(BsonReader reader, DecoderContext decoderContext) {
+        String studyId = null;
+        String fileId = null;
+        String cohortId = null;
+        float maf = 0;
+        float mgf = 0;
+        String mafAllele = null;
+        String mgfGenotype = null;
+        int missingAlleles = 0;
+        int missingGenotypes = 0;
+        Map<String, Integer> numGt = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case STUDY_ID:
+                    studyId = readString(reader);
+                    break;
+                case FILE_ID:
+                    fileId = readString(reader);
+                    break;
+                case COHORT_ID:
+                    cohortId = readString(reader);
+                    break;
+                case MAF_FIELD:
+                    maf = readFloat(reader);
+                    break;
+                case MGF_FIELD:
+                    mgf = readFloat(reader);
+                    break;
+                case MAFALLELE_FIELD:
+                    mafAllele = readString(reader);
+                    break;
+                case MGFGENOTYPE_FIELD:
+                    mgfGenotype = readString(reader);
+                    break;
+                case MISSALLELE_FIELD:
+                    missingAlleles = readInt(reader);
+                    break;
+                case MISSGENOTYPE_FIELD:
+                    missingGenotypes = readInt(reader);
+                    break;
+                case NUMGT_FIELD:
+                    numGt = readMap(reader, BsonValues::readInteger);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new VariantStatsMongo(studyId, fileId, cohortId, maf, mgf, mafAllele, mgfGenotype, missingAlleles,
+                                     missingGenotypes, numGt);
+    }
+
+    private float readFloat(BsonReader reader) {
+        Double value = readDouble(reader);
+        return value == null ? 0 : value.floatValue();
+    }
+
+    @Override
+    public Class<VariantStatsMongo> getEncoderClass() {
+        return VariantStatsMongo.class;
+    }
+}
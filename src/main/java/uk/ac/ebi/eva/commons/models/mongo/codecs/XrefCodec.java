@@ -0,0 +1,68 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Xref;
+
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.commons.models.mongo.codecs.BsonValues.writeString;
+
+/**
+ * Codec of {@link Xref}, used in the annotations collection
+ */
+public class XrefCodec implements Codec<Xref> {
+
+    @Override
+    public void encode(BsonWriter writer, Xref xref, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, Xref.XREF_ID_FIELD, xref.getId());
+        writeString(writer, Xref.XREF_SOURCE_FIELD, xref.getSrc());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Xref decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String src = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case Xref.XREF_ID_FIELD:
+                    id = readString(reader);
+                    break;
+                case Xref.XREF_SOURCE_FIELD:
+                    src = readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new Xref(id, src);
+    }
+
+    @Override
+    public Class<Xref> getEncoderClass() {
+        return Xref.class;
+    }
+}
@@ -88,6 +88,21 @@ public class Annotation {
         this.consequenceTypes = new HashSet<>();
     }
 
+    /**
+     * Constructor of an annotation read from the database, where the alleles are only kept in the id
+     */
+    public Annotation(String id, String chromosome, int start, int end, String vepVersion, String vepCacheVersion) {
+        this.id = id;
+        this.chromosome = chromosome;
+        this.start = start;
+        this.end = end;
+        this.vepVersion = vepVersion;
+        this.vepCacheVersion = vepCacheVersion;
+
+        this.xrefs = new HashSet<>();
+        this.consequenceTypes = new HashSet<>();
+    }
+
     /**
      * Private copy constructor
      *
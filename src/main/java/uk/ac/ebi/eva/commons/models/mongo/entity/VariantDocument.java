@@ -116,6 +116,20 @@ public class VariantDocument {
     public VariantDocument(Variant.VariantType variantType, String chromosome, int start, int end, int length,
                            String reference, String alternate, Map<String, Set<String>> hgvs, Set<String> ids,
                            Set<VariantSourceEntryMongo> variantSources) {
+        this(variantType, chromosome, start, end, length, reference, alternate, hgvs, ids, variantSources, null);
+    }
+
+    public VariantDocument(Variant.VariantType variantType, String chromosome, int start, int end, int length,
+                           String reference, String alternate, Map<String, Set<String>> hgvs, Set<String> ids,
+                           Set<VariantSourceEntryMongo> variantSources, Set<VariantStatsMongo> variantStatsMongo) {
+        this(variantType, chromosome, start, end, length, reference, alternate, hgvs, ids, variantSources,
+             variantStatsMongo, null);
+    }
+
+    public VariantDocument(Variant.VariantType variantType, String chromosome, int start, int end, int length,
+                           String reference, String alternate, Map<String, Set<String>> hgvs, Set<String> ids,
+                           Set<VariantSourceEntryMongo> variantSources, Set<VariantStatsMongo> variantStatsMongo,
+                           Set<VariantAnnotation> annotations) {
         this.id = buildVariantId(chromosome, start, reference, alternate);
         this.variantType = variantType;
         this.chromosome = chromosome;
@@ -134,6 +148,12 @@ public class VariantDocument {
         if (variantSources != null) {
             this.variantSources = new HashSet<>(variantSources);
         }
+        if (variantStatsMongo != null) {
+            this.variantStatsMongo = new HashSet<>(variantStatsMongo);
+        }
+        if (annotations != null) {
+            this.annotations = new HashSet<>(annotations);
+        }
     }
 
     public VariantDocument(Variant.VariantType variantType, String chromosome, int start, int end, int length,
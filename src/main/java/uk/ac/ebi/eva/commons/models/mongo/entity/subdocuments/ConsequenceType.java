@@ -25,25 +25,25 @@ import java.util.Set;
  */
 public class ConsequenceType {
 
-    private static final String GENE_NAME_FIELD = "gn";
+    public static final String GENE_NAME_FIELD = "gn";
 
-    private static final String ENSEMBL_GENE_ID_FIELD = "ensg";
+    public static final String ENSEMBL_GENE_ID_FIELD = "ensg";
 
-    private static final String ENSEMBL_TRANSCRIPT_ID_FIELD = "enst";
+    public static final String ENSEMBL_TRANSCRIPT_ID_FIELD = "enst";
 
-    private static final String STRAND_FIELD = "strand";
+    public static final String STRAND_FIELD = "strand";
 
-    private static final String BIOTYPE_FIELD = "bt";
+    public static final String BIOTYPE_FIELD = "bt";
 
-    private static final String C_DNA_POSITION_FIELD = "cDnaPos";
+    public static final String C_DNA_POSITION_FIELD = "cDnaPos";
 
-    private static final String CDS_POSITION_FIELD = "cdsPos";
+    public static final String CDS_POSITION_FIELD = "cdsPos";
 
-    private static final String AA_POSITION_FIELD = "aaPos";
+    public static final String AA_POSITION_FIELD = "aaPos";
 
-    private static final String AA_CHANGE_FIELD = "aaChange";
+    public static final String AA_CHANGE_FIELD = "aaChange";
 
-    private static final String CODON_FIELD = "codon";
+    public static final String CODON_FIELD = "codon";
 
     public static final String SIFT_FIELD = "sift";
 
@@ -51,7 +51,7 @@ public class ConsequenceType {
 
     public static final String SO_ACCESSION_FIELD = "so";
 
-    private static final String RELATIVE_POS_FIELD = "relPos";
+    public static final String RELATIVE_POS_FIELD = "relPos";
 
     @Field(value = GENE_NAME_FIELD)
     private String geneName;
@@ -22,9 +22,9 @@ import org.springframework.data.mongodb.core.mapping.Field;
  */
 public class HgvsMongo {
 
-    private static final String TYPE_FIELD = "type";
+    public static final String TYPE_FIELD = "type";
 
-    private static final String NAME_FIELD = "name";
+    public static final String NAME_FIELD = "name";
 
     @Field(TYPE_FIELD)
     private String type;
@@ -40,4 +40,12 @@ public class HgvsMongo {
         this.type = type;
         this.name = name;
     }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Compact encoding of the indexes of the samples with one genotype, stored as binary data in the "samp" subdocument
+ * instead of an array of numbers. The first byte is the format, followed by either:
+ * <ul>
+ * <li>{@link #DELTA_FORMAT}: the difference of each index with the previous one, as unsigned LEB128 varints. Small
+ * for the rare genotypes, which are most of the lists.</li>
+ * <li>{@link #BITMAP_FORMAT}: one bit per sample up to the last index, the lowest bit of each byte first. Small for
+ * the genotypes shared by a large fraction of the samples.</li>
+ * </ul>
+ * The shortest of both is written. The indexes must be in ascending order, as they are classified by genotype.
+ */
+public final class PackedSampleIndexes {
+
+    public static final byte DELTA_FORMAT = 1;
+
+    public static final byte BITMAP_FORMAT = 2;
+
+    private PackedSampleIndexes() {
+    }
+
+    public static byte[] encode(List<Integer> sampleIndexes) {
+        int deltaLength = 1;
+        int previous = 0;
+        for (int sampleIndex : sampleIndexes) {
+            checkAscending(sampleIndex, previous);
+            deltaLength += varintLength(sampleIndex - previous);
+            previous = sampleIndex;
+        }
+        int bitmapLength = sampleIndexes.isEmpty() ? 1 : 1 + (previous >>> 3) + 1;
+
+        if (bitmapLength < deltaLength) {
+            return encodeBitmap(sampleIndexes, bitmapLength);
+        } else {
+            return encodeDeltas(sampleIndexes, deltaLength);
+        }
+    }
+
+    private static void checkAscending(int sampleIndex, int previous) {
+        if (sampleIndex < previous) {
+            throw new IllegalArgumentException("Sample indexes must be in ascending order, found " + sampleIndex
+                                                       + " after " + previous);
+        }
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static byte[] encodeDeltas(List<Integer> sampleIndexes, int length) {
+        byte[] packed = new byte[length];
+        packed[0] = DELTA_FORMAT;
+        int position = 1;
+        int previous = 0;
+        for (int sampleIndex : sampleIndexes) {
+            int delta = sampleIndex - previous;
+            while ((delta & ~0x7f) != 0) {
+                packed[position++] = (byte) ((delta & 0x7f) | 0x80);
+                delta >>>= 7;
+            }
+            packed[position++] = (byte) delta;
+            previous = sampleIndex;
+        }
+        return packed;
+    }
+
+    private static byte[] encodeBitmap(List<Integer> sampleIndexes, int length) {
+        byte[] packed = new byte[length];
+        packed[0] = BITMAP_FORMAT;
+        for (int sampleIndex : sampleIndexes) {
+            packed[1 + (sampleIndex >>> 3)] |= 1 << (sampleIndex & 7);
+        }
+        return packed;
+    }
+
+    /**
+     * Calls the consumer with each sample index, in ascending order.
+     *
+     * @throws IllegalArgumentException If the format is unknown or the data is truncated
+     */
+    public static void decode(byte[] packed, IntConsumer sampleIndexConsumer) {
+        if (packed.length == 0) {
+            throw new IllegalArgumentException("Packed sample indexes without format");
+        }
+        switch (packed[0]) {
+            case DELTA_FORMAT:
+                decodeDeltas(packed, sampleIndexConsumer);
+                break;
+            case BITMAP_FORMAT:
+                decodeBitmap(packed, sampleIndexConsumer);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format of packed sample indexes: " + packed[0]);
+        }
+    }
+
+    private static void decodeDeltas(byte[] packed, IntConsumer sampleIndexConsumer) {
+        int sampleIndex = 0;
+        int position = 1;
+        while (position < packed.length) {
+            int delta = 0;
+            int shift = 0;
+            byte value;
+            do {
+                if (position == packed.length) {
+                    throw new IllegalArgumentException("Truncated packed sample indexes");
+                }
+                value = packed[position++];
+                delta |= (value & 0x7f) << shift;
+                shift += 7;
+            } while ((value & 0x80) != 0);
+            sampleIndex += delta;
+            sampleIndexConsumer.accept(sampleIndex);
+        }
+    }
+
+    private static void decodeBitmap(byte[] packed, IntConsumer sampleIndexConsumer) {
+        for (int position = 1; position < packed.length; position++) {
+            int bits = packed[position] & 0xff;
+            while (bits != 0) {
+                int bit = Integer.numberOfTrailingZeros(bits);
+                sampleIndexConsumer.accept(((position - 1) << 3) + bit);
+                bits &= bits - 1;
+            }
+        }
+    }
+}
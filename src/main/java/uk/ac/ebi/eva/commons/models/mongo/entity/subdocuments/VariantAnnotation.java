@@ -79,6 +79,19 @@ public class VariantAnnotation {
         this.vepCacheVersion = vepCacheVersion;
     }
 
+    /**
+     * Variant annotation with the values as they are stored in the database
+     */
+    public VariantAnnotation(String vepVersion, String vepCacheVersion, List<Double> sifts, List<Double> polyphens,
+                             Set<Integer> soAccessions, Set<String> xrefIds) {
+        this.vepVersion = vepVersion;
+        this.vepCacheVersion = vepCacheVersion;
+        this.sifts = sifts;
+        this.polyphens = polyphens;
+        this.soAccessions = soAccessions;
+        this.xrefIds = xrefIds;
+    }
+
     /**
      * Private copy constructor
      *
@@ -25,7 +25,7 @@ import java.util.Set;
  */
 public class VariantAt {
 
-    private static final String CHUNK_IDS_FIELD = "chunkIds";
+    public static final String CHUNK_IDS_FIELD = "chunkIds";
 
     @Field(CHUNK_IDS_FIELD)
     private Set<String> chunkIds;
@@ -39,4 +39,8 @@ public class VariantAt {
         chunkIds.add(chunkSmall);
         chunkIds.add(chunkBig);
     }
+
+    public Set<String> getChunkIds() {
+        return chunkIds;
+    }
 }
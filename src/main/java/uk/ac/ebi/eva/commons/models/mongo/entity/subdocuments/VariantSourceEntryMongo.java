@@ -16,23 +16,24 @@
 package uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments;
 
 import com.mongodb.BasicDBObject;
-import org.opencb.biodata.models.feature.Genotype;
 import org.springframework.data.mongodb.core.mapping.Field;
+import uk.ac.ebi.eva.commons.models.data.EncodedGenotype;
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
 import uk.ac.ebi.eva.utils.CompressionHelper;
 
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * Mongo database representation of Variant Source entry.
  */
 public class VariantSourceEntryMongo {
 
+    private static final int SOURCE_COLUMNS = 8;
+
     public final static char CHARACTER_TO_REPLACE_DOTS = (char) 163; // <-- £
 
     public final static String FILEID_FIELD = "fid";
@@ -82,18 +83,50 @@ public class VariantSourceEntryMongo {
         this.samp = null;
     }
 
+    /**
+     * Builds the samples with a dictionary of their own, which is only worth it for a single entry (e.g. in tests).
+     * The writers of a step use {@link #VariantSourceEntryMongo(String, String, String[], Map, String, List, boolean,
+     * GenotypeDictionary)} with the dictionary of the step instead.
+     */
     public VariantSourceEntryMongo(String fileId, String studyId, String[] alternates, Map<String, String>
             attributes, String format, List<Map<String, String>> samplesData) {
+        this(fileId, studyId, alternates, attributes, format, samplesData, false,
+             new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * @param packedSamples      True to store the samples of each genotype as {@link PackedSampleIndexes} instead of
+     *                           an array of numbers
+     * @param genotypeDictionary where the genotypes of the samples are looked up, shared with the rest of the step
+     */
+    public VariantSourceEntryMongo(String fileId, String studyId, String[] alternates, Map<String, String>
+            attributes, String format, List<Map<String, String>> samplesData, boolean packedSamples,
+                                   GenotypeDictionary genotypeDictionary) {
         this(fileId, studyId, alternates, attributes);
         this.format = format;
-        this.samp = buildSampleData(samplesData);
+        this.samp = buildSampleData(samplesData, packedSamples, genotypeDictionary);
+    }
+
+    /**
+     * Source entry with the attributes and samples as they are stored in the database
+     */
+    public VariantSourceEntryMongo(String fileId, String studyId, String[] alternates, BasicDBObject attrs,
+                                   String format, BasicDBObject samp) {
+        this.fileId = fileId;
+        this.studyId = studyId;
+        this.alternates = alternates;
+        this.attrs = attrs;
+        this.format = format;
+        this.samp = samp;
     }
 
-    private BasicDBObject buildSampleData(List<Map<String, String>> samplesData) {
-        Map<Genotype, List<Integer>> genotypeCodes = classifySamplesByGenotype(samplesData);
+    private BasicDBObject buildSampleData(List<Map<String, String>> samplesData, boolean packedSamples,
+                                          GenotypeDictionary genotypeDictionary) {
+        Map<EncodedGenotype, List<Integer>> genotypeCodes = classifySamplesByGenotype(samplesData,
+                                                                                      genotypeDictionary);
 
-        // Get the most common genotype
-        Map.Entry<Genotype, List<Integer>> longestList = getLongestGenotypeList(genotypeCodes);
+        // Get the most common genotype (the first one that appears, in case of a tie)
+        Map.Entry<EncodedGenotype, List<Integer>> longestList = getLongestGenotypeList(genotypeCodes);
 
         // In Mongo, samples are stored in a map, classified by their genotype.
         // The most common genotype will be marked as "default" and the specific
@@ -101,22 +134,25 @@ public class VariantSourceEntryMongo {
         // "def" : 0|0,
         // "0|1" : [ 41, 311, 342, 358, 881, 898, 903 ],
         // "1|0" : [ 262, 290, 300, 331, 343, 369, 374, 391, 879, 918, 930 ]
+        // If the samples are packed, each list is binary data instead, see PackedSampleIndexes.
         BasicDBObject mongoSamples = new BasicDBObject();
-        for (Map.Entry<Genotype, List<Integer>> entry : genotypeCodes.entrySet()) {
-            String genotypeStr = entry.getKey().toString().replace(".", "-1");
+        for (Map.Entry<EncodedGenotype, List<Integer>> entry : genotypeCodes.entrySet()) {
+            String genotypeStr = entry.getKey().getNormalizedValue().replace(".", "-1");
             if (longestList != null && entry.getKey().equals(longestList.getKey())) {
                 mongoSamples.append("def", genotypeStr);
             } else {
-                mongoSamples.append(genotypeStr, entry.getValue());
+                mongoSamples.append(genotypeStr, packedSamples ? PackedSampleIndexes.encode(entry.getValue())
+                                                               : entry.getValue());
             }
         }
 
         return mongoSamples;
     }
 
-    private Map.Entry<Genotype, List<Integer>> getLongestGenotypeList(Map<Genotype, List<Integer>> genotypeCodes) {
-        Map.Entry<Genotype, List<Integer>> longestList = null;
-        for (Map.Entry<Genotype, List<Integer>> entry : genotypeCodes.entrySet()) {
+    private Map.Entry<EncodedGenotype, List<Integer>> getLongestGenotypeList(
+            Map<EncodedGenotype, List<Integer>> genotypeCodes) {
+        Map.Entry<EncodedGenotype, List<Integer>> longestList = null;
+        for (Map.Entry<EncodedGenotype, List<Integer>> entry : genotypeCodes.entrySet()) {
             List<Integer> genotypeList = entry.getValue();
             if (longestList == null || genotypeList.size() > longestList.getValue().size()) {
                 longestList = entry;
@@ -125,13 +161,17 @@ public class VariantSourceEntryMongo {
         return longestList;
     }
 
-    private Map<Genotype, List<Integer>> classifySamplesByGenotype(List<Map<String, String>> samplesData) {
-        Map<Genotype, List<Integer>> genotypeCodes = new HashMap<>();
+    private Map<EncodedGenotype, List<Integer>> classifySamplesByGenotype(List<Map<String, String>> samplesData,
+                                                                          GenotypeDictionary genotypeDictionary) {
+        if (samplesData instanceof SamplesData) {
+            return classifySamplesByGenotype((SamplesData) samplesData, genotypeDictionary);
+        }
+        Map<EncodedGenotype, List<Integer>> genotypeCodes = new LinkedHashMap<>();
 
         for (int i = 0; i < samplesData.size(); i++) {
             String genotype = samplesData.get(i).get("GT");
             if (genotype != null) {
-                Genotype g = new Genotype(genotype);
+                EncodedGenotype g = genotypeDictionary.get(genotype);
                 List<Integer> samplesWithGenotype = genotypeCodes.get(g);
                 if (samplesWithGenotype == null) {
                     samplesWithGenotype = new ArrayList<>();
@@ -143,22 +183,40 @@ public class VariantSourceEntryMongo {
         return genotypeCodes;
     }
 
+    /**
+     * Same as {@link #classifySamplesByGenotype(List, GenotypeDictionary)}, but reading the genotype column directly,
+     * so each distinct genotype is looked up only once.
+     */
+    private Map<EncodedGenotype, List<Integer>> classifySamplesByGenotype(SamplesData samplesData,
+                                                                          GenotypeDictionary genotypeDictionary) {
+        Map<EncodedGenotype, List<Integer>> genotypeCodes = new LinkedHashMap<>();
+        int genotypeColumn = samplesData.getColumnIndex("GT");
+        if (genotypeColumn < 0) {
+            return genotypeCodes;
+        }
+
+        List<String> genotypes = samplesData.getDistinctValues(genotypeColumn);
+        List<List<Integer>> samplesByCode = new ArrayList<>(genotypes.size());
+        for (String genotype : genotypes) {
+            samplesByCode.add(genotypeCodes.computeIfAbsent(genotypeDictionary.get(genotype),
+                                                            g -> new ArrayList<>()));
+        }
+        for (int i = 0; i < samplesData.size(); i++) {
+            int code = samplesData.getCode(i, genotypeColumn);
+            if (code != SamplesData.MISSING_CODE) {
+                samplesByCode.get(code).add(i);
+            }
+        }
+        genotypeCodes.values().removeIf(List::isEmpty);
+        return genotypeCodes;
+    }
+
     private BasicDBObject buildAttributes(Map<String, String> attributes) {
         BasicDBObject attrs = null;
         for (Map.Entry<String, String> entry : attributes.entrySet()) {
             Object value = entry.getValue();
             if (entry.getKey().equals("src")) {
-                String[] fields = entry.getValue().split("\t");
-                StringBuilder sb = new StringBuilder();
-                sb.append(fields[0]);
-                for (int i = 1; i < fields.length && i < 8; i++) {
-                    sb.append("\t").append(fields[i]);
-                }
-                try {
-                    value = CompressionHelper.gzip(sb.toString());
-                } catch (IOException ex) {
-                    Logger.getLogger(VariantSourceEntryMongo.class.getName()).log(Level.SEVERE, null, ex);
-                }
+                value = CompressionHelper.gzip(keepFixedColumns(entry.getValue()));
             }
 
             if (attrs == null) {
@@ -170,4 +228,43 @@ public class VariantSourceEntryMongo {
         return attrs;
     }
 
+    /**
+     * Keeps the first 8 columns of a VCF line, from CHROM to INFO. The VCF factories already cut the line when they
+     * parse it, so usually there is nothing to remove.
+     */
+    private static String keepFixedColumns(String line) {
+        int end = -1;
+        for (int column = 0; column < SOURCE_COLUMNS; column++) {
+            end = line.indexOf('\t', end + 1);
+            if (end < 0) {
+                return line;
+            }
+        }
+        return line.substring(0, end);
+    }
+
+    public String getFileId() {
+        return fileId;
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public String[] getAlternates() {
+        return alternates;
+    }
+
+    public BasicDBObject getAttrs() {
+        return attrs;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public BasicDBObject getSamp() {
+        return samp;
+    }
+
 }
@@ -95,6 +95,24 @@ public class VariantStatsMongo {
 
     }
 
+    /**
+     * Statistics with the genotype counts as they are stored in the database
+     */
+    public VariantStatsMongo(String studyId, String fileId, String cohortId, float maf, float mgf, String mafAllele,
+                             String mgfGenotype, int missingAlleles, int missingGenotypes,
+                             Map<String, Integer> numGt) {
+        this.studyId = studyId;
+        this.fileId = fileId;
+        this.cohortId = cohortId;
+        this.maf = maf;
+        this.mgf = mgf;
+        this.mafAllele = mafAllele;
+        this.mgfGenotype = mgfGenotype;
+        this.missingAlleles = missingAlleles;
+        this.missingGenotypes = missingGenotypes;
+        this.numGt = numGt;
+    }
+
     private Map<String, Integer> buildGenotypes(Map<Genotype, Integer> genotypesCount) {
         Map<String,Integer> genotypes = new HashMap<>();
         for (Map.Entry<Genotype, Integer> g : genotypesCount.entrySet()) {
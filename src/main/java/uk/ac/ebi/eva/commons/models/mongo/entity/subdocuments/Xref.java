@@ -24,7 +24,7 @@ public class Xref {
 
     public final static String XREF_ID_FIELD = "id";
 
-    private final static String XREF_SOURCE_FIELD = "src";
+    public final static String XREF_SOURCE_FIELD = "src";
 
     @Field(value = XREF_ID_FIELD)
     private String id;
@@ -45,6 +45,10 @@ public class Xref {
         return id;
     }
 
+    public String getSrc() {
+        return src;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -25,36 +25,57 @@ public class BeanNames {
     public static final String VARIANTS_READER = "variants-reader";
     public static final String VARIANT_ANNOTATION_READER = "variant-annotation-reader";
     public static final String VARIANT_READER = "variant-reader";
+    public static final String VARIANT_STATISTICS_READER = "variant-statistics-reader";
+    public static final String STUDY_VARIANTS_READER = "study-variants-reader";
+    public static final String SINGLE_STUDY_VARIANTS_READER = "single-study-variants-reader";
 
     public static final String VEP_ANNOTATION_PROCESSOR = "vep-annotation-processor";
-    public static final String ANNOTATION_PARSER_PROCESSOR = "annotation-parser-processor";
     public static final String ANNOTATION_COMPOSITE_PROCESSOR = "annotation-composite-processor";
+    public static final String VARIANT_STATISTICS_PROCESSOR = "variant-statistics-processor";
+    public static final String VARIANT_PROCESSOR = "variant-processor";
 
     public static final String GENE_WRITER = "gene-writer";
     public static final String ANNOTATION_WRITER = "annotation-writer";
     public static final String ANNOTATION_IN_VARIANT_WRITER = "annotation-in-variant-writer";
     public static final String COMPOSITE_ANNOTATION_VARIANT_WRITER = "composite-annotation-variant-writer";
     public static final String VARIANT_WRITER = "variant-writer";
+    public static final String VARIANT_STATISTICS_WRITER = "variant-statistics-writer";
+    public static final String DROP_VARIANTS_BY_STUDY_WRITER = "drop-variants-by-study-writer";
+    public static final String PULL_FILES_AND_STATISTICS_BY_STUDY_WRITER = "pull-files-and-statistics-by-study-writer";
 
     public static final String ANNOTATION_SKIP_STEP_DECIDER = "annotation-skip-step-decider";
     public static final String STATISTICS_SKIP_STEP_DECIDER = "statistics-skip-step-decider";
+    public static final String DEFERRED_INDEXES_STEP_DECIDER = "deferred-indexes-step-decider";
+    public static final String LOAD_BY_REGION_DECIDER = "load-by-region-decider";
+
+    public static final String VARIANT_REGION_PARTITIONER = "variant-region-partitioner";
+    public static final String VCF_REGION_PARTITIONER = "vcf-region-partitioner";
+    public static final String STUDY_VARIANT_REGION_PARTITIONER = "study-variant-region-partitioner";
 
     public static final String VEP_ANNOTATION_FLOW = "vep-annotation-flow";
     public static final String VEP_ANNOTATION_OPTIONAL_FLOW = "vep-annotation-optional.flow";
     public static final String PARALLEL_STATISTICS_AND_ANNOTATION = "parallel-statistics-and-annotation-flow";
     public static final String CALCULATE_STATISTICS_FLOW = "calculate-statistics-flow";
     public static final String CALCULATE_STATISTICS_OPTIONAL_FLOW = "calculate-statistics-optional-flow";
+    public static final String CREATE_DEFERRED_INDEXES_OPTIONAL_FLOW = "create-deferred-indexes-optional-flow";
+    public static final String LOAD_VARIANTS_FLOW = "load-variants-flow";
 
     public static final String LOAD_VEP_ANNOTATION_STEP = "load-vep-annotation-step";
-    public static final String CALCULATE_STATISTICS_STEP = "calculate-statistics-step";
+    public static final String CALCULATE_AND_LOAD_STATISTICS_STEP = "calculate-and-load-statistics-step";
     public static final String CREATE_DATABASE_INDEXES_STEP = "create-database-indexes-step";
+    public static final String CREATE_DEFERRED_INDEXES_STEP = "create-deferred-indexes-step";
     public static final String LOAD_FEATURE_COORDINATES_STEP = "load-feature-coordinates-step";
     public static final String GENERATE_VEP_ANNOTATION_STEP = "generate-vep-annotation";
-    public static final String LOAD_STATISTICS_STEP = "load-statistics-step";
+    public static final String GENERATE_VEP_ANNOTATION_PARTITION_STEP = "generate-vep-annotation-partition";
     public static final String LOAD_VARIANTS_STEP = "load-variants-step";
+    public static final String LOAD_VARIANTS_BY_REGION_STEP = "load-variants-by-region-step";
+    public static final String LOAD_VARIANTS_PARTITION_STEP = "load-variants-partition-step";
     public static final String LOAD_FILE_STEP = "load-file-step";
     public static final String DROP_VARIANTS_BY_STUDY_STEP = "drop-variants-by-study-step";
+    public static final String DROP_VARIANTS_BY_STUDY_PARTITION_STEP = "drop-variants-by-study-partition-step";
     public static final String PULL_FILES_AND_STATISTICS_BY_STUDY_STEP = "pull-files-and-statistics-by-study-step";
+    public static final String PULL_FILES_AND_STATISTICS_BY_STUDY_PARTITION_STEP =
+            "pull-files-and-statistics-by-study-partition-step";
     public static final String DROP_FILES_BY_STUDY_STEP = "drop-files-by-study-step";
     public static final String LOAD_ANNOTATION_METADATA_STEP = "annotation-metadata-step";
 
@@ -19,20 +19,45 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
 
+import uk.ac.ebi.eva.pipeline.io.writers.BulkWriteStatistics;
 import uk.ac.ebi.eva.pipeline.parameters.ChunkSizeParameters;
+import uk.ac.ebi.eva.pipeline.policies.AdaptiveChunkSizeCompletionPolicy;
 
 /**
  * Spring configuration to inject a SimplecompletionPolicy that modifies the chunk size with the configured
  * JobParameters chunk size.
+ * <p>
+ * If a target size or a maximum write latency of the chunks is configured, an {@link AdaptiveChunkSizeCompletionPolicy}
+ * starts with that chunk size and resizes the chunks from the writes recorded in the {@link BulkWriteStatistics} of the
+ * step.
  */
 @Configuration
 public class ChunkSizeCompletionPolicyConfiguration {
 
+    /**
+     * Not proxied, so that the writer can record in it from threads other than the one running the step. The writer and
+     * the completion policy are created while the step runs, so both get the instance of the step.
+     */
+    @Bean
+    @Scope(value = "step", proxyMode = ScopedProxyMode.NO)
+    public BulkWriteStatistics bulkWriteStatistics() {
+        return new BulkWriteStatistics();
+    }
+
     @Bean
     @StepScope
-    public SimpleCompletionPolicy chunkSizecompletionPolicy(ChunkSizeParameters chunkSizeParameters) {
-        return new SimpleCompletionPolicy(chunkSizeParameters.getChunkSize());
+    public SimpleCompletionPolicy chunkSizecompletionPolicy(ChunkSizeParameters chunkSizeParameters,
+                                                            BulkWriteStatistics bulkWriteStatistics) {
+        Long targetBytes = chunkSizeParameters.getTargetBytes();
+        Long maxWriteLatency = chunkSizeParameters.getMaxWriteLatency();
+        if (targetBytes == null && maxWriteLatency == null) {
+            return new SimpleCompletionPolicy(chunkSizeParameters.getChunkSize());
+        }
+        return new AdaptiveChunkSizeCompletionPolicy(chunkSizeParameters.getChunkSize(), bulkWriteStatistics,
+                                                     targetBytes, maxWriteLatency);
     }
 
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
+
+/**
+ * Dictionary of the genotypes shared by the VCF parser, the conversion of the samples to Mongo and the calculation of
+ * statistics of a step, so each distinct genotype is parsed once per step and is forgotten when the step finishes.
+ * <p>
+ * It is step scoped rather than job scoped because the job scope is not available in the steps of the parallel flows
+ * (see {@link uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters}). It is not proxied, so that the parser threads
+ * use the instance of the step directly.
+ */
+@Configuration
+public class GenotypeDictionaryConfiguration {
+
+    @Bean
+    @Scope(value = "step", proxyMode = ScopedProxyMode.NO)
+    public GenotypeDictionary genotypeDictionary() {
+        return new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE);
+    }
+
+}
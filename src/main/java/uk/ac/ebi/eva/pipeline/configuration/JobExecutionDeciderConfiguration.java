@@ -20,14 +20,19 @@ import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import uk.ac.ebi.eva.pipeline.jobs.deciders.DoStepDecider;
+import uk.ac.ebi.eva.pipeline.jobs.deciders.LoadByRegionDecider;
 import uk.ac.ebi.eva.pipeline.jobs.deciders.SkipStepDecider;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.ANNOTATION_SKIP_STEP_DECIDER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.DEFERRED_INDEXES_STEP_DECIDER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_BY_REGION_DECIDER;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.STATISTICS_SKIP_STEP_DECIDER;
 
 /**
- * This class defines the beans for the deciders to skip annotation and statistics step.
+ * This class defines the beans for the deciders to skip annotation and statistics step, to build the deferred
+ * indexes, and to load the VCF by regions.
  */
 @Configuration
 @EnableBatchProcessing
@@ -40,7 +45,18 @@ public class JobExecutionDeciderConfiguration {
 
     @Bean(STATISTICS_SKIP_STEP_DECIDER)
     public JobExecutionDecider statisticsSkipStepDecider() {
-        return new SkipStepDecider(JobParametersNames.STATISTICS_SKIP);
+        // if the statistics were calculated while loading the variants, they don't need to be calculated again
+        return new SkipStepDecider(JobParametersNames.STATISTICS_SKIP, JobParametersNames.STATISTICS_DURING_LOAD);
+    }
+
+    @Bean(DEFERRED_INDEXES_STEP_DECIDER)
+    public JobExecutionDecider deferredIndexesStepDecider() {
+        return new DoStepDecider(JobParametersNames.DB_INDEXES_DEFERRED);
+    }
+
+    @Bean(LOAD_BY_REGION_DECIDER)
+    public JobExecutionDecider loadByRegionDecider() {
+        return new LoadByRegionDecider();
     }
 
 }
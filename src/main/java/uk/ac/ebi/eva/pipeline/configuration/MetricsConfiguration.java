@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import uk.ac.ebi.eva.pipeline.metrics.MetricsFileWriter;
+import uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics;
+import uk.ac.ebi.eva.pipeline.metrics.PrometheusScrapeServer;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+
+import static uk.ac.ebi.eva.pipeline.parameters.JobParametersNames.CONFIG_METRICS_OUTPUT;
+import static uk.ac.ebi.eva.pipeline.parameters.JobParametersNames.CONFIG_METRICS_PROMETHEUS_PORT;
+
+/**
+ * This configuration adds to the global Micrometer registry, where the {@link PipelineMetrics} are recorded, a
+ * Prometheus registry that keeps them while the application runs.
+ * <p>
+ * If the property config.metrics.prometheus.port is set, the metrics can be scraped from that port while the job runs.
+ * If the property config.metrics.output is set, the metrics are written into that JSON file when the job finishes.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Value("${" + CONFIG_METRICS_PROMETHEUS_PORT + ":0}")
+    private int prometheusPort;
+
+    @Value("${" + CONFIG_METRICS_OUTPUT + ":}")
+    private String output;
+
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @Bean
+    public PrometheusMeterRegistry prometheusMeterRegistry() {
+        prometheusMeterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        Metrics.addRegistry(prometheusMeterRegistry);
+        return prometheusMeterRegistry;
+    }
+
+    @Bean(destroyMethod = "stop")
+    public PrometheusScrapeServer prometheusScrapeServer(PrometheusMeterRegistry prometheusMeterRegistry)
+            throws IOException {
+        if (prometheusPort <= 0) {
+            return null;
+        }
+        PrometheusScrapeServer server = new PrometheusScrapeServer(prometheusMeterRegistry, prometheusPort);
+        server.start();
+        return server;
+    }
+
+    @Bean
+    public MetricsFileWriter metricsFileWriter(PrometheusMeterRegistry prometheusMeterRegistry) {
+        if (!StringUtils.hasText(output)) {
+            return null;
+        }
+        return new MetricsFileWriter(prometheusMeterRegistry, output);
+    }
+
+    @PreDestroy
+    public void removeRegistry() {
+        if (prometheusMeterRegistry != null) {
+            Metrics.removeRegistry(prometheusMeterRegistry);
+            prometheusMeterRegistry.close();
+        }
+    }
+}
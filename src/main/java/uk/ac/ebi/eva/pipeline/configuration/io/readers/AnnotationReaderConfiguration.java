@@ -21,20 +21,34 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.io.mappers.AnnotationLineMapper;
 import uk.ac.ebi.eva.pipeline.io.readers.AnnotationFlatFileReader;
+import uk.ac.ebi.eva.pipeline.io.readers.MappedFileItemReader;
 import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+import uk.ac.ebi.eva.utils.CompressionHelper;
+
+import java.io.File;
+import java.io.IOException;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_ANNOTATION_READER;
 
 /**
- * Configuration to inject a AnnotationFlatFileReader as a Variant Annotation Reader in the pipeline.
+ * Configuration to inject a AnnotationFlatFileReader as a Variant Annotation Reader in the pipeline. An uncompressed
+ * VEP output is mapped in memory with a {@link MappedFileItemReader} instead.
  */
 @Configuration
 public class AnnotationReaderConfiguration {
 
     @Bean(VARIANT_ANNOTATION_READER)
     @StepScope
-    public ItemStreamReader<Annotation> annotationReader(AnnotationParameters annotationParameters) {
+    public ItemStreamReader<Annotation> annotationReader(AnnotationParameters annotationParameters)
+            throws IOException {
+        File vepOutput = new File(annotationParameters.getVepOutput());
+        if (vepOutput.exists() && !CompressionHelper.isGzip(vepOutput)) {
+            return new MappedFileItemReader<>(new AnnotationLineMapper(annotationParameters.getVepVersion(),
+                                                                       annotationParameters.getVepCacheVersion()),
+                                              vepOutput);
+        }
         return new AnnotationFlatFileReader(annotationParameters.getVepOutput(), annotationParameters.getVepVersion(),
                 annotationParameters.getVepCacheVersion());
     }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.io.readers;
+
+import org.bson.Document;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.io.readers.StudyVariantsMongoReader;
+import uk.ac.ebi.eva.pipeline.parameters.ChunkSizeParameters;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.SINGLE_STUDY_VARIANTS_READER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.STUDY_VARIANTS_READER;
+
+/**
+ * Configuration to inject the readers of the variants of the study to drop: all of them, or only those reported in no
+ * other study.
+ * <p>
+ * When the readers are used in a partitioned step, they only bring the variants of the partition described in the
+ * step execution context.
+ */
+@Configuration
+public class StudyVariantsReaderConfiguration {
+
+    private static final String PARTITION_VARIANTS_QUERY =
+            "#{stepExecutionContext['" + ExecutionContextParametersNames.PARTITION_VARIANTS_QUERY + "']}";
+
+    @Bean(STUDY_VARIANTS_READER)
+    @StepScope
+    public StudyVariantsMongoReader studyVariantsReader(MongoOperations mongoOperations,
+                                                        DatabaseParameters databaseParameters,
+                                                        InputParameters inputParameters,
+                                                        ChunkSizeParameters chunkSizeParameters,
+                                                        @Value(PARTITION_VARIANTS_QUERY) String partitionQuery) {
+        return buildReader(mongoOperations, databaseParameters, inputParameters, chunkSizeParameters, partitionQuery,
+                           false);
+    }
+
+    @Bean(SINGLE_STUDY_VARIANTS_READER)
+    @StepScope
+    public StudyVariantsMongoReader singleStudyVariantsReader(MongoOperations mongoOperations,
+                                                              DatabaseParameters databaseParameters,
+                                                              InputParameters inputParameters,
+                                                              ChunkSizeParameters chunkSizeParameters,
+                                                              @Value(PARTITION_VARIANTS_QUERY) String partitionQuery) {
+        return buildReader(mongoOperations, databaseParameters, inputParameters, chunkSizeParameters, partitionQuery,
+                           true);
+    }
+
+    private StudyVariantsMongoReader buildReader(MongoOperations mongoOperations,
+                                                 DatabaseParameters databaseParameters,
+                                                 InputParameters inputParameters,
+                                                 ChunkSizeParameters chunkSizeParameters, String partitionQuery,
+                                                 boolean singleStudyOnly) {
+        return new StudyVariantsMongoReader(mongoOperations, databaseParameters.getCollectionVariantsName(),
+                                            inputParameters.getStudyId(), singleStudyOnly,
+                                            chunkSizeParameters.getChunkSize(),
+                                            partitionQuery == null ? null : Document.parse(partitionQuery));
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.io.readers;
+
+import org.bson.Document;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.support.SynchronizedItemStreamReader;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.io.readers.VariantStatsMongoReader;
+import uk.ac.ebi.eva.pipeline.parameters.ChunkSizeParameters;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_STATISTICS_READER;
+
+/**
+ * Configuration to inject a VariantStatsMongoReader bean. The reader is synchronized because the statistics step can
+ * process several chunks concurrently.
+ */
+@Configuration
+public class VariantStatsReaderConfiguration {
+
+    @Bean(VARIANT_STATISTICS_READER)
+    @StepScope
+    public ItemStreamReader<Document> variantStatsMongoReader(MongoOperations mongoOperations,
+                                                             DatabaseParameters databaseParameters,
+                                                             InputParameters inputParameters,
+                                                             ChunkSizeParameters chunkSizeParameters)
+            throws Exception {
+        VariantStatsMongoReader variantStatsMongoReader = new VariantStatsMongoReader(
+                mongoOperations,
+                databaseParameters.getCollectionVariantsName(),
+                inputParameters.getStudyId(),
+                inputParameters.getVcfId(),
+                chunkSizeParameters.getChunkSize());
+        variantStatsMongoReader.afterPropertiesSet();
+
+        SynchronizedItemStreamReader<Document> synchronizedReader = new SynchronizedItemStreamReader<>();
+        synchronizedReader.setDelegate(variantStatsMongoReader);
+        return synchronizedReader;
+    }
+
+}
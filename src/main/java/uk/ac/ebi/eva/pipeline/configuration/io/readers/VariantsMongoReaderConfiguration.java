@@ -15,8 +15,10 @@
  */
 package uk.ac.ebi.eva.pipeline.configuration.io.readers;
 
+import org.bson.Document;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.core.MongoOperations;
@@ -26,6 +28,7 @@ import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
 import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
 import uk.ac.ebi.eva.pipeline.parameters.ChunkSizeParameters;
 import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
 
 import java.util.List;
@@ -34,17 +37,25 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANTS_READER;
 
 /**
  * Configuration to inject a VariantsMongoReader bean that reads from a mongo database in the pipeline
+ * <p>
+ * When the reader is used in a partitioned step, it only brings the variants of the partition described in the step
+ * execution context.
  */
 @Configuration
 public class VariantsMongoReaderConfiguration {
 
+    private static final String PARTITION_VARIANTS_QUERY =
+            "#{stepExecutionContext['" + ExecutionContextParametersNames.PARTITION_VARIANTS_QUERY + "']}";
+
     @Bean(VARIANTS_READER)
     @StepScope
     public ItemStreamReader<List<EnsemblVariant>> variantsMongoReader(MongoOperations mongoOperations,
                                                                       DatabaseParameters databaseParameters,
                                                                       InputParameters inputParameters,
                                                                       AnnotationParameters annotationParameters,
-                                                                      ChunkSizeParameters chunkSizeParameters) {
+                                                                      ChunkSizeParameters chunkSizeParameters,
+                                                                      @Value(PARTITION_VARIANTS_QUERY)
+                                                                              String partitionQuery) {
         // to overwrite annotation we have to bring all variants (non annotated and annotated)
         boolean excludeAnnotated = !annotationParameters.getOverwriteAnnotation();
 
@@ -56,7 +67,8 @@ public class VariantsMongoReaderConfiguration {
                 inputParameters.getStudyId(),
                 inputParameters.getVcfId(),
                 excludeAnnotated,
-                chunkSizeParameters.getChunkSize());
+                chunkSizeParameters.getChunkSize(),
+                partitionQuery == null ? null : Document.parse(partitionQuery));
         return variantsMongoReader;
     }
 
@@ -19,30 +19,84 @@ package uk.ac.ebi.eva.pipeline.configuration.io.readers;
 import org.opencb.biodata.models.variant.VariantSource;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.Resource;
 
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
 import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.configuration.GenotypeDictionaryConfiguration;
+import uk.ac.ebi.eva.pipeline.io.BgzfLazyResource;
+import uk.ac.ebi.eva.pipeline.io.mappers.AggregatedVcfLineMapper;
+import uk.ac.ebi.eva.pipeline.io.mappers.VcfLineMapper;
 import uk.ac.ebi.eva.pipeline.io.readers.AggregatedVcfReader;
+import uk.ac.ebi.eva.pipeline.io.readers.MappedFileItemReader;
+import uk.ac.ebi.eva.pipeline.io.readers.ParallelVcfReader;
 import uk.ac.ebi.eva.pipeline.io.readers.UnwindingItemStreamReader;
 import uk.ac.ebi.eva.pipeline.io.readers.VcfReader;
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VcfRegionPartitioner;
+import uk.ac.ebi.eva.pipeline.parameters.ChunkSizeParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
+import uk.ac.ebi.eva.utils.CompressionHelper;
+import uk.ac.ebi.eva.utils.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_READER;
 
 /**
- * Configuration to inject a VcfReader as a Variant Reader bean.
+ * Configuration to inject a VcfReader as a Variant Reader bean. If several parser threads are requested, a
+ * {@link ParallelVcfReader} is used instead, and an uncompressed file read by a single thread is mapped in memory
+ * with a {@link MappedFileItemReader}.
+ * <p>
+ * When the step runs in a partition created by a {@link VcfRegionPartitioner}, only the region of the file of that
+ * partition is read.
  */
 @Configuration
+@Import({GenotypeDictionaryConfiguration.class})
 public class VcfReaderConfiguration {
 
+    private static final String PARTITION_START_OFFSET = "#{stepExecutionContext['"
+            + ExecutionContextParametersNames.PARTITION_VCF_START_OFFSET + "']}";
+
+    private static final String PARTITION_END_OFFSET = "#{stepExecutionContext['"
+            + ExecutionContextParametersNames.PARTITION_VCF_END_OFFSET + "']}";
+
     @Bean(VARIANT_READER)
     @StepScope
-    public ItemStreamReader<Variant> unwindingReader(VcfReader vcfReader) {
-        return new UnwindingItemStreamReader<>(vcfReader);
+    public ItemStreamReader<Variant> unwindingReader(VcfReader vcfReader, InputParameters inputParameters,
+                                                     ParallelismParameters parallelismParameters,
+                                                     ChunkSizeParameters chunkSizeParameters,
+                                                     GenotypeDictionary genotypeDictionary,
+                                                     @Value(PARTITION_START_OFFSET) Long startOffset,
+                                                     @Value(PARTITION_END_OFFSET) Long endOffset)
+            throws IOException {
+        int parserThreads = parallelismParameters.getParserThreads();
+        if (parserThreads > 1) {
+            int linesPerBatch = Math.max(1, chunkSizeParameters.getChunkSize() / parserThreads);
+            Resource resource = vcfResource(inputParameters, parallelismParameters, startOffset, endOffset);
+            LineMapper<List<Variant>> lineMapper = lineMapper(inputParameters, genotypeDictionary);
+            return new UnwindingItemStreamReader<>(new ParallelVcfReader(lineMapper, resource, parserThreads,
+                                                                         linesPerBatch));
+        } else if (isUncompressedFile(inputParameters, startOffset, endOffset)) {
+            File vcfFile = new File(inputParameters.getVcf());
+            LineMapper<List<Variant>> lineMapper = lineMapper(inputParameters, genotypeDictionary);
+            return new UnwindingItemStreamReader<>(new MappedFileItemReader<>(lineMapper, vcfFile));
+        } else {
+            return new UnwindingItemStreamReader<>(vcfReader);
+        }
+    }
+
+    private boolean isUncompressedFile(InputParameters parameters, Long startOffset, Long endOffset)
+            throws IOException {
+        return (startOffset == null || endOffset == null) && !CompressionHelper.isGzip(parameters.getVcf());
     }
 
     /**
@@ -54,17 +108,47 @@ public class VcfReaderConfiguration {
      */
     @Bean
     @StepScope
-    public VcfReader vcfReader(InputParameters parameters) throws IOException {
+    public VcfReader vcfReader(InputParameters parameters, ParallelismParameters parallelismParameters,
+                               GenotypeDictionary genotypeDictionary,
+                               @Value(PARTITION_START_OFFSET) Long startOffset,
+                               @Value(PARTITION_END_OFFSET) Long endOffset) throws IOException {
         String fileId = parameters.getVcfId();
         String studyId = parameters.getStudyId();
-        File vcfFile = new File(parameters.getVcf());
+        Resource resource = vcfResource(parameters, parallelismParameters, startOffset, endOffset);
         VariantSource.Aggregation vcfAggregation = parameters.getVcfAggregation();
 
         if (VariantSource.Aggregation.NONE.equals(vcfAggregation)) {
-            return new VcfReader(fileId, studyId, vcfFile);
+            return new VcfReader(new VcfLineMapper(fileId, studyId, genotypeDictionary), resource);
         } else {
             return new AggregatedVcfReader(fileId, studyId, vcfAggregation, parameters.getAggregatedMappingFile(),
-                    vcfFile);
+                    resource);
+        }
+    }
+
+    /**
+     * The regions of a partitioned file are inflated with fewer threads each, as they are read concurrently.
+     */
+    private Resource vcfResource(InputParameters parameters, ParallelismParameters parallelismParameters,
+                                 Long startOffset, Long endOffset) throws IOException {
+        File vcfFile = new File(parameters.getVcf());
+        if (startOffset == null || endOffset == null) {
+            return FileUtils.getResource(vcfFile);
+        }
+        int inflaterThreads = Math.max(1, Runtime.getRuntime().availableProcessors()
+                / parallelismParameters.getLoadThreads());
+        return new BgzfLazyResource(vcfFile, inflaterThreads, startOffset, endOffset);
+    }
+
+    private LineMapper<List<Variant>> lineMapper(InputParameters parameters, GenotypeDictionary genotypeDictionary)
+            throws IOException {
+        String fileId = parameters.getVcfId();
+        String studyId = parameters.getStudyId();
+        VariantSource.Aggregation vcfAggregation = parameters.getVcfAggregation();
+
+        if (VariantSource.Aggregation.NONE.equals(vcfAggregation)) {
+            return new VcfLineMapper(fileId, studyId, genotypeDictionary);
+        } else {
+            return new AggregatedVcfLineMapper(fileId, studyId, vcfAggregation, parameters.getAggregatedMappingFile());
         }
     }
 
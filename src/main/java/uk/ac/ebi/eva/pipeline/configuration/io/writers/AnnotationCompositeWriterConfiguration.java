@@ -27,6 +27,8 @@ import org.springframework.context.annotation.Profile;
 
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
 import uk.ac.ebi.eva.pipeline.Application;
+import uk.ac.ebi.eva.pipeline.io.writers.WriteBehindItemWriter;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
 
 import java.util.Arrays;
 import java.util.List;
@@ -50,9 +52,10 @@ public class AnnotationCompositeWriterConfiguration {
     @Bean(COMPOSITE_ANNOTATION_VARIANT_WRITER)
     @StepScope
     @Profile(Application.VARIANT_ANNOTATION_MONGO_PROFILE)
-    public CompositeItemWriter<List<Annotation>> compositeAnnotationItemWriter(){
+    public WriteBehindItemWriter<List<Annotation>> compositeAnnotationItemWriter(
+            ParallelismParameters parallelismParameters) {
         CompositeItemWriter<List<Annotation>> writer = new CompositeItemWriter<>();
         writer.setDelegates(Arrays.asList(annotationItemWriter, variantAnnotationItemWriter));
-        return writer;
+        return new WriteBehindItemWriter<>(writer, parallelismParameters.getWriterChunksInFlight());
     }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.io.writers;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.io.writers.DropVariantsByStudyWriter;
+import uk.ac.ebi.eva.pipeline.io.writers.PullFilesAndStatisticsByStudyWriter;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.DROP_VARIANTS_BY_STUDY_WRITER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PULL_FILES_AND_STATISTICS_BY_STUDY_WRITER;
+
+/**
+ * Configuration to inject the writers that remove a study from the variants collection
+ */
+@Configuration
+public class DropStudyWriterConfiguration {
+
+    @Bean(DROP_VARIANTS_BY_STUDY_WRITER)
+    @StepScope
+    public DropVariantsByStudyWriter dropVariantsByStudyWriter(MongoOperations mongoOperations,
+                                                               DatabaseParameters databaseParameters,
+                                                               InputParameters inputParameters) {
+        return new DropVariantsByStudyWriter(mongoOperations, databaseParameters.getCollectionVariantsName(),
+                                             inputParameters.getStudyId());
+    }
+
+    @Bean(PULL_FILES_AND_STATISTICS_BY_STUDY_WRITER)
+    @StepScope
+    public PullFilesAndStatisticsByStudyWriter pullFilesAndStatisticsByStudyWriter(
+            MongoOperations mongoOperations, DatabaseParameters databaseParameters, InputParameters inputParameters) {
+        return new PullFilesAndStatisticsByStudyWriter(mongoOperations, databaseParameters.getCollectionVariantsName(),
+                                                       inputParameters.getStudyId());
+    }
+
+}
@@ -17,14 +17,15 @@
 package uk.ac.ebi.eva.pipeline.configuration.io.writers;
 
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.item.ItemWriter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.core.MongoOperations;
 
 import uk.ac.ebi.eva.pipeline.io.writers.GeneWriter;
+import uk.ac.ebi.eva.pipeline.io.writers.WriteBehindItemWriter;
 import uk.ac.ebi.eva.pipeline.model.FeatureCoordinates;
 import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENE_WRITER;
 
@@ -33,9 +34,11 @@ public class GeneWriterConfiguration {
 
     @Bean(GENE_WRITER)
     @StepScope
-    public ItemWriter<FeatureCoordinates> geneWriter(MongoOperations mongoOperations,
-                                                     DatabaseParameters databaseParameters) {
-        return new GeneWriter(mongoOperations, databaseParameters.getCollectionFeaturesName());
+    public WriteBehindItemWriter<FeatureCoordinates> geneWriter(MongoOperations mongoOperations,
+                                                                DatabaseParameters databaseParameters,
+                                                                ParallelismParameters parallelismParameters) {
+        GeneWriter writer = new GeneWriter(mongoOperations, databaseParameters.getCollectionFeaturesName());
+        return new WriteBehindItemWriter<>(writer, parallelismParameters.getWriterChunksInFlight());
     }
 
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.io.writers;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.io.writers.VariantStatsMongoWriter;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+import uk.ac.ebi.eva.pipeline.parameters.OutputParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_STATISTICS_WRITER;
+
+/**
+ * The concrete type is returned so that the step scoped proxy is also the StepExecutionListener that stores the
+ * statistics of the file.
+ */
+@Configuration
+public class VariantStatsWriterConfiguration {
+
+    @Bean(VARIANT_STATISTICS_WRITER)
+    @StepScope
+    public VariantStatsMongoWriter variantStatsMongoWriter(MongoOperations mongoOperations,
+                                                           DatabaseParameters databaseParameters,
+                                                           InputParameters inputParameters,
+                                                           OutputParameters outputParameters) {
+        return new VariantStatsMongoWriter(mongoOperations, databaseParameters.getCollectionVariantsName(),
+                                           databaseParameters.getCollectionFilesName(),
+                                           inputParameters.getStudyId(), inputParameters.getVcfId(),
+                                           outputParameters.getStatisticsOverwrite());
+    }
+
+}
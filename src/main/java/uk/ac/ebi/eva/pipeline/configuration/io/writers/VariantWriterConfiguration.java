@@ -18,38 +18,56 @@ package uk.ac.ebi.eva.pipeline.configuration.io.writers;
 
 import org.opencb.biodata.models.variant.VariantSource;
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.core.MongoOperations;
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.pipeline.Application;
+import uk.ac.ebi.eva.pipeline.configuration.GenotypeDictionaryConfiguration;
+import uk.ac.ebi.eva.pipeline.io.writers.BulkWriteStatistics;
 import uk.ac.ebi.eva.pipeline.io.writers.VariantMongoWriter;
+import uk.ac.ebi.eva.pipeline.io.writers.WriteBehindItemWriter;
 import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
 import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+import uk.ac.ebi.eva.pipeline.parameters.OutputParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_WRITER;
 
 @Configuration
+@Import({GenotypeDictionaryConfiguration.class})
 public class VariantWriterConfiguration {
 
     @Bean(VARIANT_WRITER)
     @StepScope
     @Profile(Application.VARIANT_WRITER_MONGO_PROFILE)
-    public ItemWriter<Variant> variantMongoWriter(InputParameters inputParameters, MongoOperations mongoOperations,
-                                                  DatabaseParameters databaseParameters) {
+    public WriteBehindItemWriter<Variant> variantMongoWriter(InputParameters inputParameters,
+                                                             MongoOperations mongoOperations,
+                                                             DatabaseParameters databaseParameters,
+                                                             OutputParameters outputParameters,
+                                                             ParallelismParameters parallelismParameters,
+                                                             GenotypeDictionary genotypeDictionary,
+                                                             ObjectProvider<BulkWriteStatistics> bulkWriteStatistics) {
         boolean includeSamples, includeStats;
         if (VariantSource.Aggregation.NONE.equals(inputParameters.getVcfAggregation())) {
             includeSamples = true;
-            includeStats = false;
+            includeStats = outputParameters.getStatisticsDuringLoad();
         } else {
             includeSamples = false;
             includeStats = true;
         }
 
-        return new VariantMongoWriter(databaseParameters.getCollectionVariantsName(), mongoOperations, includeStats,
-                includeSamples);
+        VariantMongoWriter writer = new VariantMongoWriter(databaseParameters.getCollectionVariantsName(),
+                mongoOperations, includeStats, includeSamples, parallelismParameters.getWriterThreads(),
+                !databaseParameters.getIndexesDeferred());
+        writer.setBulkWriteStatistics(bulkWriteStatistics.getIfAvailable());
+        writer.setPackedSamples(databaseParameters.getSamplesPacked());
+        writer.setGenotypeDictionary(genotypeDictionary);
+        return new WriteBehindItemWriter<>(writer, parallelismParameters.getWriterChunksInFlight());
     }
 
 }
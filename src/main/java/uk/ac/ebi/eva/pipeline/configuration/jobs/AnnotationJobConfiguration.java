@@ -31,10 +31,12 @@ import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Scope;
 
 import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.AnnotationFlowConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.CreateDeferredIndexesOptionalFlowConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.NewJobIncrementer;
 import uk.ac.ebi.eva.pipeline.parameters.validation.job.AnnotationJobParametersValidator;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.ANNOTATE_VARIANTS_JOB;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CREATE_DEFERRED_INDEXES_OPTIONAL_FLOW;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_FLOW;
 
 /**
@@ -45,13 +47,15 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_FLOW
  * Optional flow: variantsAnnotGenerateInput --> (annotationLoad)
  * annotationLoad step is only executed if variantsAnnotGenerateInput is generating a
  * non-empty VEP input file
+ * <p>
+ * Optional step at the end: (createDeferredIndexes), if the indexes of the annotations were deferred
  *
  * TODO add a new AnnotationJobParametersValidator
  */
 
 @Configuration
 @EnableBatchProcessing
-@Import({AnnotationFlowConfiguration.class})
+@Import({AnnotationFlowConfiguration.class, CreateDeferredIndexesOptionalFlowConfiguration.class})
 public class AnnotationJobConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(AnnotationJobConfiguration.class);
@@ -60,6 +64,10 @@ public class AnnotationJobConfiguration {
     @Qualifier(VEP_ANNOTATION_FLOW)
     private Flow annotation;
 
+    @Autowired
+    @Qualifier(CREATE_DEFERRED_INDEXES_OPTIONAL_FLOW)
+    private Flow createDeferredIndexesOptionalFlow;
+
     @Bean(ANNOTATE_VARIANTS_JOB)
     @Scope("prototype")
     public Job annotateVariantsJob(JobBuilderFactory jobBuilderFactory) {
@@ -69,7 +77,7 @@ public class AnnotationJobConfiguration {
                 .get(ANNOTATE_VARIANTS_JOB)
                 .incrementer(new NewJobIncrementer())
                 .validator(new AnnotationJobParametersValidator());
-        return jobBuilder.start(annotation).build().build();
+        return jobBuilder.start(annotation).next(createDeferredIndexesOptionalFlow).end().build();
     }
 
 }
@@ -46,6 +46,9 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PULL_FILES_AND_STAT
  * Job that removes a study from the database. Given a study to remove:
  * <p>
  * remove variants in single study --> pull study entries from the rest of variants --> remove file entry in files collection
+ * <p>
+ * The first two steps process the variants in chunks, split by genomic region in as many partitions as the parameter
+ * config.drop.threads
  */
 @Configuration
 @EnableBatchProcessing
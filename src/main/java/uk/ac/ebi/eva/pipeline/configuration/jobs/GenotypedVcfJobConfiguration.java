@@ -32,29 +32,32 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Scope;
 
+import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.CreateDeferredIndexesOptionalFlowConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.LoadVariantsFlowConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.ParallelStatisticsAndAnnotationFlowConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadFileStepConfiguration;
-import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVariantsStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.NewJobIncrementer;
 import uk.ac.ebi.eva.pipeline.parameters.validation.job.GenotypedVcfJobParametersValidator;
 
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CREATE_DEFERRED_INDEXES_OPTIONAL_FLOW;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENOTYPED_VCF_JOB;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_FILE_STEP;
-import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_FLOW;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PARALLEL_STATISTICS_AND_ANNOTATION;
 
 /**
  * Complete pipeline workflow:
  * <p>
- * |--> (optionalStatisticsFlow: statsCreate --> statsLoad)
- * transform ---> load -+
+ * |--> (optionalStatisticsFlow: statsCalculateAndLoad)
+ * transform ---> load ---> (createDeferredIndexes) -+
  * |--> (optionalAnnotationFlow: variantsAnnotGenerateInput --> (annotationCreate --> annotationLoad))
  * <p>
  * Steps in () are optional
  */
 @Configuration
 @EnableBatchProcessing
-@Import({LoadVariantsStepConfiguration.class, LoadFileStepConfiguration.class, ParallelStatisticsAndAnnotationFlowConfiguration.class})
+@Import({LoadVariantsFlowConfiguration.class, LoadFileStepConfiguration.class,
+        CreateDeferredIndexesOptionalFlowConfiguration.class, ParallelStatisticsAndAnnotationFlowConfiguration.class})
 public class GenotypedVcfJobConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(GenotypedVcfJobConfiguration.class);
@@ -64,8 +67,12 @@ public class GenotypedVcfJobConfiguration {
     private Flow parallelStatisticsAndAnnotation;
 
     @Autowired
-    @Qualifier(LOAD_VARIANTS_STEP)
-    private Step variantLoaderStep;
+    @Qualifier(CREATE_DEFERRED_INDEXES_OPTIONAL_FLOW)
+    private Flow createDeferredIndexesOptionalFlow;
+
+    @Autowired
+    @Qualifier(LOAD_VARIANTS_FLOW)
+    private Flow loadVariantsFlow;
 
     @Autowired
     @Qualifier(LOAD_FILE_STEP)
@@ -81,8 +88,9 @@ public class GenotypedVcfJobConfiguration {
                 .incrementer(new NewJobIncrementer())
                 .validator(new GenotypedVcfJobParametersValidator());
         FlowJobBuilder builder = jobBuilder
-                .flow(variantLoaderStep)
+                .start(loadVariantsFlow)
                 .next(loadFileStep)
+                .next(createDeferredIndexesOptionalFlow)
                 .next(parallelStatisticsAndAnnotation)
                 .end();
 
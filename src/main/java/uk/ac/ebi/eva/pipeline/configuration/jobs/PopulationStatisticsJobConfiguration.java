@@ -36,7 +36,7 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CALCULATE_STATISTIC
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CALCULATE_STATISTICS_JOB;
 
 /**
- * Configuration to run a full Statistics job: variantStatsFlow: statsCreate --> statsLoad
+ * Configuration to run a full Statistics job: variantStatsFlow: statsCalculateAndLoad
  *
  * TODO add a new PopulationStatisticsJobParametersValidator
  */
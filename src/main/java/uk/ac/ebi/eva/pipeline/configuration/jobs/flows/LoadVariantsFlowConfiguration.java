@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.flows;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import uk.ac.ebi.eva.pipeline.configuration.JobExecutionDeciderConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVariantsStepConfiguration;
+import uk.ac.ebi.eva.pipeline.jobs.deciders.LoadByRegionDecider;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_BY_REGION_DECIDER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_BY_REGION_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_FLOW;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_STEP;
+
+/**
+ * Configuration that defines a flow loading the variants of the VCF, by regions if the parameter config.load.threads
+ * is greater than 1 and the VCF is indexed with tabix, and in a plain step otherwise.
+ */
+@Configuration
+@EnableBatchProcessing
+@Import({LoadVariantsStepConfiguration.class, JobExecutionDeciderConfiguration.class})
+public class LoadVariantsFlowConfiguration {
+
+    @Bean(LOAD_VARIANTS_FLOW)
+    public Flow loadVariantsFlow(@Qualifier(LOAD_VARIANTS_STEP) Step loadVariantsStep,
+                                 @Qualifier(LOAD_VARIANTS_BY_REGION_STEP) Step loadVariantsByRegionStep,
+                                 @Qualifier(LOAD_BY_REGION_DECIDER) JobExecutionDecider decider) {
+        return new FlowBuilder<Flow>(LOAD_VARIANTS_FLOW)
+                .start(decider).on(LoadByRegionDecider.LOAD_BY_REGION)
+                .to(loadVariantsByRegionStep)
+                .from(decider).on(LoadByRegionDecider.LOAD_WHOLE_FILE)
+                .to(loadVariantsStep)
+                .build();
+    }
+
+}
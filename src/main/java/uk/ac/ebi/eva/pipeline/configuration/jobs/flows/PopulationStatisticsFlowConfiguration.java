@@ -25,34 +25,28 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
-import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CalculateStatisticsStepConfiguration;
-import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadStatisticsStepConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CalculateAndLoadStatisticsStepConfiguration;
 
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CALCULATE_STATISTICS_FLOW;
-import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CALCULATE_STATISTICS_STEP;
-import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_STATISTICS_STEP;
 
 /**
- * Configurations that defines the calcule statistics process. First calculate the statistics then load them to
- * the knowledge base.
+ * Configurations that defines the calcule statistics process. The statistics are calculated and loaded into the
+ * knowledge base in the same step.
  */
 @Configuration
 @EnableBatchProcessing
-@Import({CalculateStatisticsStepConfiguration.class, LoadStatisticsStepConfiguration.class})
+@Import({CalculateAndLoadStatisticsStepConfiguration.class})
 public class PopulationStatisticsFlowConfiguration {
 
     @Autowired
-    @Qualifier(CALCULATE_STATISTICS_STEP)
-    private Step calculateStatisticsStep;
-
-    @Autowired
-    @Qualifier(LOAD_STATISTICS_STEP)
-    private Step loadStatisticsStep;
+    @Qualifier(CALCULATE_AND_LOAD_STATISTICS_STEP)
+    private Step calculateAndLoadStatisticsStep;
 
     @Bean(CALCULATE_STATISTICS_FLOW)
     public Flow calculateStatisticsOptionalFlow() {
         return new FlowBuilder<Flow>(CALCULATE_STATISTICS_FLOW)
-                .start(calculateStatisticsStep).next(loadStatisticsStep).build();
+                .start(calculateAndLoadStatisticsStep).build();
     }
 
 }
@@ -33,8 +33,9 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CALCULATE_STATISTIC
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.STATISTICS_SKIP_STEP_DECIDER;
 
 /**
- * Configuration that defines a calculate statistics flow that can be skipped depending on property 'statistics.skip'
- * In the case that the property is set to false, then the process executes the flow at {@link PopulationStatisticsFlowConfiguration}
+ * Configuration that defines a calculate statistics flow that can be skipped depending on properties 'statistics.skip'
+ * and 'statistics.during-load'. In the case that both properties are set to false, then the process executes the flow
+ * at {@link PopulationStatisticsFlowConfiguration}
  */
 @Configuration
 @EnableBatchProcessing
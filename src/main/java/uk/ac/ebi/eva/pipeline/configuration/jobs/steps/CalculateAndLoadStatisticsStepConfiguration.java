@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.configuration.ChunkSizeCompletionPolicyConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.io.readers.VariantStatsReaderConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.io.writers.VariantStatsWriterConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.processors.VariantStatsProcessorConfiguration;
+import uk.ac.ebi.eva.pipeline.listeners.StepMetricsListener;
+import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_STATISTICS_PROCESSOR;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_STATISTICS_READER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_STATISTICS_WRITER;
+
+/**
+ * Step that calculates the population statistics of the variants of a file and loads them into MongoDB, along with
+ * the statistics of the whole file
+ * <p>
+ * Input: variants of the file, read from mongodb
+ * Output: "st" field of the variants and of the file
+ * <p>
+ * If the parameter config.statistics.threads is greater than 1, that number of chunks is processed concurrently.
+ */
+@Configuration
+@EnableBatchProcessing
+@Import({VariantStatsReaderConfiguration.class, VariantStatsProcessorConfiguration.class,
+        VariantStatsWriterConfiguration.class, ChunkSizeCompletionPolicyConfiguration.class})
+public class CalculateAndLoadStatisticsStepConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalculateAndLoadStatisticsStepConfiguration.class);
+
+    /**
+     * The number of threads is a job parameter, so it is only known when the step starts. The concurrency is limited
+     * by the task executor instead.
+     */
+    private static final int THROTTLE_LIMIT = Integer.MAX_VALUE;
+
+    @Autowired
+    @Qualifier(VARIANT_STATISTICS_READER)
+    private ItemStreamReader<Document> reader;
+
+    @Autowired
+    @Qualifier(VARIANT_STATISTICS_PROCESSOR)
+    private ItemProcessor<Document, Variant> processor;
+
+    @Autowired
+    @Qualifier(VARIANT_STATISTICS_WRITER)
+    private ItemWriter<Variant> writer;
+
+    @Bean
+    @StepScope
+    public TaskExecutor statisticsTaskExecutor(ParallelismParameters parallelismParameters) {
+        int statisticsThreads = parallelismParameters.getStatisticsThreads();
+        if (statisticsThreads > 1) {
+            SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("statistics-");
+            taskExecutor.setConcurrencyLimit(statisticsThreads);
+            return taskExecutor;
+        } else {
+            return new SyncTaskExecutor();
+        }
+    }
+
+    @Bean(CALCULATE_AND_LOAD_STATISTICS_STEP)
+    public Step calculateAndLoadStatisticsStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions,
+                                               SimpleCompletionPolicy chunkSizeCompletionPolicy,
+                                               TaskExecutor statisticsTaskExecutor) {
+        logger.debug("Building '" + CALCULATE_AND_LOAD_STATISTICS_STEP + "'");
+
+        StepMetricsListener<Document, Variant> stepMetricsListener =
+                new StepMetricsListener<>(CALCULATE_AND_LOAD_STATISTICS_STEP);
+
+        return stepBuilderFactory.get(CALCULATE_AND_LOAD_STATISTICS_STEP)
+                                 .<Document, Variant>chunk(chunkSizeCompletionPolicy)
+                                 .reader(reader)
+                                 .processor(processor)
+                                 .writer(writer)
+                                 .taskExecutor(statisticsTaskExecutor)
+                                 .throttleLimit(THROTTLE_LIMIT)
+                                 .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
+                                 .listener((ChunkListener) stepMetricsListener)
+                                 .listener((ItemReadListener<Document>) stepMetricsListener)
+                                 .listener((ItemProcessListener<Document, Variant>) stepMetricsListener)
+                                 .listener((ItemWriteListener<Variant>) stepMetricsListener)
+                                 .build();
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2017 EMBL - European Bioinformatics Institute
+ * Copyright 2021 EMBL - European Bioinformatics Institute
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,32 +24,32 @@ import org.springframework.batch.core.step.tasklet.TaskletStep;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.CalculateStatisticsTasklet;
+import uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.CreateDeferredIndexesTasklet;
 import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
 import uk.ac.ebi.eva.utils.TaskletUtils;
 
-import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CALCULATE_STATISTICS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CREATE_DEFERRED_INDEXES_STEP;
 
 /**
- * Configuration class that inject a step created with the tasklet {@link CalculateStatisticsTasklet}
+ * Configuration class that inject a step created with the tasklet {@link CreateDeferredIndexesTasklet}
  */
 @Configuration
 @EnableBatchProcessing
-public class CalculateStatisticsStepConfiguration {
+public class CreateDeferredIndexesStepConfiguration {
 
-    private static final Logger logger = LoggerFactory.getLogger(CalculateStatisticsStepConfiguration.class);
+    private static final Logger logger = LoggerFactory.getLogger(CreateDeferredIndexesStepConfiguration.class);
 
     @Bean
     @StepScope
-    public CalculateStatisticsTasklet calculateStatisticsTasklet() {
-        return new CalculateStatisticsTasklet();
+    public CreateDeferredIndexesTasklet createDeferredIndexesTasklet() {
+        return new CreateDeferredIndexesTasklet();
     }
 
-    @Bean(CALCULATE_STATISTICS_STEP)
-    public TaskletStep calculateStatisticsStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
-        logger.debug("Building '" + CALCULATE_STATISTICS_STEP + "'");
-        return TaskletUtils.generateStep(stepBuilderFactory, CALCULATE_STATISTICS_STEP,
-                calculateStatisticsTasklet(), jobOptions.isAllowStartIfComplete());
+    @Bean(CREATE_DEFERRED_INDEXES_STEP)
+    public TaskletStep createDeferredIndexesStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
+        logger.debug("Building '" + CREATE_DEFERRED_INDEXES_STEP + "'");
+        return TaskletUtils.generateStep(stepBuilderFactory, CREATE_DEFERRED_INDEXES_STEP,
+                createDeferredIndexesTasklet(), jobOptions.isAllowStartIfComplete());
     }
 
 }
@@ -17,37 +17,52 @@ package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.ItemStreamReader;
-import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
 import uk.ac.ebi.eva.pipeline.configuration.ChunkSizeCompletionPolicyConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.io.readers.VariantsMongoReaderConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.io.writers.AnnotationCompositeWriterConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.io.writers.AnnotationWriterConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.partitioners.VariantRegionPartitionerConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.processors.AnnotationCompositeProcessorConfiguration;
 import uk.ac.ebi.eva.pipeline.io.readers.AnnotationFlatFileReader;
+import uk.ac.ebi.eva.pipeline.io.writers.WriteBehindItemWriter;
+import uk.ac.ebi.eva.pipeline.listeners.StepMetricsListener;
 import uk.ac.ebi.eva.pipeline.listeners.StepProgressListener;
 import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
 import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
 
 import java.util.List;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.ANNOTATION_COMPOSITE_PROCESSOR;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.ANNOTATION_WRITER;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.COMPOSITE_ANNOTATION_VARIANT_WRITER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENERATE_VEP_ANNOTATION_PARTITION_STEP;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENERATE_VEP_ANNOTATION_STEP;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANTS_READER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_REGION_PARTITIONER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_PROCESSOR;
 
 /**
  * This step creates a file with variant annotations.
@@ -56,11 +71,15 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANTS_READER;
  * <p>
  * Output: file with the list of annotated variants, in a format written by VEP, readable with
  * {@link AnnotationFlatFileReader}
+ * <p>
+ * The variants are split by genomic region in as many partitions as the parameter config.annotation.threads, and
+ * the partitions are annotated concurrently. Each partition has its own reader, VEP processes and writer.
  */
 @Configuration
 @EnableBatchProcessing
 @Import({VariantsMongoReaderConfiguration.class, AnnotationCompositeProcessorConfiguration.class,
-        AnnotationCompositeWriterConfiguration.class, ChunkSizeCompletionPolicyConfiguration.class})
+        AnnotationCompositeWriterConfiguration.class, ChunkSizeCompletionPolicyConfiguration.class,
+        VariantRegionPartitionerConfiguration.class})
 public class GenerateVepAnnotationStepConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(GenerateVepAnnotationStepConfiguration.class);
@@ -73,20 +92,65 @@ public class GenerateVepAnnotationStepConfiguration {
     @Qualifier(ANNOTATION_COMPOSITE_PROCESSOR)
     private ItemProcessor<List<EnsemblVariant>, List<Annotation>> annotationCompositeProcessor;
 
+    /**
+     * The VEP processor is registered as a stream so it can start and stop its pool of VEP processes, if any.
+     */
+    @Autowired
+    @Qualifier(VEP_ANNOTATION_PROCESSOR)
+    private ItemStream vepAnnotationProcessor;
+
     @Autowired
     @Qualifier(COMPOSITE_ANNOTATION_VARIANT_WRITER)
-    private ItemWriter<List<Annotation>> annotationWriter;
+    private WriteBehindItemWriter<List<Annotation>> annotationWriter;
+
+    @Autowired
+    @Qualifier(VARIANT_REGION_PARTITIONER)
+    private Partitioner variantRegionPartitioner;
+
+    @Bean
+    @StepScope
+    public TaskExecutor annotationTaskExecutor(ParallelismParameters parallelismParameters) {
+        int annotationThreads = parallelismParameters.getAnnotationThreads();
+        if (annotationThreads > 1) {
+            SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("annotation-");
+            taskExecutor.setConcurrencyLimit(annotationThreads);
+            return taskExecutor;
+        } else {
+            return new SyncTaskExecutor();
+        }
+    }
 
     @Bean(GENERATE_VEP_ANNOTATION_STEP)
-    public Step generateVepAnnotationStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
+    public Step generateVepAnnotationStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions,
+                                          TaskExecutor annotationTaskExecutor) {
         logger.debug("Building '" + GENERATE_VEP_ANNOTATION_STEP + "'");
 
         return stepBuilderFactory.get(GENERATE_VEP_ANNOTATION_STEP)
+                .partitioner(GENERATE_VEP_ANNOTATION_PARTITION_STEP, variantRegionPartitioner)
+                .step(generateVepAnnotationPartitionStep(stepBuilderFactory, jobOptions))
+                .taskExecutor(annotationTaskExecutor)
+                .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
+                .build();
+    }
+
+    @Bean(GENERATE_VEP_ANNOTATION_PARTITION_STEP)
+    public Step generateVepAnnotationPartitionStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
+        logger.debug("Building '" + GENERATE_VEP_ANNOTATION_PARTITION_STEP + "'");
+
+        StepMetricsListener<List<EnsemblVariant>, List<Annotation>> stepMetricsListener =
+                new StepMetricsListener<>(GENERATE_VEP_ANNOTATION_PARTITION_STEP);
+
+        return stepBuilderFactory.get(GENERATE_VEP_ANNOTATION_PARTITION_STEP)
                 .<List<EnsemblVariant>, List<Annotation>>chunk(1)
-                .reader(nonAnnotatedVariantsReader)
+                .reader(WriteBehindItemWriter.checkpointedReader(nonAnnotatedVariantsReader, annotationWriter))
                 .processor(annotationCompositeProcessor)
                 .writer(annotationWriter)
+                .stream(vepAnnotationProcessor)
                 .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
+                .listener((ChunkListener) stepMetricsListener)
+                .listener((ItemReadListener<List<EnsemblVariant>>) stepMetricsListener)
+                .listener((ItemProcessListener<List<EnsemblVariant>, List<Annotation>>) stepMetricsListener)
+                .listener(WriteBehindItemWriter.writeListeners(annotationWriter, stepMetricsListener))
                 .listener(new StepProgressListener())
                 .build();
     }
@@ -18,11 +18,13 @@ package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.item.ItemStreamReader;
-import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.FlatFileParseException;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,8 +39,10 @@ import uk.ac.ebi.eva.pipeline.configuration.io.writers.GeneWriterConfiguration;
 import uk.ac.ebi.eva.pipeline.io.mappers.GeneLineMapper;
 import uk.ac.ebi.eva.pipeline.io.readers.GeneReader;
 import uk.ac.ebi.eva.pipeline.io.writers.GeneWriter;
+import uk.ac.ebi.eva.pipeline.io.writers.WriteBehindItemWriter;
 import uk.ac.ebi.eva.pipeline.jobs.steps.processors.GeneFilterProcessor;
 import uk.ac.ebi.eva.pipeline.listeners.SkippedItemListener;
+import uk.ac.ebi.eva.pipeline.listeners.StepMetricsListener;
 import uk.ac.ebi.eva.pipeline.model.FeatureCoordinates;
 import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
 
@@ -72,21 +76,28 @@ public class LoadFeatureCoordinatesStepConfiguration {
 
     @Autowired
     @Qualifier(GENE_WRITER)
-    private ItemWriter<FeatureCoordinates> writer;
+    private WriteBehindItemWriter<FeatureCoordinates> writer;
 
     @Bean(LOAD_FEATURE_COORDINATES_STEP)
     public Step LoadFeatureCoordinatesStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions,
                               SimpleCompletionPolicy chunkSizeCompletionPolicy) {
         logger.debug("Building '" + LOAD_FEATURE_COORDINATES_STEP + "'");
 
+        StepMetricsListener<FeatureCoordinates, FeatureCoordinates> stepMetricsListener =
+                new StepMetricsListener<>(LOAD_FEATURE_COORDINATES_STEP);
+
         return stepBuilderFactory.get(LOAD_FEATURE_COORDINATES_STEP)
                 .<FeatureCoordinates, FeatureCoordinates>chunk(chunkSizeCompletionPolicy)
-                .reader(reader)
+                .reader(WriteBehindItemWriter.checkpointedReader(reader, writer))
                 .processor(new GeneFilterProcessor())
                 .writer(writer)
                 .faultTolerant().skipLimit(50).skip(FlatFileParseException.class)
                 .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
-                .listener(new SkippedItemListener())
+                .listener(new SkippedItemListener(LOAD_FEATURE_COORDINATES_STEP))
+                .listener((ChunkListener) stepMetricsListener)
+                .listener((ItemReadListener<FeatureCoordinates>) stepMetricsListener)
+                .listener((ItemProcessListener<FeatureCoordinates, FeatureCoordinates>) stepMetricsListener)
+                .listener(WriteBehindItemWriter.writeListeners(writer, stepMetricsListener))
                 .build();
     }
 
@@ -48,8 +48,12 @@ public class LoadFileStepConfiguration {
     @Bean(LOAD_FILE_STEP)
     public TaskletStep loadFileStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
         logger.debug("Building '" + LOAD_FILE_STEP + "'");
-        return TaskletUtils.generateStep(stepBuilderFactory, LOAD_FILE_STEP, loadFileTasklet(),
+        LoadFileTasklet loadFileTasklet = loadFileTasklet();
+        TaskletStep step = TaskletUtils.generateStep(stepBuilderFactory, LOAD_FILE_STEP, loadFileTasklet,
                 jobOptions.isAllowStartIfComplete());
+        // tasklets are not registered as listeners automatically
+        step.registerStepExecutionListener(loadFileTasklet);
+        return step;
     }
 
 }
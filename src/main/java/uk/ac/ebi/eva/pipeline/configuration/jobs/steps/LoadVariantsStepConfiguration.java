@@ -17,44 +17,72 @@ package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemStreamReader;
-import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.pipeline.configuration.ChunkSizeCompletionPolicyConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.io.readers.VcfReaderConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.io.writers.VariantWriterConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.partitioners.VcfRegionPartitionerConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.processors.VariantProcessorConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.policies.InvalidVariantSkipPolicyConfiguration;
-import uk.ac.ebi.eva.pipeline.jobs.steps.processors.VariantNoAlternateFilterProcessor;
+import uk.ac.ebi.eva.pipeline.io.writers.WriteBehindItemWriter;
+import uk.ac.ebi.eva.pipeline.listeners.FileStatisticsAggregator;
+import uk.ac.ebi.eva.pipeline.listeners.FileStatisticsListener;
 import uk.ac.ebi.eva.pipeline.listeners.SkippedItemListener;
+import uk.ac.ebi.eva.pipeline.listeners.StepMetricsListener;
 import uk.ac.ebi.eva.pipeline.listeners.StepProgressListener;
 import uk.ac.ebi.eva.pipeline.listeners.VariantLoaderStepStatisticsListener;
 import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
 import uk.ac.ebi.eva.pipeline.policies.InvalidVariantSkipPolicy;
 
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_BY_REGION_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_PARTITION_STEP;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_PROCESSOR;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_READER;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_WRITER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VCF_REGION_PARTITIONER;
 
 /**
  * Step that normalizes variants during the reading and loads them into MongoDB
  * <p>
  * Input: VCF file
  * Output: variants loaded into mongodb
+ * <p>
+ * If the parameter statistics.during-load is true, the population statistics of a genotyped VCF are calculated and
+ * loaded along with the variants, and the statistics of the whole file are left in the job execution context.
+ * <p>
+ * The step {@link #loadVariantsByRegionStep} loads a VCF bgzipped and indexed with tabix split in as many regions as
+ * the parameter config.load.threads, and the regions are loaded concurrently by {@link #loadVariantsStep}. Each region
+ * has its own reader. On a restart, only the regions that didn't complete are loaded again. The choice between both
+ * steps is made by {@link uk.ac.ebi.eva.pipeline.configuration.jobs.flows.LoadVariantsFlowConfiguration}.
  */
 @Configuration
 @EnableBatchProcessing
-@Import({VcfReaderConfiguration.class, VariantWriterConfiguration.class, ChunkSizeCompletionPolicyConfiguration.class
-        , InvalidVariantSkipPolicyConfiguration.class})
+@Import({VcfReaderConfiguration.class, VariantProcessorConfiguration.class, VariantWriterConfiguration.class,
+        ChunkSizeCompletionPolicyConfiguration.class, InvalidVariantSkipPolicyConfiguration.class,
+        VcfRegionPartitionerConfiguration.class})
 public class LoadVariantsStepConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(LoadVariantsStepConfiguration.class);
@@ -63,29 +91,86 @@ public class LoadVariantsStepConfiguration {
     @Qualifier(VARIANT_READER)
     private ItemStreamReader<Variant> reader;
 
+    @Autowired
+    @Qualifier(VARIANT_PROCESSOR)
+    private ItemProcessor<Variant, Variant> processor;
+
     @Autowired
     @Qualifier(VARIANT_WRITER)
-    private ItemWriter<Variant> variantWriter;
+    private WriteBehindItemWriter<Variant> variantWriter;
 
     @Autowired
     private InvalidVariantSkipPolicy invalidVariantSkipPolicy;
 
+    @Autowired
+    @Qualifier(VCF_REGION_PARTITIONER)
+    private Partitioner vcfRegionPartitioner;
+
+    @Bean
+    @StepScope
+    public TaskExecutor loadTaskExecutor(ParallelismParameters parallelismParameters) {
+        int loadThreads = parallelismParameters.getLoadThreads();
+        if (loadThreads > 1) {
+            SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("load-");
+            taskExecutor.setConcurrencyLimit(loadThreads);
+            return taskExecutor;
+        } else {
+            return new SyncTaskExecutor();
+        }
+    }
+
+    /**
+     * The statistics of the file are accumulated separately for each region
+     */
+    @Bean
+    @StepScope
+    public FileStatisticsListener fileStatisticsListener() {
+        return new FileStatisticsListener();
+    }
+
     @Bean(LOAD_VARIANTS_STEP)
     public Step loadVariantsStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions,
                                  SimpleCompletionPolicy chunkSizeCompletionPolicy) {
         logger.debug("Building '" + LOAD_VARIANTS_STEP + "'");
+        FileStatisticsListener fileStatisticsListener = fileStatisticsListener();
+        StepMetricsListener<Variant, Variant> stepMetricsListener = new StepMetricsListener<>(LOAD_VARIANTS_STEP);
 
         return stepBuilderFactory.get(LOAD_VARIANTS_STEP)
                                  .<Variant, Variant>chunk(chunkSizeCompletionPolicy)
-                                 .reader(reader)
-                                 .processor(new VariantNoAlternateFilterProcessor())
+                                 .reader(WriteBehindItemWriter.checkpointedReader(reader, variantWriter))
+                                 .processor(processor)
                                  .writer(variantWriter)
                                  .faultTolerant()
                                  .skipPolicy(invalidVariantSkipPolicy)
                                  .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
-                                 .listener(new SkippedItemListener())
+                                 .listener(new SkippedItemListener(LOAD_VARIANTS_STEP))
+                                 .listener((ChunkListener) stepMetricsListener)
+                                 .listener((ItemReadListener<Variant>) stepMetricsListener)
+                                 .listener((ItemProcessListener<Variant, Variant>) stepMetricsListener)
                                  .listener(new StepProgressListener())
                                  .listener(new VariantLoaderStepStatisticsListener())
+                                 .listener((StepExecutionListener) fileStatisticsListener)
+                                 .listener(WriteBehindItemWriter.writeListeners(variantWriter, stepMetricsListener,
+                                                                                 fileStatisticsListener))
+                                 .build();
+    }
+
+    /**
+     * Each region is loaded by {@link #loadVariantsStep}, in a partition named after
+     * {@link uk.ac.ebi.eva.pipeline.configuration.BeanNames#LOAD_VARIANTS_PARTITION_STEP}
+     */
+    @Bean(LOAD_VARIANTS_BY_REGION_STEP)
+    public Step loadVariantsByRegionStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions,
+                                         SimpleCompletionPolicy chunkSizeCompletionPolicy,
+                                         TaskExecutor loadTaskExecutor) {
+        logger.debug("Building '" + LOAD_VARIANTS_BY_REGION_STEP + "'");
+
+        return stepBuilderFactory.get(LOAD_VARIANTS_BY_REGION_STEP)
+                                 .partitioner(LOAD_VARIANTS_PARTITION_STEP, vcfRegionPartitioner)
+                                 .step(loadVariantsStep(stepBuilderFactory, jobOptions, chunkSizeCompletionPolicy))
+                                 .taskExecutor(loadTaskExecutor)
+                                 .aggregator(new FileStatisticsAggregator())
+                                 .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
                                  .build();
     }
 
@@ -16,41 +16,121 @@
 
 package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
 
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
-import uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.PullFilesAndStatisticsByStudyTasklet;
+import uk.ac.ebi.eva.pipeline.configuration.ChunkSizeCompletionPolicyConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.io.readers.StudyVariantsReaderConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.io.writers.DropStudyWriterConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.partitioners.StudyVariantRegionPartitionerConfiguration;
+import uk.ac.ebi.eva.pipeline.io.writers.PullFilesAndStatisticsByStudyWriter;
+import uk.ac.ebi.eva.pipeline.listeners.StepMetricsListener;
+import uk.ac.ebi.eva.pipeline.listeners.StepProgressListener;
 import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
-import uk.ac.ebi.eva.utils.TaskletUtils;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
 
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.STUDY_VARIANTS_READER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PULL_FILES_AND_STATISTICS_BY_STUDY_PARTITION_STEP;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PULL_FILES_AND_STATISTICS_BY_STUDY_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PULL_FILES_AND_STATISTICS_BY_STUDY_WRITER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.STUDY_VARIANT_REGION_PARTITIONER;
 
 /**
- * Step that pulls the file and statistics in a variant based on their study id.
+ * Step that pulls the file and statistics in a variant based on their study id, with
+ * {@link PullFilesAndStatisticsByStudyWriter}
+ * <p>
+ * The variants are processed in chunks of the parameter config.chunk.size, with one database operation per chunk,
+ * instead of a single operation over the whole collection. They are split by genomic region in as many partitions
+ * as the parameter config.drop.threads, which run concurrently. On a restart, only the partitions that didn't
+ * complete run again, and they only find the variants that were not processed yet.
  */
 @Configuration
 @EnableBatchProcessing
+@Import({StudyVariantsReaderConfiguration.class, DropStudyWriterConfiguration.class,
+        ChunkSizeCompletionPolicyConfiguration.class, StudyVariantRegionPartitionerConfiguration.class})
 public class PullFilesAndStatisticsByStudyStepConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(PullFilesAndStatisticsByStudyStepConfiguration.class);
 
+    @Autowired
+    @Qualifier(STUDY_VARIANTS_READER)
+    private ItemStreamReader<Document> reader;
+
+    @Autowired
+    @Qualifier(PULL_FILES_AND_STATISTICS_BY_STUDY_WRITER)
+    private ItemWriter<Document> writer;
+
+    @Autowired
+    @Qualifier(STUDY_VARIANT_REGION_PARTITIONER)
+    private Partitioner studyVariantRegionPartitioner;
+
     @Bean
     @StepScope
-    public PullFilesAndStatisticsByStudyTasklet pullFilesAndStatisticsByStudyTasklet() {
-        return new PullFilesAndStatisticsByStudyTasklet();
+    public TaskExecutor pullFilesTaskExecutor(ParallelismParameters parallelismParameters) {
+        int dropThreads = parallelismParameters.getDropThreads();
+        if (dropThreads > 1) {
+            SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("pull-files-");
+            taskExecutor.setConcurrencyLimit(dropThreads);
+            return taskExecutor;
+        } else {
+            return new SyncTaskExecutor();
+        }
     }
 
     @Bean(PULL_FILES_AND_STATISTICS_BY_STUDY_STEP)
-    public TaskletStep pullFilesAndStatisticsByStudyStep(StepBuilderFactory stepBuilderFactory,
-                                                             JobOptions jobOptions) {
-        return TaskletUtils.generateStep(stepBuilderFactory, PULL_FILES_AND_STATISTICS_BY_STUDY_STEP,
-                pullFilesAndStatisticsByStudyTasklet(), jobOptions.isAllowStartIfComplete());
+    public Step pullFilesAndStatisticsByStudyStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions,
+                                                  SimpleCompletionPolicy chunkSizeCompletionPolicy,
+                                                  TaskExecutor pullFilesTaskExecutor) {
+        logger.debug("Building '" + PULL_FILES_AND_STATISTICS_BY_STUDY_STEP + "'");
+
+        return stepBuilderFactory.get(PULL_FILES_AND_STATISTICS_BY_STUDY_STEP)
+                                 .partitioner(PULL_FILES_AND_STATISTICS_BY_STUDY_PARTITION_STEP,
+                                              studyVariantRegionPartitioner)
+                                 .step(pullFilesAndStatisticsByStudyPartitionStep(stepBuilderFactory, jobOptions,
+                                                                                  chunkSizeCompletionPolicy))
+                                 .taskExecutor(pullFilesTaskExecutor)
+                                 .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
+                                 .build();
+    }
+
+    @Bean(PULL_FILES_AND_STATISTICS_BY_STUDY_PARTITION_STEP)
+    public Step pullFilesAndStatisticsByStudyPartitionStep(StepBuilderFactory stepBuilderFactory,
+                                                           JobOptions jobOptions,
+                                                           SimpleCompletionPolicy chunkSizeCompletionPolicy) {
+        logger.debug("Building '" + PULL_FILES_AND_STATISTICS_BY_STUDY_PARTITION_STEP + "'");
+        StepMetricsListener<Document, Document> stepMetricsListener =
+                new StepMetricsListener<>(PULL_FILES_AND_STATISTICS_BY_STUDY_PARTITION_STEP);
+
+        return stepBuilderFactory.get(PULL_FILES_AND_STATISTICS_BY_STUDY_PARTITION_STEP)
+                                 .<Document, Document>chunk(chunkSizeCompletionPolicy)
+                                 .reader(reader)
+                                 .writer(writer)
+                                 .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
+                                 .listener((ChunkListener) stepMetricsListener)
+                                 .listener((ItemReadListener<Document>) stepMetricsListener)
+                                 .listener((ItemWriteListener<Document>) stepMetricsListener)
+                                 .listener(new StepProgressListener())
+                                 .build();
     }
 
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps.partitioners;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.io.readers.StudyVariantsMongoReader;
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VariantRegionPartitioner;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.STUDY_VARIANT_REGION_PARTITIONER;
+
+/**
+ * Configuration to inject a partitioner that splits the variants of the study to drop by genomic region, in as many
+ * partitions as the parameter config.drop.threads. As with the annotation partitioner, the bean has the type of the
+ * partitioner class so that a restart can find the partitions of the first run by name.
+ */
+@Configuration
+public class StudyVariantRegionPartitionerConfiguration {
+
+    @Bean(STUDY_VARIANT_REGION_PARTITIONER)
+    @StepScope
+    public VariantRegionPartitioner studyVariantRegionPartitioner(MongoOperations mongoOperations,
+                                                                  DatabaseParameters databaseParameters,
+                                                                  InputParameters inputParameters,
+                                                                  ParallelismParameters parallelismParameters) {
+        return new VariantRegionPartitioner(mongoOperations, databaseParameters.getCollectionVariantsName(),
+                                            StudyVariantsMongoReader.buildQuery(inputParameters.getStudyId(), false),
+                                            parallelismParameters.getDropThreads());
+    }
+
+}
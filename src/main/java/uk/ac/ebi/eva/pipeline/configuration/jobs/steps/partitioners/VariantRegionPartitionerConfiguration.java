@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps.partitioners;
+
+import org.bson.Document;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.io.readers.VariantsMongoReader;
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VariantRegionPartitioner;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ParallelismParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_REGION_PARTITIONER;
+
+/**
+ * Configuration to inject a partitioner that splits the variants to annotate by genomic region, in as many partitions
+ * as the parameter config.annotation.threads
+ * <p>
+ * The bean is declared with the class of the partitioner, so that its step scoped proxy is a subclass that also
+ * provides the names of the partitions when the step is restarted.
+ */
+@Configuration
+public class VariantRegionPartitionerConfiguration {
+
+    @Bean(VARIANT_REGION_PARTITIONER)
+    @StepScope
+    public VariantRegionPartitioner variantRegionPartitioner(MongoOperations mongoOperations,
+                                                             DatabaseParameters databaseParameters,
+                                                             InputParameters inputParameters,
+                                                             AnnotationParameters annotationParameters,
+                                                             ParallelismParameters parallelismParameters) {
+        Document query = VariantsMongoReader.buildQuery(annotationParameters.getVepVersion(),
+                                                        annotationParameters.getVepCacheVersion(),
+                                                        inputParameters.getStudyId(),
+                                                        inputParameters.getVcfId(),
+                                                        !annotationParameters.getOverwriteAnnotation());
+        return new VariantRegionPartitioner(mongoOperations, databaseParameters.getCollectionVariantsName(), query,
+                                            parallelismParameters.getAnnotationThreads());
+    }
+
+}
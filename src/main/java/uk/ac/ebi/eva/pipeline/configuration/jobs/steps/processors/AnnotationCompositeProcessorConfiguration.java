@@ -17,43 +17,59 @@ package uk.ac.ebi.eva.pipeline.configuration.jobs.steps.processors;
 
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoOperations;
 
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
 import uk.ac.ebi.eva.pipeline.Application;
+import uk.ac.ebi.eva.pipeline.jobs.steps.processors.AnnotationCacheProcessor;
+import uk.ac.ebi.eva.pipeline.jobs.steps.processors.VepAnnotationParserProcessor;
+import uk.ac.ebi.eva.pipeline.jobs.steps.processors.VepAnnotationProcessor;
 import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
 
-import java.util.Arrays;
 import java.util.List;
 
-import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.ANNOTATION_PARSER_PROCESSOR;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.ANNOTATION_COMPOSITE_PROCESSOR;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_PROCESSOR;
 
+/**
+ * Processor that annotates a list of variant coordinates with VEP and parses the output.
+ * <p>
+ * Input: List of EnsemblVariant
+ * Output: List of Annotation, parsed while VEP is writing its output
+ * <p>
+ * Unless the annotation is overwritten, the variants already annotated with the same VEP and cache versions are
+ * taken from the annotations collection instead of running VEP again.
+ */
 @Configuration
-@Import({VepAnnotationProcessorConfiguration.class, AnnotationParserProcessorConfiguration.class})
+@Import({VepAnnotationProcessorConfiguration.class})
 public class AnnotationCompositeProcessorConfiguration {
 
     @Autowired
     @Qualifier(VEP_ANNOTATION_PROCESSOR)
-    private ItemProcessor<List<EnsemblVariant>, List<String>> vepAnnotationProcessor;
-
-    @Autowired
-    @Qualifier(ANNOTATION_PARSER_PROCESSOR)
-    private ItemProcessor<List<String>, List<Annotation>> annotationParserProcessor;
+    private VepAnnotationProcessor vepAnnotationProcessor;
 
     @Bean(ANNOTATION_COMPOSITE_PROCESSOR)
     @StepScope
     @Profile(Application.VARIANT_ANNOTATION_MONGO_PROFILE)
-    public CompositeItemProcessor<List<EnsemblVariant>, List<Annotation>> compositeAnnotationItemWriter(){
-        CompositeItemProcessor<List<EnsemblVariant>, List<Annotation>> processor = new CompositeItemProcessor<>();
-        processor.setDelegates(Arrays.asList(vepAnnotationProcessor, annotationParserProcessor));
-        return processor;
+    public ItemProcessor<List<EnsemblVariant>, List<Annotation>> compositeAnnotationItemWriter(
+            AnnotationParameters annotationParameters, DatabaseParameters databaseParameters,
+            MongoOperations mongoOperations) {
+        VepAnnotationParserProcessor vepAnnotationParserProcessor =
+                new VepAnnotationParserProcessor(vepAnnotationProcessor, annotationParameters);
+        if (annotationParameters.getOverwriteAnnotation()) {
+            return vepAnnotationParserProcessor;
+        }
+        return new AnnotationCacheProcessor(vepAnnotationParserProcessor, mongoOperations,
+                                            databaseParameters.getCollectionAnnotationsName(),
+                                            annotationParameters.getVepVersion(),
+                                            annotationParameters.getVepCacheVersion());
     }
 }
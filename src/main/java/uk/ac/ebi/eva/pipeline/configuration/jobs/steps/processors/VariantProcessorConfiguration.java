@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps.processors;
+
+import org.opencb.biodata.models.variant.VariantSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.support.CompositeItemProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.configuration.GenotypeDictionaryConfiguration;
+import uk.ac.ebi.eva.pipeline.io.readers.VcfHeaderReader;
+import uk.ac.ebi.eva.pipeline.jobs.steps.processors.VariantNoAlternateFilterProcessor;
+import uk.ac.ebi.eva.pipeline.jobs.steps.processors.VariantStatsCalculatorProcessor;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+import uk.ac.ebi.eva.pipeline.parameters.OutputParameters;
+import uk.ac.ebi.eva.utils.CohortStatsCalculator;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_PROCESSOR;
+
+/**
+ * Processor of the variants read from a VCF before they are loaded
+ * <p>
+ * Input: Variants parsed from the VCF
+ * Output: Variants that have an alternate allele. If the statistics are calculated during the load of a genotyped
+ * VCF, they also carry the statistics of all the samples, and of each family of the pedigree if one is provided.
+ */
+@Configuration
+@Import({GenotypeDictionaryConfiguration.class})
+public class VariantProcessorConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantProcessorConfiguration.class);
+
+    @Bean(VARIANT_PROCESSOR)
+    @StepScope
+    public ItemProcessor<Variant, Variant> variantProcessor(InputParameters inputParameters,
+                                                            OutputParameters outputParameters,
+                                                            GenotypeDictionary genotypeDictionary) throws Exception {
+        VariantNoAlternateFilterProcessor noAlternateFilterProcessor = new VariantNoAlternateFilterProcessor();
+        if (!outputParameters.getStatisticsDuringLoad()) {
+            return noAlternateFilterProcessor;
+        }
+        if (!VariantSource.Aggregation.NONE.equals(inputParameters.getVcfAggregation())) {
+            logger.info("The statistics of aggregated VCFs are read from the file, they won't be calculated");
+            return noAlternateFilterProcessor;
+        }
+
+        CompositeItemProcessor<Variant, Variant> processor = new CompositeItemProcessor<>();
+        processor.setDelegates(Arrays.asList(noAlternateFilterProcessor,
+                                             new VariantStatsCalculatorProcessor(cohortStatsCalculator(
+                                                     inputParameters, genotypeDictionary))));
+        processor.afterPropertiesSet();
+        return processor;
+    }
+
+    private CohortStatsCalculator cohortStatsCalculator(InputParameters inputParameters,
+                                                        GenotypeDictionary genotypeDictionary) throws Exception {
+        return CohortStatsCalculator.fromPedigreeFile(inputParameters.getPedigree(),
+                                                      () -> readSamplesPosition(inputParameters), genotypeDictionary);
+    }
+
+    private Map<String, Integer> readSamplesPosition(InputParameters inputParameters) throws Exception {
+        VcfHeaderReader headerReader = new VcfHeaderReader(new File(inputParameters.getVcf()),
+                                                           inputParameters.getVcfId(),
+                                                           inputParameters.getStudyId(),
+                                                           inputParameters.getStudyName(),
+                                                           inputParameters.getStudyType(),
+                                                           inputParameters.getVcfAggregation());
+        headerReader.open(new ExecutionContext());
+        try {
+            return headerReader.read().getSamplesPosition();
+        } finally {
+            headerReader.close();
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps.processors;
+
+import org.bson.Document;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.configuration.GenotypeDictionaryConfiguration;
+import uk.ac.ebi.eva.pipeline.jobs.steps.processors.VariantStatsProcessor;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+import uk.ac.ebi.eva.utils.CohortStatsCalculator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.FILEID_FIELD;
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.SAMPLES_FIELD;
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.STUDYID_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo.CHARACTER_TO_REPLACE_DOTS;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_STATISTICS_PROCESSOR;
+
+/**
+ * Processor that calculates the population statistics of the variants of a file
+ * <p>
+ * Input: variant documents read from MongoDB
+ * Output: Variants with their statistics
+ * <p>
+ * The number of samples of the file is taken from the files collection, so the file must have been loaded. If a
+ * pedigree is provided, its families are also cohorts, as when the statistics are calculated during the load; the
+ * individuals are matched with the samples of the file in the files collection.
+ */
+@Configuration
+@Import({GenotypeDictionaryConfiguration.class})
+public class VariantStatsProcessorConfiguration {
+
+    @Bean(VARIANT_STATISTICS_PROCESSOR)
+    @StepScope
+    public ItemProcessor<Document, Variant> variantStatsProcessor(MongoOperations mongoOperations,
+                                                                  DatabaseParameters databaseParameters,
+                                                                  InputParameters inputParameters,
+                                                                  GenotypeDictionary genotypeDictionary)
+            throws Exception {
+        String studyId = inputParameters.getStudyId();
+        String fileId = inputParameters.getVcfId();
+
+        Query query = new Query(new Criteria(STUDYID_FIELD).is(studyId).and(FILEID_FIELD).is(fileId));
+        query.fields().include(SAMPLES_FIELD);
+        Document file = mongoOperations.findOne(query, Document.class, databaseParameters.getCollectionFilesName());
+        if (file == null) {
+            throw new IllegalStateException("File '" + fileId + "' from study '" + studyId
+                                                    + "' was not found in the files collection");
+        }
+        Document samples = (Document) file.get(SAMPLES_FIELD);
+        int numberOfSamples = samples == null ? 0 : samples.size();
+
+        CohortStatsCalculator calculator = CohortStatsCalculator.fromPedigreeFile(inputParameters.getPedigree(),
+                                                                                  () -> samplesPosition(samples),
+                                                                                  genotypeDictionary);
+        return new VariantStatsProcessor(studyId, fileId, numberOfSamples, calculator);
+    }
+
+    /**
+     * The dots in the sample names are replaced in the keys of the files collection, so they are put back
+     */
+    private Map<String, Integer> samplesPosition(Document samples) {
+        Map<String, Integer> samplesPosition = new LinkedHashMap<>();
+        if (samples != null) {
+            for (Map.Entry<String, Object> sample : samples.entrySet()) {
+                samplesPosition.put(sample.getKey().replace(CHARACTER_TO_REPLACE_DOTS, '.'),
+                                    ((Number) sample.getValue()).intValue());
+            }
+        }
+        return samplesPosition;
+    }
+
+}
@@ -16,17 +16,14 @@
 package uk.ac.ebi.eva.pipeline.configuration.jobs.steps.processors;
 
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.item.ItemProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import uk.ac.ebi.eva.pipeline.io.VepProcessPool;
 import uk.ac.ebi.eva.pipeline.jobs.steps.processors.VepAnnotationProcessor;
-import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
 import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
 import uk.ac.ebi.eva.pipeline.parameters.ChunkSizeParameters;
 
-import java.util.List;
-
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_PROCESSOR;
 
 /**
@@ -34,17 +31,26 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_PROC
  * <p>
  * Input: List of EnsemblVariant
  * Output: List of Strings, each string is an output line from VEP
+ * <p>
+ * If the parameter app.vep.pool-size is greater than 0, the chunks are annotated by a pool of long-lived VEP
+ * processes. The concrete type is returned so that the step scoped proxy is also an ItemStream that opens and closes
+ * that pool.
  */
 @Configuration
 public class VepAnnotationProcessorConfiguration {
 
     @Bean(VEP_ANNOTATION_PROCESSOR)
     @StepScope
-    public ItemProcessor<List<EnsemblVariant>, List<String>> vepAnnotationProcessor(
-            AnnotationParameters annotationParameters,
-            ChunkSizeParameters chunkSizeParameters) {
+    public VepAnnotationProcessor vepAnnotationProcessor(AnnotationParameters annotationParameters,
+                                                         ChunkSizeParameters chunkSizeParameters) {
+        VepProcessPool vepProcessPool = null;
+        if (annotationParameters.getVepPoolSize() > 0) {
+            vepProcessPool = new VepProcessPool(annotationParameters, chunkSizeParameters.getChunkSize(),
+                                                annotationParameters.getTimeout(),
+                                                annotationParameters.getVepPoolSize());
+        }
         return new VepAnnotationProcessor(annotationParameters, chunkSizeParameters.getChunkSize(),
-                                          annotationParameters.getTimeout());
+                                          annotationParameters.getTimeout(), vepProcessPool);
     }
 
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.io.mappers.AnnotationLineMapper;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer that receives the VEP output and maps each line to an {@link Annotation} as soon as the line is complete,
+ * so the text of the whole output never needs to be held in memory.
+ * <p>
+ * VEP writes one line per transcript, and all the lines of a variant are consecutive, so consecutive annotations
+ * of the same variant are merged into a single {@link Annotation} with all their consequence types.
+ * <p>
+ * This class is not thread safe: the lines must be written by a single thread, and {@link #getAnnotations()} must
+ * only be called after all of them have been written and the writer has been closed.
+ */
+public class AnnotationParsingWriter extends Writer {
+
+    private static final int UNUSED_LINE_NUMBER = 0;
+
+    private final AnnotationLineMapper annotationLineMapper;
+
+    private final StringBuilder currentLine;
+
+    private final List<Annotation> annotations;
+
+    private Annotation lastAnnotation;
+
+    public AnnotationParsingWriter(AnnotationLineMapper annotationLineMapper) {
+        this.annotationLineMapper = annotationLineMapper;
+        this.currentLine = new StringBuilder();
+        this.annotations = new ArrayList<>();
+    }
+
+    @Override
+    public void write(int c) {
+        if (c == '\n') {
+            endLine();
+        } else {
+            currentLine.append((char) c);
+        }
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        int lineStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (buffer[i] == '\n') {
+                currentLine.append(buffer, lineStart, i - lineStart);
+                endLine();
+                lineStart = i + 1;
+            }
+        }
+        currentLine.append(buffer, lineStart, end - lineStart);
+    }
+
+    @Override
+    public void write(String string) {
+        int lineStart = 0;
+        int lineEnd = string.indexOf('\n');
+        while (lineEnd != -1) {
+            currentLine.append(string, lineStart, lineEnd);
+            endLine();
+            lineStart = lineEnd + 1;
+            lineEnd = string.indexOf('\n', lineStart);
+        }
+        currentLine.append(string, lineStart, string.length());
+    }
+
+    private void endLine() {
+        if (currentLine.length() > 0) {
+            Annotation annotation = annotationLineMapper.mapLine(currentLine.toString(), UNUSED_LINE_NUMBER);
+            if (lastAnnotation != null && lastAnnotation.getId().equals(annotation.getId())) {
+                lastAnnotation.addConsequenceTypes(annotation.getConsequenceTypes());
+            } else {
+                annotations.add(annotation);
+                lastAnnotation = annotation;
+            }
+            currentLine.setLength(0);
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Maps the last line, in case it was not terminated by a line break.
+     */
+    @Override
+    public void close() {
+        endLine();
+    }
+
+    /**
+     * @return the annotations of all the lines written, with consecutive annotations of the same variant merged.
+     */
+    public List<Annotation> getAnnotations() {
+        return annotations;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Resource of a file compressed with bgzip, whose blocks are inflated in parallel by a
+ * {@link ParallelBgzfInputStream}. Like {@link GzipLazyResource}, the file is not opened until it's read.
+ * <p>
+ * The resource can be limited to a range of virtual offsets of the file, such as a region found in its tabix index.
+ */
+public class BgzfLazyResource extends FileSystemResource {
+
+    private final int threads;
+
+    private final long startOffset;
+
+    private final long endOffset;
+
+    public BgzfLazyResource(File file) {
+        this(file, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BgzfLazyResource(File file, int threads) {
+        this(file, threads, 0, ParallelBgzfInputStream.END_OF_FILE);
+    }
+
+    /**
+     * @param startOffset virtual offset of the first byte to read
+     * @param endOffset   virtual offset where the reading stops (exclusive), or
+     *                    {@link ParallelBgzfInputStream#END_OF_FILE}
+     */
+    public BgzfLazyResource(File file, int threads, long startOffset, long endOffset) {
+        super(file);
+        this.threads = threads;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new ParallelBgzfInputStream(super.getInputStream(), threads, startOffset, endOffset);
+    }
+
+    @Override
+    public String getDescription() {
+        if (startOffset == 0 && endOffset == ParallelBgzfInputStream.END_OF_FILE) {
+            return super.getDescription();
+        }
+        return super.getDescription() + " from virtual offset " + startOffset + " to " + endOffset;
+    }
+
+}
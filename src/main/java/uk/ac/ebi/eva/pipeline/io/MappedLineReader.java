@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the lines of an uncompressed file through a memory mapped window of the file.
+ * <p>
+ * The lines are split looking for the newline bytes in the mapped window, and only the bytes of each line are
+ * decoded, so there is no intermediate character buffer as in a {@link java.io.BufferedReader}. The window is moved
+ * forward when a line doesn't fit in it, and it grows if a single line is longer than the window.
+ * <p>
+ * The position in the file is a byte offset, so a reader can be moved to the start of any line with {@link #seek}
+ * without reading the file up to it.
+ */
+public class MappedLineReader implements Closeable {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte NEWLINE = '\n';
+
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final Charset charset;
+
+    private int windowSize;
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    private byte[] lineBytes;
+
+    public MappedLineReader(File file, Charset charset) throws IOException {
+        this(file, charset, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedLineReader(File file, Charset charset, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("window size (" + windowSize + ") must be greater than 0");
+        }
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.size = channel.size();
+        this.charset = charset;
+        this.windowSize = windowSize;
+        this.lineBytes = new byte[1024];
+        map(0);
+    }
+
+    /**
+     * @return the byte offset of the next line that will be read
+     */
+    public long getPosition() {
+        return windowStart + window.position();
+    }
+
+    /**
+     * Moves the reader to a byte offset of the file, that should be the start of a line.
+     */
+    public void seek(long position) throws IOException {
+        if (position < 0 || position > size) {
+            throw new IllegalArgumentException("position (" + position + ") must be between 0 and the file size ("
+                                                       + size + ")");
+        }
+        map(position);
+    }
+
+    /**
+     * @return the next line without the line terminator, or null at the end of the file
+     */
+    public String readLine() throws IOException {
+        while (true) {
+            int start = window.position();
+            int limit = window.limit();
+            for (int i = start; i < limit; i++) {
+                if (window.get(i) == NEWLINE) {
+                    String line = decode(start, i);
+                    window.position(i + 1);
+                    return line;
+                }
+            }
+
+            if (windowStart + limit == size) {
+                if (start == limit) {
+                    return null;
+                }
+                String lastLine = decode(start, limit);
+                window.position(limit);
+                return lastLine;
+            }
+
+            if (start == 0) {
+                if (windowSize == Integer.MAX_VALUE) {
+                    throw new IOException("Line at byte " + windowStart + " is longer than " + windowSize + " bytes");
+                }
+                windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * windowSize);
+            }
+            map(windowStart + start);
+        }
+    }
+
+    private String decode(int start, int end) {
+        if (end > start && window.get(end - 1) == CARRIAGE_RETURN) {
+            end--;
+        }
+        int length = end - start;
+        if (lineBytes.length < length) {
+            lineBytes = new byte[Math.max(length, 2 * lineBytes.length)];
+        }
+        window.position(start);
+        window.get(lineBytes, 0, length);
+        return new String(lineBytes, 0, length, charset);
+    }
+
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
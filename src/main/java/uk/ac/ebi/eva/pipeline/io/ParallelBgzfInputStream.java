@@ -0,0 +1,383 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a BGZF file (as written by bgzip) inflating several blocks in parallel.
+ * <p>
+ * A BGZF file is a series of gzip members of up to 64 KB, each of them declaring its compressed size in a header
+ * field, so they can be read without inflating them. The compressed blocks are read ahead in the calling thread and
+ * inflated in a pool of threads, and the inflated blocks are returned in the same order as they are in the file.
+ * <p>
+ * The stream can also be limited to a range of virtual offsets, like the ones stored in tabix indexes. A virtual
+ * offset is the address of a compressed block in the file, in the upper 48 bits, and an offset in its inflated data,
+ * in the lower 16 bits.
+ *
+ * @see <a href="https://samtools.github.io/hts-specs/SAMv1.pdf">BGZF specification, section 4.1</a>
+ */
+public class ParallelBgzfInputStream extends InputStream {
+
+    public static final int HEADER_LENGTH = 18;
+
+    /**
+     * Virtual offset that is never reached, to read until the end of the file
+     */
+    public static final long END_OF_FILE = Long.MAX_VALUE;
+
+    private static final int FOOTER_LENGTH = 8;
+
+    private static final int GZIP_ID1 = 0x1f;
+
+    private static final int GZIP_ID2 = 0x8b;
+
+    private static final int DEFLATE = 8;
+
+    private static final int FEXTRA = 4;
+
+    private static final int BGZF_ID1 = 'B';
+
+    private static final int BGZF_ID2 = 'C';
+
+    private static final int BGZF_SUBFIELD_LENGTH = 2;
+
+    private static final int BLOCKS_PER_THREAD = 4;
+
+    private static final int BLOCK_OFFSET_BITS = 16;
+
+    private static final long BLOCK_OFFSET_MASK = 0xffff;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final AtomicInteger poolSequence = new AtomicInteger();
+
+    private final DataInputStream compressed;
+
+    private final ExecutorService inflaters;
+
+    private final int readAhead;
+
+    private final Deque<PendingBlock> pendingBlocks;
+
+    private final long startOffset;
+
+    private final long endOffset;
+
+    private long blockAddress;
+
+    private boolean endOfCompressedInput;
+
+    private byte[] block;
+
+    private int position;
+
+    private int limit;
+
+    public ParallelBgzfInputStream(InputStream compressed, int threads) throws IOException {
+        this(compressed, threads, 0, END_OF_FILE);
+    }
+
+    /**
+     * @param compressed  the whole compressed file, from its first byte
+     * @param startOffset virtual offset of the first byte to read
+     * @param endOffset   virtual offset where the reading stops (exclusive), or {@link #END_OF_FILE}
+     */
+    public ParallelBgzfInputStream(InputStream compressed, int threads, long startOffset, long endOffset)
+            throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads (" + threads + ") must be strictly greater than 0");
+        }
+        if (startOffset < 0 || endOffset < startOffset) {
+            throw new IllegalArgumentException(
+                    "Invalid range of virtual offsets [" + startOffset + ", " + endOffset + ")");
+        }
+        this.compressed = new DataInputStream(compressed);
+        this.readAhead = threads * BLOCKS_PER_THREAD;
+        this.pendingBlocks = new ArrayDeque<>(readAhead);
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.block = EMPTY;
+        this.position = 0;
+        this.limit = 0;
+
+        this.blockAddress = blockAddress(startOffset);
+        skipCompressedBytes(blockAddress);
+
+        String poolName = "bgzf-inflater-" + poolSequence.incrementAndGet() + "-";
+        AtomicInteger threadSequence = new AtomicInteger();
+        this.inflaters = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, poolName + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param header the first {@link #HEADER_LENGTH} bytes of a file
+     * @return true if the header is the one of a BGZF block, with the BC subfield first, as bgzip writes it
+     */
+    public static boolean isBgzfHeader(byte[] header) {
+        return header.length >= HEADER_LENGTH
+                && unsignedByte(header, 0) == GZIP_ID1
+                && unsignedByte(header, 1) == GZIP_ID2
+                && unsignedByte(header, 2) == DEFLATE
+                && (unsignedByte(header, 3) & FEXTRA) != 0
+                && unsignedShort(header, 10) >= 6
+                && unsignedByte(header, 12) == BGZF_ID1
+                && unsignedByte(header, 13) == BGZF_ID2
+                && unsignedShort(header, 14) == BGZF_SUBFIELD_LENGTH;
+    }
+
+    /**
+     * @return the address in the compressed file of the block that a virtual offset points to
+     */
+    public static long blockAddress(long virtualOffset) {
+        return virtualOffset >>> BLOCK_OFFSET_BITS;
+    }
+
+    /**
+     * @return the offset in the inflated block that a virtual offset points to
+     */
+    public static int blockOffset(long virtualOffset) {
+        return (int) (virtualOffset & BLOCK_OFFSET_MASK);
+    }
+
+    public static long virtualOffset(long blockAddress, int blockOffset) {
+        return (blockAddress << BLOCK_OFFSET_BITS) | blockOffset;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fillBlock()) {
+            return -1;
+        }
+        return block[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fillBlock()) {
+            return -1;
+        }
+        int copied = Math.min(length, limit - position);
+        System.arraycopy(block, position, buffer, offset, copied);
+        position += copied;
+        return copied;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    /**
+     * Makes the next inflated bytes available in {@link #block}, skipping empty blocks like the one that marks the end
+     * of the file. The first and last blocks of the range of virtual offsets are only returned partially.
+     *
+     * @return false if the end of the file, or of the range, was reached
+     */
+    private boolean fillBlock() throws IOException {
+        while (position == limit) {
+            readAhead();
+            PendingBlock nextBlock = pendingBlocks.poll();
+            if (nextBlock == null) {
+                return false;
+            }
+            block = getInflatedBlock(nextBlock.inflated);
+            position = 0;
+            limit = block.length;
+            if (nextBlock.address == blockAddress(startOffset)) {
+                position = checkBlockOffset(blockOffset(startOffset));
+            }
+            if (nextBlock.address == blockAddress(endOffset)) {
+                limit = Math.max(position, checkBlockOffset(blockOffset(endOffset)));
+            }
+        }
+        return true;
+    }
+
+    private int checkBlockOffset(int blockOffset) throws ZipException {
+        if (blockOffset > block.length) {
+            throw new ZipException("Virtual offset beyond the end of a BGZF block of " + block.length + " bytes");
+        }
+        return blockOffset;
+    }
+
+    private void readAhead() throws IOException {
+        while (!endOfCompressedInput && pendingBlocks.size() < readAhead) {
+            long address = blockAddress;
+            byte[] compressedBlock = address > blockAddress(endOffset) ? null : readCompressedBlock();
+            if (compressedBlock == null) {
+                endOfCompressedInput = true;
+            } else {
+                blockAddress += compressedBlock.length;
+                pendingBlocks.add(new PendingBlock(address, inflaters.submit(() -> inflate(compressedBlock))));
+            }
+        }
+    }
+
+    private void skipCompressedBytes(long bytes) throws IOException {
+        long skipped = 0;
+        while (skipped < bytes) {
+            long skippedNow = compressed.skip(bytes - skipped);
+            if (skippedNow <= 0) {
+                if (compressed.read() == -1) {
+                    throw new EOFException("Virtual offset beyond the end of the BGZF file");
+                }
+                skippedNow = 1;
+            }
+            skipped += skippedNow;
+        }
+    }
+
+    /**
+     * @return a whole BGZF block, including the header and footer, or null if the input has finished
+     */
+    private byte[] readCompressedBlock() throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+        int read = compressed.read(header);
+        if (read == -1) {
+            return null;
+        }
+        try {
+            compressed.readFully(header, read, HEADER_LENGTH - read);
+        } catch (EOFException e) {
+            throw new ZipException("Truncated BGZF block header");
+        }
+        if (!isBgzfHeader(header)) {
+            throw new ZipException("Not a BGZF block: the file might be compressed with gzip instead of bgzip");
+        }
+
+        int extraLength = unsignedShort(header, 10);
+        int blockLength = unsignedShort(header, 16) + 1;
+        int headerLength = HEADER_LENGTH - 6 + extraLength;
+        if (blockLength < headerLength + FOOTER_LENGTH) {
+            throw new ZipException("Invalid BGZF block size " + blockLength);
+        }
+
+        byte[] compressedBlock = new byte[blockLength];
+        System.arraycopy(header, 0, compressedBlock, 0, HEADER_LENGTH);
+        try {
+            compressed.readFully(compressedBlock, HEADER_LENGTH, blockLength - HEADER_LENGTH);
+        } catch (EOFException e) {
+            throw new ZipException("Truncated BGZF block");
+        }
+        return compressedBlock;
+    }
+
+    private static byte[] inflate(byte[] compressedBlock) throws IOException {
+        int headerLength = HEADER_LENGTH - 6 + unsignedShort(compressedBlock, 10);
+        int footerStart = compressedBlock.length - FOOTER_LENGTH;
+        long expectedCrc = unsignedInt(compressedBlock, footerStart);
+        int inflatedLength = (int) unsignedInt(compressedBlock, footerStart + 4);
+
+        byte[] inflated = new byte[inflatedLength];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressedBlock, headerLength, footerStart - headerLength);
+            int length = 0;
+            while (length < inflatedLength && !inflater.finished()) {
+                int inflatedNow = inflater.inflate(inflated, length, inflatedLength - length);
+                if (inflatedNow == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflatedNow;
+            }
+            if (length != inflatedLength) {
+                throw new ZipException("BGZF block inflated to " + length + " bytes instead of " + inflatedLength);
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid BGZF block: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(inflated, 0, inflatedLength);
+        if (crc.getValue() != expectedCrc) {
+            throw new ZipException("CRC mismatch in BGZF block");
+        }
+        return inflated;
+    }
+
+    private byte[] getInflatedBlock(Future<byte[]> inflatedBlock) throws IOException {
+        try {
+            return inflatedBlock.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while inflating a BGZF block");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Could not inflate a BGZF block", cause);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (PendingBlock pendingBlock : pendingBlocks) {
+            pendingBlock.inflated.cancel(true);
+        }
+        pendingBlocks.clear();
+        inflaters.shutdownNow();
+        compressed.close();
+    }
+
+    private static class PendingBlock {
+
+        private final long address;
+
+        private final Future<byte[]> inflated;
+
+        PendingBlock(long address, Future<byte[]> inflated) {
+            this.address = address;
+            this.inflated = inflated;
+        }
+    }
+
+    private static int unsignedByte(byte[] bytes, int offset) {
+        return bytes[offset] & 0xff;
+    }
+
+    private static int unsignedShort(byte[] bytes, int offset) {
+        return unsignedByte(bytes, offset) | (unsignedByte(bytes, offset + 1) << 8);
+    }
+
+    private static long unsignedInt(byte[] bytes, int offset) {
+        return (unsignedShort(bytes, offset) | ((long) unsignedShort(bytes, offset + 2) << 16));
+    }
+}
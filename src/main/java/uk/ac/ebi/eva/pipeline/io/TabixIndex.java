@@ -0,0 +1,262 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the virtual offsets where records start from the tabix (.tbi) or CSI (.csi) index of a bgzipped file.
+ * <p>
+ * Only the offsets are kept, which are enough to split the file in regions that can be read independently with a
+ * {@link ParallelBgzfInputStream}: the beginning of every chunk of every bin, and the offsets of the linear index of
+ * tabix or the lowest offset of every bin of CSI. The pseudo-bins with the number of mapped and unmapped records are
+ * skipped.
+ *
+ * @see <a href="https://samtools.github.io/hts-specs/tabix.pdf">Tabix index specification</a>
+ * @see <a href="https://samtools.github.io/hts-specs/CSIv1.pdf">CSI index specification</a>
+ */
+public class TabixIndex {
+
+    public static final String TABIX_EXTENSION = ".tbi";
+
+    public static final String CSI_EXTENSION = ".csi";
+
+    private static final byte[] TABIX_MAGIC = {'T', 'B', 'I', 1};
+
+    private static final byte[] CSI_MAGIC = {'C', 'S', 'I', 1};
+
+    private static final int TABIX_PSEUDO_BIN = 37450;
+
+    private static final int TABIX_HEADER_INTEGERS = 6;
+
+    private final List<String> sequenceNames;
+
+    private final NavigableMap<Long, String> recordOffsets;
+
+    private TabixIndex(List<String> sequenceNames, NavigableMap<Long, String> recordOffsets) {
+        this.sequenceNames = sequenceNames;
+        this.recordOffsets = recordOffsets;
+    }
+
+    /**
+     * @return the tabix or CSI index next to a bgzipped file, preferring the tabix one if both exist, or null if there
+     * is none
+     */
+    public static File findIndex(File file) {
+        for (String extension : Arrays.asList(TABIX_EXTENSION, CSI_EXTENSION)) {
+            File index = new File(file.getPath() + extension);
+            if (index.isFile()) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    public static TabixIndex read(File index) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(index))) {
+            LittleEndianReader reader = new LittleEndianReader(inputStream);
+            byte[] magic = reader.readBytes(TABIX_MAGIC.length);
+            if (Arrays.equals(magic, TABIX_MAGIC)) {
+                return readTabix(reader);
+            } else if (Arrays.equals(magic, CSI_MAGIC)) {
+                return readCsi(reader);
+            } else {
+                throw new IOException("File " + index + " is neither a tabix nor a CSI index");
+            }
+        }
+    }
+
+    private static TabixIndex readTabix(LittleEndianReader reader) throws IOException {
+        int sequences = reader.readInt();
+        reader.readBytes(TABIX_HEADER_INTEGERS * Integer.BYTES);
+        List<String> sequenceNames = readSequenceNames(reader, reader.readInt());
+        checkSequences(sequenceNames, sequences);
+
+        NavigableMap<Long, String> recordOffsets = new TreeMap<>();
+        for (String sequenceName : sequenceNames) {
+            int bins = reader.readInt();
+            for (int i = 0; i < bins; i++) {
+                int bin = reader.readInt();
+                readChunks(reader, bin == TABIX_PSEUDO_BIN, sequenceName, recordOffsets);
+            }
+            int intervals = reader.readInt();
+            for (int i = 0; i < intervals; i++) {
+                addOffset(recordOffsets, reader.readLong(), sequenceName);
+            }
+        }
+        return new TabixIndex(sequenceNames, recordOffsets);
+    }
+
+    private static TabixIndex readCsi(LittleEndianReader reader) throws IOException {
+        reader.readInt();  // the minimum shift is not needed, only the depth to find the pseudo-bin
+        int depth = reader.readInt();
+        byte[] auxiliaryData = reader.readBytes(reader.readInt());
+        int sequences = reader.readInt();
+        List<String> sequenceNames = readCsiSequenceNames(auxiliaryData, sequences);
+        long pseudoBin = (((1L << ((depth + 1) * 3)) - 1) / 7) + 1;
+
+        NavigableMap<Long, String> recordOffsets = new TreeMap<>();
+        for (String sequenceName : sequenceNames) {
+            int bins = reader.readInt();
+            for (int i = 0; i < bins; i++) {
+                long bin = reader.readInt() & 0xffffffffL;
+                long lowestOffset = reader.readLong();
+                boolean isPseudoBin = bin == pseudoBin;
+                if (!isPseudoBin) {
+                    addOffset(recordOffsets, lowestOffset, sequenceName);
+                }
+                readChunks(reader, isPseudoBin, sequenceName, recordOffsets);
+            }
+        }
+        return new TabixIndex(sequenceNames, recordOffsets);
+    }
+
+    /**
+     * The names of the sequences are only stored in the auxiliary data of the CSI indexes of files indexed with
+     * tabix. If they are not there, the sequences are named after their position in the index.
+     */
+    private static List<String> readCsiSequenceNames(byte[] auxiliaryData, int sequences) throws IOException {
+        int namesLengthPosition = TABIX_HEADER_INTEGERS * Integer.BYTES;
+        if (auxiliaryData.length >= namesLengthPosition + Integer.BYTES) {
+            ByteBuffer buffer = ByteBuffer.wrap(auxiliaryData).order(ByteOrder.LITTLE_ENDIAN);
+            int namesLength = buffer.getInt(namesLengthPosition);
+            if (namesLength >= 0 && namesLengthPosition + Integer.BYTES + namesLength <= auxiliaryData.length) {
+                byte[] names = Arrays.copyOfRange(auxiliaryData, namesLengthPosition + Integer.BYTES,
+                                                  namesLengthPosition + Integer.BYTES + namesLength);
+                List<String> sequenceNames = splitNames(names);
+                checkSequences(sequenceNames, sequences);
+                return sequenceNames;
+            }
+        }
+        List<String> sequenceNames = new ArrayList<>(sequences);
+        for (int i = 0; i < sequences; i++) {
+            sequenceNames.add(String.valueOf(i));
+        }
+        return sequenceNames;
+    }
+
+    private static List<String> readSequenceNames(LittleEndianReader reader, int namesLength) throws IOException {
+        return splitNames(reader.readBytes(namesLength));
+    }
+
+    private static List<String> splitNames(byte[] names) {
+        List<String> sequenceNames = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == 0) {
+                sequenceNames.add(new String(names, start, i - start, StandardCharsets.US_ASCII));
+                start = i + 1;
+            }
+        }
+        return sequenceNames;
+    }
+
+    private static void checkSequences(List<String> sequenceNames, int sequences) throws IOException {
+        if (sequenceNames.size() != sequences) {
+            throw new IOException("The index declares " + sequences + " sequences but names "
+                                          + sequenceNames.size());
+        }
+    }
+
+    private static void readChunks(LittleEndianReader reader, boolean isPseudoBin, String sequenceName,
+                                   NavigableMap<Long, String> recordOffsets) throws IOException {
+        int chunks = reader.readInt();
+        for (int i = 0; i < chunks; i++) {
+            long chunkStart = reader.readLong();
+            reader.readLong();
+            if (!isPseudoBin) {
+                addOffset(recordOffsets, chunkStart, sequenceName);
+            }
+        }
+    }
+
+    /**
+     * Offset 0 is not kept because it's the beginning of the file, which is always the start of the first region
+     */
+    private static void addOffset(NavigableMap<Long, String> recordOffsets, long virtualOffset, String sequenceName) {
+        if (virtualOffset > 0) {
+            recordOffsets.putIfAbsent(virtualOffset, sequenceName);
+        }
+    }
+
+    public List<String> getSequenceNames() {
+        return Collections.unmodifiableList(sequenceNames);
+    }
+
+    /**
+     * @return the virtual offsets where a record starts, sorted, with the name of the sequence of the record
+     */
+    public NavigableMap<Long, String> getRecordOffsets() {
+        return Collections.unmodifiableNavigableMap(recordOffsets);
+    }
+
+    private static class LittleEndianReader {
+
+        private final DataInputStream inputStream;
+
+        private final ByteBuffer buffer;
+
+        LittleEndianReader(InputStream inputStream) {
+            this.inputStream = new DataInputStream(inputStream);
+            this.buffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int readInt() throws IOException {
+            return read(Integer.BYTES).getInt(0);
+        }
+
+        long readLong() throws IOException {
+            return read(Long.BYTES).getLong(0);
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            if (length < 0) {
+                throw new IOException("Invalid length " + length + " in the index");
+            }
+            byte[] bytes = new byte[length];
+            readFully(bytes, length);
+            return bytes;
+        }
+
+        private ByteBuffer read(int length) throws IOException {
+            readFully(buffer.array(), length);
+            return buffer;
+        }
+
+        private void readFully(byte[] bytes, int length) throws IOException {
+            try {
+                inputStream.readFully(bytes, 0, length);
+            } catch (EOFException e) {
+                throw new EOFException("Truncated index");
+            }
+        }
+    }
+}
@@ -16,10 +16,12 @@
 
 package uk.ac.ebi.eva.pipeline.io;
 
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemStreamException;
 
+import uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics;
 import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
 
 import java.io.BufferedOutputStream;
@@ -31,8 +33,11 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -62,10 +67,26 @@ import java.util.concurrent.atomic.AtomicLong;
  * 20_60479_C/T	20:60479	T	-	-	-	intergenic_variant	-	-	-	-	-	rs149529999	GMAF=T:0.0018;AFR_MAF=T:0.01;AMR_MAF=T:0.0028
  * ..
  * }
+ * <p>
+ * The process can also be opened in persistent mode, to be reused across chunks and avoid paying the VEP startup
+ * (loading the cache and the FASTA index) for each of them. See {@link #annotateChunk(List, Writer)}.
+ * <p>
+ * The time until the process writes its first output, which includes loading the cache and annotating the first
+ * buffer of variants, is recorded as its startup. The running time is recorded per chunk in persistent mode, and for
+ * the whole life of the process otherwise. The time that a persistent process waits for the next chunk is recorded as
+ * idle.
  */
 public class VepProcess {
     private static final Logger logger = LoggerFactory.getLogger(VepProcess.class);
 
+    static final String CHUNK_END_MARKER_PREFIX = "eva_pipeline_chunk_end_";
+
+    private static final Timer startupTimer = PipelineMetrics.timer(PipelineMetrics.VEP_STARTUP);
+
+    private static final Timer runTimer = PipelineMetrics.timer(PipelineMetrics.VEP_RUN);
+
+    private static final Timer idleTimer = PipelineMetrics.timer(PipelineMetrics.VEP_IDLE);
+
     private AnnotationParameters annotationParameters;
 
     private int chunkSize;
@@ -86,6 +107,18 @@ public class VepProcess {
 
     private boolean skipComments;
 
+    private boolean persistent;
+
+    private long chunkSequence;
+
+    private volatile PendingChunk pendingChunk;
+
+    private String errorLogFilename;
+
+    private long openedAt;
+
+    private long idleSince;
+
     public VepProcess(AnnotationParameters annotationParameters, int chunkSize, Long timeoutInSeconds,
                       Writer annotationWriter, boolean skipComments) {
         if (timeoutInSeconds <= 0) {
@@ -98,6 +131,18 @@ public class VepProcess {
         this.writer = annotationWriter;
         this.skipComments = skipComments;
         this.outputIdleSince = new AtomicLong(System.currentTimeMillis());
+        this.persistent = false;
+    }
+
+    /**
+     * Creates a process in persistent mode: instead of copying the whole output into a single writer, the process
+     * will be kept alive across several calls to {@link #annotateChunk(List, Writer)}, and the output of each chunk
+     * will be routed to the writer provided along with it.
+     */
+    public VepProcess(AnnotationParameters annotationParameters, int chunkSize, Long timeoutInSeconds,
+                      boolean skipComments) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, null, skipComments);
+        this.persistent = true;
     }
 
     public void open() throws ItemStreamException {
@@ -118,7 +163,8 @@ public class VepProcess {
         );
 
         // Redirect error to file to ensure process doesn't block.
-        processBuilder.redirectError(new File(getErrorLogFilename()));
+        errorLogFilename = getErrorLogFilename();
+        processBuilder.redirectError(new File(errorLogFilename));
 
         logger.trace("Starting VEP annotation with parameters = {}", Arrays.toString(processBuilder.command().toArray()));
 
@@ -127,6 +173,8 @@ public class VepProcess {
         } catch (IOException e) {
             throw new ItemStreamException(e);
         }
+        openedAt = System.nanoTime();
+        idleSince = openedAt;
 
         processStandardInput = new BufferedOutputStream(process.getOutputStream());
 
@@ -140,10 +188,15 @@ public class VepProcess {
             long writtenLines = 0;
 
             try (BufferedReader processStandardOutput = getBufferedReader(process)) {
-                writtenLines = copyVepOutput(processStandardOutput, writer, skipComments);
+                if (persistent) {
+                    writtenLines = routeVepOutput(processStandardOutput, skipComments);
+                } else {
+                    writtenLines = copyVepOutput(processStandardOutput, writer, skipComments);
+                }
                 writingOk.set(true);
             } catch (IOException e) {
                 logger.error("Writing the VEP output failed. ", e);
+                failPendingChunk(e);
             }
             logger.trace("Finished writing VEP output ({} lines written)", writtenLines);
         });
@@ -184,6 +237,108 @@ public class VepProcess {
         return process != null;
     }
 
+    /**
+     * @return true if the process is open and both VEP and the thread capturing its output are still running.
+     */
+    public boolean isHealthy() {
+        return isOpen() && process.isAlive() && outputCaptureThread.isAlive();
+    }
+
+    /**
+     * Sends a chunk of variants to a process opened in persistent mode, and blocks until all their annotations have
+     * been written into chunkWriter.
+     * <p>
+     * VEP only writes its output when its buffer is full (or stdin is closed), so the chunk is padded until filling
+     * a whole buffer with copies of its last variant, identified with a marker ID. The first marker that VEP writes
+     * means that the annotation of the chunk is complete; the lines of the remaining markers are discarded.
+     * <p>
+     * The timeout semantics are the same as in {@link #close()}: the wait is extended as long as VEP keeps writing.
+     *
+     * @param variantsInVepInputFormat variant coordinates, one per line, without line terminators
+     * @param chunkWriter where the annotations of this chunk will be written. It is not closed by this method.
+     * @return written lines.
+     */
+    public long annotateChunk(List<String> variantsInVepInputFormat, Writer chunkWriter) throws IOException {
+        if (!isOpen()) {
+            throw new IllegalStateException("Process must be initialized (hint: call open() before annotateChunk())");
+        }
+        if (!persistent) {
+            throw new IllegalStateException("annotateChunk() can only be used with a VepProcess in persistent mode");
+        }
+        if (variantsInVepInputFormat.isEmpty()) {
+            return 0;
+        }
+
+        long chunkStart = System.nanoTime();
+        idleTimer.record(chunkStart - idleSince, TimeUnit.NANOSECONDS);
+
+        String markerId = CHUNK_END_MARKER_PREFIX + chunkSequence++;
+        PendingChunk chunk = new PendingChunk(markerId, chunkWriter);
+        pendingChunk = chunk;
+
+        StringBuilder input = new StringBuilder();
+        for (String variant : variantsInVepInputFormat) {
+            input.append(variant).append(System.lineSeparator());
+        }
+        String lastVariant = variantsInVepInputFormat.get(variantsInVepInputFormat.size() - 1);
+        String marker = lastVariant + "\t" + markerId + System.lineSeparator();
+        int markers = chunkSize - (variantsInVepInputFormat.size() % chunkSize);
+        for (int i = 0; i < markers; i++) {
+            input.append(marker);
+        }
+
+        write(input.toString().getBytes());
+        flush();
+        long writtenLines = waitUntilChunkIsAnnotated(chunk);
+
+        idleSince = System.nanoTime();
+        runTimer.record(idleSince - chunkStart, TimeUnit.NANOSECONDS);
+        return writtenLines;
+    }
+
+    private long waitUntilChunkIsAnnotated(PendingChunk chunk) {
+        try {
+            boolean processWroteDuringWait;
+            do {
+                long beforeWaiting = System.currentTimeMillis();
+                try {
+                    return chunk.getCompletion().get(timeoutInSeconds, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    processWroteDuringWait = beforeWaiting < outputIdleSince.get();
+                    if (processWroteDuringWait) {
+                        logger.debug("Extending the timeout, as the process wrote more lines (it's still active)");
+                    }
+                }
+            } while (processWroteDuringWait);
+        } catch (InterruptedException e) {
+            throw new ItemStreamException(e);
+        } catch (ExecutionException e) {
+            destroy();
+            throw new ItemStreamException("Error while running VEP. See " + errorLogFilename
+                                                  + " for the errors description from VEP.", e.getCause());
+        } finally {
+            pendingChunk = null;
+        }
+
+        destroy();
+        String timeoutReachedMessage = "VEP has been idle for more than the timeout (" + timeoutInSeconds
+                + " seconds). The process has been killed.";
+        logger.error(timeoutReachedMessage);
+        throw new ItemStreamException(timeoutReachedMessage);
+    }
+
+    /**
+     * Kills the process without waiting for its output. Used to discard processes that crashed or stopped responding.
+     * It is safe to call this method several times.
+     */
+    public void destroy() {
+        if (isOpen()) {
+            logger.debug("Killing VEP process");
+            process.destroy();
+            process = null;
+        }
+    }
+
     public void flush() throws IOException {
         if (!isOpen()) {
             throw new IllegalStateException("Process must be initialized (hint: call open() before flush())");
@@ -205,6 +360,9 @@ public class VepProcess {
                 waitUntilProcessEnds(timeoutInSeconds);
                 checkExitStatus();
                 checkOutputWritingStatus();
+                if (!persistent) {
+                    runTimer.record(System.nanoTime() - openedAt, TimeUnit.NANOSECONDS);
+                }
             } finally {
                 process = null;
                 logger.trace("VEP process finished");
@@ -264,13 +422,12 @@ public class VepProcess {
         int exitValue = process.exitValue();
         if (exitValue != 0) {
             String backupVepOutput = getBackupVepOutputFilename();
-            String errorLog = getErrorLogFilename();
             boolean renamed = new File(annotationParameters.getVepOutput()).renameTo(new File(backupVepOutput));
             if (renamed) {
                 logger.info("Failed VEP output saved to " + backupVepOutput);
             }
             throw new ItemStreamException("Error while running VEP (exit status " + exitValue + "). See "
-                    + errorLog + " for the errors description from VEP.");
+                    + errorLogFilename + " for the errors description from VEP.");
         }
     }
 
@@ -304,6 +461,7 @@ public class VepProcess {
         long writtenLines = 0;
 
         String line = getNextLine(reader, skipComments);
+        recordStartup(line);
         String lastLine = line;
         while (line != null) {
             writer.write(line);
@@ -321,6 +479,55 @@ public class VepProcess {
         return writtenLines;
     }
 
+    /**
+     * Read the VEP output of a process in persistent mode, writing each line into the writer of the chunk that is
+     * being annotated, and marking the chunk as completed when its end marker is read.
+     *
+     * @param reader must be closed externally
+     * @param skipComments if false, will write all lines starting with '#', if true, will not write any.
+     * @return written lines.
+     */
+    private long routeVepOutput(BufferedReader reader, boolean skipComments) throws IOException {
+        long writtenLines = 0;
+
+        String line = getNextLine(reader, skipComments);
+        recordStartup(line);
+        while (line != null) {
+            outputIdleSince.set(System.currentTimeMillis());
+            PendingChunk chunk = pendingChunk;
+            if (line.startsWith(CHUNK_END_MARKER_PREFIX)) {
+                if (chunk != null && !chunk.getCompletion().isDone()
+                        && line.startsWith(chunk.getMarkerId() + "\t")) {
+                    chunk.getWriter().flush();
+                    logCoordinates(chunk.getLastLine(), chunk.getWrittenLines());
+                    chunk.getCompletion().complete(chunk.getWrittenLines());
+                }
+            } else if (chunk == null) {
+                throw new IOException("VEP wrote an annotation while no chunk was being annotated: " + line);
+            } else {
+                chunk.write(line);
+                writtenLines++;
+            }
+            line = getNextLine(reader, skipComments);
+        }
+
+        failPendingChunk(new IOException("VEP output finished before completing the annotation of the chunk"));
+        return writtenLines;
+    }
+
+    private void recordStartup(String firstLine) {
+        if (firstLine != null) {
+            startupTimer.record(System.nanoTime() - openedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void failPendingChunk(IOException cause) {
+        PendingChunk chunk = pendingChunk;
+        if (chunk != null) {
+            chunk.getCompletion().completeExceptionally(cause);
+        }
+    }
+
     private String getNextLine(BufferedReader reader, boolean skipComments) throws IOException {
         String line = reader.readLine();
         if (skipComments) {
@@ -365,4 +572,53 @@ public class VepProcess {
         return written;
     }
 
+    /**
+     * Chunk sent to a process in persistent mode whose annotations have not been completely written yet.
+     */
+    private static class PendingChunk {
+
+        private final String markerId;
+
+        private final Writer writer;
+
+        private final CompletableFuture<Long> completion;
+
+        private long writtenLines;
+
+        private String lastLine;
+
+        PendingChunk(String markerId, Writer writer) {
+            this.markerId = markerId;
+            this.writer = writer;
+            this.completion = new CompletableFuture<>();
+            this.writtenLines = 0;
+        }
+
+        void write(String line) throws IOException {
+            writer.write(line);
+            writer.write('\n');
+            writtenLines++;
+            lastLine = line;
+        }
+
+        String getMarkerId() {
+            return markerId;
+        }
+
+        Writer getWriter() {
+            return writer;
+        }
+
+        CompletableFuture<Long> getCompletion() {
+            return completion;
+        }
+
+        long getWrittenLines() {
+            return writtenLines;
+        }
+
+        String getLastLine() {
+            return lastLine;
+        }
+    }
 }
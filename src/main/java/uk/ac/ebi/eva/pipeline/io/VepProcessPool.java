@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemStreamException;
+
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of {@link VepProcess} in persistent mode, that are started once and kept warm (with the VEP cache and FASTA
+ * already loaded) to annotate all the chunks of a step.
+ * <p>
+ * Each call to {@link #annotate(List, Writer)} borrows an idle process, waiting if all of them are busy. Processes
+ * that crashed while idle are restarted before being used, and processes that fail or reach the timeout while
+ * annotating a chunk are killed, so they will be restarted the next time they are borrowed.
+ */
+public class VepProcessPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(VepProcessPool.class);
+
+    private static final boolean SKIP_COMMENTS = true;
+
+    private final AnnotationParameters annotationParameters;
+
+    private final int chunkSize;
+
+    private final Long timeoutInSeconds;
+
+    private final int poolSize;
+
+    private BlockingQueue<VepProcess> idleProcesses;
+
+    public VepProcessPool(AnnotationParameters annotationParameters, int chunkSize, Long timeoutInSeconds,
+                          int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("pool size (" + poolSize + ") must be strictly greater than 0");
+        }
+        this.annotationParameters = annotationParameters;
+        this.chunkSize = chunkSize;
+        this.timeoutInSeconds = timeoutInSeconds;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Starts all the VEP processes. It is safe to call this method several times; it's idempotent.
+     */
+    public synchronized void open() throws ItemStreamException {
+        if (!isOpen()) {
+            logger.debug("Starting a pool of {} VEP processes", poolSize);
+            BlockingQueue<VepProcess> processes = new ArrayBlockingQueue<>(poolSize);
+            try {
+                for (int i = 0; i < poolSize; i++) {
+                    processes.add(startProcess());
+                }
+            } catch (ItemStreamException e) {
+                processes.forEach(VepProcess::destroy);
+                throw e;
+            }
+            idleProcesses = processes;
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return idleProcesses != null;
+    }
+
+    /**
+     * Annotates a chunk of variants with one of the processes of the pool.
+     *
+     * @see VepProcess#annotateChunk(List, Writer)
+     */
+    public long annotate(List<String> variantsInVepInputFormat, Writer chunkWriter)
+            throws IOException, InterruptedException {
+        BlockingQueue<VepProcess> processes = getIdleProcesses();
+        VepProcess vepProcess = processes.take();
+        try {
+            if (!vepProcess.isHealthy()) {
+                logger.warn("VEP process is not running anymore, starting a new one");
+                vepProcess.destroy();
+                vepProcess = startProcess();
+            }
+            return vepProcess.annotateChunk(variantsInVepInputFormat, chunkWriter);
+        } catch (IOException | RuntimeException e) {
+            vepProcess.destroy();
+            throw e;
+        } finally {
+            processes.add(vepProcess);
+        }
+    }
+
+    private synchronized BlockingQueue<VepProcess> getIdleProcesses() {
+        if (!isOpen()) {
+            throw new IllegalStateException("Pool must be initialized (hint: call open() before annotate())");
+        }
+        return idleProcesses;
+    }
+
+    private VepProcess startProcess() {
+        VepProcess vepProcess = new VepProcess(annotationParameters, chunkSize, timeoutInSeconds, SKIP_COMMENTS);
+        vepProcess.open();
+        return vepProcess;
+    }
+
+    /**
+     * Closes all the VEP processes, waiting for them to finish. Must not be called while a chunk is being annotated.
+     * It is safe to call this method several times; it's idempotent.
+     */
+    public synchronized void close() throws ItemStreamException {
+        if (isOpen()) {
+            List<VepProcess> processes = new ArrayList<>();
+            idleProcesses.drainTo(processes);
+            idleProcesses = null;
+
+            ItemStreamException firstException = null;
+            for (VepProcess vepProcess : processes) {
+                try {
+                    vepProcess.close();
+                } catch (ItemStreamException e) {
+                    logger.error("Could not close VEP process", e);
+                    if (firstException == null) {
+                        firstException = e;
+                    }
+                }
+            }
+            logger.debug("Pool of VEP processes closed");
+
+            if (firstException != null) {
+                throw firstException;
+            }
+        }
+    }
+}
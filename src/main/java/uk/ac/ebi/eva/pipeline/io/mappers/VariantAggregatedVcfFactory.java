@@ -110,10 +110,10 @@ public class VariantAggregatedVcfFactory extends VariantVcfFactory {
     }
 
     @Override
-    protected void parseSplitSampleData(Variant variant, String fileId, String studyId, String[] fields,
+    protected void parseSplitSampleData(Variant variant, String fileId, String studyId, VcfLineTokenizer fields,
                                         String[] alternateAlleles, String[] secondaryAlternates, int alternateAlleleIdx)
             throws NonStandardCompliantSampleField {
-        if (fields.length > 8) {
+        if (fields.size() > 8) {
             throw new IllegalArgumentException("Aggregated VCFs should not have column FORMAT nor " +
                     "further sample columns, i.e. there should be only 8 columns");
         }
@@ -136,7 +136,7 @@ public class VariantAggregatedVcfFactory extends VariantVcfFactory {
             parseInfo(variant, fileId, studyId, info, numAllele);
         }
         sourceEntry.setFormat(format);
-        sourceEntry.addAttribute("src", line);
+        sourceEntry.addAttribute("src", getSourceLine(line));
 
 
         if (tagMap == null) {
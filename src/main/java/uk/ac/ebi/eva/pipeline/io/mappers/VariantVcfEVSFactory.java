@@ -88,7 +88,7 @@ public class VariantVcfEVSFactory extends VariantAggregatedVcfFactory {
             parseInfo(variant, fileId, studyId, info, numAllele);
         }
         sourceEntry.setFormat(format);
-        sourceEntry.addAttribute("src", line);
+        sourceEntry.addAttribute("src", getSourceLine(line));
 
 
         if (tagMap == null) {   // whether we can parse population stats or not
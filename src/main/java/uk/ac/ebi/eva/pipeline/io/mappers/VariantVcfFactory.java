@@ -17,11 +17,12 @@
 package uk.ac.ebi.eva.pipeline.io.mappers;
 
 import org.apache.commons.lang3.StringUtils;
-import org.opencb.biodata.models.feature.Genotype;
 import org.opencb.biodata.models.variant.VariantFactory;
 import org.opencb.biodata.models.variant.exceptions.NonStandardCompliantSampleField;
 import org.opencb.biodata.models.variant.exceptions.NotAVariantException;
 
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
 import uk.ac.ebi.eva.pipeline.exception.IncompleteInformationException;
@@ -32,9 +33,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,9 +41,28 @@ import static java.lang.Math.max;
 
 /**
  * Class that parses VCF lines to create Variants.
+ * <p>
+ * The line is split with a {@link VcfLineTokenizer}, so the sample columns and the INFO field are read from offsets in
+ * the line and only the values that are stored in the variants are copied. Instances don't hold any state of the line
+ * being parsed, so they can be shared by several threads.
  */
 public class VariantVcfFactory {
 
+    private static final int SOURCE_LINE_COLUMNS = 8;
+
+    private final GenotypeDictionary genotypeDictionary;
+
+    public VariantVcfFactory() {
+        this(new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * @param genotypeDictionary where the genotypes of the samples are looked up, shared with the rest of the step
+     */
+    public VariantVcfFactory(GenotypeDictionary genotypeDictionary) {
+        this.genotypeDictionary = genotypeDictionary;
+    }
+
     /**
      * Creates a list of Variant objects using the fields in a record of a VCF
      * file. A new Variant object is created per allele, so several of them can
@@ -61,12 +79,12 @@ public class VariantVcfFactory {
      */
     public List<Variant> create(String fileId, String studyId,
                                 String line) throws IllegalArgumentException, NotAVariantException {
-        String[] fields = line.split("\t");
-        if (fields.length < 8) {
+        VcfLineTokenizer fields = new VcfLineTokenizer().tokenize(line, '\t');
+        if (fields.size() < 8) {
             throw new IllegalArgumentException("Not enough fields provided (min 8)");
         }
 
-        String chromosome = fields[0];
+        String chromosome = fields.get(0);
         int position = getPosition(fields);
         Set<String> ids = new HashSet<>(); //EVA-942 - Ignore IDs submitted through VCF
         String reference = getReference(fields);
@@ -108,40 +126,40 @@ public class VariantVcfFactory {
         return variants;
     }
 
-    private int getPosition(String[] fields) {
-        return Integer.parseInt(fields[1]);
+    private int getPosition(VcfLineTokenizer fields) {
+        return Integer.parseInt(fields.get(1));
     }
 
-    private Set<String> getIds(String[] fields) {
+    private Set<String> getIds(VcfLineTokenizer fields) {
         Set<String> ids = new HashSet<>();
-        if (!fields[2].equals(".")) {    // note!: we store a "." as an empty set, not a set with an empty string
-            ids.addAll(Arrays.asList(fields[2].split(";")));
+        if (!fields.equals(2, ".")) {    // note!: we store a "." as an empty set, not a set with an empty string
+            ids.addAll(Arrays.asList(fields.get(2).split(";")));
         }
         return ids;
     }
 
-    private String getReference(String[] fields) {
-        return fields[3].equals(".") ? "" : fields[3];
+    private String getReference(VcfLineTokenizer fields) {
+        return fields.equals(3, ".") ? "" : fields.get(3);
     }
 
-    private String[] getAlternateAlleles(String[] fields, String chromosome, int position, String reference) {
-        return fields[4].split(",");
+    private String[] getAlternateAlleles(VcfLineTokenizer fields, String chromosome, int position, String reference) {
+        return fields.get(4).split(",");
     }
 
-    private float getQuality(String[] fields) {
-        return fields[5].equals(".") ? -1 : Float.parseFloat(fields[5]);
+    private float getQuality(VcfLineTokenizer fields) {
+        return fields.equals(5, ".") ? -1 : Float.parseFloat(fields.get(5));
     }
 
-    private String getFilter(String[] fields) {
-        return fields[6].equals(".") ? "" : fields[6];
+    private String getFilter(VcfLineTokenizer fields) {
+        return fields.equals(6, ".") ? "" : fields.get(6);
     }
 
-    private String getInfo(String[] fields) {
-        return fields[7].equals(".") ? "" : fields[7];
+    private String getInfo(VcfLineTokenizer fields) {
+        return fields.equals(7, ".") ? "" : fields.get(7);
     }
 
-    private String getFormat(String[] fields) {
-        return (fields.length <= 8 || fields[8].equals(".")) ? "" : fields[8];
+    private String getFormat(VcfLineTokenizer fields) {
+        return (fields.size() <= 8 || fields.equals(8, ".")) ? "" : fields.get(8);
     }
 
     private List<VariantKeyFields> buildVariantKeyFields(String chromosome, int position, String reference,
@@ -214,28 +232,30 @@ public class VariantVcfFactory {
         return secondaryAlternates;
     }
 
-    protected void parseSplitSampleData(Variant variant, String fileId, String studyId, String[] fields,
+    protected void parseSplitSampleData(Variant variant, String fileId, String studyId, VcfLineTokenizer fields,
                                         String[] alternateAlleles, String[] secondaryAlternates,
                                         int alternateAlleleIdx) throws NonStandardCompliantSampleField {
         String[] formatFields = variant.getSourceEntry(fileId, studyId).getFormat().split(":");
+        SamplesData samplesData = variant.getSourceEntry(fileId, studyId).getSamplesData();
+        int[] columns = new int[formatFields.length];
+        for (int j = 0; j < formatFields.length; j++) {
+            columns[j] = samplesData.addColumn(formatFields[j]);
+        }
+        VcfLineTokenizer sampleFields = new VcfLineTokenizer();
 
-        for (int i = 9; i < fields.length; i++) {
-            Map<String, String> map = new TreeMap<>();
-
-            // Fill map of a sample
-            String[] sampleFields = fields[i].split(":");
+        for (int i = 9; i < fields.size(); i++) {
+            // Add sample to the variant entry in the source file
+            int sampleIndex = samplesData.addSample();
+            sampleFields.tokenize(fields.getText(), fields.start(i), fields.end(i), ':');
 
             // Samples may remove the trailing fields (only GT is mandatory),
-            // so the loop iterates to sampleFields.length, not formatFields.length
-            for (int j = 0; j < sampleFields.length; j++) {
+            // so the loop iterates to sampleFields.size(), not formatFields.length
+            for (int j = 0; j < sampleFields.size(); j++) {
                 String formatField = formatFields[j];
-                String sampleField = processSampleField(alternateAlleleIdx, formatField, sampleFields[j]);
+                String sampleField = processSampleField(alternateAlleleIdx, formatField, sampleFields.get(j));
 
-                map.put(formatField, sampleField);
+                samplesData.setValue(sampleIndex, columns[j], sampleField);
             }
-
-            // Add sample to the variant entry in the source file
-            variant.getSourceEntry(fileId, studyId).addSampleData(map);
         }
     }
 
@@ -258,35 +278,18 @@ public class VariantVcfFactory {
     }
 
     /**
-     * Intern the genotype String into the String pool to avoid storing lots of "0/0". In case that the variant is
-     * multiallelic and we are currently processing one of the secondary alternates (T is the only secondary alternate
-     * in a variant like A -> C,T), change the allele codes to represent the current alternate as allele 1. For details
-     * on changing this indexes, see {@link VariantVcfFactory#mapToMultiallelicIndex(int, int)}
+     * Get the genotype from the {@link GenotypeDictionary}, to avoid storing lots of copies of "0/0". In case that the
+     * variant is multiallelic and we are currently processing one of the secondary alternates (T is the only secondary
+     * alternate in a variant like A -> C,T), change the allele codes to represent the current alternate as allele 1.
+     * For details on changing this indexes, see {@link GenotypeDictionary#mapToMultiallelicIndex(int, int)}
      *
      * @param alternateAlleleIdx current alternate being processed. 0 for first alternate, 1 or more for a secondary
      *                           alternate.
      * @param genotype           first field in the samples column, e.g. "0/0"
-     * @return the processed genotype string, as described above (interned and changed if multiallelic).
+     * @return the processed genotype string, as described above (shared and changed if multiallelic).
      */
     private String processGenotypeField(int alternateAlleleIdx, String genotype) {
-        boolean isNotTheFirstAlternate = alternateAlleleIdx >= 1;
-        if (isNotTheFirstAlternate) {
-            Genotype parsedGenotype = new Genotype(genotype);
-
-            StringBuilder genotypeStr = new StringBuilder();
-            for (int allele : parsedGenotype.getAllelesIdx()) {
-                if (allele < 0) { // Missing
-                    genotypeStr.append(".");
-                } else {
-                    // Replace numerical indexes when they refer to another alternate allele
-                    genotypeStr.append(String.valueOf(mapToMultiallelicIndex(allele, alternateAlleleIdx)));
-                }
-                genotypeStr.append(parsedGenotype.isPhased() ? "|" : "/");
-            }
-            genotype = genotypeStr.substring(0, genotypeStr.length() - 1);
-        }
-
-        return genotype.intern();
+        return genotypeDictionary.get(genotype, alternateAlleleIdx).getValue();
     }
 
     protected void setOtherFields(Variant variant, String fileId, String studyId, Set<String> ids, float quality,
@@ -305,30 +308,35 @@ public class VariantVcfFactory {
         if (!info.isEmpty()) {
             parseInfo(variant, fileId, studyId, info, numAllele);
         }
-        variant.getSourceEntry(fileId, studyId).addAttribute("src", line);
+        variant.getSourceEntry(fileId, studyId).addAttribute("src", getSourceLine(line));
     }
 
     protected void parseInfo(Variant variant, String fileId, String studyId, String info, int numAllele) {
         VariantSourceEntry file = variant.getSourceEntry(fileId, studyId);
-
-        for (String var : info.split(";")) {
-            String[] splits = var.split("=");
-            if (splits.length == 2) {
-                switch (splits[0]) {
+        SamplesData samplesData = file.getSamplesData();
+        VcfLineTokenizer attributes = new VcfLineTokenizer().tokenize(info, ';');
+        VcfLineTokenizer splits = new VcfLineTokenizer();
+        VcfLineTokenizer values = new VcfLineTokenizer();
+
+        for (int i = 0; i < attributes.size(); i++) {
+            splits.tokenize(info, attributes.start(i), attributes.end(i), '=');
+            if (splits.size() == 2) {
+                String key = splits.get(0);
+                switch (key) {
                     case "ACC":
                         // Managing accession ID for the allele
-                        String[] ids = splits[1].split(",");
-                        file.addAttribute(splits[0], ids[numAllele]);
+                        values.tokenize(info, splits.start(1), splits.end(1), ',');
+                        file.addAttribute(key, values.get(numAllele));
                         break;
                     case "AC":
                         // TODO For now, only one alternate is supported
-                        String[] counts = splits[1].split(",");
-                        file.addAttribute(splits[0], counts[numAllele]);
+                        values.tokenize(info, splits.start(1), splits.end(1), ',');
+                        file.addAttribute(key, values.get(numAllele));
                         break;
                     case "AF":
                         // TODO For now, only one alternate is supported
-                        String[] frequencies = splits[1].split(",");
-                        file.addAttribute(splits[0], frequencies[numAllele]);
+                        values.tokenize(info, splits.start(1), splits.end(1), ',');
+                        file.addAttribute(key, values.get(numAllele));
                         break;
 //                    case "AN":
 //                        // TODO For now, only two alleles (reference and one alternate) are supported, but this
@@ -337,24 +345,26 @@ public class VariantVcfFactory {
 //                        break;
                     case "NS":
                         // Count the number of samples that are associated with the allele
-                        file.addAttribute(splits[0], String.valueOf(file.getSamplesData().size()));
+                        file.addAttribute(key, String.valueOf(samplesData.size()));
                         break;
                     case "DP":
                         int dp = 0;
-                        for (Map<String, String> sampleData : file.getSamplesData()) {
-                            String sampleDp = sampleData.get("DP");
+                        int dpColumn = samplesData.getColumnIndex("DP");
+                        for (int sample = 0; dpColumn >= 0 && sample < samplesData.size(); sample++) {
+                            String sampleDp = samplesData.getValue(sample, dpColumn);
                             if (StringUtils.isNumeric(sampleDp)) {
                                 dp += Integer.parseInt(sampleDp);
                             }
                         }
-                        file.addAttribute(splits[0], String.valueOf(dp));
+                        file.addAttribute(key, String.valueOf(dp));
                         break;
                     case "MQ":
                     case "MQ0":
                         int mq = 0;
                         int mq0 = 0;
-                        for (Map<String, String> sampleData : file.getSamplesData()) {
-                            String sampleGq = sampleData.get("GQ");
+                        int gqColumn = samplesData.getColumnIndex("GQ");
+                        for (int sample = 0; gqColumn >= 0 && sample < samplesData.size(); sample++) {
+                            String sampleGq = samplesData.getValue(sample, gqColumn);
                             if (StringUtils.isNumeric(sampleGq)) {
                                 int gq = Integer.parseInt(sampleGq);
                                 mq += gq * gq;
@@ -367,11 +377,11 @@ public class VariantVcfFactory {
                         file.addAttribute("MQ0", String.valueOf(mq0));
                         break;
                     default:
-                        file.addAttribute(splits[0], splits[1]);
+                        file.addAttribute(key, splits.get(1));
                         break;
                 }
             } else {
-                variant.getSourceEntry(fileId, studyId).addAttribute(splits[0], "");
+                variant.getSourceEntry(fileId, studyId).addAttribute(splits.get(0), "");
             }
         }
     }
@@ -399,12 +409,7 @@ public class VariantVcfFactory {
     }
 
     /**
-     * In multiallelic variants, we have a list of alternates, where numAllele is the one whose variant we are parsing
-     * now. If we are parsing the first variant (numAllele == 0) A1 refers to first alternative, (i.e.
-     * alternateAlleles[0]), A2 to second alternative (alternateAlleles[1]), and so on. However, if numAllele == 1, A1
-     * refers to second alternate (alternateAlleles[1]), A2 to first (alternateAlleles[0]) and higher alleles remain
-     * unchanged. Moreover, if NumAllele == 2, A1 is third alternate, A2 is first alternate and A3 is second alternate.
-     * It's also assumed that A0 would be the reference, so it remains unchanged too.
+     * Changes an allele index of a multiallelic variant, so that the alternate being processed is allele 1.
      * <p>
      * This pattern of the first allele moving along (and swapping) is what describes this function. Also, look
      * VariantVcfFactory.getSecondaryAlternates().
@@ -412,17 +417,26 @@ public class VariantVcfFactory {
      * @param parsedAllele the value of parsed alleles. e.g. 1 if genotype was "A1" (first allele).
      * @param numAllele    current variant of the alternates.
      * @return the correct allele index depending on numAllele.
+     * @see GenotypeDictionary#mapToMultiallelicIndex(int, int)
      */
     protected static int mapToMultiallelicIndex(int parsedAllele, int numAllele) {
-        int correctedAllele = parsedAllele;
-        if (parsedAllele > 0) {
-            if (parsedAllele == numAllele + 1) {
-                correctedAllele = 1;
-            } else if (parsedAllele < numAllele + 1) {
-                correctedAllele = parsedAllele + 1;
+        return GenotypeDictionary.mapToMultiallelicIndex(parsedAllele, numAllele);
+    }
+
+    /**
+     * Keeps the fixed columns of a VCF line, from CHROM to INFO, which are the only ones stored in the "src"
+     * attribute. The sample columns are cut at parse time so the whole line is not kept in memory until the variant
+     * is written.
+     */
+    protected static String getSourceLine(String line) {
+        int end = -1;
+        for (int column = 0; column < SOURCE_LINE_COLUMNS; column++) {
+            end = line.indexOf('\t', end + 1);
+            if (end < 0) {
+                return line;
             }
         }
-        return correctedAllele;
+        return line.substring(0, end);
     }
 
     protected void checkVariantInformation(Variant variant, String fileId,
@@ -440,18 +454,46 @@ public class VariantVcfFactory {
     }
 
     private boolean hasAlternateAlleleCalls(VariantSourceEntry variantSourceEntry) {
-        boolean hasAlternateAlleleCalls = false;
-        List<Map<String, String>> samplesData = variantSourceEntry.getSamplesData();
-        if (!samplesData.isEmpty() && samplesData.stream().map((m) -> m.get("GT"))
-                                                 .anyMatch(this::genotypeHasAlternateAllele)) {
-            hasAlternateAlleleCalls = true;
+        SamplesData samplesData = variantSourceEntry.getSamplesData();
+        int genotypeColumn = samplesData.getColumnIndex("GT");
+        if (genotypeColumn < 0) {
+            return false;
         }
 
-        return hasAlternateAlleleCalls;
+        // check each distinct genotype only once, and only if some sample has it
+        List<String> genotypes = samplesData.getDistinctValues(genotypeColumn);
+        Boolean[] genotypesWithAlternate = new Boolean[genotypes.size()];
+        for (int sample = 0; sample < samplesData.size(); sample++) {
+            int code = samplesData.getCode(sample, genotypeColumn);
+            if (code != SamplesData.MISSING_CODE) {
+                if (genotypesWithAlternate[code] == null) {
+                    genotypesWithAlternate[code] = genotypeHasAlternateAllele(genotypes.get(code));
+                }
+                if (genotypesWithAlternate[code]) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
+    /**
+     * Equivalent to checking if the alleles of the genotype, split by "/" or "|", contain "1", without splitting it.
+     */
     private boolean genotypeHasAlternateAllele(String sampleField) {
-        return Arrays.asList(sampleField.split("[/|]")).contains("1");
+        int length = sampleField.length();
+        for (int i = sampleField.indexOf('1'); i >= 0; i = sampleField.indexOf('1', i + 1)) {
+            boolean alleleStarts = i == 0 || isAlleleSeparator(sampleField.charAt(i - 1));
+            boolean alleleEnds = i == length - 1 || isAlleleSeparator(sampleField.charAt(i + 1));
+            if (alleleStarts && alleleEnds) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAlleleSeparator(char character) {
+        return character == '/' || character == '|';
     }
 
 }
@@ -17,6 +17,7 @@ package uk.ac.ebi.eva.pipeline.io.mappers;
 
 import org.springframework.batch.item.file.LineMapper;
 
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
 import uk.ac.ebi.eva.commons.models.data.Variant;
 
 import java.util.List;
@@ -34,9 +35,13 @@ public class VcfLineMapper implements LineMapper<List<Variant>> {
     private final VariantVcfFactory factory;
 
     public VcfLineMapper(String fileId, String studyId) {
+        this(fileId, studyId, new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE));
+    }
+
+    public VcfLineMapper(String fileId, String studyId, GenotypeDictionary genotypeDictionary) {
         this.fileId = fileId;
         this.studyId = studyId;
-        this.factory = new VariantVcfFactory();
+        this.factory = new VariantVcfFactory(genotypeDictionary);
     }
 
     @Override
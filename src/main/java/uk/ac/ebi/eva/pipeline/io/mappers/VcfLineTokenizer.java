@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import java.util.Arrays;
+
+/**
+ * Splits a region of a String by a separator character, keeping only the offsets of each token instead of copying
+ * them into new Strings. A token is only copied when {@link #get(int)} is called, so the fields of a VCF line that are
+ * not needed (or that are compared against a constant) don't cause any allocation.
+ * <p>
+ * The tokens are the same that {@link String#split(String)} would return when splitting by that single character:
+ * trailing empty tokens are discarded, and a region without separators is a single token, even if it's empty.
+ * <p>
+ * Instances can be reused to tokenize several regions, but they are not thread safe.
+ */
+public class VcfLineTokenizer {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String text;
+
+    private int[] bounds;
+
+    private int size;
+
+    public VcfLineTokenizer() {
+        bounds = new int[INITIAL_CAPACITY * 2];
+    }
+
+    public VcfLineTokenizer tokenize(String text, char separator) {
+        return tokenize(text, 0, text.length(), separator);
+    }
+
+    /**
+     * @param start index of the first character of the region, inclusive
+     * @param end   index of the last character of the region, exclusive
+     */
+    public VcfLineTokenizer tokenize(String text, int start, int end, char separator) {
+        this.text = text;
+        size = 0;
+
+        int tokenStart = start;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == separator) {
+                add(tokenStart, i);
+                tokenStart = i + 1;
+            }
+        }
+        add(tokenStart, end);
+
+        if (size > 1) {
+            while (size > 0 && start(size - 1) == end(size - 1)) {
+                size--;
+            }
+        }
+        return this;
+    }
+
+    private void add(int tokenStart, int tokenEnd) {
+        if (size * 2 == bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        bounds[size * 2] = tokenStart;
+        bounds[size * 2 + 1] = tokenEnd;
+        size++;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int start(int index) {
+        checkIndex(index);
+        return bounds[index * 2];
+    }
+
+    public int end(int index) {
+        checkIndex(index);
+        return bounds[index * 2 + 1];
+    }
+
+    public int length(int index) {
+        return end(index) - start(index);
+    }
+
+    public String get(int index) {
+        return text.substring(start(index), end(index));
+    }
+
+    public boolean equals(int index, String value) {
+        return length(index) == value.length() && text.startsWith(value, start(index));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package uk.ac.ebi.eva.pipeline.io.readers;
 
 import org.opencb.biodata.models.variant.VariantSource;
+import org.springframework.core.io.Resource;
 
 import uk.ac.ebi.eva.pipeline.io.mappers.AggregatedVcfLineMapper;
 
@@ -36,4 +37,9 @@ public class AggregatedVcfReader extends VcfReader {
                                String mappingFilePath, File file) throws IOException {
         super(new AggregatedVcfLineMapper(fileId, studyId, aggregation, mappingFilePath), file);
     }
+
+    public AggregatedVcfReader(String fileId, String studyId, VariantSource.Aggregation aggregation,
+                               String mappingFilePath, Resource resource) throws IOException {
+        super(new AggregatedVcfLineMapper(fileId, studyId, aggregation, mappingFilePath), resource);
+    }
 }
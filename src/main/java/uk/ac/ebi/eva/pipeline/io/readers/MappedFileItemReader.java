@@ -0,0 +1,144 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+import uk.ac.ebi.eva.pipeline.io.MappedLineReader;
+
+import java.io.File;
+import java.nio.charset.Charset;
+
+/**
+ * Reader of uncompressed flat files, such as VCFs or VEP outputs, that maps the file in memory with a
+ * {@link MappedLineReader} instead of reading it through a {@link java.io.BufferedReader}.
+ * <p>
+ * The lines are mapped with the given {@link LineMapper} and the comment lines are skipped, the same as a
+ * {@link FlatFileItemReader}. Besides the number of read items, the byte offset of the next line is saved in the
+ * execution context, so a restarted step moves straight to it instead of reading the file again up to that line. A
+ * context saved by a {@link FlatFileItemReader} has only the number of items, and the lines are skipped as usual.
+ */
+public class MappedFileItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private static final String COMMENT_PREFIX = "#";
+
+    private static final String POSITION_KEY = "position";
+
+    private static final String LINE_COUNT_KEY = "line.count";
+
+    private final LineMapper<T> lineMapper;
+
+    private final File file;
+
+    private MappedLineReader reader;
+
+    private int lineCount;
+
+    private Long restartPosition;
+
+    private int restartLineCount;
+
+    public MappedFileItemReader(LineMapper<T> lineMapper, File file) {
+        this.lineMapper = lineMapper;
+        this.file = file;
+        setName(ClassUtils.getShortName(FlatFileItemReader.class));
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        restartPosition = null;
+        if (executionContext.containsKey(getExecutionContextKey(POSITION_KEY))) {
+            restartPosition = executionContext.getLong(getExecutionContextKey(POSITION_KEY));
+            restartLineCount = executionContext.getInt(getExecutionContextKey(LINE_COUNT_KEY));
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        if (!file.exists()) {
+            throw new IllegalStateException("Input resource must exist: " + file);
+        }
+        reader = new MappedLineReader(file, Charset.defaultCharset());
+        lineCount = 0;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (restartPosition != null) {
+            reader.seek(restartPosition);
+            lineCount = restartLineCount;
+        } else {
+            for (int i = 0; i < itemIndex; i++) {
+                if (readLine() == null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        String line = readLine();
+        if (line == null) {
+            return null;
+        }
+        try {
+            return lineMapper.mapLine(line, lineCount);
+        } catch (Exception e) {
+            throw new FlatFileParseException("Parsing error at line: " + lineCount + " in resource=["
+                                                     + file.getAbsolutePath() + "], input=[" + line + "]", e, line,
+                                             lineCount);
+        }
+    }
+
+    /**
+     * @return the next line that is not a comment, or null at the end of the file
+     */
+    private String readLine() throws Exception {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineCount++;
+        } while (line.startsWith(COMMENT_PREFIX));
+        return line;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        super.update(executionContext);
+        if (isSaveState() && reader != null) {
+            executionContext.putLong(getExecutionContextKey(POSITION_KEY), reader.getPosition());
+            executionContext.putInt(getExecutionContextKey(LINE_COUNT_KEY), lineCount);
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+}
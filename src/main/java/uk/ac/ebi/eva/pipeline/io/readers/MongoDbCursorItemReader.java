@@ -28,6 +28,8 @@ import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
+import uk.ac.ebi.eva.commons.models.mongo.codecs.EntityCodecs;
+
 import java.util.Map;
 
 
@@ -38,10 +40,15 @@ import java.util.Map;
  * Its implementation is based on the one available in
  * <a href="https://github.com/acogoluegnes/Spring-Batch-MongoDB/blob/master/src/main/java/com/zenika/batch/item/database/mongo/MongoDbCursorItemReader.java</a>
  * but replaces the direct access to Mongo with a {@link MongoOperations}, following the Spring Data MongoDB model.
+ * <p>
+ * The documents are read as {@link Document}s, or decoded straight into one of the entities with a codec in
+ * {@link EntityCodecs}.
  */
-public class MongoDbCursorItemReader extends AbstractItemCountingItemStreamItemReader<Document>
+public class MongoDbCursorItemReader<T> extends AbstractItemCountingItemStreamItemReader<T>
         implements InitializingBean {
 
+    private final Class<T> documentClass;
+
     private MongoOperations template;
     private String collectionName;
 
@@ -50,11 +57,16 @@ public class MongoDbCursorItemReader extends AbstractItemCountingItemStreamItemR
     private String[] fields;
     private Integer batchSize;
 
-    private MongoCursor<Document> cursor;
+    private MongoCursor<T> cursor;
 
-    public MongoDbCursorItemReader() {
+    /**
+     * @param documentClass Class of the items read, {@link Document} or an entity with a codec in
+     *                      {@link EntityCodecs}
+     */
+    public MongoDbCursorItemReader(Class<T> documentClass) {
         super();
         setName(ClassUtils.getShortName(MongoDbCursorItemReader.class));
+        this.documentClass = documentClass;
     }
 
     /**
@@ -121,8 +133,9 @@ public class MongoDbCursorItemReader extends AbstractItemCountingItemStreamItemR
 
     @Override
     protected void doOpen() throws Exception {
-        MongoCollection<Document> collection = template.getCollection(collectionName);
-        FindIterable<Document> queryResults = collection.find(query)
+        MongoCollection<T> collection = EntityCodecs.withEntityCodecs(template.getCollection(collectionName))
+                                                    .withDocumentClass(documentClass);
+        FindIterable<T> queryResults = collection.find(query)
                                                         .noCursorTimeout(true)
                                                         .batchSize(batchSize)
                                                         .projection(getProjectionFields());
@@ -133,7 +146,7 @@ public class MongoDbCursorItemReader extends AbstractItemCountingItemStreamItemR
     }
 
     @Override
-    protected Document doRead() throws Exception {
+    protected T doRead() throws Exception {
         if (!cursor.hasNext()) {
             return null;
         } else {
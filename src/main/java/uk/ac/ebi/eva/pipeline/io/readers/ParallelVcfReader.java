@@ -0,0 +1,286 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.utils.FileUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VCF file reader that parses several lines at the same time.
+ * <p>
+ * A dedicated thread reads the lines of the file (compressed or not) and groups them in batches, which are parsed by a
+ * pool of threads with the given {@link LineMapper}. The parsed batches are returned in the same order as in the file,
+ * so this reader is a drop-in replacement of {@link VcfReader}: the variants of each line are returned in a call to
+ * {@link #read()}, and a line that can't be parsed raises a {@link FlatFileParseException}, so that the skip policies
+ * keep working. The number of parsed batches waiting to be read is bounded, so the memory usage doesn't depend on the
+ * size of the file.
+ * <p>
+ * The state is saved with the same key as the {@link VcfReader}, so a job can be restarted with a different number of
+ * threads.
+ */
+public class ParallelVcfReader extends AbstractItemCountingItemStreamItemReader<List<Variant>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelVcfReader.class);
+
+    private static final String COMMENT_PREFIX = "#";
+
+    private static final int PENDING_BATCHES_PER_THREAD = 2;
+
+    private static final long CLOSE_TIMEOUT_IN_SECONDS = 60;
+
+    private static final CompletableFuture<List<ParsedLine>> END_OF_FILE = CompletableFuture.completedFuture(null);
+
+    private final LineMapper<List<Variant>> lineMapper;
+
+    private final Resource resource;
+
+    private final int parserThreads;
+
+    private final int linesPerBatch;
+
+    private BufferedReader reader;
+
+    private int lineCount;
+
+    private ExecutorService parsers;
+
+    private Thread lineReaderThread;
+
+    private BlockingQueue<CompletableFuture<List<ParsedLine>>> pendingBatches;
+
+    private Iterator<ParsedLine> currentBatch;
+
+    private boolean endOfFile;
+
+    public ParallelVcfReader(LineMapper<List<Variant>> lineMapper, File file, int parserThreads, int linesPerBatch)
+            throws IOException {
+        this(lineMapper, FileUtils.getResource(file), parserThreads, linesPerBatch);
+    }
+
+    public ParallelVcfReader(LineMapper<List<Variant>> lineMapper, Resource resource, int parserThreads,
+                             int linesPerBatch) {
+        if (parserThreads <= 0) {
+            throw new IllegalArgumentException("parser threads (" + parserThreads + ") must be greater than 0");
+        }
+        if (linesPerBatch <= 0) {
+            throw new IllegalArgumentException("lines per batch (" + linesPerBatch + ") must be greater than 0");
+        }
+        this.lineMapper = lineMapper;
+        this.resource = resource;
+        this.parserThreads = parserThreads;
+        this.linesPerBatch = linesPerBatch;
+        setName(ClassUtils.getShortName(FlatFileItemReader.class));
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        if (!resource.exists()) {
+            throw new IllegalStateException("Input resource must exist: " + resource);
+        }
+        reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), Charset.defaultCharset()));
+        lineCount = 0;
+        currentBatch = null;
+        endOfFile = false;
+    }
+
+    /**
+     * Skips the lines already read in a previous execution. This is done before starting the parser threads, so those
+     * lines are not parsed.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        for (int i = 0; i < itemIndex; i++) {
+            if (readLine() == null) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected List<Variant> doRead() throws Exception {
+        if (endOfFile) {
+            return null;
+        }
+        if (pendingBatches == null) {
+            startParsing();
+        }
+
+        while (currentBatch == null || !currentBatch.hasNext()) {
+            List<ParsedLine> batch = takeNextBatch();
+            if (batch == null) {
+                endOfFile = true;
+                return null;
+            }
+            currentBatch = batch.iterator();
+        }
+
+        ParsedLine parsedLine = currentBatch.next();
+        if (parsedLine.exception != null) {
+            throw new FlatFileParseException("Parsing error at line: " + parsedLine.lineNumber + " in resource=["
+                                                     + resource.getDescription() + "], input=[" + parsedLine.line
+                                                     + "]", parsedLine.exception, parsedLine.line,
+                                             parsedLine.lineNumber);
+        }
+        return parsedLine.variants;
+    }
+
+    private void startParsing() {
+        logger.debug("Parsing {} with {} threads", resource.getDescription(), parserThreads);
+        pendingBatches = new ArrayBlockingQueue<>(parserThreads * PENDING_BATCHES_PER_THREAD);
+        parsers = Executors.newFixedThreadPool(parserThreads);
+        lineReaderThread = new Thread(this::readBatches, "vcf-line-reader");
+        lineReaderThread.setDaemon(true);
+        lineReaderThread.start();
+    }
+
+    private List<ParsedLine> takeNextBatch() throws Exception {
+        try {
+            return pendingBatches.take().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs in the line reader thread: sends batches of lines to the parsers, and leaves the futures of the parsed
+     * batches in {@link #pendingBatches}, blocking when there are too many batches waiting to be read.
+     */
+    private void readBatches() {
+        try {
+            try {
+                List<ParsedLine> batch = new ArrayList<>(linesPerBatch);
+                String line;
+                while (!Thread.currentThread().isInterrupted() && (line = readLine()) != null) {
+                    batch.add(new ParsedLine(line, lineCount));
+                    if (batch.size() == linesPerBatch) {
+                        submit(batch);
+                        batch = new ArrayList<>(linesPerBatch);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    submit(batch);
+                }
+                pendingBatches.put(END_OF_FILE);
+            } catch (IOException | RuntimeException e) {
+                CompletableFuture<List<ParsedLine>> failedRead = new CompletableFuture<>();
+                failedRead.completeExceptionally(e);
+                pendingBatches.put(failedRead);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(List<ParsedLine> batch) throws InterruptedException {
+        pendingBatches.put(CompletableFuture.supplyAsync(() -> parse(batch), parsers));
+    }
+
+    private List<ParsedLine> parse(List<ParsedLine> batch) {
+        for (ParsedLine parsedLine : batch) {
+            try {
+                parsedLine.variants = lineMapper.mapLine(parsedLine.line, parsedLine.lineNumber);
+            } catch (Exception e) {
+                parsedLine.exception = e;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * @return the next line that is not a comment, or null at the end of the file
+     */
+    private String readLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineCount++;
+        } while (line.startsWith(COMMENT_PREFIX));
+        return line;
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        try {
+            if (lineReaderThread != null) {
+                lineReaderThread.interrupt();
+                lineReaderThread.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_IN_SECONDS));
+            }
+            if (parsers != null) {
+                parsers.shutdownNow();
+                if (!parsers.awaitTermination(CLOSE_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                    logger.warn("Parser threads did not finish in {} seconds", CLOSE_TIMEOUT_IN_SECONDS);
+                }
+            }
+        } finally {
+            lineReaderThread = null;
+            parsers = null;
+            pendingBatches = null;
+            currentBatch = null;
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+    }
+
+    private static class ParsedLine {
+
+        private final String line;
+
+        private final int lineNumber;
+
+        private List<Variant> variants;
+
+        private Exception exception;
+
+        ParsedLine(String line, int lineNumber) {
+            this.line = line;
+            this.lineNumber = lineNumber;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.util.ClassUtils;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.FILES_FIELD;
+
+/**
+ * Reads the ids of the variants of a study, to remove the study from them in batches.
+ * <p>
+ * The state is not saved: the variants that were already processed don't match the query any more, so a restarted
+ * step reads only the variants that are left, from the beginning.
+ */
+public class StudyVariantsMongoReader extends MongoDbCursorItemReader<Document> {
+
+    private static final String STUDY_KEY = FILES_FIELD + "." + VariantSourceEntryMongo.STUDYID_FIELD;
+
+    private static final String ID_FIELD = "_id";
+
+    /**
+     * @param singleStudyOnly True to read only the variants reported in no other study
+     * @param partitionQuery  Additional conditions to bring only the variants of a partition, such as those created
+     *                        by {@link uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VariantRegionPartitioner}. Can
+     *                        be null, meaning to bring the variants of all the partitions.
+     */
+    public StudyVariantsMongoReader(MongoOperations mongoOperations, String collectionVariantsName, String studyId,
+                                    boolean singleStudyOnly, Integer chunkSize, Document partitionQuery) {
+        super(Document.class);
+        setName(ClassUtils.getShortName(StudyVariantsMongoReader.class));
+        setTemplate(mongoOperations);
+        setCollection(collectionVariantsName);
+        setSaveState(false);
+
+        Document query = buildQuery(studyId, singleStudyOnly);
+        if (partitionQuery != null) {
+            query.putAll(partitionQuery);
+        }
+        setQuery(query);
+        setFields(ID_FIELD);
+        // Make batch size at least 2, as batch size of 1 is analogous to using limit
+        setBatchSize(Math.max(chunkSize, 2));
+    }
+
+    /**
+     * Builds the query of the variants of a study. The meaning of the parameters is the same as in the constructor.
+     */
+    public static Document buildQuery(String studyId, boolean singleStudyOnly) {
+        Document query = new Document(STUDY_KEY, studyId);
+        if (singleStudyOnly) {
+            query.append(FILES_FIELD, new Document("$size", 1));
+        }
+        return query;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.util.ClassUtils;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.ALTERNATE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.CHROMOSOME_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.END_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.FILES_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.REFERENCE_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.START_FIELD;
+
+/**
+ * Reads the variants of a file, with their genotypes, to calculate their population statistics.
+ * <p>
+ * The state is not saved: writing the statistics again gives the same result, so a restarted step reads all the
+ * variants from the beginning.
+ */
+public class VariantStatsMongoReader extends MongoDbCursorItemReader<Document> {
+
+    private static final String STUDY_KEY = FILES_FIELD + "." + VariantSourceEntryMongo.STUDYID_FIELD;
+
+    private static final String FILE_KEY = FILES_FIELD + "." + VariantSourceEntryMongo.FILEID_FIELD;
+
+    public VariantStatsMongoReader(MongoOperations mongoOperations, String collectionVariantsName, String studyId,
+                                   String fileId, Integer chunkSize) {
+        super(Document.class);
+        setName(ClassUtils.getShortName(VariantStatsMongoReader.class));
+        setTemplate(mongoOperations);
+        setCollection(collectionVariantsName);
+        setSaveState(false);
+
+        setQuery(new Document(STUDY_KEY, studyId).append(FILE_KEY, fileId));
+        setFields(CHROMOSOME_FIELD, START_FIELD, END_FIELD, REFERENCE_FIELD, ALTERNATE_FIELD, FILES_FIELD);
+        // Make batch size at least 2, as batch size of 1 is analogous to using limit
+        setBatchSize(Math.max(chunkSize, 2));
+    }
+
+}
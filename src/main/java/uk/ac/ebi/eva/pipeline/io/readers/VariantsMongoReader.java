@@ -23,7 +23,6 @@ import org.springframework.batch.item.UnexpectedInputException;
 import org.springframework.batch.item.support.AbstractItemStreamItemReader;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.data.mongodb.core.MongoOperations;
-import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.util.ClassUtils;
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
 import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
@@ -59,9 +58,7 @@ public class VariantsMongoReader
 
     private static final String LAST_READ_TIMESTAMP_KEY = "last_read_timestamp";
 
-    private MongoDbCursorItemReader delegateReader;
-
-    private MongoConverter converter;
+    private MongoDbCursorItemReader<SimplifiedVariant> delegateReader;
 
     private Integer chunkSize;
 
@@ -86,14 +83,46 @@ public class VariantsMongoReader
     public VariantsMongoReader(MongoOperations mongoOperations, String collectionVariantsName, String vepVersion,
                                String vepCacheVersion, String studyId, String fileId, boolean excludeAnnotated,
                                Integer chunkSize) {
+        this(mongoOperations, collectionVariantsName, vepVersion, vepCacheVersion, studyId, fileId, excludeAnnotated,
+             chunkSize, null);
+    }
+
+    /**
+     * @param partitionQuery Additional conditions to bring only the variants of a partition, such as those created by
+     *                       {@link uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VariantRegionPartitioner}. Can be
+     *                       null, meaning to bring the variants of all the partitions.
+     */
+    public VariantsMongoReader(MongoOperations mongoOperations, String collectionVariantsName, String vepVersion,
+                               String vepCacheVersion, String studyId, String fileId, boolean excludeAnnotated,
+                               Integer chunkSize, Document partitionQuery) {
         setName(ClassUtils.getShortName(VariantsMongoReader.class));
-        delegateReader = new MongoDbCursorItemReader();
+        delegateReader = new MongoDbCursorItemReader<>(SimplifiedVariant.class);
         delegateReader.setTemplate(mongoOperations);
         delegateReader.setCollection(collectionVariantsName);
         
         // the query excludes processed variants automatically, so a new query has to start from the beginning
         delegateReader.setSaveState(false);
 
+        Document query = buildQuery(vepVersion, vepCacheVersion, studyId, fileId, excludeAnnotated);
+        if (partitionQuery != null) {
+            query.putAll(partitionQuery);
+        }
+        delegateReader.setQuery(query);
+
+        String[] fields = {CHROMOSOME_FIELD, START_FIELD, END_FIELD, REFERENCE_FIELD, ALTERNATE_FIELD};
+        delegateReader.setFields(fields);
+        // Make batch size at least 2, as batch size of 1 is analogous to using limit
+        delegateReader.setBatchSize(Math.max(chunkSize, 2));
+
+        this.chunkSize = chunkSize;
+        this.lastRead = ZonedDateTime.now();
+    }
+
+    /**
+     * Builds the query of the variants to annotate. The meaning of the parameters is the same as in the constructor.
+     */
+    public static Document buildQuery(String vepVersion, String vepCacheVersion, String studyId, String fileId,
+                                      boolean excludeAnnotated) {
         Document query = new Document();
         if (studyId != null && !studyId.isEmpty()) {
             query.append(STUDY_KEY, studyId);
@@ -112,16 +141,7 @@ public class VariantsMongoReader
                     new Document("$not", new Document("$elemMatch", annotationSubdocument));
             query.append(VariantDocument.ANNOTATION_FIELD, noElementMatchesOurVersion);
         }
-        delegateReader.setQuery(query);
-
-        String[] fields = {CHROMOSOME_FIELD, START_FIELD, END_FIELD, REFERENCE_FIELD, ALTERNATE_FIELD};
-        delegateReader.setFields(fields);
-        // Make batch size at least 2, as batch size of 1 is analogous to using limit
-        delegateReader.setBatchSize(Math.max(chunkSize, 2));
-
-        this.converter = mongoOperations.getConverter();
-        this.chunkSize = chunkSize;
-        this.lastRead = ZonedDateTime.now();
+        return query;
     }
 
     @PostConstruct
@@ -147,9 +167,8 @@ public class VariantsMongoReader
 
     private List<EnsemblVariant> readBatch(Integer chunkSize) throws Exception {
         List<EnsemblVariant> variants = new ArrayList<>();
-        Document document;
-        while ((document = delegateDoRead()) != null) {
-            SimplifiedVariant variant = converter.read(SimplifiedVariant.class, document);
+        SimplifiedVariant variant;
+        while ((variant = delegateDoRead()) != null) {
             variants.add(buildVariantWrapper(variant));
             if (variants.size() == chunkSize) {
                 break;
@@ -158,7 +177,7 @@ public class VariantsMongoReader
         return variants;
     }
 
-    private Document delegateDoRead() throws Exception {
+    private SimplifiedVariant delegateDoRead() throws Exception {
         lastRead = ZonedDateTime.now();
         return delegateReader.doRead();
     }
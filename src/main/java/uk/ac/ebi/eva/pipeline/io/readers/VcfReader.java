@@ -33,7 +33,7 @@ import java.util.List;
  * This Reader uses a {@link VcfLineMapper} to parse each line.
  * <p>
  * It receives a VariantSource (which needs to be completely filled, including the samples, possibly by
- * {@link VcfHeaderReader}), and a file (compressed or not).
+ * {@link VcfHeaderReader}), and a file (compressed or not), or a resource with part of a file.
  */
 public class VcfReader extends FlatFileItemReader<List<Variant>> {
 
@@ -48,7 +48,10 @@ public class VcfReader extends FlatFileItemReader<List<Variant>> {
     }
 
     public VcfReader(LineMapper<List<Variant>> lineMapper, File file) throws IOException {
-        Resource resource = FileUtils.getResource(file);
+        this(lineMapper, FileUtils.getResource(file));
+    }
+
+    public VcfReader(LineMapper<List<Variant>> lineMapper, Resource resource) {
         setResource(resource);
         setLineMapper(lineMapper);
     }
@@ -15,25 +15,30 @@
  */
 package uk.ac.ebi.eva.pipeline.io.writers;
 
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import org.bson.Document;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoOperations;
-import org.springframework.data.mongodb.core.query.BasicQuery;
-import org.springframework.data.mongodb.core.query.BasicUpdate;
 import org.springframework.util.Assert;
+import uk.ac.ebi.eva.commons.models.mongo.codecs.EntityCodecs;
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
 import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import static java.util.stream.Collectors.toList;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.ANNOTATION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.POLYPHEN_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.SIFT_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.SO_ACCESSION_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.VEP_CACHE_VERSION_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.VEP_VERSION_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.XREFS_FIELD;
 
 /**
  * Update the {@link uk.ac.ebi.eva.commons.models.data.Variant} mongo document with {@link VariantAnnotation}
@@ -43,16 +48,35 @@ import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnno
  * - polyphens
  * - soAccessions
  * - Xref Ids
+ * <p>
+ * The annotations of each chunk are merged with the stored ones by the server, so no variant is read before writing.
+ * For each variant, an ordered bulk write runs these updates:
+ * - add the whole annotation, if the variant has no annotation with the same VEP and cache versions
+ * - set the sift and polyphen ranges, if the stored annotation does not have them
+ * - extend the stored ranges with $min/$max on their limits, and add the SO accessions and xrefs with $addToSet
+ * <p>
+ * The updates are idempotent, so the annotation is the same as merging it with
+ * {@link VariantAnnotation#concatenate(VariantAnnotation)}. The pushed annotations are encoded by the
+ * {@link EntityCodecs} of the collection.
  */
 public class AnnotationInVariantMongoWriter implements ItemWriter<List<Annotation>> {
 
     public static final String ID = "_id";
     public static final String SET = "$set";
+    public static final String PUSH = "$push";
     public static final String ADD_TO_SET = "$addToSet";
-    public static final String IN = "$in";
+    public static final String EACH = "$each";
+    public static final String MIN = "$min";
+    public static final String MAX = "$max";
+    public static final String NOT = "$not";
+    public static final String EXISTS = "$exists";
     public static final String ELEM_MATCH = "$elemMatch";
     public static final String ANNOTATION_IN_LIST = ANNOTATION_FIELD + ".$";
 
+    private static final String LOWER_LIMIT = ".0";
+
+    private static final String UPPER_LIMIT = ".1";
+
     private final MongoOperations mongoOperations;
 
     private final String collection;
@@ -80,10 +104,13 @@ public class AnnotationInVariantMongoWriter implements ItemWriter<List<Annotatio
     public void write(List<? extends List<Annotation>> annotations) throws Exception {
         for (List<Annotation> annotationList : annotations) {
             Map<String, VariantAnnotation> variantAnnotations = generateVariantAnnotations(annotationList);
+            if (variantAnnotations.isEmpty()) {
+                continue;
+            }
 
-            BulkOperations bulkOperations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
-            bulkPrepare(bulkOperations, variantAnnotations);
-            bulkOperations.execute();
+            List<WriteModel<Document>> writes = new ArrayList<>();
+            bulkPrepare(writes, variantAnnotations);
+            EntityCodecs.withEntityCodecs(mongoOperations.getCollection(collection)).bulkWrite(writes);
         }
     }
 
@@ -98,90 +125,82 @@ public class AnnotationInVariantMongoWriter implements ItemWriter<List<Annotatio
         return variantAnnotations;
     }
 
-    private void bulkPrepare(BulkOperations bulkOperations, Map<String, VariantAnnotation> variantAnnotations) {
-        Map<String, VariantAnnotation> storedVariantAnnotations = getStoredVariantAnnotations(variantAnnotations);
-
+    private void bulkPrepare(List<WriteModel<Document>> writes, Map<String, VariantAnnotation> variantAnnotations) {
         for (Map.Entry<String, VariantAnnotation> entry : variantAnnotations.entrySet()) {
-            final String annotationId = entry.getKey();
-            if (storedVariantAnnotations.containsKey(annotationId)) {
-                bulkUpdate(bulkOperations, annotationId,
-                           storedVariantAnnotations.get(annotationId).concatenate(entry.getValue()));
-            } else {
-                bulkAddToSet(bulkOperations, annotationId, entry.getValue());
-            }
-        }
-    }
+            String variantId = getVariantId(entry.getKey());
+            VariantAnnotation variantAnnotation = entry.getValue();
 
-    private Map<String, VariantAnnotation> getStoredVariantAnnotations(
-            Map<String, VariantAnnotation> variantAnnotations) {
-        Map<String, VariantAnnotation> storedVariantAnnotations = new HashMap<>();
-        Document query = generateQueryForAnnotationInVariant(variantAnnotations.keySet().toArray(new String[]{}));
-        Document projection = new Document(ANNOTATION_FIELD, 1);
-        for (Document variantDocument : mongoOperations.getCollection(collection).find(query).projection(projection)) {
-            final List<Document> dbAnnotations = (List<Document>) variantDocument.get(ANNOTATION_FIELD);
-            if (dbAnnotations != null && !dbAnnotations.isEmpty()) {
-                for (Object storedAnnotationDocument : dbAnnotations) {
-                    VariantAnnotation storedAnnotation = convertToVariantAnnotation(
-                            (Document) storedAnnotationDocument);
-                    final String annotationId = getAnnotationId(variantDocument, storedAnnotation);
-                    storedVariantAnnotations.put(annotationId, storedAnnotation);
-                }
-            }
+            bulkPushIfAbsent(writes, variantId, variantAnnotation);
+            bulkSetRangeIfAbsent(writes, variantId, SIFT_FIELD, variantAnnotation.getSifts());
+            bulkSetRangeIfAbsent(writes, variantId, POLYPHEN_FIELD, variantAnnotation.getPolyphens());
+            bulkMerge(writes, variantId, variantAnnotation);
         }
-        return storedVariantAnnotations;
-    }
-
-    private String getAnnotationId(Document object, VariantAnnotation storedAnnotation) {
-        return String.join("_", (String) object.get(ID),
-                           storedAnnotation.getVepVersion(),
-                           storedAnnotation.getVepCacheVersion());
-    }
-
-    private Document generateQueryForAnnotationInVariant(String... annotationIds) {
-        Document query = new Document();
-        if (annotationIds.length == 1) {
-            query.append(ID, getVariantId(annotationIds[0]));
-        } else {
-            List<String> ids = Arrays.stream(annotationIds).map(this::getVariantId).collect(toList());
-            query.append(ID, new Document(IN, ids));
-        }
-        query.append(ANNOTATION_FIELD, createQueryMatchForVepAndCacheVersion());
-        return query;
     }
 
     private String getVariantId(String annotationId) {
         return annotationId.substring(0, annotationId.length() - vepVersion.length() - vepCacheVersion.length() - 2);
     }
 
-    private Document createQueryMatchForVepAndCacheVersion() {
+    private Document createVepAndCacheVersionMatch() {
         Document annotationQuery = new Document();
         annotationQuery.append(VEP_VERSION_FIELD, vepVersion);
         annotationQuery.append(VEP_CACHE_VERSION_FIELD, vepCacheVersion);
-        return new Document(ELEM_MATCH, annotationQuery);
+        return annotationQuery;
     }
 
-    private VariantAnnotation convertToVariantAnnotation(Document dbAnnotation) {
-        return mongoOperations.getConverter().read(VariantAnnotation.class, dbAnnotation);
+    private void bulkPushIfAbsent(List<WriteModel<Document>> writes, String variantId, VariantAnnotation value) {
+        Document query = new Document(ID, variantId).append(
+                ANNOTATION_FIELD, new Document(NOT, new Document(ELEM_MATCH, createVepAndCacheVersionMatch())));
+        Document push = new Document(PUSH, new Document(ANNOTATION_FIELD, value));
+        writes.add(new UpdateOneModel<>(query, push));
     }
 
-    private void bulkUpdate(BulkOperations bulkOperations, String annotationId, VariantAnnotation value) {
-        Document query = generateQueryForAnnotationInVariant(annotationId);
-
-        Document variantAnnotation = convertToMongo(value);
-        final Document annotation = new Document(ANNOTATION_IN_LIST, variantAnnotation);
-        Document setAnnotation = new Document(SET, annotation);
+    private void bulkSetRangeIfAbsent(List<WriteModel<Document>> writes, String variantId, String field,
+                                      List<Double> range) {
+        if (range == null || range.isEmpty()) {
+            return;
+        }
+        Document annotationWithoutRange = createVepAndCacheVersionMatch().append(field, new Document(EXISTS, false));
+        Document query = new Document(ID, variantId).append(ANNOTATION_FIELD,
+                                                            new Document(ELEM_MATCH, annotationWithoutRange));
+        Document set = new Document(SET, new Document(ANNOTATION_IN_LIST + "." + field, range));
+        writes.add(new UpdateOneModel<>(query, set));
+    }
 
-        bulkOperations.updateOne(new BasicQuery(query), new BasicUpdate(setAnnotation));
+    private void bulkMerge(List<WriteModel<Document>> writes, String variantId, VariantAnnotation value) {
+        Document query = new Document(ID, variantId).append(ANNOTATION_FIELD,
+                                                            new Document(ELEM_MATCH, createVepAndCacheVersionMatch()));
+
+        Document addToSet = new Document();
+        addToSetEach(addToSet, SO_ACCESSION_FIELD, value.getSoAccessions());
+        addToSetEach(addToSet, XREFS_FIELD, value.getXrefIds());
+        Document min = new Document();
+        Document max = new Document();
+        extendRange(min, max, SIFT_FIELD, value.getSifts());
+        extendRange(min, max, POLYPHEN_FIELD, value.getPolyphens());
+
+        Document update = new Document();
+        if (!addToSet.isEmpty()) {
+            update.append(ADD_TO_SET, addToSet);
+        }
+        if (!min.isEmpty()) {
+            update.append(MIN, min).append(MAX, max);
+        }
+        if (!update.isEmpty()) {
+            writes.add(new UpdateOneModel<>(query, update));
+        }
     }
 
-    private void bulkAddToSet(BulkOperations bulkOperations, String annotationId, VariantAnnotation value) {
-        Document id = new Document(ID, getVariantId(annotationId));
-        Document variantAnnotation = convertToMongo(value);
-        Document addToSet = new Document(ADD_TO_SET, new Document(ANNOTATION_FIELD, variantAnnotation));
-        bulkOperations.updateOne(new BasicQuery(id), new BasicUpdate(addToSet));
+    private void addToSetEach(Document addToSet, String field, Collection<?> values) {
+        if (values != null && !values.isEmpty()) {
+            addToSet.append(ANNOTATION_IN_LIST + "." + field, new Document(EACH, new ArrayList<>(values)));
+        }
     }
 
-    private Document convertToMongo(VariantAnnotation value) {
-        return (Document) mongoOperations.getConverter().convertToMongoType(value);
+    private void extendRange(Document min, Document max, String field, List<Double> range) {
+        if (range != null && !range.isEmpty()) {
+            min.append(ANNOTATION_IN_LIST + "." + field + LOWER_LIMIT, Collections.min(range));
+            max.append(ANNOTATION_IN_LIST + "." + field + UPPER_LIMIT, Collections.max(range));
+        }
     }
 }
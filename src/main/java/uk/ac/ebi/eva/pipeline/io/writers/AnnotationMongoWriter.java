@@ -16,28 +16,31 @@
 
 package uk.ac.ebi.eva.pipeline.io.writers;
 
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import org.bson.Document;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoOperations;
-import org.springframework.data.mongodb.core.query.BasicQuery;
-import org.springframework.data.mongodb.core.query.BasicUpdate;
-import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.util.Assert;
+import uk.ac.ebi.eva.commons.models.mongo.codecs.EntityCodecs;
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
-import uk.ac.ebi.eva.commons.models.mongo.entity.projections.SimplifiedAnnotation;
 import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType;
 import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Xref;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.CHROMOSOME_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.CONSEQUENCE_TYPE_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.END_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.START_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.VEP_CACHE_VERSION_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.VEP_VERSION_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.XREFS_FIELD;
@@ -63,6 +66,9 @@ import static uk.ac.ebi.eva.commons.models.mongo.entity.Annotation.XREFS_FIELD;
  * { "id" : "ENST00000382410", "src" : "ensemblTranscript" },
  * { "id" : "ENST00000608838", "src" : "ensemblTranscript" },
  * { "id" : "ENSG00000178591", "src" : "ensemblGene"
+ * <p>
+ * The consequence types and xrefs are put as they are in the updates, and encoded by the {@link EntityCodecs} of the
+ * collection.
  */
 public class AnnotationMongoWriter implements ItemWriter<List<Annotation>> {
 
@@ -71,6 +77,7 @@ public class AnnotationMongoWriter implements ItemWriter<List<Annotation>> {
     private static final String ANNOTATION_CT_SO_FIELD = Annotation.CONSEQUENCE_TYPE_FIELD + "."
             + ConsequenceType.SO_ACCESSION_FIELD;
 
+    public static final String ID = "_id";
     public static final String EACH = "$each";
     public static final String ADD_TO_SET = "$addToSet";
     public static final String SET_ON_INSERT = "$setOnInsert";
@@ -80,28 +87,42 @@ public class AnnotationMongoWriter implements ItemWriter<List<Annotation>> {
     private final String collection;
 
     public AnnotationMongoWriter(MongoOperations mongoOperations, String collection) {
+        this(mongoOperations, collection, true);
+    }
+
+    /**
+     * @param createIndexes False to write the annotations with only the _id index, when the secondary indexes are
+     *                      built at the end of the job
+     */
+    public AnnotationMongoWriter(MongoOperations mongoOperations, String collection, boolean createIndexes) {
         Assert.notNull(mongoOperations);
         Assert.hasText(collection);
         this.mongoOperations = mongoOperations;
         this.collection = collection;
 
-        createIndexes();
+        if (createIndexes) {
+            createIndexes();
+        }
     }
 
     @Override
     public void write(List<? extends List<Annotation>> annotations) throws Exception {
         for (List<Annotation> annotationList : annotations) {
-            BulkOperations bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
-            prepareBulk(annotationList, bulk);
-            bulk.execute();
+            List<WriteModel<Document>> writes = prepareBulk(annotationList);
+            if (!writes.isEmpty()) {
+                EntityCodecs.withEntityCodecs(mongoOperations.getCollection(collection))
+                            .bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            }
         }
     }
 
-    private void prepareBulk(List<? extends Annotation> annotations, BulkOperations bulk) {
+    private List<WriteModel<Document>> prepareBulk(List<? extends Annotation> annotations) {
         Map<String, Annotation> annotationsByStorageId = groupAnnotationById(annotations);
+        List<WriteModel<Document>> writes = new ArrayList<>(annotationsByStorageId.size());
         for (Annotation annotation : annotationsByStorageId.values()) {
-            writeAnnotationInMongoDb(bulk, annotation);
+            writes.add(writeAnnotationInMongoDb(annotation));
         }
+        return writes;
     }
 
     private Map<String, Annotation> groupAnnotationById(List<? extends Annotation> annotations) {
@@ -114,13 +135,15 @@ public class AnnotationMongoWriter implements ItemWriter<List<Annotation>> {
         return groupedAnnotations;
     }
 
-    private void writeAnnotationInMongoDb(BulkOperations bulk, Annotation annotation) {
-        Query upsertQuery = new BasicQuery(convertToMongo(new SimplifiedAnnotation(annotation)));
-        Update update = buildUpdateQuery(annotation);
-        bulk.upsert(upsertQuery, update);
+    private WriteModel<Document> writeAnnotationInMongoDb(Annotation annotation) {
+        Document upsertQuery = new Document(ID, annotation.getId())
+                .append(CHROMOSOME_FIELD, annotation.getChromosome())
+                .append(START_FIELD, annotation.getStart());
+        Document update = buildUpdateQuery(annotation);
+        return new UpdateOneModel<>(upsertQuery, update, new UpdateOptions().upsert(true));
     }
 
-    private BasicUpdate buildUpdateQuery(Annotation annotation) {
+    private Document buildUpdateQuery(Annotation annotation) {
         final Document setOnInsertValue = new Document();
         setOnInsertValue.append(END_FIELD, annotation.getEnd());
         setOnInsertValue.append(VEP_VERSION_FIELD, annotation.getVepVersion());
@@ -132,29 +155,28 @@ public class AnnotationMongoWriter implements ItemWriter<List<Annotation>> {
 
         final Document updateDoc = new Document(ADD_TO_SET, addToSetValue);
         updateDoc.append(SET_ON_INSERT, setOnInsertValue);
-        return new BasicUpdate(updateDoc);
+        return updateDoc;
     }
 
     private Document buildInsertXrefsQuery(Annotation annotation) {
-        return new Document(EACH, convertToMongo(annotation.getXrefs()));
+        return new Document(EACH, annotation.getXrefs());
     }
 
     private Document buildInsertConsequenceTypeQuery(Annotation annotation) {
-        return new Document(EACH, convertToMongo(annotation.getConsequenceTypes()));
+        return new Document(EACH, annotation.getConsequenceTypes());
     }
 
-    private Document convertToMongo(SimplifiedAnnotation simplifiedAnnotation) {
-        return (Document) mongoOperations.getConverter().convertToMongoType(simplifiedAnnotation);
-    }
-
-    private List<Document> convertToMongo(Collection<?> object) {
-        return (List<Document>) mongoOperations.getConverter().convertToMongoType(object);
+    private void createIndexes() {
+        mongoOperations.getCollection(collection).createIndexes(getIndexes(true));
     }
 
-    private void createIndexes() {
-        mongoOperations.getCollection(collection).createIndex(
-                new Document(ANNOTATION_XREF_ID_FIELD, 1), new IndexOptions().background(true));
-        mongoOperations.getCollection(collection).createIndex(
-                new Document(ANNOTATION_CT_SO_FIELD, 1), new IndexOptions().background(true));
+    /**
+     * Secondary indexes of the annotations collection, which are built by the writer unless their creation is
+     * deferred to the end of the job.
+     */
+    public static List<IndexModel> getIndexes(boolean background) {
+        return Arrays.asList(
+                new IndexModel(new Document(ANNOTATION_XREF_ID_FIELD, 1), new IndexOptions().background(background)),
+                new IndexModel(new Document(ANNOTATION_CT_SO_FIELD, 1), new IndexOptions().background(background)));
     }
 }
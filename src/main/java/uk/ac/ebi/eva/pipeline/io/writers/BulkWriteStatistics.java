@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+/**
+ * Number of documents written into the database, time spent writing them and size of a sample of them, accumulated
+ * until they are taken with {@link #drain()}. The writes can be recorded from any thread, as the chunks may be written
+ * in the background.
+ */
+public class BulkWriteStatistics {
+
+    private long documents;
+
+    private long writeNanos;
+
+    private long sampledDocuments;
+
+    private long sampledBytes;
+
+    public synchronized void recordWrite(int documents, long writeNanos) {
+        this.documents += documents;
+        this.writeNanos += writeNanos;
+    }
+
+    public synchronized void recordDocumentSize(long bytes) {
+        sampledDocuments++;
+        sampledBytes += bytes;
+    }
+
+    /**
+     * @return the statistics recorded since the last call, which are reset
+     */
+    public synchronized BulkWriteStatistics drain() {
+        BulkWriteStatistics drained = new BulkWriteStatistics();
+        drained.documents = documents;
+        drained.writeNanos = writeNanos;
+        drained.sampledDocuments = sampledDocuments;
+        drained.sampledBytes = sampledBytes;
+        documents = 0;
+        writeNanos = 0;
+        sampledDocuments = 0;
+        sampledBytes = 0;
+        return drained;
+    }
+
+    public synchronized long getDocuments() {
+        return documents;
+    }
+
+    public synchronized long getWriteNanos() {
+        return writeNanos;
+    }
+
+    public synchronized long getSampledDocuments() {
+        return sampledDocuments;
+    }
+
+    public synchronized long getSampledBytes() {
+        return sampledBytes;
+    }
+}
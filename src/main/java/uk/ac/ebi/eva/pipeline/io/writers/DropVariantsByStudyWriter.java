@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.util.Assert;
+
+import uk.ac.ebi.eva.pipeline.io.readers.StudyVariantsMongoReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes a chunk of variants that have only one entry, from the study to delete. If we removed the entry instead of
+ * the whole variant, we could end up keeping variants that don't appear in any study (i.e. an empty "files" array in
+ * the variant mongo document), which doesn't make sense, so we remove the complete document for those cases.
+ * <p>
+ * The variants are removed by id, in a single operation per chunk. The study is checked again in the same operation,
+ * in case the variant was updated after being read.
+ */
+public class DropVariantsByStudyWriter implements ItemWriter<Document> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DropVariantsByStudyWriter.class);
+
+    private static final String ID_FIELD = "_id";
+
+    private final MongoOperations mongoOperations;
+
+    private final String collectionVariantsName;
+
+    private final String studyId;
+
+    public DropVariantsByStudyWriter(MongoOperations mongoOperations, String collectionVariantsName, String studyId) {
+        Assert.notNull(mongoOperations, "A Mongo instance is required");
+        Assert.hasText(collectionVariantsName, "A collection name is required");
+        Assert.hasText(studyId, "A study is required");
+
+        this.mongoOperations = mongoOperations;
+        this.collectionVariantsName = collectionVariantsName;
+        this.studyId = studyId;
+    }
+
+    @Override
+    public void write(List<? extends Document> variants) {
+        List<Object> ids = new ArrayList<>(variants.size());
+        for (Document variant : variants) {
+            ids.add(variant.get(ID_FIELD));
+        }
+        Document query = StudyVariantsMongoReader.buildQuery(studyId, true)
+                                                 .append(ID_FIELD, new Document("$in", ids));
+
+        logger.trace("Query used: {}", query);
+        DeleteResult result = mongoOperations.getCollection(collectionVariantsName).deleteMany(query);
+        logger.debug("Deleted {} of {} variants reported only in study \"{}\"", result.getDeletedCount(),
+                     ids.size(), studyId);
+    }
+}
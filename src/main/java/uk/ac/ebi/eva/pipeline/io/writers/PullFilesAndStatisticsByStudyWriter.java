@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.util.Assert;
+
+import uk.ac.ebi.eva.pipeline.io.readers.StudyVariantsMongoReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.STUDYID_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.FILES_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.STATS_FIELD;
+
+/**
+ * Removes the files and statistics of a study from a chunk of variants, in a single update per chunk.
+ */
+public class PullFilesAndStatisticsByStudyWriter implements ItemWriter<Document> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PullFilesAndStatisticsByStudyWriter.class);
+
+    private static final String ID_FIELD = "_id";
+
+    private final MongoOperations mongoOperations;
+
+    private final String collectionVariantsName;
+
+    private final String studyId;
+
+    public PullFilesAndStatisticsByStudyWriter(MongoOperations mongoOperations, String collectionVariantsName,
+                                               String studyId) {
+        Assert.notNull(mongoOperations, "A Mongo instance is required");
+        Assert.hasText(collectionVariantsName, "A collection name is required");
+        Assert.hasText(studyId, "A study is required");
+
+        this.mongoOperations = mongoOperations;
+        this.collectionVariantsName = collectionVariantsName;
+        this.studyId = studyId;
+    }
+
+    @Override
+    public void write(List<? extends Document> variants) {
+        List<Object> ids = new ArrayList<>(variants.size());
+        for (Document variant : variants) {
+            ids.add(variant.get(ID_FIELD));
+        }
+        Document query = StudyVariantsMongoReader.buildQuery(studyId, false)
+                                                 .append(ID_FIELD, new Document("$in", ids));
+        Document containsStudyId = new Document(STUDYID_FIELD, studyId);
+        Document update = new Document("$pull", new Document(FILES_FIELD, containsStudyId)
+                .append(STATS_FIELD, containsStudyId));
+
+        logger.trace("Update operation with Query : {} and Update: {}", query, update);
+        UpdateResult result = mongoOperations.getCollection(collectionVariantsName).updateMany(query, update);
+        logger.debug("Pulled study \"{}\" from {} of {} variants", studyId, result.getModifiedCount(), ids.size());
+    }
+}
@@ -15,100 +15,380 @@
  */
 package uk.ac.ebi.eva.pipeline.io.writers;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.WriteModel;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonBinaryWriter;
 import org.bson.Document;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.data.MongoItemWriter;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.util.Assert;
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
 import uk.ac.ebi.eva.commons.models.data.VariantStats;
+import uk.ac.ebi.eva.commons.models.mongo.codecs.EntityCodecs;
 import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
 import uk.ac.ebi.eva.commons.models.mongo.entity.projections.SimplifiedVariant;
 import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
 import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo;
+import uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.ANNOTATION_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.IDS_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.SO_ACCESSION_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.XREFS_FIELD;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.COLLECTION_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.MONGO_BULK_WRITE;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.MONGO_DOCUMENT_SIZE;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.OPERATION_TAG;
 
 /**
  * Write a list of {@link Variant} into MongoDB
  * See also {@link org.opencb.opencga.storage.mongodb.variant.VariantMongoDBWriter}
+ * <p>
+ * If several writer threads are requested, each chunk is split by variant ID into that number of bulk writes, which
+ * are converted and sent to the database concurrently. All the occurrences of a variant go to the same bulk write, so
+ * their upserts are applied in order and don't race each other. The threads are kept from the first chunk until the
+ * writer is closed.
+ * <p>
+ * When none of the variants of a chunk is in the database yet, which is always the case when the first study is
+ * loaded into an empty collection, the whole variant documents are inserted instead, sparing the lookup of each
+ * upsert.
+ * <p>
+ * The entities are put as they are in the updates, and encoded by the {@link EntityCodecs} of the collection.
+ * <p>
+ * The latency of the bulk writes is recorded, and so is the size of one in {@link #DOCUMENT_SIZE_SAMPLING} of the
+ * documents sent, as measuring it means encoding them again. Both are also left in a {@link BulkWriteStatistics}, if
+ * one is set.
  */
-public class VariantMongoWriter extends MongoItemWriter<Variant> {
+public class VariantMongoWriter extends MongoItemWriter<Variant> implements ItemStream {
 
     private static final Logger logger = LoggerFactory.getLogger(VariantMongoWriter.class);
 
+    private static final String ID = "_id";
+
+    private static final int DOCUMENT_SIZE_SAMPLING = 100;
+
+    private static final String INSERT = "insert";
+
+    private static final String UPSERT = "upsert";
+
     private final MongoOperations mongoOperations;
 
     private final String collection;
     private final boolean includeStats;
     private final boolean includeSamples;
 
+    private final int writerThreads;
+
+    private final Timer insertTimer;
+
+    private final Timer upsertTimer;
+
+    private final DistributionSummary documentSize;
+
+    private final AtomicLong sentDocuments;
+
+    private ExecutorService executor;
+
+    private BulkWriteStatistics bulkWriteStatistics;
+
+    private boolean packedSamples;
+
+    private GenotypeDictionary genotypeDictionary = new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE);
+
     public VariantMongoWriter(String collection, MongoOperations mongoOperations, boolean includeStats,
                               boolean includeSamples) {
+        this(collection, mongoOperations, includeStats, includeSamples, 1);
+    }
+
+    public VariantMongoWriter(String collection, MongoOperations mongoOperations, boolean includeStats,
+                              boolean includeSamples, int writerThreads) {
+        this(collection, mongoOperations, includeStats, includeSamples, writerThreads, true);
+    }
+
+    /**
+     * @param createIndexes False to write the variants with only the _id index, when the secondary indexes are
+     *                      built after the load
+     */
+    public VariantMongoWriter(String collection, MongoOperations mongoOperations, boolean includeStats,
+                              boolean includeSamples, int writerThreads, boolean createIndexes) {
         Assert.notNull(mongoOperations, "A Mongo instance is required");
         Assert.hasText(collection, "A collection name is required");
+        Assert.isTrue(writerThreads > 0, "The number of writer threads must be strictly greater than 0");
 
         this.mongoOperations = mongoOperations;
         this.collection = collection;
         setTemplate(mongoOperations);
         this.includeStats = includeStats;
         this.includeSamples = includeSamples;
+        this.writerThreads = writerThreads;
+
+        insertTimer = PipelineMetrics.timer(MONGO_BULK_WRITE, COLLECTION_TAG, collection, OPERATION_TAG, INSERT);
+        upsertTimer = PipelineMetrics.timer(MONGO_BULK_WRITE, COLLECTION_TAG, collection, OPERATION_TAG, UPSERT);
+        documentSize = PipelineMetrics.summary(MONGO_DOCUMENT_SIZE, "bytes", COLLECTION_TAG, collection);
+        sentDocuments = new AtomicLong();
+
+        if (createIndexes) {
+            createIndexes();
+        }
+    }
+
+    /**
+     * @param bulkWriteStatistics Where the number of variants written, the time to write them and the sampled document
+     *                            sizes are recorded, e.g. to resize the chunks
+     */
+    public void setBulkWriteStatistics(BulkWriteStatistics bulkWriteStatistics) {
+        this.bulkWriteStatistics = bulkWriteStatistics;
+    }
+
+    /**
+     * @param packedSamples True to store the samples of each genotype as
+     *                      {@link uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.PackedSampleIndexes}
+     */
+    public void setPackedSamples(boolean packedSamples) {
+        this.packedSamples = packedSamples;
+    }
+
+    /**
+     * @param genotypeDictionary Where the genotypes of the samples are looked up, shared with the rest of the step
+     */
+    public void setGenotypeDictionary(GenotypeDictionary genotypeDictionary) {
+        this.genotypeDictionary = genotypeDictionary;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        if (writerThreads > 1) {
+            getExecutor();
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+    }
 
-        createIndexes();
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(writerThreads, runnable -> {
+                Thread thread = new Thread(runnable, "variant-writer-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
     }
 
     @Override
     protected void doWrite(List<? extends Variant> variants) {
-        List<WriteModel<Document>> writes = new ArrayList<>();
+        long start = System.nanoTime();
+        if (writerThreads == 1 || variants.size() <= 1) {
+            bulkWrite(variants);
+        } else {
+            concurrentBulkWrite(variants);
+        }
+        if (bulkWriteStatistics != null) {
+            bulkWriteStatistics.recordWrite(variants.size(), System.nanoTime() - start);
+        }
+    }
+
+    private void concurrentBulkWrite(List<? extends Variant> variants) {
+        List<List<Variant>> partitions = new ArrayList<>(writerThreads);
+        for (int i = 0; i < writerThreads; i++) {
+            partitions.add(new ArrayList<>());
+        }
         for (Variant variant : variants) {
-            String id = VariantDocument.buildVariantId(variant.getChromosome(), variant.getStart(),
-                    variant.getReference(), variant.getAlternate());
+            int partition = Math.floorMod(buildId(variant).hashCode(), writerThreads);
+            partitions.get(partition).add(variant);
+        }
+
+        ExecutorService executor = getExecutor();
+        List<Future<?>> pendingWrites = new ArrayList<>(writerThreads);
+        try {
+            for (List<Variant> partition : partitions) {
+                pendingWrites.add(executor.submit(() -> bulkWrite(partition)));
+            }
+            for (Future<?> pendingWrite : pendingWrites) {
+                pendingWrite.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing variants", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            // the threads outlive the chunk, so the writes left after a failure must not carry on in the background
+            for (Future<?> pendingWrite : pendingWrites) {
+                pendingWrite.cancel(true);
+            }
+        }
+    }
+
+    private void bulkWrite(List<? extends Variant> variants) {
+        if (variants.isEmpty()) {
+            return;
+        }
+        MongoCollection<Document> variantsCollection = EntityCodecs.withEntityCodecs(
+                mongoOperations.getCollection(collection));
+        if (isIdRangeEmpty(variantsCollection, variants)) {
+            bulkInsert(variantsCollection, variants);
+        } else {
+            bulkUpsert(variantsCollection, variants);
+        }
+    }
+
+    /**
+     * Checks with a single query whether the database has any variant between the lowest and highest ids of the
+     * chunk. If it has none, none of the variants of the chunk is in the database.
+     */
+    private boolean isIdRangeEmpty(MongoCollection<Document> variantsCollection, List<? extends Variant> variants) {
+        String lowestId = null;
+        String highestId = null;
+        for (Variant variant : variants) {
+            String id = buildId(variant);
+            if (lowestId == null || id.compareTo(lowestId) < 0) {
+                lowestId = id;
+            }
+            if (highestId == null || id.compareTo(highestId) > 0) {
+                highestId = id;
+            }
+        }
+        Document idRange = new Document(ID, new Document("$gte", lowestId).append("$lte", highestId));
+        return variantsCollection.find(idRange).projection(new Document(ID, 1)).limit(1).first() == null;
+    }
+
+    /**
+     * Inserts whole variant documents. Variants that are rejected because their id was written meanwhile, or appears
+     * twice in the chunk (e.g. after splitting multiallelic variants), are merged into the stored ones with upserts.
+     */
+    private void bulkInsert(MongoCollection<Document> variantsCollection, List<? extends Variant> variants) {
+        List<VariantDocument> documents = new ArrayList<>(variants.size());
+        for (Variant variant : variants) {
+            VariantDocument document = buildDocument(variant);
+            sampleDocumentSize(variantsCollection.getCodecRegistry(), VariantDocument.class, document);
+            documents.add(document);
+        }
 
+        logger.info("Execute bulk insert. BulkSize : " + documents.size());
+        try {
+            insertTimer.record(() -> variantsCollection.withDocumentClass(VariantDocument.class)
+                                                       .insertMany(documents, new InsertManyOptions().ordered(false)));
+        } catch (MongoBulkWriteException e) {
+            List<Variant> duplicatedVariants = new ArrayList<>();
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                duplicatedVariants.add(variants.get(error.getIndex()));
+            }
+            bulkUpsert(variantsCollection, duplicatedVariants);
+        }
+    }
+
+    private void bulkUpsert(MongoCollection<Document> variantsCollection, List<? extends Variant> variants) {
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Variant variant : variants) {
             // the chromosome and start appear just as shard keys, in an unsharded cluster they wouldn't be needed
-            Document query = new Document("_id", id)
+            Document query = new Document(ID, buildId(variant))
                     .append(VariantDocument.CHROMOSOME_FIELD, variant.getChromosome())
                     .append(VariantDocument.START_FIELD, variant.getStart());
-            writes.add(new UpdateOneModel<>(query, generateUpdate(variant), new UpdateOptions().upsert(true)));
+            Document update = generateUpdate(variant);
+            sampleDocumentSize(variantsCollection.getCodecRegistry(), Document.class, update);
+            writes.add(new UpdateOneModel<>(query, update, new UpdateOptions().upsert(true)));
         }
 
         if (!writes.isEmpty()) {
             logger.info("Execute bulk. BulkSize : " + writes.size());
-            mongoOperations.getCollection(collection).bulkWrite(writes);
+            upsertTimer.record(() -> variantsCollection.bulkWrite(writes));
         }
     }
 
-    private void createIndexes() {
-        mongoOperations.getCollection(collection).createIndex(new Document(VariantDocument.CHROMOSOME_FIELD, 1)
-                .append(VariantDocument.START_FIELD, 1).append(VariantDocument.END_FIELD, 1),
-                new IndexOptions().background(true));
+    private <T> void sampleDocumentSize(CodecRegistry codecRegistry, Class<T> documentClass, T document) {
+        if (sentDocuments.getAndIncrement() % DOCUMENT_SIZE_SAMPLING == 0) {
+            BasicOutputBuffer buffer = new BasicOutputBuffer();
+            codecRegistry.get(documentClass).encode(new BsonBinaryWriter(buffer), document,
+                                                    EncoderContext.builder().build());
+            documentSize.record(buffer.getSize());
+            if (bulkWriteStatistics != null) {
+                bulkWriteStatistics.recordDocumentSize(buffer.getSize());
+            }
+        }
+    }
+
+    private String buildId(Variant variant) {
+        return VariantDocument.buildVariantId(variant.getChromosome(), variant.getStart(), variant.getReference(),
+                                              variant.getAlternate());
+    }
 
-        mongoOperations.getCollection(collection).createIndex(new Document(VariantDocument.IDS_FIELD, 1),
-                new IndexOptions().background(true));
+    private void createIndexes() {
+        mongoOperations.getCollection(collection).createIndexes(getIndexes(true));
+    }
 
+    /**
+     * Secondary indexes of the variants collection, which are built by the writer unless their creation is deferred
+     * to the end of the load.
+     */
+    public static List<IndexModel> getIndexes(boolean background) {
         String filesStudyIdField = String.format("%s.%s", VariantDocument.FILES_FIELD,
                 VariantSourceEntryMongo.STUDYID_FIELD);
         String filesFileIdField = String.format("%s.%s", VariantDocument.FILES_FIELD,
                 VariantSourceEntryMongo.FILEID_FIELD);
-        mongoOperations.getCollection(collection).createIndex(new Document(filesStudyIdField, 1)
-                .append(filesFileIdField, 1), new IndexOptions().background(true));
 
-        mongoOperations.getCollection(collection).createIndex(new Document(ANNOTATION_FIELD + "." + XREFS_FIELD, 1),
-                new IndexOptions().background(true));
-        mongoOperations.getCollection(collection).createIndex(new Document(ANNOTATION_FIELD + "." + SO_ACCESSION_FIELD, 1),
-                new IndexOptions().background(true));
+        return Arrays.asList(
+                new IndexModel(new Document(VariantDocument.CHROMOSOME_FIELD, 1).append(VariantDocument.START_FIELD, 1)
+                                       .append(VariantDocument.END_FIELD, 1),
+                               new IndexOptions().background(background)),
+                new IndexModel(new Document(VariantDocument.IDS_FIELD, 1), new IndexOptions().background(background)),
+                new IndexModel(new Document(filesStudyIdField, 1).append(filesFileIdField, 1),
+                               new IndexOptions().background(background)),
+                new IndexModel(new Document(ANNOTATION_FIELD + "." + XREFS_FIELD, 1),
+                               new IndexOptions().background(background)),
+                new IndexModel(new Document(ANNOTATION_FIELD + "." + SO_ACCESSION_FIELD, 1),
+                               new IndexOptions().background(background)));
     }
 
     private Document generateUpdate(Variant variant) {
@@ -123,7 +403,7 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
             addToSet.append(VariantDocument.FILES_FIELD, convert(variantSourceEntry));
 
             if (includeStats) {
-                List<Document> statistics = convertStatistics(variantSourceEntry);
+                List<VariantStatsMongo> statistics = convertStatistics(variantSourceEntry);
                 addToSet.append(VariantDocument.STATS_FIELD, new Document("$each", statistics));
             }
         }
@@ -141,7 +421,31 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
         return update;
     }
 
-    private List<Document> convertStatistics(VariantSourceEntry variantSourceEntry) {
+    /**
+     * Builds the same document that the upsert of {@link #generateUpdate} creates when the variant is not stored yet
+     */
+    private VariantDocument buildDocument(Variant variant) {
+        Set<VariantSourceEntryMongo> sourceEntries = null;
+        Set<VariantStatsMongo> statistics = null;
+        if (!variant.getSourceEntries().isEmpty()) {
+            VariantSourceEntry variantSourceEntry = variant.getSourceEntries().values().iterator().next();
+            sourceEntries = Collections.singleton(convert(variantSourceEntry));
+            if (includeStats) {
+                statistics = new HashSet<>(convertStatistics(variantSourceEntry));
+            }
+        }
+
+        Set<String> ids = null;
+        if (variant.getIds() != null && !variant.getIds().isEmpty()) {
+            ids = variant.getIds();
+        }
+
+        return new VariantDocument(variant.getType(), variant.getChromosome(), variant.getStart(), variant.getEnd(),
+                                   variant.getLength(), variant.getReference(), variant.getAlternate(),
+                                   variant.getHgvs(), ids, sourceEntries, statistics);
+    }
+
+    private List<VariantStatsMongo> convertStatistics(VariantSourceEntry variantSourceEntry) {
         List<VariantStatsMongo> variantStats = new ArrayList<>();
         for (Map.Entry<String, VariantStats> variantStatsEntry : variantSourceEntry.getCohortStats().entrySet()) {
             variantStats.add(new VariantStatsMongo(
@@ -151,10 +455,10 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
                     variantStatsEntry.getValue()
             ));
         }
-        return (List<Document>) mongoOperations.getConverter().convertToMongoType(variantStats);
+        return variantStats;
     }
 
-    private Document convert(VariantSourceEntry variantSourceEntry) {
+    private VariantSourceEntryMongo convert(VariantSourceEntry variantSourceEntry) {
         VariantSourceEntryMongo variantSource = null;
         if (includeSamples) {
             variantSource = new VariantSourceEntryMongo(
@@ -163,7 +467,9 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
                     variantSourceEntry.getSecondaryAlternates(),
                     variantSourceEntry.getAttributes(),
                     variantSourceEntry.getFormat(),
-                    variantSourceEntry.getSamplesData()
+                    variantSourceEntry.getSamplesData(),
+                    packedSamples,
+                    genotypeDictionary
             );
         } else {
             variantSource = new VariantSourceEntryMongo(
@@ -173,11 +479,11 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
                     variantSourceEntry.getAttributes()
             );
         }
-        return (Document) mongoOperations.getConverter().convertToMongoType(variantSource);
+        return variantSource;
     }
 
-    private Document convert(Variant variant) {
-        SimplifiedVariant simplifiedVariant = new SimplifiedVariant(
+    private SimplifiedVariant convert(Variant variant) {
+        return new SimplifiedVariant(
                 variant.getType(),
                 variant.getChromosome(),
                 variant.getStart(),
@@ -186,6 +492,5 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
                 variant.getReference(),
                 variant.getAlternate(),
                 variant.getHgvs());
-        return (Document) mongoOperations.getConverter().convertToMongoType(simplifiedVariant);
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.data.MongoItemWriter;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.util.Assert;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntity;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.commons.models.data.VariantStats;
+import uk.ac.ebi.eva.commons.models.mongo.codecs.EntityCodecs;
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo;
+import uk.ac.ebi.eva.pipeline.model.FileStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the population statistics of a list of {@link Variant} into the "st" field of their documents. Without
+ * overwrite, the statistics of a cohort that are already in the database are kept.
+ * <p>
+ * The statistics of the whole file ({@link FileStatistics}) are accumulated while the variants are written, and stored
+ * in the files collection when the step completes.
+ */
+public class VariantStatsMongoWriter extends MongoItemWriter<Variant> implements StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantStatsMongoWriter.class);
+
+    private final MongoOperations mongoOperations;
+
+    private final String collectionVariantsName;
+
+    private final String collectionFilesName;
+
+    private final String studyId;
+
+    private final String fileId;
+
+    private final boolean overwrite;
+
+    private final FileStatistics fileStatistics;
+
+    public VariantStatsMongoWriter(MongoOperations mongoOperations, String collectionVariantsName,
+                                   String collectionFilesName, String studyId, String fileId, boolean overwrite) {
+        Assert.notNull(mongoOperations, "A Mongo instance is required");
+        Assert.hasText(collectionVariantsName, "A collection name is required");
+        Assert.hasText(collectionFilesName, "A collection name is required");
+
+        this.mongoOperations = mongoOperations;
+        this.collectionVariantsName = collectionVariantsName;
+        this.collectionFilesName = collectionFilesName;
+        this.studyId = studyId;
+        this.fileId = fileId;
+        this.overwrite = overwrite;
+        setTemplate(mongoOperations);
+
+        fileStatistics = new FileStatistics();
+    }
+
+    @Override
+    protected void doWrite(List<? extends Variant> variants) {
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Variant variant : variants) {
+            for (VariantSourceEntry sourceEntry : variant.getSourceEntries().values()) {
+                for (Map.Entry<String, VariantStats> cohortStats : sourceEntry.getCohortStats().entrySet()) {
+                    addWrites(writes, variant, new VariantStatsMongo(sourceEntry.getStudyId(),
+                                                                     sourceEntry.getFileId(),
+                                                                     cohortStats.getKey(),
+                                                                     cohortStats.getValue()));
+                }
+                VariantStats stats = sourceEntry.getStats();
+                if (stats != null) {
+                    fileStatistics.add(variant, stats);
+                }
+            }
+        }
+
+        if (!writes.isEmpty()) {
+            logger.info("Execute bulk. BulkSize : " + writes.size());
+            EntityCodecs.withEntityCodecs(mongoOperations.getCollection(collectionVariantsName)).bulkWrite(writes);
+        }
+    }
+
+    /**
+     * The statistics are pushed only if the variant doesn't have statistics of the same study, file and cohort. With
+     * overwrite, those previous statistics are pulled first. The bulk write is ordered, so the pull is applied before
+     * the push.
+     */
+    private void addWrites(List<WriteModel<Document>> writes, Variant variant, VariantStatsMongo variantStats) {
+        // the chromosome and start appear just as shard keys, in an unsharded cluster they wouldn't be needed
+        Document query = new Document("_id", buildId(variant))
+                .append(VariantDocument.CHROMOSOME_FIELD, variant.getChromosome())
+                .append(VariantDocument.START_FIELD, variant.getStart());
+        Document sameCohort = new Document(VariantStatsMongo.STUDY_ID, variantStats.getStudyId())
+                .append(VariantStatsMongo.FILE_ID, variantStats.getFileId())
+                .append(VariantStatsMongo.COHORT_ID, variantStats.getCohortId());
+
+        if (overwrite) {
+            writes.add(new UpdateOneModel<>(query, new Document("$pull",
+                                                                new Document(VariantDocument.STATS_FIELD, sameCohort))));
+        }
+
+        Document queryWithoutStats = new Document(query).append(
+                VariantDocument.STATS_FIELD, new Document("$not", new Document("$elemMatch", sameCohort)));
+        writes.add(new UpdateOneModel<>(queryWithoutStats, new Document("$push",
+                                                                        new Document(VariantDocument.STATS_FIELD,
+                                                                                     variantStats))));
+    }
+
+    private String buildId(Variant variant) {
+        return VariantDocument.buildVariantId(variant.getChromosome(), variant.getStart(), variant.getReference(),
+                                              variant.getAlternate());
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (ExitStatus.COMPLETED.equals(stepExecution.getExitStatus())) {
+            writeFileStats();
+        }
+        return null;
+    }
+
+    private void writeFileStats() {
+        Document fileStats = fileStatistics.toDocument();
+
+        Document query = new Document(VariantSourceEntity.STUDYID_FIELD, studyId)
+                .append(VariantSourceEntity.FILEID_FIELD, fileId);
+        Document update = new Document("$set", new Document(VariantSourceEntity.STATISTICS_FIELD, fileStats));
+        mongoOperations.getCollection(collectionFilesName).updateOne(query, update);
+        logger.info("Statistics of {} variants stored for file {} of study {}", fileStatistics.getNumVariants(), fileId,
+                    studyId);
+    }
+}
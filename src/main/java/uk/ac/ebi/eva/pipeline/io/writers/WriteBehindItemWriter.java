@@ -0,0 +1,427 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer that hands the chunks to a background thread, so that the step can read and process the next chunk while
+ * the previous one is being written into the database.
+ * <p>
+ * Up to {@code chunksInFlight} chunks are handled at the same time: one being read and processed by the step, and the
+ * rest being written by the delegate, in the same order as they were read. With a single chunk in flight the chunks
+ * are written by the step thread, as if the delegate was used directly.
+ * <p>
+ * A failed write is thrown when the next chunk is written, or at the end of the step, so the step still fails. To keep
+ * the restart checkpoints correct, the reader of the step has to be wrapped with {@link #checkpointedReader}, which
+ * saves the state of the reader after the last chunk whose write has completed, instead of its latest state. When the
+ * reader finds the end of the input, the pending writes are waited for, and the latest state is saved.
+ * <p>
+ * The write listeners are notified by the thread that writes the chunk, when the write completes, so they have to be
+ * registered with {@link #writeListeners} instead of with the step.
+ */
+public class WriteBehindItemWriter<T> implements ItemStreamWriter<T>, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindItemWriter.class);
+
+    private static final long CLOSE_TIMEOUT_IN_SECONDS = 60;
+
+    private final ItemWriter<T> delegate;
+
+    private final int chunksInFlight;
+
+    private final Deque<PendingWrite> pendingWrites;
+
+    private final List<ItemWriteListener<? super T>> listeners;
+
+    private ExecutorService writerThread;
+
+    private StepExecution stepExecution;
+
+    private boolean readerCheckpointed;
+
+    private boolean endOfInput;
+
+    private Map<String, Object> confirmedCheckpoint;
+
+    private Map<String, Object> latestCheckpoint;
+
+    public WriteBehindItemWriter(ItemWriter<T> delegate, int chunksInFlight) {
+        Assert.notNull(delegate, "A delegate writer is required");
+        Assert.isTrue(chunksInFlight > 0, "The number of chunks in flight must be strictly greater than 0");
+        this.delegate = delegate;
+        this.chunksInFlight = chunksInFlight;
+        this.pendingWrites = new ArrayDeque<>();
+        this.listeners = new ArrayList<>();
+        this.confirmedCheckpoint = Collections.emptyMap();
+        this.latestCheckpoint = Collections.emptyMap();
+    }
+
+    /**
+     * @return a reader that saves the state of {@code reader} only up to the last chunk written by {@code writer}
+     */
+    public static <I> ItemStreamReader<I> checkpointedReader(ItemStreamReader<I> reader,
+                                                             WriteBehindItemWriter<?> writer) {
+        return new CheckpointedReader<>(reader, writer);
+    }
+
+    /**
+     * The writer of a step is usually a step scoped proxy, so the listeners are registered with it when the step
+     * starts.
+     *
+     * @return a listener of the step that registers the write listeners with {@code writer}
+     */
+    @SafeVarargs
+    public static <T> StepExecutionListener writeListeners(WriteBehindItemWriter<T> writer,
+                                                           ItemWriteListener<? super T>... listeners) {
+        return new ListenerRegistration<>(writer, Arrays.asList(listeners));
+    }
+
+    public void registerListener(ItemWriteListener<? super T> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).open(executionContext);
+        }
+        pendingWrites.clear();
+        if (chunksInFlight > 1) {
+            writerThread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        if (writerThread == null) {
+            writeAndNotify(items);
+            return;
+        }
+        Assert.state(readerCheckpointed, "The reader of a step with chunks written in the background must be "
+                + "wrapped with WriteBehindItemWriter.checkpointedReader");
+
+        throwFailedWrites();
+        while (pendingWrites.size() >= chunksInFlight - 1) {
+            waitForOldestWrite();
+        }
+        PendingWrite pendingWrite = new PendingWrite();
+        List<T> chunk = new ArrayList<>(items);
+        StepExecution currentStepExecution = stepExecution;
+        pendingWrite.future = writerThread.submit(() -> {
+            // the listeners and the delegate may use step scoped beans
+            if (currentStepExecution != null) {
+                StepSynchronizationManager.register(currentStepExecution);
+            }
+            try {
+                writeAndNotify(chunk);
+                pendingWrite.succeeded = true;
+            } finally {
+                if (currentStepExecution != null) {
+                    StepSynchronizationManager.close();
+                }
+            }
+            return null;
+        });
+        pendingWrites.addLast(pendingWrite);
+    }
+
+    private void writeAndNotify(List<? extends T> items) throws Exception {
+        for (ItemWriteListener<? super T> listener : listeners) {
+            listener.beforeWrite(items);
+        }
+        try {
+            delegate.write(items);
+        } catch (Exception e) {
+            for (ItemWriteListener<? super T> listener : listeners) {
+                listener.onWriteError(e, items);
+            }
+            throw e;
+        }
+        for (ItemWriteListener<? super T> listener : listeners) {
+            listener.afterWrite(items);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).update(executionContext);
+        }
+    }
+
+    /**
+     * Starts the checkpoints of the reader with the state it was opened with
+     */
+    public void openCheckpoint(Map<String, Object> readerState) {
+        readerCheckpointed = true;
+        endOfInput = false;
+        confirmedCheckpoint = readerState;
+        latestCheckpoint = readerState;
+    }
+
+    /**
+     * Marks that the reader has found the end of its input, so the next checkpoint waits for the pending writes
+     */
+    public void endOfInput() {
+        endOfInput = true;
+    }
+
+    /**
+     * Keeps the state of the reader after the last chunk as the checkpoint of its write. At the end of the input, the
+     * pending writes are waited for, and a failed write is thrown.
+     *
+     * @return the state of the reader after the last chunk whose write has completed
+     */
+    public Map<String, Object> checkpoint(Map<String, Object> readerState) throws Exception {
+        latestCheckpoint = readerState;
+        if (pendingWrites.isEmpty()) {
+            confirmedCheckpoint = readerState;
+        } else {
+            pendingWrites.peekLast().checkpoint = readerState;
+        }
+        if (endOfInput) {
+            while (!pendingWrites.isEmpty()) {
+                waitForOldestWrite();
+            }
+        }
+        while (!pendingWrites.isEmpty() && pendingWrites.peekFirst().succeeded) {
+            confirm(pendingWrites.pollFirst());
+        }
+        return confirmedCheckpoint;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+    }
+
+    /**
+     * Waits for the pending writes, if the step ended before the end of the input. If any of them fails, so does the
+     * step; otherwise the latest state of the reader is saved in the execution context.
+     */
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (pendingWrites.isEmpty()) {
+            return null;
+        }
+        try {
+            while (!pendingWrites.isEmpty()) {
+                waitForOldestWrite();
+            }
+        } catch (Exception e) {
+            logger.error("Write of a chunk failed after the chunk was processed", e);
+            stepExecution.upgradeStatus(BatchStatus.FAILED);
+            stepExecution.addFailureException(e);
+            return ExitStatus.FAILED.addExitDescription(e);
+        }
+
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        for (Map.Entry<String, Object> entry : latestCheckpoint.entrySet()) {
+            executionContext.put(entry.getKey(), entry.getValue());
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (writerThread != null) {
+                writerThread.shutdown();
+                if (!writerThread.awaitTermination(CLOSE_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                    logger.warn("Pending writes did not finish in {} seconds", CLOSE_TIMEOUT_IN_SECONDS);
+                    writerThread.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerThread.shutdownNow();
+        } finally {
+            writerThread = null;
+            pendingWrites.clear();
+            readerCheckpointed = false;
+            if (delegate instanceof ItemStream) {
+                ((ItemStream) delegate).close();
+            }
+        }
+    }
+
+    private void throwFailedWrites() throws Exception {
+        while (!pendingWrites.isEmpty() && pendingWrites.peekFirst().future.isDone()) {
+            waitForOldestWrite();
+        }
+    }
+
+    private void waitForOldestWrite() throws Exception {
+        PendingWrite pendingWrite = pendingWrites.pollFirst();
+        try {
+            pendingWrite.future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+        confirm(pendingWrite);
+    }
+
+    private void confirm(PendingWrite pendingWrite) {
+        if (pendingWrite.checkpoint != null) {
+            confirmedCheckpoint = pendingWrite.checkpoint;
+        }
+    }
+
+    private static Map<String, Object> snapshot(ExecutionContext executionContext) {
+        Map<String, Object> snapshot = new HashMap<>();
+        for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue());
+        }
+        return snapshot;
+    }
+
+    private class PendingWrite {
+
+        private Future<?> future;
+
+        /**
+         * Set by the writer thread once the chunk is written, so that it can be checked without waiting for the future
+         */
+        private volatile boolean succeeded;
+
+        private Map<String, Object> checkpoint;
+    }
+
+    /**
+     * Reader that hands its state to the writer after each chunk, and saves the state the writer has confirmed. The
+     * state is only saved by this reader, so it doesn't matter in which order the streams of the step are updated.
+     * <p>
+     * The same instance is shared by all the executions of a step, including concurrent partitions, so it doesn't
+     * keep any state itself: the delegate and the writer are step scoped, and the writer keeps the checkpoints.
+     */
+    private static class CheckpointedReader<I> implements ItemStreamReader<I> {
+
+        private final ItemStreamReader<I> delegate;
+
+        private final WriteBehindItemWriter<?> writer;
+
+        CheckpointedReader(ItemStreamReader<I> delegate, WriteBehindItemWriter<?> writer) {
+            this.delegate = delegate;
+            this.writer = writer;
+        }
+
+        @Override
+        public I read() throws Exception {
+            I item = delegate.read();
+            if (item == null) {
+                writer.endOfInput();
+            }
+            return item;
+        }
+
+        @Override
+        public void open(ExecutionContext executionContext) {
+            delegate.open(executionContext);
+            writer.openCheckpoint(readerState());
+        }
+
+        @Override
+        public void update(ExecutionContext executionContext) {
+            Map<String, Object> readerState = readerState();
+            Map<String, Object> confirmedState;
+            try {
+                confirmedState = writer.checkpoint(readerState);
+            } catch (Exception e) {
+                throw new ItemStreamException("Write of a chunk failed after the chunk was processed", e);
+            }
+            for (String key : readerState.keySet()) {
+                Object value = confirmedState.get(key);
+                if (value == null) {
+                    executionContext.remove(key);
+                } else {
+                    executionContext.put(key, value);
+                }
+            }
+        }
+
+        private Map<String, Object> readerState() {
+            ExecutionContext readerState = new ExecutionContext();
+            delegate.update(readerState);
+            return snapshot(readerState);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private static class ListenerRegistration<T> implements StepExecutionListener {
+
+        private final WriteBehindItemWriter<T> writer;
+
+        private final List<ItemWriteListener<? super T>> listeners;
+
+        ListenerRegistration(WriteBehindItemWriter<T> writer, List<ItemWriteListener<? super T>> listeners) {
+            this.writer = writer;
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void beforeStep(StepExecution stepExecution) {
+            for (ItemWriteListener<? super T> listener : listeners) {
+                writer.registerListener(listener);
+            }
+        }
+
+        @Override
+        public ExitStatus afterStep(StepExecution stepExecution) {
+            return null;
+        }
+    }
+}
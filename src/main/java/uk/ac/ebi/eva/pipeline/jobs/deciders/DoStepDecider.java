@@ -0,0 +1,47 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.deciders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+/**
+ * Decider used in the pipeline for opt-in steps/tasklets. The step is only done if the given job parameter is true,
+ * and the statuses are the same as those of {@link SkipStepDecider}.
+ */
+public class DoStepDecider implements JobExecutionDecider {
+    private static final Logger logger = LoggerFactory.getLogger(DoStepDecider.class);
+
+    public final String jobParameterName;
+
+    public DoStepDecider(String jobParameterName) {
+        this.jobParameterName = jobParameterName;
+    }
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        if (Boolean.parseBoolean(jobExecution.getJobParameters().getString(jobParameterName))) {
+            return new FlowExecutionStatus(SkipStepDecider.DO_STEP);
+        }
+        logger.info("Step skipped due to {} not enabled", jobParameterName);
+        return new FlowExecutionStatus(SkipStepDecider.SKIP_STEP);
+    }
+
+}
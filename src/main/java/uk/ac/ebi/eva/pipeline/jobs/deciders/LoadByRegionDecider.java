@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.deciders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VcfRegionPartitioner;
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Decider used to load the VCF by regions only when it's worth it: the parameter config.load.threads is greater than
+ * 1, and the VCF is bgzipped and indexed with tabix. Otherwise the whole file is loaded in a plain step.
+ */
+public class LoadByRegionDecider implements JobExecutionDecider {
+    private static final Logger logger = LoggerFactory.getLogger(LoadByRegionDecider.class);
+
+    public static final String LOAD_BY_REGION = "LOAD_BY_REGION";
+    public static final String LOAD_WHOLE_FILE = "LOAD_WHOLE_FILE";
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        JobParameters jobParameters = jobExecution.getJobParameters();
+        String loadThreads = jobParameters.getString(JobParametersNames.CONFIG_LOAD_THREADS);
+        if (loadThreads == null || Integer.parseInt(loadThreads) <= 1) {
+            return new FlowExecutionStatus(LOAD_WHOLE_FILE);
+        }
+
+        File vcf = new File(jobParameters.getString(JobParametersNames.INPUT_VCF));
+        try {
+            if (!VcfRegionPartitioner.isSplittable(vcf)) {
+                logger.info("The VCF {} is not bgzipped and indexed with tabix, it will be loaded in one step", vcf);
+                return new FlowExecutionStatus(LOAD_WHOLE_FILE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + vcf, e);
+        }
+        return new FlowExecutionStatus(LOAD_BY_REGION);
+    }
+
+}
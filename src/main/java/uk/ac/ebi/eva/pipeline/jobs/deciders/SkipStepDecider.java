@@ -23,7 +23,7 @@ import org.springframework.batch.core.job.flow.FlowExecutionStatus;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
 
 /**
- * Decider used in the pipeline to skip steps/tasklets
+ * Decider used in the pipeline to skip steps/tasklets. The step is skipped if any of the given job parameters is true.
  */
 public class SkipStepDecider implements JobExecutionDecider {
     private static final Logger logger = LoggerFactory.getLogger(SkipStepDecider.class);
@@ -31,17 +31,19 @@ public class SkipStepDecider implements JobExecutionDecider {
     public static final String SKIP_STEP = "SKIP_STEP";
     public static final String DO_STEP = "DO_STEP";
 
-    public final String jobParameterName;
+    public final String[] jobParameterNames;
 
-    public SkipStepDecider(String jobParameterName) {
-        this.jobParameterName = jobParameterName;
+    public SkipStepDecider(String... jobParameterNames) {
+        this.jobParameterNames = jobParameterNames;
     }
 
     @Override
     public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
-        if (Boolean.parseBoolean(jobExecution.getJobParameters().getString(jobParameterName))) {
-            logger.info("Step skipped due to {} enabled", jobParameterName);
-            return new FlowExecutionStatus(SKIP_STEP);
+        for (String jobParameterName : jobParameterNames) {
+            if (Boolean.parseBoolean(jobExecution.getJobParameters().getString(jobParameterName))) {
+                logger.info("Step skipped due to {} enabled", jobParameterName);
+                return new FlowExecutionStatus(SKIP_STEP);
+            }
         }
         return new FlowExecutionStatus(DO_STEP);
     }
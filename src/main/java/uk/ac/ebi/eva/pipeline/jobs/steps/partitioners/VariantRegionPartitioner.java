@@ -0,0 +1,273 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.PartitionNameProvider;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.CHROMOSOME_FIELD;
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.START_FIELD;
+
+/**
+ * Splits the variants matched by a query into a number of partitions with a similar amount of variants, so that they
+ * can be processed concurrently.
+ * <p>
+ * Each chromosome is split into as many ranges of positions as needed to keep every range below the average size of
+ * a partition, and then every range is assigned to the partition with the fewest variants so far. The query that
+ * selects the variants of each partition is stored as JSON in its execution context, under
+ * {@link ExecutionContextParametersNames#PARTITION_VARIANTS_QUERY}.
+ * <p>
+ * The ranges of a chromosome have the same length, so the partitions are only balanced as long as the variants are
+ * evenly spread along the chromosomes.
+ * <p>
+ * There are always as many partitions as requested, even if some of them have no variants, and their names are
+ * provided without counting the variants again. When a partitioned step is restarted, the query may match fewer
+ * variants than in the first run (e.g. those that are not annotated yet), so repartitioning could produce fewer
+ * partitions and drop the ones that did not complete. Instead, the partitions of the first run are restarted with
+ * the queries saved in their execution contexts.
+ */
+public class VariantRegionPartitioner implements Partitioner, PartitionNameProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantRegionPartitioner.class);
+
+    public static final String PARTITION_PREFIX = "partition";
+
+    private static final String COUNT = "count";
+
+    private static final String MIN_START = "minStart";
+
+    private static final String MAX_START = "maxStart";
+
+    private final MongoOperations mongoOperations;
+
+    private final String collectionVariantsName;
+
+    private final Document query;
+
+    private final int partitions;
+
+    /**
+     * @param query      the variants to split, all of them if empty
+     * @param partitions the maximum number of partitions to create. The grid size provided by the partition step is
+     *                   ignored, because the number of partitions is a job parameter
+     */
+    public VariantRegionPartitioner(MongoOperations mongoOperations, String collectionVariantsName, Document query,
+                                    int partitions) {
+        this.mongoOperations = mongoOperations;
+        this.collectionVariantsName = collectionVariantsName;
+        this.query = query;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        if (partitions <= 1) {
+            return Collections.singletonMap(PARTITION_PREFIX + 0, new ExecutionContext());
+        }
+
+        List<List<Region>> assignedRegions = assign(split(countVariantsByChromosome(), partitions), partitions);
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        for (String name : getPartitionNames(gridSize)) {
+            List<Region> partition = contexts.size() < assignedRegions.size() ? assignedRegions.get(contexts.size())
+                                                                              : Collections.emptyList();
+            ExecutionContext context = new ExecutionContext();
+            context.putString(ExecutionContextParametersNames.PARTITION_VARIANTS_QUERY, toQuery(partition).toJson());
+            contexts.put(name, context);
+            logger.debug("Partition {} has {} regions", name, partition.size());
+        }
+        logger.info("Variants split into {} partitions, {} of them with variants", contexts.size(),
+                    assignedRegions.size());
+        return contexts;
+    }
+
+    /**
+     * The names of the partitions, which are the same whatever the variants matched by the query
+     */
+    @Override
+    public Collection<String> getPartitionNames(int gridSize) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, partitions); i++) {
+            names.add(PARTITION_PREFIX + i);
+        }
+        return names;
+    }
+
+    List<Region> countVariantsByChromosome() {
+        Document group = new Document("_id", "$" + CHROMOSOME_FIELD)
+                .append(COUNT, new Document("$sum", 1))
+                .append(MIN_START, new Document("$min", "$" + START_FIELD))
+                .append(MAX_START, new Document("$max", "$" + START_FIELD));
+        List<Document> pipeline = Arrays.asList(new Document("$match", query), new Document("$group", group));
+
+        List<Region> chromosomes = new ArrayList<>();
+        for (Document chromosome : mongoOperations.getCollection(collectionVariantsName).aggregate(pipeline)
+                                                  .allowDiskUse(true)) {
+            chromosomes.add(new Region(chromosome.getString("_id"),
+                                       ((Number) chromosome.get(MIN_START)).longValue(),
+                                       ((Number) chromosome.get(MAX_START)).longValue(),
+                                       ((Number) chromosome.get(COUNT)).longValue(),
+                                       true));
+        }
+        return chromosomes;
+    }
+
+    /**
+     * Splits every chromosome in ranges of the same length, so that each range has, approximately, at most the
+     * average number of variants per partition.
+     */
+    static List<Region> split(List<Region> chromosomes, int partitions) {
+        long totalVariants = chromosomes.stream().mapToLong(Region::getVariants).sum();
+        long variantsPerPartition = Math.max(1, (totalVariants + partitions - 1) / partitions);
+
+        List<Region> regions = new ArrayList<>();
+        for (Region chromosome : chromosomes) {
+            long length = chromosome.getEnd() - chromosome.getStart() + 1;
+            long ranges = Math.min(length, (chromosome.getVariants() + variantsPerPartition - 1) / variantsPerPartition);
+            if (ranges <= 1) {
+                regions.add(chromosome);
+                continue;
+            }
+            long rangeLength = (length + ranges - 1) / ranges;
+            for (long start = chromosome.getStart(); start <= chromosome.getEnd(); start += rangeLength) {
+                long end = Math.min(start + rangeLength - 1, chromosome.getEnd());
+                regions.add(new Region(chromosome.getChromosome(), start, end, chromosome.getVariants() / ranges,
+                                       false));
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Assigns each region, from the biggest to the smallest, to the partition with the fewest variants. Partitions
+     * that would be empty are not created.
+     */
+    static List<List<Region>> assign(List<Region> regions, int partitions) {
+        List<Region> sortedRegions = new ArrayList<>(regions);
+        sortedRegions.sort(Comparator.comparingLong(Region::getVariants).reversed());
+
+        PriorityQueue<Partition> queue = new PriorityQueue<>(Comparator.comparingLong(Partition::getVariants));
+        List<Partition> allPartitions = new ArrayList<>();
+        for (int i = 0; i < Math.min(partitions, sortedRegions.size()); i++) {
+            Partition partition = new Partition();
+            queue.add(partition);
+            allPartitions.add(partition);
+        }
+        for (Region region : sortedRegions) {
+            Partition lightest = queue.poll();
+            lightest.add(region);
+            queue.add(lightest);
+        }
+
+        List<List<Region>> assignedRegions = new ArrayList<>();
+        for (Partition partition : allPartitions) {
+            assignedRegions.add(partition.regions);
+        }
+        return assignedRegions;
+    }
+
+    static Document toQuery(List<Region> regions) {
+        if (regions.isEmpty()) {
+            // matches no variant, and is answered from the index without reading any
+            return new Document(CHROMOSOME_FIELD, new Document("$in", Collections.emptyList()));
+        }
+        if (regions.size() == 1) {
+            return regions.get(0).toQuery();
+        }
+        List<Document> regionQueries = new ArrayList<>();
+        for (Region region : regions) {
+            regionQueries.add(region.toQuery());
+        }
+        return new Document("$or", regionQueries);
+    }
+
+    static class Region {
+
+        private final String chromosome;
+
+        private final long start;
+
+        private final long end;
+
+        private final long variants;
+
+        private final boolean wholeChromosome;
+
+        Region(String chromosome, long start, long end, long variants, boolean wholeChromosome) {
+            this.chromosome = chromosome;
+            this.start = start;
+            this.end = end;
+            this.variants = variants;
+            this.wholeChromosome = wholeChromosome;
+        }
+
+        String getChromosome() {
+            return chromosome;
+        }
+
+        long getStart() {
+            return start;
+        }
+
+        long getEnd() {
+            return end;
+        }
+
+        long getVariants() {
+            return variants;
+        }
+
+        Document toQuery() {
+            Document regionQuery = new Document(CHROMOSOME_FIELD, chromosome);
+            if (!wholeChromosome) {
+                regionQuery.append(START_FIELD, new Document("$gte", start).append("$lte", end));
+            }
+            return regionQuery;
+        }
+    }
+
+    private static class Partition {
+
+        private final List<Region> regions = new ArrayList<>();
+
+        private long variants;
+
+        void add(Region region) {
+            regions.add(region);
+            variants += region.getVariants();
+        }
+
+        long getVariants() {
+            return variants;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.pipeline.io.ParallelBgzfInputStream;
+import uk.ac.ebi.eva.pipeline.io.TabixIndex;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.utils.CompressionHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+
+import static uk.ac.ebi.eva.pipeline.io.ParallelBgzfInputStream.blockAddress;
+
+/**
+ * Splits a bgzipped VCF into contiguous regions, using the tabix or CSI index next to it, so that the regions can be
+ * loaded concurrently.
+ * <p>
+ * The boundaries of the regions are virtual offsets where a record starts, taken from the index, and chosen so that
+ * the regions have a similar compressed size. The first region starts at the beginning of the file and the last one
+ * ends at its end, so every line is read by exactly one partition, even the ones that are not in the index. The
+ * virtual offsets of each region are stored in its execution context, under
+ * {@link ExecutionContextParametersNames#PARTITION_VCF_START_OFFSET} and
+ * {@link ExecutionContextParametersNames#PARTITION_VCF_END_OFFSET}.
+ * <p>
+ * If the file is not bgzipped or has no index, it's loaded in a single partition that reads the whole file.
+ */
+public class VcfRegionPartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VcfRegionPartitioner.class);
+
+    static final String PARTITION_PREFIX = "partition";
+
+    private final File vcf;
+
+    private final int partitions;
+
+    /**
+     * @param partitions the maximum number of partitions to create. The grid size provided by the partition step is
+     *                   ignored, because the number of partitions is a job parameter
+     */
+    public VcfRegionPartitioner(File vcf, int partitions) {
+        this.vcf = vcf;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        if (partitions <= 1) {
+            return Collections.singletonMap(PARTITION_PREFIX + 0, new ExecutionContext());
+        }
+
+        NavigableMap<Long, String> recordOffsets;
+        try {
+            if (!isSplittable(vcf)) {
+                logger.info("The VCF {} is not bgzipped and indexed with tabix, it will be loaded in one partition",
+                            vcf);
+                return Collections.singletonMap(PARTITION_PREFIX + 0, new ExecutionContext());
+            }
+            recordOffsets = TabixIndex.read(TabixIndex.findIndex(vcf)).getRecordOffsets();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the index of " + vcf, e);
+        }
+
+        List<Long> boundaries = split(recordOffsets.navigableKeySet(), vcf.length(), partitions);
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            String name = PARTITION_PREFIX + i;
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(ExecutionContextParametersNames.PARTITION_VCF_START_OFFSET, boundaries.get(i));
+            context.putLong(ExecutionContextParametersNames.PARTITION_VCF_END_OFFSET, boundaries.get(i + 1));
+            contexts.put(name, context);
+            Map.Entry<Long, String> firstRecord = recordOffsets.ceilingEntry(boundaries.get(i));
+            logger.debug("Partition {} starts at virtual offset {}, in sequence {}", name, boundaries.get(i),
+                         firstRecord == null ? "none" : firstRecord.getValue());
+        }
+        logger.info("VCF split into {} partitions", contexts.size());
+        return contexts;
+    }
+
+    /**
+     * @return whether the VCF is bgzipped and has a tabix or CSI index next to it, so that it can be split in regions
+     */
+    public static boolean isSplittable(File vcf) throws IOException {
+        return TabixIndex.findIndex(vcf) != null && CompressionHelper.isBgzf(vcf);
+    }
+
+    /**
+     * Chooses the record offsets closest to the points that divide the compressed file in equal parts, from the first
+     * record to the end of the file. Offsets that are too close to be different boundaries are dropped, so fewer
+     * regions than requested may be created.
+     *
+     * @return the boundaries of the regions, starting with 0 and ending with
+     * {@link ParallelBgzfInputStream#END_OF_FILE}
+     */
+    static List<Long> split(NavigableSet<Long> recordOffsets, long fileLength, int partitions) {
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        if (!recordOffsets.isEmpty()) {
+            long firstRecord = recordOffsets.first();
+            long firstAddress = blockAddress(firstRecord);
+            long previous = firstRecord;
+            for (int i = 1; i < partitions; i++) {
+                long targetAddress = firstAddress + (fileLength - firstAddress) * i / partitions;
+                Long boundary = closest(recordOffsets, targetAddress);
+                if (boundary == null || boundary <= previous) {
+                    boundary = recordOffsets.higher(previous);
+                }
+                if (boundary == null) {
+                    break;
+                }
+                boundaries.add(boundary);
+                previous = boundary;
+            }
+        }
+        boundaries.add(ParallelBgzfInputStream.END_OF_FILE);
+        return boundaries;
+    }
+
+    private static Long closest(NavigableSet<Long> recordOffsets, long targetAddress) {
+        long target = ParallelBgzfInputStream.virtualOffset(targetAddress, 0);
+        Long before = recordOffsets.floor(target);
+        Long after = recordOffsets.ceiling(target);
+        if (before == null) {
+            return after;
+        }
+        if (after == null) {
+            return before;
+        }
+        return targetAddress - blockAddress(before) <= blockAddress(after) - targetAddress ? before : after;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.processors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.util.Assert;
+
+import uk.ac.ebi.eva.commons.models.mongo.codecs.EntityCodecs;
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Annotates a list of variant coordinates reusing the annotations already stored in the annotations collection, so
+ * that only the variants that were never annotated with the same VEP and cache versions (in any study) are sent to
+ * VEP.
+ * <p>
+ * The annotations collection is used as the cache: its documents are identified by
+ * {@link Annotation#buildAnnotationId}, which includes both versions, and they hold the whole VEP output of a variant.
+ */
+public class AnnotationCacheProcessor implements ItemProcessor<List<EnsemblVariant>, List<Annotation>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnotationCacheProcessor.class);
+
+    private static final String ID = "_id";
+
+    private static final String IN = "$in";
+
+    private final ItemProcessor<List<EnsemblVariant>, List<Annotation>> vepProcessor;
+
+    private final MongoOperations mongoOperations;
+
+    private final String collectionAnnotationsName;
+
+    private final String vepVersion;
+
+    private final String vepCacheVersion;
+
+    /**
+     * @param vepProcessor annotates the variants that are not found in the collection
+     */
+    public AnnotationCacheProcessor(ItemProcessor<List<EnsemblVariant>, List<Annotation>> vepProcessor,
+                                    MongoOperations mongoOperations, String collectionAnnotationsName,
+                                    String vepVersion, String vepCacheVersion) {
+        Assert.notNull(vepProcessor);
+        Assert.notNull(mongoOperations);
+        Assert.hasText(collectionAnnotationsName);
+        this.vepProcessor = vepProcessor;
+        this.mongoOperations = mongoOperations;
+        this.collectionAnnotationsName = collectionAnnotationsName;
+        this.vepVersion = vepVersion;
+        this.vepCacheVersion = vepCacheVersion;
+    }
+
+    @Override
+    public List<Annotation> process(List<EnsemblVariant> ensemblVariants) throws Exception {
+        Map<String, EnsemblVariant> variantsById = new LinkedHashMap<>();
+        for (EnsemblVariant variant : ensemblVariants) {
+            variantsById.put(buildAnnotationId(variant), variant);
+        }
+
+        List<Annotation> annotations = new ArrayList<>();
+        Document query = new Document(ID, new Document(IN, new ArrayList<>(variantsById.keySet())));
+        for (Annotation annotation : EntityCodecs.withEntityCodecs(mongoOperations.getCollection(
+                collectionAnnotationsName)).withDocumentClass(Annotation.class).find(query)) {
+            annotations.add(annotation);
+            variantsById.remove(annotation.getId());
+        }
+        logger.debug("{} of {} variants found in the annotations collection", annotations.size(),
+                     ensemblVariants.size());
+
+        if (!variantsById.isEmpty()) {
+            List<Annotation> vepAnnotations = vepProcessor.process(new ArrayList<>(variantsById.values()));
+            if (vepAnnotations != null) {
+                annotations.addAll(vepAnnotations);
+            }
+        }
+        return annotations.isEmpty() ? null : annotations;
+    }
+
+    private String buildAnnotationId(EnsemblVariant variant) {
+        return Annotation.buildAnnotationId(variant.getChr(), variant.getStart(), variant.getReference(),
+                                            variant.getAlternate(), vepVersion, vepCacheVersion);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.processors;
+
+import org.springframework.batch.item.ItemProcessor;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.utils.CohortStatsCalculator;
+
+/**
+ * Calculates the population statistics of variants that were just parsed from a genotyped VCF, so that they can be
+ * loaded along with the variants.
+ */
+public class VariantStatsCalculatorProcessor implements ItemProcessor<Variant, Variant> {
+
+    private final CohortStatsCalculator calculator;
+
+    public VariantStatsCalculatorProcessor(CohortStatsCalculator calculator) {
+        this.calculator = calculator;
+    }
+
+    @Override
+    public Variant process(Variant variant) throws Exception {
+        calculator.calculate(variant);
+        return variant;
+    }
+}
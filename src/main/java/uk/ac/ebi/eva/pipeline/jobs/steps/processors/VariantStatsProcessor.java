@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.processors;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemProcessor;
+
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.PackedSampleIndexes;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+import uk.ac.ebi.eva.utils.CohortStatsCalculator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates the population statistics of a variant read from MongoDB, using the genotypes of the samples of one
+ * file. The cohorts are those of the {@link CohortStatsCalculator}, the same ones used when the statistics are
+ * calculated during the load.
+ * <p>
+ * Input: variant document, with its "files" subdocuments
+ * Output: Variant with one source entry, whose statistics are filled. Variants without genotypes for the file (e.g.
+ * from an aggregated VCF) are filtered out.
+ */
+public class VariantStatsProcessor implements ItemProcessor<Document, Variant> {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantStatsProcessor.class);
+
+    private static final String DEFAULT_GENOTYPE_KEY = "def";
+
+    private static final String MISSING_ALLELE_IN_MONGO = "-1";
+
+    private static final String MISSING_ALLELE = ".";
+
+    private static final String[] STATISTICS_ATTRIBUTES = {"QUAL", "FILTER"};
+
+    private final String studyId;
+
+    private final String fileId;
+
+    private final int numberOfSamples;
+
+    private final CohortStatsCalculator calculator;
+
+    public VariantStatsProcessor(String studyId, String fileId, int numberOfSamples) {
+        this(studyId, fileId, numberOfSamples, new CohortStatsCalculator());
+    }
+
+    /**
+     * @param numberOfSamples samples of the file, as the most common genotype is stored in MongoDB without the list
+     *                        of samples that have it
+     */
+    public VariantStatsProcessor(String studyId, String fileId, int numberOfSamples,
+                                 CohortStatsCalculator calculator) {
+        this.studyId = studyId;
+        this.fileId = fileId;
+        this.numberOfSamples = numberOfSamples;
+        this.calculator = calculator;
+    }
+
+    @Override
+    public Variant process(Document document) throws Exception {
+        Document file = getFile(document);
+        Document samples = file == null ? null : (Document) file.get(VariantSourceEntryMongo.SAMPLES_FIELD);
+        if (samples == null) {
+            logger.debug("Variant {} ignored, it has no genotypes for file {} in study {}",
+                         document.get("_id"), fileId, studyId);
+            return null;
+        }
+
+        Variant variant = new Variant(document.getString(VariantDocument.CHROMOSOME_FIELD),
+                                      ((Number) document.get(VariantDocument.START_FIELD)).intValue(),
+                                      ((Number) document.get(VariantDocument.END_FIELD)).intValue(),
+                                      document.getString(VariantDocument.REFERENCE_FIELD),
+                                      document.getString(VariantDocument.ALTERNATE_FIELD));
+        VariantSourceEntry sourceEntry = new VariantSourceEntry(fileId, studyId);
+        decodeSamples(samples, sourceEntry.getSamplesData());
+        decodeAttributes((Document) file.get(VariantSourceEntryMongo.ATTRIBUTES_FIELD), sourceEntry);
+
+        variant.addSourceEntry(sourceEntry);
+        calculator.calculate(variant);
+        return variant;
+    }
+
+    private Document getFile(Document document) {
+        List<Document> files = (List<Document>) document.get(VariantDocument.FILES_FIELD);
+        if (files != null) {
+            for (Document file : files) {
+                if (studyId.equals(file.getString(VariantSourceEntryMongo.STUDYID_FIELD))
+                        && fileId.equals(file.getString(VariantSourceEntryMongo.FILEID_FIELD))) {
+                    return file;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The samples are stored classified by genotype, and the samples with the most common genotype are not listed,
+     * e.g.: {"def": "0|0", "0|1": [41, 311], "-1|-1": [20]}. The lists may also be {@link PackedSampleIndexes}.
+     */
+    private void decodeSamples(Document samples, SamplesData samplesData) {
+        int genotypeColumn = samplesData.addColumn("GT");
+        String defaultGenotype = samples.getString(DEFAULT_GENOTYPE_KEY);
+        if (defaultGenotype != null) {
+            defaultGenotype = decodeGenotype(defaultGenotype);
+        }
+        for (int i = 0; i < numberOfSamples; i++) {
+            samplesData.setValue(samplesData.addSample(), genotypeColumn, defaultGenotype);
+        }
+
+        for (Map.Entry<String, Object> genotypeSamples : samples.entrySet()) {
+            if (!DEFAULT_GENOTYPE_KEY.equals(genotypeSamples.getKey())) {
+                String genotype = decodeGenotype(genotypeSamples.getKey());
+                Object sampleIndexes = genotypeSamples.getValue();
+                if (sampleIndexes instanceof List) {
+                    for (Number sampleIndex : (List<Number>) sampleIndexes) {
+                        samplesData.setValue(sampleIndex.intValue(), genotypeColumn, genotype);
+                    }
+                } else {
+                    PackedSampleIndexes.decode(getBinaryData(sampleIndexes),
+                                               sampleIndex -> samplesData.setValue(sampleIndex, genotypeColumn,
+                                                                                   genotype));
+                }
+            }
+        }
+    }
+
+    private byte[] getBinaryData(Object value) {
+        if (value instanceof Binary) {
+            return ((Binary) value).getData();
+        } else if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        throw new IllegalArgumentException("Samples can't be read from a value of type " + value.getClass());
+    }
+
+    private String decodeGenotype(String genotype) {
+        return genotype.replace(MISSING_ALLELE_IN_MONGO, MISSING_ALLELE);
+    }
+
+    private void decodeAttributes(Document attributes, VariantSourceEntry sourceEntry) {
+        if (attributes == null) {
+            return;
+        }
+        for (String attribute : STATISTICS_ATTRIBUTES) {
+            Object value = attributes.get(attribute);
+            if (value != null) {
+                sourceEntry.addAttribute(attribute, value.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.processors;
+
+import org.springframework.batch.item.ItemProcessor;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.io.AnnotationParsingWriter;
+import uk.ac.ebi.eva.pipeline.io.mappers.AnnotationLineMapper;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+
+import java.util.List;
+
+/**
+ * Annotates a list of variant coordinates with VEP and parses the output into {@link Annotation}s.
+ * <p>
+ * This is equivalent to chaining {@link VepAnnotationProcessor} and {@link AnnotationParserProcessor}, but each VEP
+ * output line is parsed while the output is being captured, instead of collecting the whole output as text first.
+ */
+public class VepAnnotationParserProcessor implements ItemProcessor<List<EnsemblVariant>, List<Annotation>> {
+
+    private final VepAnnotationProcessor vepAnnotationProcessor;
+
+    private final AnnotationLineMapper annotationLineMapper;
+
+    public VepAnnotationParserProcessor(VepAnnotationProcessor vepAnnotationProcessor,
+                                        AnnotationParameters annotationParameters) {
+        this.vepAnnotationProcessor = vepAnnotationProcessor;
+        this.annotationLineMapper = new AnnotationLineMapper(annotationParameters.getVepVersion(),
+                                                             annotationParameters.getVepCacheVersion());
+    }
+
+    @Override
+    public List<Annotation> process(List<EnsemblVariant> ensemblVariants) throws Exception {
+        AnnotationParsingWriter writer = new AnnotationParsingWriter(annotationLineMapper);
+        vepAnnotationProcessor.annotate(ensemblVariants, writer);
+
+        List<Annotation> annotations = writer.getAnnotations();
+        return annotations.isEmpty() ? null : annotations;
+    }
+}
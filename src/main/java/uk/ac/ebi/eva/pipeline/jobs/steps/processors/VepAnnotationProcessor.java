@@ -17,21 +17,30 @@ package uk.ac.ebi.eva.pipeline.jobs.steps.processors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
 
 import uk.ac.ebi.eva.pipeline.io.VepProcess;
+import uk.ac.ebi.eva.pipeline.io.VepProcessPool;
 import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
 import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
 
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * ItemStreamWriter that takes VariantWrappers and serialize them into a {@link VepProcess}, which will be responsible
  * for annotating the variants and writing them to a file.
+ * <p>
+ * If a {@link VepProcessPool} is provided, the chunks are annotated by its long-lived processes, which are started
+ * when this stream is opened and stopped when it is closed. Otherwise, a new VEP process is started for each chunk.
  */
-public class VepAnnotationProcessor implements ItemProcessor<List<EnsemblVariant>, List<String>> {
+public class VepAnnotationProcessor implements ItemProcessor<List<EnsemblVariant>, List<String>>, ItemStream {
 
     private static final Logger logger = LoggerFactory.getLogger(VepAnnotationProcessor.class);
 
@@ -43,16 +52,66 @@ public class VepAnnotationProcessor implements ItemProcessor<List<EnsemblVariant
 
     private final Long timeoutInSeconds;
 
+    private final VepProcessPool vepProcessPool;
+
     public VepAnnotationProcessor(AnnotationParameters annotationParameters, Integer chunkSize, Long timeoutInSeconds) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, null);
+    }
+
+    public VepAnnotationProcessor(AnnotationParameters annotationParameters, Integer chunkSize, Long timeoutInSeconds,
+                                  VepProcessPool vepProcessPool) {
         this.annotationParameters = annotationParameters;
         this.chunkSize = chunkSize;
         this.timeoutInSeconds = timeoutInSeconds;
+        this.vepProcessPool = vepProcessPool;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (vepProcessPool != null) {
+            vepProcessPool.open();
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (vepProcessPool != null) {
+            vepProcessPool.close();
+        }
     }
 
     @Override
     public List<String> process(List<EnsemblVariant> ensemblVariants) throws Exception {
         StringWriter writer = new StringWriter();
+        annotate(ensemblVariants, writer);
 
+        String fullVEPOutput = writer.getBuffer().toString();
+        String[] lines = fullVEPOutput.split("\n"); // TODO is it possible to refactor this?
+        return fullVEPOutput.trim().equals("")? null : Arrays.asList(lines);
+    }
+
+    /**
+     * Annotates the variants with VEP, writing each output line (terminated with '\n') into the writer as soon as VEP
+     * produces it. The writer is closed when all the annotations have been written.
+     */
+    public void annotate(List<EnsemblVariant> ensemblVariants, Writer writer) throws Exception {
+        if (vepProcessPool == null) {
+            annotateWithNewProcess(ensemblVariants, writer);
+        } else {
+            List<String> vepInput = ensemblVariants.stream()
+                                                   .map(this::getVariantInVepInputFormat)
+                                                   .collect(Collectors.toList());
+            vepProcessPool.annotate(vepInput, writer);
+            logBatch(ensemblVariants);
+        }
+        writer.close();
+    }
+
+    private void annotateWithNewProcess(List<EnsemblVariant> ensemblVariants, Writer writer) throws Exception {
         VepProcess vepProcess = new VepProcess(annotationParameters, chunkSize, timeoutInSeconds, writer, SKIP_COMMENTS);
         vepProcess.open();
 
@@ -66,11 +125,6 @@ public class VepAnnotationProcessor implements ItemProcessor<List<EnsemblVariant
 
         vepProcess.flush();
         vepProcess.close();
-        writer.close();
-
-        String fullVEPOutput = writer.getBuffer().toString();
-        String[] lines = fullVEPOutput.split("\n"); // TODO is it possible to refactor this?
-        return fullVEPOutput.trim().equals("")? null : Arrays.asList(lines);
     }
 
     private void logBatch(List<EnsemblVariant> ensemblVariants) {
@@ -15,6 +15,7 @@
  */
 package uk.ac.ebi.eva.pipeline.jobs.steps.tasklets;
 
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.IndexOptions;
 import org.bson.Document;
 import org.springframework.batch.core.StepContribution;
@@ -40,8 +41,19 @@ public class CreateDatabaseIndexesTasklet implements Tasklet {
 
     @Override
     public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
-        mongoOperations.getCollection(databaseParameters.getCollectionFeaturesName())
-                .createIndex(new Document("name", 1), new IndexOptions().sparse(true).background(true));
+        createIndex(databaseParameters.getCollectionFeaturesName(),
+                    new IndexModel(new Document("name", 1), new IndexOptions().sparse(true).background(true)));
         return RepeatStatus.FINISHED;
     }
+
+    /**
+     * @return the name of the index, which is not built again if it already exists
+     */
+    protected String createIndex(String collection, IndexModel index) {
+        return mongoOperations.getCollection(collection).createIndex(index.getKeys(), index.getOptions());
+    }
+
+    protected DatabaseParameters getDatabaseParameters() {
+        return databaseParameters;
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.tasklets;
+
+import com.mongodb.client.model.IndexModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.util.StringUtils;
+import uk.ac.ebi.eva.pipeline.io.writers.AnnotationMongoWriter;
+import uk.ac.ebi.eva.pipeline.io.writers.VariantMongoWriter;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the secondary indexes of the variants and annotations collections that the writers skipped because their
+ * creation was deferred, see {@link DatabaseParameters#getIndexesDeferred()}.
+ * <p>
+ * Each execution of the tasklet builds one index, so the step reports its progress as the number of indexes written,
+ * and a restarted step continues after the last index built. The indexes are built in the foreground, which is faster
+ * than the background build of the writers but blocks the rest of the operations on the database meanwhile.
+ */
+public class CreateDeferredIndexesTasklet extends CreateDatabaseIndexesTasklet {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreateDeferredIndexesTasklet.class);
+
+    static final String INDEXES_CREATED_KEY = "indexes.created";
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        List<CollectionIndex> indexes = getDeferredIndexes();
+        ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        int indexesCreated = executionContext.getInt(INDEXES_CREATED_KEY, 0);
+
+        if (indexesCreated < indexes.size()) {
+            CollectionIndex index = indexes.get(indexesCreated);
+            long start = System.currentTimeMillis();
+            String indexName = createIndex(index.collection, index.index);
+            indexesCreated++;
+            logger.info("Index {} of collection {} built in {} ms ({}/{})", indexName, index.collection,
+                        System.currentTimeMillis() - start, indexesCreated, indexes.size());
+
+            executionContext.putInt(INDEXES_CREATED_KEY, indexesCreated);
+            contribution.incrementWriteCount(1);
+        }
+
+        return indexesCreated < indexes.size() ? RepeatStatus.CONTINUABLE : RepeatStatus.FINISHED;
+    }
+
+    private List<CollectionIndex> getDeferredIndexes() {
+        DatabaseParameters databaseParameters = getDatabaseParameters();
+        List<CollectionIndex> indexes = new ArrayList<>();
+        for (IndexModel index : VariantMongoWriter.getIndexes(false)) {
+            indexes.add(new CollectionIndex(databaseParameters.getCollectionVariantsName(), index));
+        }
+        if (StringUtils.hasText(databaseParameters.getCollectionAnnotationsName())) {
+            for (IndexModel index : AnnotationMongoWriter.getIndexes(false)) {
+                indexes.add(new CollectionIndex(databaseParameters.getCollectionAnnotationsName(), index));
+            }
+        }
+        return indexes;
+    }
+
+    private static class CollectionIndex {
+
+        private final String collection;
+
+        private final IndexModel index;
+
+        CollectionIndex(String collection, IndexModel index) {
+            this.collection = collection;
+            this.index = index;
+        }
+    }
+}
@@ -15,7 +15,13 @@
  */
 package uk.ac.ebi.eva.pipeline.jobs.steps.tasklets;
 
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
@@ -26,10 +32,12 @@ import uk.ac.ebi.eva.commons.models.data.VariantSourceEntity;
 import uk.ac.ebi.eva.pipeline.io.readers.VcfHeaderReader;
 import uk.ac.ebi.eva.pipeline.io.writers.VariantSourceEntityMongoWriter;
 import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.Map;
 
 /**
  * Tasklet that writes the metadata of a file into mongo. Uses
@@ -38,8 +46,13 @@ import java.util.Collections;
  * Input: VCF file
  * <p>
  * Output: the collection "files" contains the metadata of the VCF.
+ * <p>
+ * If the statistics of the whole file were calculated while loading the variants, they are stored too, once the
+ * metadata has been written.
  */
-public class LoadFileTasklet implements Tasklet {
+public class LoadFileTasklet implements Tasklet, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadFileTasklet.class);
 
     @Autowired
     private MongoOperations mongoOperations;
@@ -69,4 +82,27 @@ public class LoadFileTasklet implements Tasklet {
 
         return RepeatStatus.FINISHED;
     }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+    }
+
+    /**
+     * The metadata is written when the transaction of the tasklet commits, so the statistics are added afterwards.
+     */
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        Object fileStatistics = stepExecution.getJobExecution().getExecutionContext()
+                                             .get(ExecutionContextParametersNames.FILE_STATISTICS);
+        if (fileStatistics != null && ExitStatus.COMPLETED.equals(stepExecution.getExitStatus())) {
+            Document query = new Document(VariantSourceEntity.STUDYID_FIELD, inputParameters.getStudyId())
+                    .append(VariantSourceEntity.FILEID_FIELD, inputParameters.getVcfId());
+            Document update = new Document("$set", new Document(VariantSourceEntity.STATISTICS_FIELD,
+                                                                new Document((Map<String, Object>) fileStatistics)));
+            mongoOperations.getCollection(dbParameters.getCollectionFilesName()).updateOne(query, update);
+            logger.info("Statistics of file {} from study {} stored", inputParameters.getVcfId(),
+                        inputParameters.getStudyId());
+        }
+        return null;
+    }
 }
@@ -24,16 +24,22 @@ import org.springframework.batch.core.StepExecutionListener;
 
 import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
-import uk.ac.ebi.eva.utils.FileWithHeaderNumberOfLinesEstimator;
+import uk.ac.ebi.eva.utils.FileWithHeaderLineCounter;
 import uk.ac.ebi.eva.utils.URLHelper;
 
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
 /**
- * - Estimate the number of lines in the VEP annotation file before the step. This will be used in {@link StepProgressListener}
+ * - Count the number of lines in the VEP annotation file in the background while the step runs. It will be used in
+ * {@link StepProgressListener} once the count finishes.
  * - Log a statistics summary after the step
  */
 public class AnnotationLoaderStepStatisticsListener implements StepExecutionListener {
     private static final Logger logger = LoggerFactory.getLogger(AnnotationLoaderStepStatisticsListener.class);
 
+    private CompletableFuture<Long> lineCount;
+
     @Override
     public void beforeStep(StepExecution stepExecution) {
         JobParameters parameters = stepExecution.getJobExecution().getJobParameters();
@@ -44,14 +50,16 @@ public class AnnotationLoaderStepStatisticsListener implements StepExecutionList
 
         String vepAnnotationFilePath = URLHelper.resolveVepOutput(outputDirAnnotation, studyId, fileId);
 
-        long estimatedTotalNumberOfLines = new FileWithHeaderNumberOfLinesEstimator()
-                .estimateNumberOfLines(vepAnnotationFilePath);
-        stepExecution.getExecutionContext()
-                .put(ExecutionContextParametersNames.NUMBER_OF_LINES, estimatedTotalNumberOfLines);
+        lineCount = new FileWithHeaderLineCounter().countLinesInBackground(new File(vepAnnotationFilePath));
+        lineCount.thenAccept(lines -> stepExecution.getExecutionContext()
+                .put(ExecutionContextParametersNames.NUMBER_OF_LINES, lines));
     }
 
     @Override
     public ExitStatus afterStep(StepExecution stepExecution) {
+        if (lineCount != null) {
+            lineCount.cancel(false);
+        }
         logger.info("Items read = " + stepExecution.getReadCount()
                             + ", items written = " + stepExecution.getWriteCount()
                             + ", items skipped = " + stepExecution.getSkipCount());
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.listeners;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.DefaultStepExecutionAggregator;
+
+import uk.ac.ebi.eva.pipeline.model.FileStatistics;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregates the partitions of the load of a VCF and the statistics that {@link FileStatisticsListener} left in each
+ * of them.
+ * <p>
+ * The statistics are kept by partition in the execution context of the partitioned step, so that the partitions
+ * completed before a restart, which are not run again, are not lost, and the ones run again are not counted twice.
+ * Once every partition is completed, the statistics of the whole file are left in the job execution context, so that
+ * they can be stored along with the rest of the file metadata.
+ */
+public class FileStatisticsAggregator extends DefaultStepExecutionAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStatisticsAggregator.class);
+
+    @Override
+    public void aggregate(StepExecution result, Collection<StepExecution> executions) {
+        super.aggregate(result, executions);
+        if (executions == null) {
+            return;
+        }
+
+        Map<String, Object> partitionStatistics = new LinkedHashMap<>();
+        Object previousStatistics = result.getExecutionContext().get(ExecutionContextParametersNames.FILE_STATISTICS);
+        if (previousStatistics instanceof Map) {
+            partitionStatistics.putAll((Map<String, ?>) previousStatistics);
+        }
+
+        boolean completed = true;
+        for (StepExecution execution : executions) {
+            Object statistics = execution.getExecutionContext().get(ExecutionContextParametersNames.FILE_STATISTICS);
+            if (execution.getStatus() == BatchStatus.COMPLETED && statistics != null) {
+                partitionStatistics.put(execution.getStepName(), statistics);
+            } else {
+                partitionStatistics.remove(execution.getStepName());
+                completed &= execution.getStatus() == BatchStatus.COMPLETED;
+            }
+        }
+        if (partitionStatistics.isEmpty() && previousStatistics == null) {
+            return;
+        }
+        result.getExecutionContext().put(ExecutionContextParametersNames.FILE_STATISTICS,
+                                         new Document(partitionStatistics));
+
+        if (completed && !partitionStatistics.isEmpty()) {
+            FileStatistics fileStatistics = new FileStatistics();
+            for (Object statistics : partitionStatistics.values()) {
+                fileStatistics.add((Map<String, ?>) statistics);
+            }
+            logger.info("Statistics of {} variants calculated for the whole file", fileStatistics.getNumVariants());
+            result.getJobExecution().getExecutionContext().put(ExecutionContextParametersNames.FILE_STATISTICS,
+                                                               fileStatistics.toDocument());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.listeners;
+
+import org.opencb.biodata.models.variant.VariantSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.commons.models.data.VariantStats;
+import uk.ac.ebi.eva.pipeline.model.FileStatistics;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+
+import java.util.List;
+
+/**
+ * When the population statistics are calculated while loading a genotyped VCF, accumulates the statistics of the
+ * file from the variants that are successfully written. They are left in the job execution context, so that they can
+ * be stored along with the rest of the file metadata. When the step only loads a region of the file, they are left in
+ * the execution context of the region instead, where {@link FileStatisticsAggregator} collects them.
+ * <p>
+ * The statistics are kept in the listener, so it has to be step scoped to keep apart the regions loaded
+ * concurrently.
+ */
+public class FileStatisticsListener implements StepExecutionListener, ItemWriteListener<Variant> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStatisticsListener.class);
+
+    private boolean enabled;
+
+    private FileStatistics fileStatistics;
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        JobParameters jobParameters = stepExecution.getJobParameters();
+        String aggregation = jobParameters.getString(JobParametersNames.INPUT_VCF_AGGREGATION,
+                                                     VariantSource.Aggregation.NONE.toString());
+        enabled = Boolean.parseBoolean(jobParameters.getString(JobParametersNames.STATISTICS_DURING_LOAD))
+                && !Boolean.parseBoolean(jobParameters.getString(JobParametersNames.STATISTICS_SKIP))
+                && VariantSource.Aggregation.NONE.toString().equals(aggregation);
+        fileStatistics = new FileStatistics();
+    }
+
+    @Override
+    public void beforeWrite(List<? extends Variant> items) {
+    }
+
+    @Override
+    public void afterWrite(List<? extends Variant> items) {
+        if (!enabled) {
+            return;
+        }
+        for (Variant variant : items) {
+            for (VariantSourceEntry sourceEntry : variant.getSourceEntries().values()) {
+                VariantStats stats = sourceEntry.getStats();
+                if (stats != null) {
+                    fileStatistics.add(variant, stats);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<? extends Variant> items) {
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (!enabled || !ExitStatus.COMPLETED.equals(stepExecution.getExitStatus())) {
+            return null;
+        }
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        if (executionContext.containsKey(ExecutionContextParametersNames.PARTITION_VCF_START_OFFSET)) {
+            logger.debug("Statistics of {} variants calculated in {}", fileStatistics.getNumVariants(),
+                         stepExecution.getStepName());
+            executionContext.put(ExecutionContextParametersNames.FILE_STATISTICS, fileStatistics.toDocument());
+        } else {
+            logger.info("Statistics of {} variants calculated for the whole file", fileStatistics.getNumVariants());
+            stepExecution.getJobExecution().getExecutionContext().put(ExecutionContextParametersNames.FILE_STATISTICS,
+                                                                      fileStatistics.toDocument());
+        }
+        return null;
+    }
+
+}
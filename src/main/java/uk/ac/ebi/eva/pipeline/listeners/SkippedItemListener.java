@@ -16,28 +16,53 @@
 
 package uk.ac.ebi.eva.pipeline.listeners;
 
+import io.micrometer.core.instrument.Counter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.SkipListener;
 
+import uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics;
+
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.PHASE_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.PROCESS;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.READ;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.STEP_SKIPS;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.STEP_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.WRITE;
+
 /**
  * Just logs skipped items into a different file (different logger)
  */
 public class SkippedItemListener implements SkipListener {
     private static final Logger logger = LoggerFactory.getLogger(SkippedItemListener.class);
 
+    private final Counter readSkips;
+
+    private final Counter processSkips;
+
+    private final Counter writeSkips;
+
+    public SkippedItemListener(String stepName) {
+        readSkips = PipelineMetrics.counter(STEP_SKIPS, STEP_TAG, stepName, PHASE_TAG, READ);
+        processSkips = PipelineMetrics.counter(STEP_SKIPS, STEP_TAG, stepName, PHASE_TAG, PROCESS);
+        writeSkips = PipelineMetrics.counter(STEP_SKIPS, STEP_TAG, stepName, PHASE_TAG, WRITE);
+    }
+
     @Override
     public void onSkipInRead(Throwable t) {
+        readSkips.increment();
         logger.error("Skipped line during READ step: " + t.getMessage());
     }
 
     @Override
     public void onSkipInWrite(Object item, Throwable t) {
+        writeSkips.increment();
         logger.error("Skipped line during WRITE: " + t.getMessage());
     }
 
     @Override
     public void onSkipInProcess(Object item, Throwable t) {
+        processSkips.increment();
         logger.error("Skipped line during PROCESS: " + t.getMessage());
     }
 }
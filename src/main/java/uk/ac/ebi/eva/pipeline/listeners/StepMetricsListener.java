@@ -0,0 +1,168 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.listeners;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.OPERATION_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.PHASE_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.PROCESS;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.READ;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.STEP_CHUNK;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.STEP_ITEMS;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.STEP_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.WRITE;
+
+/**
+ * Records the time spent reading, processing and writing each chunk of a step, and counts the items read and written.
+ * <p>
+ * The times are accumulated per thread, so the listener can be used in multi-threaded steps, where each chunk is
+ * processed entirely by one thread. Chunks that fail are not recorded, as they are rolled back, and neither is the
+ * empty chunk that finds the end of the input.
+ * <p>
+ * The writes are recorded as soon as they complete, instead of at the end of the chunk, because a
+ * {@link uk.ac.ebi.eva.pipeline.io.writers.WriteBehindItemWriter} writes the chunks in another thread, after the chunk
+ * has ended.
+ */
+public class StepMetricsListener<I, O> implements ChunkListener, ItemReadListener<I>, ItemProcessListener<I, O>,
+        ItemWriteListener<O> {
+
+    private final Timer readTimer;
+
+    private final Timer processTimer;
+
+    private final Timer writeTimer;
+
+    private final Counter readItems;
+
+    private final Counter writtenItems;
+
+    private final ThreadLocal<ChunkTimes> chunkTimes;
+
+    public StepMetricsListener(String stepName) {
+        readTimer = PipelineMetrics.timer(STEP_CHUNK, STEP_TAG, stepName, PHASE_TAG, READ);
+        processTimer = PipelineMetrics.timer(STEP_CHUNK, STEP_TAG, stepName, PHASE_TAG, PROCESS);
+        writeTimer = PipelineMetrics.timer(STEP_CHUNK, STEP_TAG, stepName, PHASE_TAG, WRITE);
+        readItems = PipelineMetrics.counter(STEP_ITEMS, STEP_TAG, stepName, OPERATION_TAG, READ);
+        writtenItems = PipelineMetrics.counter(STEP_ITEMS, STEP_TAG, stepName, OPERATION_TAG, WRITE);
+        chunkTimes = ThreadLocal.withInitial(ChunkTimes::new);
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkTimes.get().reset();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        ChunkTimes times = chunkTimes.get();
+        if (times.readItems > 0) {
+            readTimer.record(times.readNanos, TimeUnit.NANOSECONDS);
+        }
+        if (times.processedItems > 0) {
+            processTimer.record(times.processNanos, TimeUnit.NANOSECONDS);
+        }
+        readItems.increment(times.readItems);
+        times.reset();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        chunkTimes.get().reset();
+    }
+
+    @Override
+    public void beforeRead() {
+        chunkTimes.get().start = System.nanoTime();
+    }
+
+    @Override
+    public void afterRead(I item) {
+        ChunkTimes times = chunkTimes.get();
+        times.readNanos += System.nanoTime() - times.start;
+        times.readItems++;
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        ChunkTimes times = chunkTimes.get();
+        times.readNanos += System.nanoTime() - times.start;
+    }
+
+    @Override
+    public void beforeProcess(I item) {
+        chunkTimes.get().start = System.nanoTime();
+    }
+
+    @Override
+    public void afterProcess(I item, O result) {
+        ChunkTimes times = chunkTimes.get();
+        times.processNanos += System.nanoTime() - times.start;
+        times.processedItems++;
+    }
+
+    @Override
+    public void onProcessError(I item, Exception e) {
+        ChunkTimes times = chunkTimes.get();
+        times.processNanos += System.nanoTime() - times.start;
+    }
+
+    @Override
+    public void beforeWrite(List<? extends O> items) {
+        chunkTimes.get().start = System.nanoTime();
+    }
+
+    @Override
+    public void afterWrite(List<? extends O> items) {
+        writeTimer.record(System.nanoTime() - chunkTimes.get().start, TimeUnit.NANOSECONDS);
+        writtenItems.increment(items.size());
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<? extends O> items) {
+    }
+
+    private static class ChunkTimes {
+
+        private long start;
+
+        private long readNanos;
+
+        private long processNanos;
+
+        private long readItems;
+
+        private long processedItems;
+
+        private void reset() {
+            readNanos = 0;
+            processNanos = 0;
+            readItems = 0;
+            processedItems = 0;
+        }
+    }
+}
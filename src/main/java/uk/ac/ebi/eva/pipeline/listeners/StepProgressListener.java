@@ -18,13 +18,19 @@ package uk.ac.ebi.eva.pipeline.listeners;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 
 import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 
+import java.util.Date;
+
 /**
  * Log the number of read, write and skip items for each chunk.
  * Should be wired into a {@link org.springframework.batch.core.Step}
+ * <p>
+ * Once the total number of lines is known, the percentage completed is logged too, and the time left, estimated from
+ * the items read per second since the step started.
  */
 public class StepProgressListener implements ChunkListener {
     private static final Logger logger = LoggerFactory.getLogger(StepProgressListener.class);
@@ -49,7 +55,9 @@ public class StepProgressListener implements ChunkListener {
 
         if (estimatedTotalNumberOfLines != 0) {
             int percent = (int) ((read * 100) / estimatedTotalNumberOfLines);
-            logger.info(stepName + percent + "% complete: " + chunkStatisticsMessage);
+            logger.info(stepName + percent + "% complete: " + chunkStatisticsMessage
+                                + estimateTimeLeft(context.getStepContext().getStepExecution(), read,
+                                                   estimatedTotalNumberOfLines));
         } else {
             logger.info(stepName + chunkStatisticsMessage);
         }
@@ -59,4 +67,14 @@ public class StepProgressListener implements ChunkListener {
     @Override
     public void afterChunkError(ChunkContext context) {
     }
+
+    static String estimateTimeLeft(StepExecution stepExecution, long read, long totalNumberOfLines) {
+        Date startTime = stepExecution.getStartTime();
+        if (startTime == null || read <= 0 || read >= totalNumberOfLines) {
+            return "";
+        }
+        long elapsedMillis = System.currentTimeMillis() - startTime.getTime();
+        long secondsLeft = (long) (elapsedMillis / 1000.0 * (totalNumberOfLines - read) / read);
+        return String.format(", ETA %d:%02d:%02d", secondsLeft / 3600, (secondsLeft / 60) % 60, secondsLeft % 60);
+    }
 }
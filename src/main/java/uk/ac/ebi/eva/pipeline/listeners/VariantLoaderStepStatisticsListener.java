@@ -20,27 +20,42 @@ import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
 
 import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
-import uk.ac.ebi.eva.utils.FileWithHeaderNumberOfLinesEstimator;
+import uk.ac.ebi.eva.utils.FileWithHeaderLineCounter;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * - Estimate the number of lines in the VCF file before the step. This will be used in {@link StepProgressListener}
+ * - Count the number of lines in the VCF file in the background while the step runs. It will be used in
+ * {@link StepProgressListener} once the count finishes. It's not counted when the step only loads a region of the
+ * file.
  * - Log a statistics summary after the step
  */
 public class VariantLoaderStepStatisticsListener implements StepExecutionListener {
     private static final Logger logger = LoggerFactory.getLogger(VariantLoaderStepStatisticsListener.class);
 
+    private CompletableFuture<Long> lineCount;
+
     @Override
     public void beforeStep(StepExecution stepExecution) {
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        if (executionContext.containsKey(ExecutionContextParametersNames.PARTITION_VCF_START_OFFSET)) {
+            return;
+        }
         String vcfFilePath = stepExecution.getJobExecution().getJobParameters().getString(JobParametersNames.INPUT_VCF);
-        long estimatedTotalNumberOfLines = new FileWithHeaderNumberOfLinesEstimator().estimateNumberOfLines(vcfFilePath);
-        stepExecution.getExecutionContext().put(ExecutionContextParametersNames.NUMBER_OF_LINES, estimatedTotalNumberOfLines);
+        lineCount = new FileWithHeaderLineCounter().countLinesInBackground(new File(vcfFilePath));
+        lineCount.thenAccept(lines -> executionContext.put(ExecutionContextParametersNames.NUMBER_OF_LINES, lines));
     }
 
     @Override
     public ExitStatus afterStep(StepExecution stepExecution) {
+        if (lineCount != null) {
+            lineCount.cancel(false);
+        }
         logger.info("Items read = " + stepExecution.getReadCount()
                             + ", items written = " + stepExecution.getWriteCount()
                             + ", items skipped = " + stepExecution.getSkipCount());
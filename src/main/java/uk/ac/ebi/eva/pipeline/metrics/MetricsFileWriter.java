@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.boot.autoconfigure.batch.JobExecutionEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes into a JSON file, when the job finishes, the throughput of each step and the current value of all the
+ * meters of a registry. Times are written in seconds.
+ */
+public class MetricsFileWriter implements ApplicationListener<JobExecutionEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsFileWriter.class);
+
+    private final MeterRegistry registry;
+
+    private final String output;
+
+    public MetricsFileWriter(MeterRegistry registry, String output) {
+        this.registry = registry;
+        this.output = output;
+    }
+
+    @Override
+    public void onApplicationEvent(JobExecutionEvent event) {
+        JobExecution jobExecution = event.getJobExecution();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("job", jobExecution.getJobInstance().getJobName());
+        metrics.put("status", jobExecution.getStatus().toString());
+        metrics.put("steps", describeSteps(jobExecution));
+        metrics.put("meters", describeMeters());
+
+        try {
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(output), metrics);
+            logger.info("Metrics written to {}", output);
+        } catch (IOException e) {
+            logger.error("Could not write the metrics to " + output, e);
+        }
+    }
+
+    private List<Map<String, Object>> describeSteps(JobExecution jobExecution) {
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("name", stepExecution.getStepName());
+            step.put("status", stepExecution.getStatus().toString());
+            step.put("read", stepExecution.getReadCount());
+            step.put("written", stepExecution.getWriteCount());
+            step.put("skipped", stepExecution.getSkipCount());
+            if (stepExecution.getStartTime() != null && stepExecution.getEndTime() != null) {
+                double seconds = (stepExecution.getEndTime().getTime() - stepExecution.getStartTime().getTime())
+                        / 1000.0;
+                step.put("seconds", seconds);
+                if (seconds > 0) {
+                    step.put("readPerSecond", stepExecution.getReadCount() / seconds);
+                    step.put("writtenPerSecond", stepExecution.getWriteCount() / seconds);
+                }
+            }
+            steps.add(step);
+        }
+        return steps;
+    }
+
+    private List<Map<String, Object>> describeMeters() {
+        List<Map<String, Object>> meters = new ArrayList<>();
+        for (Meter meter : registry.getMeters()) {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("name", meter.getId().getName());
+
+            Map<String, String> tags = new LinkedHashMap<>();
+            for (Tag tag : meter.getId().getTags()) {
+                tags.put(tag.getKey(), tag.getValue());
+            }
+            description.put("tags", tags);
+
+            for (Measurement measurement : meter.measure()) {
+                description.put(measurement.getStatistic().getTagValueRepresentation(), measurement.getValue());
+            }
+
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            if (meter instanceof Timer) {
+                for (ValueAtPercentile percentile : ((Timer) meter).takeSnapshot().percentileValues()) {
+                    percentiles.put(Double.toString(percentile.percentile()), percentile.value(TimeUnit.SECONDS));
+                }
+            } else if (meter instanceof DistributionSummary) {
+                for (ValueAtPercentile percentile : ((DistributionSummary) meter).takeSnapshot().percentileValues()) {
+                    percentiles.put(Double.toString(percentile.percentile()), percentile.value());
+                }
+            }
+            if (!percentiles.isEmpty()) {
+                description.put("percentiles", percentiles);
+            }
+            meters.add(description);
+        }
+        return meters;
+    }
+}
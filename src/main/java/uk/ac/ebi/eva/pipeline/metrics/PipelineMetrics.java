@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Names of the meters recorded by the pipeline, and factory methods to register them.
+ * <p>
+ * The meters are registered in the global Micrometer registry, so they can be recorded from classes that are not
+ * Spring beans, like the VEP processes. The global registry discards the measurements until the
+ * {@link uk.ac.ebi.eva.pipeline.configuration.MetricsConfiguration} adds a registry to it, so nothing is recorded in
+ * the tests that don't load it.
+ * <p>
+ * Timers and distribution summaries publish a histogram, to be aggregated by Prometheus, and some percentiles, so
+ * that the JSON dump written at the end of the job is readable without further processing.
+ */
+public final class PipelineMetrics {
+
+    public static final String STEP_ITEMS = "eva.step.items";
+
+    public static final String STEP_CHUNK = "eva.step.chunk";
+
+    public static final String STEP_SKIPS = "eva.step.skips";
+
+    public static final String MONGO_BULK_WRITE = "eva.mongo.bulk.write";
+
+    public static final String MONGO_DOCUMENT_SIZE = "eva.mongo.document.size";
+
+    public static final String VEP_STARTUP = "eva.vep.startup";
+
+    public static final String VEP_RUN = "eva.vep.run";
+
+    public static final String VEP_IDLE = "eva.vep.idle";
+
+    public static final String STEP_TAG = "step";
+
+    public static final String PHASE_TAG = "phase";
+
+    public static final String COLLECTION_TAG = "collection";
+
+    public static final String OPERATION_TAG = "operation";
+
+    public static final String READ = "read";
+
+    public static final String PROCESS = "process";
+
+    public static final String WRITE = "write";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private PipelineMetrics() {
+    }
+
+    /**
+     * @param tags pairs of tag names and values
+     */
+    public static Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+                    .tags(tags)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * @param tags pairs of tag names and values
+     */
+    public static DistributionSummary summary(String name, String baseUnit, String... tags) {
+        return DistributionSummary.builder(name)
+                                  .baseUnit(baseUnit)
+                                  .tags(tags)
+                                  .publishPercentiles(PERCENTILES)
+                                  .publishPercentileHistogram()
+                                  .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * @param tags pairs of tag names and values
+     */
+    public static Counter counter(String name, String... tags) {
+        return Metrics.counter(name, tags);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal HTTP server that exposes the meters of a registry at /metrics, for Prometheus to scrape them while a job
+ * runs. The pipeline doesn't run a web server of its own, so the one included in the JDK is used.
+ */
+public class PrometheusScrapeServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrometheusScrapeServer.class);
+
+    public static final String SCRAPE_PATH = "/metrics";
+
+    private final PrometheusMeterRegistry registry;
+
+    private final int port;
+
+    private HttpServer server;
+
+    public PrometheusScrapeServer(PrometheusMeterRegistry registry, int port) {
+        if (port <= 0) {
+            throw new IllegalArgumentException("port (" + port + ") must be strictly greater than 0");
+        }
+        this.registry = registry;
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(SCRAPE_PATH, this::scrape);
+        server.start();
+        logger.info("Serving metrics at http://localhost:{}{}", port, SCRAPE_PATH);
+    }
+
+    private void scrape(HttpExchange exchange) throws IOException {
+        byte[] response = registry.scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", TextFormat.CONTENT_TYPE_004);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(response);
+        }
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.model;
+
+import org.bson.Document;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntity;
+import uk.ac.ebi.eva.commons.models.data.VariantStats;
+
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of a whole file (number of variants, SNPs, transitions...), accumulated from the statistics of each of
+ * its variants. The accumulation is thread safe, so several chunks can be added concurrently.
+ */
+public class FileStatistics {
+
+    private final LongAccumulator numSamples;
+
+    private final LongAdder numVariants;
+
+    private final LongAdder numSnps;
+
+    private final LongAdder numIndels;
+
+    private final LongAdder numStructural;
+
+    private final LongAdder numPass;
+
+    private final LongAdder numTransitions;
+
+    private final LongAdder numTransversions;
+
+    private final DoubleAdder accumulatedQuality;
+
+    public FileStatistics() {
+        numSamples = new LongAccumulator(Math::max, 0);
+        numVariants = new LongAdder();
+        numSnps = new LongAdder();
+        numIndels = new LongAdder();
+        numStructural = new LongAdder();
+        numPass = new LongAdder();
+        numTransitions = new LongAdder();
+        numTransversions = new LongAdder();
+        accumulatedQuality = new DoubleAdder();
+    }
+
+    public void add(Variant variant, VariantStats stats) {
+        numSamples.accumulate(stats.getNumSamples());
+        numVariants.increment();
+        switch (variant.getType()) {
+            case SNV:
+                numSnps.increment();
+                if (stats.isTransition()) {
+                    numTransitions.increment();
+                } else if (stats.isTransversion()) {
+                    numTransversions.increment();
+                }
+                break;
+            case INDEL:
+                numIndels.increment();
+                break;
+            case SV:
+                numStructural.increment();
+                break;
+            default:
+                break;
+        }
+        if (stats.hasPassedFilters()) {
+            numPass.increment();
+        }
+        if (stats.getQuality() > 0) {
+            accumulatedQuality.add(stats.getQuality());
+        }
+    }
+
+    /**
+     * Adds the statistics of a part of the file, as returned by {@link #toDocument()}. The mean quality of the part
+     * is weighted by its number of variants.
+     */
+    public void add(Map<String, ?> statistics) {
+        long variants = getLong(statistics, VariantSourceEntity.STATISTICS_NUMVARIANTS_FIELD);
+        numSamples.accumulate(getLong(statistics, VariantSourceEntity.STATISTICS_NUMSAMPLES_FIELD));
+        numVariants.add(variants);
+        numSnps.add(getLong(statistics, VariantSourceEntity.STATISTICS_NUMSNPS_FIELD));
+        numIndels.add(getLong(statistics, VariantSourceEntity.STATISTICS_NUMINDELS_FIELD));
+        numStructural.add(getLong(statistics, VariantSourceEntity.STATISTICS_NUMSTRUCTURAL_FIELD));
+        numPass.add(getLong(statistics, VariantSourceEntity.STATISTICS_NUMPASSFILTERS_FIELD));
+        numTransitions.add(getLong(statistics, VariantSourceEntity.STATISTICS_NUMTRANSITIONS_FIELD));
+        numTransversions.add(getLong(statistics, VariantSourceEntity.STATISTICS_NUMTRANSVERSIONS_FIELD));
+        Object meanQuality = statistics.get(VariantSourceEntity.STATISTICS_MEANQUALITY_FIELD);
+        if (meanQuality != null) {
+            accumulatedQuality.add(((Number) meanQuality).doubleValue() * variants);
+        }
+    }
+
+    private static long getLong(Map<String, ?> statistics, String field) {
+        Object value = statistics.get(field);
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    public long getNumVariants() {
+        return numVariants.sum();
+    }
+
+    /**
+     * @return the statistics with the field names of the "st" subdocument of {@link VariantSourceEntity}
+     */
+    public Document toDocument() {
+        long variants = numVariants.sum();
+        return new Document(VariantSourceEntity.STATISTICS_NUMSAMPLES_FIELD, (int) numSamples.get())
+                .append(VariantSourceEntity.STATISTICS_NUMVARIANTS_FIELD, (int) variants)
+                .append(VariantSourceEntity.STATISTICS_NUMSNPS_FIELD, numSnps.intValue())
+                .append(VariantSourceEntity.STATISTICS_NUMINDELS_FIELD, numIndels.intValue())
+                .append(VariantSourceEntity.STATISTICS_NUMSTRUCTURAL_FIELD, numStructural.intValue())
+                .append(VariantSourceEntity.STATISTICS_NUMPASSFILTERS_FIELD, numPass.intValue())
+                .append(VariantSourceEntity.STATISTICS_NUMTRANSITIONS_FIELD, numTransitions.intValue())
+                .append(VariantSourceEntity.STATISTICS_NUMTRANSVERSIONS_FIELD, numTransversions.intValue())
+                .append(VariantSourceEntity.STATISTICS_MEANQUALITY_FIELD,
+                        variants == 0 ? 0 : (float) (accumulatedQuality.sum() / variants));
+    }
+}
@@ -66,6 +66,9 @@ public class AnnotationParameters {
     @Value(PARAMETER + JobParametersNames.APP_VEP_TIMEOUT + END)
     private Long timeout;
 
+    @Value(PARAMETER + JobParametersNames.APP_VEP_POOL_SIZE + "']?:0}")
+    private Integer vepPoolSize;
+
     @Value(PARAMETER + JobParametersNames.INPUT_FASTA + END)
     private String inputFasta;
 
@@ -100,6 +103,14 @@ public class AnnotationParameters {
         return timeout;
     }
 
+    /**
+     * @return number of VEP processes to keep running during the whole annotation step, or 0 to start a new VEP
+     * process for each chunk.
+     */
+    public Integer getVepPoolSize() {
+        return vepPoolSize;
+    }
+
     public String getInputFasta() {
         return inputFasta;
     }
@@ -152,6 +163,10 @@ public class AnnotationParameters {
         this.timeout = timeout;
     }
 
+    public void setVepPoolSize(Integer vepPoolSize) {
+        this.vepPoolSize = vepPoolSize;
+    }
+
     public void setInputFasta(String inputFasta) {
         this.inputFasta = inputFasta;
     }
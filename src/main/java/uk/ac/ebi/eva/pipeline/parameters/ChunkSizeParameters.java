@@ -29,7 +29,27 @@ public class ChunkSizeParameters {
     @Value(PARAMETER + JobParametersNames.CONFIG_CHUNK_SIZE + OR_DEFAULT)
     private Integer chunkSize;
 
+    @Value(PARAMETER + JobParametersNames.CONFIG_CHUNK_TARGET_BYTES + "']}")
+    private Long targetBytes;
+
+    @Value(PARAMETER + JobParametersNames.CONFIG_CHUNK_MAX_WRITE_LATENCY + "']}")
+    private Long maxWriteLatency;
+
     public Integer getChunkSize() {
         return chunkSize;
     }
+
+    /**
+     * @return Bytes of the documents written in a chunk, or null if the chunk size is fixed
+     */
+    public Long getTargetBytes() {
+        return targetBytes;
+    }
+
+    /**
+     * @return Milliseconds to write a chunk, or null if the chunk size is fixed
+     */
+    public Long getMaxWriteLatency() {
+        return maxWriteLatency;
+    }
 }
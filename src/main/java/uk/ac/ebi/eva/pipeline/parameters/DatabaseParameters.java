@@ -49,6 +49,12 @@ public class DatabaseParameters {
     @Value(PARAMETER + JobParametersNames.DB_COLLECTIONS_ANNOTATIONS_NAME + END)
     private String collectionAnnotationsName;
 
+    @Value(PARAMETER + JobParametersNames.DB_INDEXES_DEFERRED + "']?:false}")
+    private boolean indexesDeferred;
+
+    @Value(PARAMETER + JobParametersNames.DB_SAMPLES_PACKED + "']?:false}")
+    private boolean samplesPacked;
+
     @Autowired
     private MongoConnection mongoConnection;
 
@@ -79,4 +85,12 @@ public class DatabaseParameters {
     public String getCollectionAnnotationsName() {
         return collectionAnnotationsName;
     }
+
+    public boolean getIndexesDeferred() {
+        return indexesDeferred;
+    }
+
+    public boolean getSamplesPacked() {
+        return samplesPacked;
+    }
 }
@@ -20,4 +20,8 @@ package uk.ac.ebi.eva.pipeline.parameters;
  */
 public class ExecutionContextParametersNames {
     public static final String NUMBER_OF_LINES = "line";
+    public static final String FILE_STATISTICS = "fileStatistics";
+    public static final String PARTITION_VARIANTS_QUERY = "partitionVariantsQuery";
+    public static final String PARTITION_VCF_START_OFFSET = "partitionVcfStartOffset";
+    public static final String PARTITION_VCF_END_OFFSET = "partitionVcfEndOffset";
 }
@@ -89,6 +89,10 @@ public class JobParametersNames {
 
     public static final String DB_COLLECTIONS_ANNOTATIONS_NAME = "db.collections.annotations.name";
 
+    public static final String DB_INDEXES_DEFERRED = "db.indexes.deferred";
+
+    public static final String DB_SAMPLES_PACKED = "db.samples.packed";
+
 
     /*
      * Skip and overwrite steps
@@ -100,6 +104,8 @@ public class JobParametersNames {
 
     public static final String STATISTICS_OVERWRITE = "statistics.overwrite";   // FIXME this is only used in tests
 
+    public static final String STATISTICS_DURING_LOAD = "statistics.during-load";
+
     public static final String ANNOTATION_OVERWRITE = "annotation.overwrite";
 
 
@@ -142,6 +148,8 @@ public class JobParametersNames {
 
     public static final String APP_VEP_TIMEOUT = "app.vep.timeout";
 
+    public static final String APP_VEP_POOL_SIZE = "app.vep.pool-size";
+
 
     /*
      * Other configuration
@@ -151,6 +159,28 @@ public class JobParametersNames {
 
     public static final String CONFIG_CHUNK_SIZE = "config.chunk.size";
 
+    public static final String CONFIG_CHUNK_TARGET_BYTES = "config.chunk.target-bytes";
+
+    public static final String CONFIG_CHUNK_MAX_WRITE_LATENCY = "config.chunk.max-write-latency";
+
+    public static final String CONFIG_PARSER_THREADS = "config.parser.threads";
+
+    public static final String CONFIG_WRITER_THREADS = "config.writer.threads";
+
+    public static final String CONFIG_STATISTICS_THREADS = "config.statistics.threads";
+
+    public static final String CONFIG_ANNOTATION_THREADS = "config.annotation.threads";
+
+    public static final String CONFIG_LOAD_THREADS = "config.load.threads";
+
+    public static final String CONFIG_DROP_THREADS = "config.drop.threads";
+
+    public static final String CONFIG_WRITER_CHUNKS_IN_FLIGHT = "config.writer.chunks-in-flight";
+
+    public static final String CONFIG_METRICS_PROMETHEUS_PORT = "config.metrics.prometheus.port";
+
+    public static final String CONFIG_METRICS_OUTPUT = "config.metrics.output";
+
 
     public static final String PROPERTY_FILE_PROPERTY = "parameters.path";
 
@@ -41,6 +41,12 @@ public class OutputParameters {
     @Value(PARAMETER + JobParametersNames.STATISTICS_OVERWRITE  + "']?:false}")
     private boolean statisticsOverwrite;
 
+    @Value(PARAMETER + JobParametersNames.STATISTICS_SKIP  + "']?:false}")
+    private boolean statisticsSkip;
+
+    @Value(PARAMETER + JobParametersNames.STATISTICS_DURING_LOAD  + "']?:false}")
+    private boolean statisticsDuringLoad;
+
     public String getOutputDir() {
         return outputDir;
     }
@@ -56,4 +62,12 @@ public class OutputParameters {
     public boolean getStatisticsOverwrite() {
         return statisticsOverwrite;
     }
+
+    /**
+     * @return whether the population statistics are calculated while the variants are loaded, instead of in a step
+     * that reads them back from the database
+     */
+    public boolean getStatisticsDuringLoad() {
+        return statisticsDuringLoad && !statisticsSkip;
+    }
 }
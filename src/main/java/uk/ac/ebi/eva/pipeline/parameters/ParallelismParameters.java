@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.parameters;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Number of threads used to parse the input VCF, to write the variants into the database, to calculate the
+ * population statistics and to annotate the variants, number of regions of an indexed VCF loaded concurrently, number
+ * of regions whose variants are removed concurrently when dropping a study, and number of chunks whose writes can be
+ * in flight while the next chunk is processed. A value of 1 (the default) keeps
+ * the single-threaded behaviour.
+ */
+@Service
+@StepScope
+public class ParallelismParameters {
+
+    private static final String PARAMETER = "#{jobParameters['";
+    private static final String OR_DEFAULT = "']?:'1'}";
+
+    @Value(PARAMETER + JobParametersNames.CONFIG_PARSER_THREADS + OR_DEFAULT)
+    private Integer parserThreads;
+
+    @Value(PARAMETER + JobParametersNames.CONFIG_WRITER_THREADS + OR_DEFAULT)
+    private Integer writerThreads;
+
+    @Value(PARAMETER + JobParametersNames.CONFIG_STATISTICS_THREADS + OR_DEFAULT)
+    private Integer statisticsThreads;
+
+    @Value(PARAMETER + JobParametersNames.CONFIG_ANNOTATION_THREADS + OR_DEFAULT)
+    private Integer annotationThreads;
+
+    @Value(PARAMETER + JobParametersNames.CONFIG_LOAD_THREADS + OR_DEFAULT)
+    private Integer loadThreads;
+
+    @Value(PARAMETER + JobParametersNames.CONFIG_DROP_THREADS + OR_DEFAULT)
+    private Integer dropThreads;
+
+    @Value(PARAMETER + JobParametersNames.CONFIG_WRITER_CHUNKS_IN_FLIGHT + OR_DEFAULT)
+    private Integer writerChunksInFlight;
+
+    public Integer getParserThreads() {
+        return parserThreads;
+    }
+
+    public Integer getWriterThreads() {
+        return writerThreads;
+    }
+
+    public Integer getStatisticsThreads() {
+        return statisticsThreads;
+    }
+
+    public Integer getAnnotationThreads() {
+        return annotationThreads;
+    }
+
+    public Integer getLoadThreads() {
+        return loadThreads;
+    }
+
+    public Integer getDropThreads() {
+        return dropThreads;
+    }
+
+    public Integer getWriterChunksInFlight() {
+        return writerChunksInFlight;
+    }
+}
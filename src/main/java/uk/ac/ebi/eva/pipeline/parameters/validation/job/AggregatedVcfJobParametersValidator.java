@@ -24,6 +24,7 @@ import org.springframework.batch.core.job.DefaultJobParametersValidator;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.AggregatedVcfJobConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.AnnotationMetadataStepParametersValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.step.CreateDeferredIndexesStepParametersValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.GenerateVepAnnotationStepParametersValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.LoadFileStepParametersValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.LoadVariantsStepParametersValidator;
@@ -47,6 +48,11 @@ public class AggregatedVcfJobParametersValidator extends DefaultJobParametersVal
         jobParametersValidators.add(new LoadVariantsStepParametersValidator());
         jobParametersValidators.add(new LoadFileStepParametersValidator());
 
+        Boolean indexesDeferred = Boolean.valueOf(jobParameters.getString(JobParametersNames.DB_INDEXES_DEFERRED));
+        if (indexesDeferred) {
+            jobParametersValidators.add(new CreateDeferredIndexesStepParametersValidator());
+        }
+
         Boolean skipAnnotation = Boolean.valueOf(jobParameters.getString(JobParametersNames.ANNOTATION_SKIP));
         if (!skipAnnotation) {
             boolean studyIdRequired = true;
@@ -21,7 +21,9 @@ import org.springframework.batch.core.JobParametersValidator;
 import org.springframework.batch.core.job.CompositeJobParametersValidator;
 import org.springframework.batch.core.job.DefaultJobParametersValidator;
 
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.AnnotationMetadataStepParametersValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.step.CreateDeferredIndexesStepParametersValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.GenerateVepAnnotationStepParametersValidator;
 
 import java.util.ArrayList;
@@ -46,6 +48,11 @@ public class AnnotationJobParametersValidator extends DefaultJobParametersValida
         jobParametersValidators.add(new GenerateVepAnnotationStepParametersValidator(studyIdRequired));
         jobParametersValidators.add(new AnnotationMetadataStepParametersValidator());
 
+        Boolean indexesDeferred = Boolean.valueOf(jobParameters.getString(JobParametersNames.DB_INDEXES_DEFERRED));
+        if (indexesDeferred) {
+            jobParametersValidators.add(new CreateDeferredIndexesStepParametersValidator());
+        }
+
         CompositeJobParametersValidator compositeJobParametersValidator = new CompositeJobParametersValidator();
         compositeJobParametersValidator.setValidators(jobParametersValidators);
         return compositeJobParametersValidator;
@@ -24,10 +24,10 @@ import org.springframework.batch.core.job.DefaultJobParametersValidator;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.GenotypedVcfJobConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.AnnotationMetadataStepParametersValidator;
-import uk.ac.ebi.eva.pipeline.parameters.validation.step.CalculateStatisticsStepParametersValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.step.CalculateAndLoadStatisticsStepParametersValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.step.CreateDeferredIndexesStepParametersValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.GenerateVepAnnotationStepParametersValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.LoadFileStepParametersValidator;
-import uk.ac.ebi.eva.pipeline.parameters.validation.step.LoadStatisticsStepParametersValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.step.LoadVariantsStepParametersValidator;
 
 import java.util.ArrayList;
@@ -49,6 +49,11 @@ public class GenotypedVcfJobParametersValidator extends DefaultJobParametersVali
         jobParametersValidators.add(new LoadVariantsStepParametersValidator());
         jobParametersValidators.add(new LoadFileStepParametersValidator());
 
+        Boolean indexesDeferred = Boolean.valueOf(jobParameters.getString(JobParametersNames.DB_INDEXES_DEFERRED));
+        if (indexesDeferred) {
+            jobParametersValidators.add(new CreateDeferredIndexesStepParametersValidator());
+        }
+
         Boolean skipAnnotation = Boolean.valueOf(jobParameters.getString(JobParametersNames.ANNOTATION_SKIP));
         if (!skipAnnotation) {
             boolean studyIdRequired = true;
@@ -58,9 +63,9 @@ public class GenotypedVcfJobParametersValidator extends DefaultJobParametersVali
         }
 
         Boolean skipStats = Boolean.valueOf(jobParameters.getString(JobParametersNames.STATISTICS_SKIP));
-        if (!skipStats) {
-            jobParametersValidators.add(new CalculateStatisticsStepParametersValidator());
-            jobParametersValidators.add(new LoadStatisticsStepParametersValidator());
+        Boolean statsDuringLoad = Boolean.valueOf(jobParameters.getString(JobParametersNames.STATISTICS_DURING_LOAD));
+        if (!skipStats && !statsDuringLoad) {
+            jobParametersValidators.add(new CalculateAndLoadStatisticsStepParametersValidator());
         }
 
         CompositeJobParametersValidator compositeJobParametersValidator = new CompositeJobParametersValidator();
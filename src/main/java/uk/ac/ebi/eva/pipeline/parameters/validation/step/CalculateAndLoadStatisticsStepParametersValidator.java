@@ -21,13 +21,13 @@ import org.springframework.batch.core.JobParametersValidator;
 import org.springframework.batch.core.job.CompositeJobParametersValidator;
 import org.springframework.batch.core.job.DefaultJobParametersValidator;
 
-import uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.CalculateStatisticsTasklet;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CalculateAndLoadStatisticsStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigStatisticsThreadsValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbNameValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputStudyIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.OptionalValidator;
-import uk.ac.ebi.eva.pipeline.parameters.validation.OutputDirStatisticsValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.StatisticsOverwriteValidator;
 
 import java.util.Arrays;
@@ -35,15 +35,14 @@ import java.util.List;
 
 /**
  * Validates the job parameters necessary to execute a
- * {@link CalculateStatisticsTasklet}
+ * {@link CalculateAndLoadStatisticsStepConfiguration}
  */
-public class CalculateStatisticsStepParametersValidator extends DefaultJobParametersValidator {
+public class CalculateAndLoadStatisticsStepParametersValidator extends DefaultJobParametersValidator {
 
-    public CalculateStatisticsStepParametersValidator() {
+    public CalculateAndLoadStatisticsStepParametersValidator() {
         super(new String[]{JobParametersNames.DB_NAME,
                            JobParametersNames.INPUT_STUDY_ID,
-                           JobParametersNames.INPUT_VCF_ID,
-                           JobParametersNames.OUTPUT_DIR_STATISTICS},
+                           JobParametersNames.INPUT_VCF_ID},
               new String[]{});
     }
 
@@ -56,10 +55,11 @@ public class CalculateStatisticsStepParametersValidator extends DefaultJobParame
     private CompositeJobParametersValidator compositeJobParametersValidator() {
         final List<JobParametersValidator> jobParametersValidators = Arrays.asList(
                 new OptionalValidator(new StatisticsOverwriteValidator(), JobParametersNames.STATISTICS_OVERWRITE),
+                new OptionalValidator(new ConfigStatisticsThreadsValidator(),
+                                      JobParametersNames.CONFIG_STATISTICS_THREADS),
                 new DbNameValidator(),
                 new InputStudyIdValidator(),
-                new InputVcfIdValidator(),
-                new OutputDirStatisticsValidator()
+                new InputVcfIdValidator()
         );
 
         CompositeJobParametersValidator compositeJobParametersValidator = new CompositeJobParametersValidator();
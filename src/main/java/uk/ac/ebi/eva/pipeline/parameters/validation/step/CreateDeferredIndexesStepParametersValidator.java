@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 EMBL - European Bioinformatics Institute
+ * Copyright 2021 EMBL - European Bioinformatics Institute
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,34 +21,27 @@ import org.springframework.batch.core.JobParametersValidator;
 import org.springframework.batch.core.job.CompositeJobParametersValidator;
 import org.springframework.batch.core.job.DefaultJobParametersValidator;
 
-import uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.LoadStatisticsTasklet;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CreateDeferredIndexesStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
-import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsFilesNameValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigRestartabilityAllowValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsAnnotationsNameValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsVariantsNameValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbIndexesDeferredValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbNameValidator;
-import uk.ac.ebi.eva.pipeline.parameters.validation.InputStudyIdValidator;
-import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.OptionalValidator;
-import uk.ac.ebi.eva.pipeline.parameters.validation.OutputDirStatisticsValidator;
-import uk.ac.ebi.eva.pipeline.parameters.validation.StatisticsOverwriteValidator;
 
 import java.util.Arrays;
 import java.util.List;
 
 /**
- * Validates the job parameters necessary to execute a
- * {@link LoadStatisticsTasklet}
+ * Validates the job parameters necessary to execute a {@link CreateDeferredIndexesStepConfiguration}
  */
-public class LoadStatisticsStepParametersValidator extends DefaultJobParametersValidator {
+public class CreateDeferredIndexesStepParametersValidator extends DefaultJobParametersValidator {
 
-    public LoadStatisticsStepParametersValidator() {
-        super(new String[]{JobParametersNames.INPUT_STUDY_ID,
-                           JobParametersNames.INPUT_VCF_ID,
-                           JobParametersNames.DB_COLLECTIONS_FILES_NAME,
-                           JobParametersNames.DB_COLLECTIONS_VARIANTS_NAME,
-                           JobParametersNames.DB_NAME,
-                           JobParametersNames.OUTPUT_DIR_STATISTICS},
-              new String[]{ });
+    public CreateDeferredIndexesStepParametersValidator() {
+        super(new String[]{JobParametersNames.DB_NAME,
+                           JobParametersNames.DB_COLLECTIONS_VARIANTS_NAME},
+              new String[]{});
     }
 
     @Override
@@ -59,13 +52,13 @@ public class LoadStatisticsStepParametersValidator extends DefaultJobParametersV
 
     private CompositeJobParametersValidator compositeJobParametersValidator() {
         final List<JobParametersValidator> jobParametersValidators = Arrays.asList(
-                new DbCollectionsFilesNameValidator(),
-                new DbCollectionsVariantsNameValidator(),
                 new DbNameValidator(),
-                new InputStudyIdValidator(),
-                new InputVcfIdValidator(),
-                new OutputDirStatisticsValidator(),
-                new OptionalValidator(new StatisticsOverwriteValidator(), JobParametersNames.STATISTICS_OVERWRITE)
+                new DbCollectionsVariantsNameValidator(),
+                new OptionalValidator(new DbCollectionsAnnotationsNameValidator(),
+                                      JobParametersNames.DB_COLLECTIONS_ANNOTATIONS_NAME),
+                new OptionalValidator(new DbIndexesDeferredValidator(), JobParametersNames.DB_INDEXES_DEFERRED),
+                new OptionalValidator(new ConfigRestartabilityAllowValidator(),
+                                      JobParametersNames.CONFIG_RESTARTABILITY_ALLOW)
         );
 
         CompositeJobParametersValidator compositeJobParametersValidator = new CompositeJobParametersValidator();
@@ -24,8 +24,11 @@ import org.springframework.batch.core.job.DefaultJobParametersValidator;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.GenerateVepAnnotationStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.validation.AnnotationOverwriteValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigAnnotationThreadsValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigChunkSizeValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigWriterChunksInFlightValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsVariantsNameValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbIndexesDeferredValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbNameValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputFastaValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputStudyIdValidator;
@@ -37,6 +40,7 @@ import uk.ac.ebi.eva.pipeline.parameters.validation.VepCacheSpeciesValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepCacheVersionValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepNumForksValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepPathValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.VepPoolSizeValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepTimeoutValidator;
 
 import java.util.ArrayList;
@@ -89,7 +93,13 @@ public class GenerateVepAnnotationStepParametersValidator extends DefaultJobPara
                 new VepNumForksValidator(),
                 new VepPathValidator(),
                 new VepTimeoutValidator(),
-                new OptionalValidator(new ConfigChunkSizeValidator(), JobParametersNames.CONFIG_CHUNK_SIZE)
+                new OptionalValidator(new ConfigChunkSizeValidator(), JobParametersNames.CONFIG_CHUNK_SIZE),
+                new OptionalValidator(new VepPoolSizeValidator(), JobParametersNames.APP_VEP_POOL_SIZE),
+                new OptionalValidator(new ConfigAnnotationThreadsValidator(),
+                                      JobParametersNames.CONFIG_ANNOTATION_THREADS),
+                new OptionalValidator(new ConfigWriterChunksInFlightValidator(),
+                                      JobParametersNames.CONFIG_WRITER_CHUNKS_IN_FLIGHT),
+                new OptionalValidator(new DbIndexesDeferredValidator(), JobParametersNames.DB_INDEXES_DEFERRED)
         );
 
         if (isStudyIdRequired) {
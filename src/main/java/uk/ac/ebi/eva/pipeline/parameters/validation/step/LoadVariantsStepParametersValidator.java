@@ -23,9 +23,17 @@ import org.springframework.batch.core.job.DefaultJobParametersValidator;
 
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVariantsStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigChunkMaxWriteLatencyValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigChunkSizeValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigChunkTargetBytesValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigLoadThreadsValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigParserThreadsValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigRestartabilityAllowValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigWriterChunksInFlightValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigWriterThreadsValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsVariantsNameValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbIndexesDeferredValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbSamplesPackedValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbNameValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputStudyIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfAggregationMappingPathValidator;
@@ -33,6 +41,7 @@ import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfAggregationValidator
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.OptionalValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.StatisticsDuringLoadValidator;
 
 import java.util.Arrays;
 import java.util.List;
@@ -71,6 +80,18 @@ public class LoadVariantsStepParametersValidator extends DefaultJobParametersVal
                 new OptionalValidator(new InputVcfAggregationMappingPathValidator(),
                         JobParametersNames.INPUT_VCF_AGGREGATION_MAPPING_PATH),
                 new OptionalValidator(new ConfigChunkSizeValidator(), JobParametersNames.CONFIG_CHUNK_SIZE),
+                new OptionalValidator(new ConfigChunkTargetBytesValidator(),
+                        JobParametersNames.CONFIG_CHUNK_TARGET_BYTES),
+                new OptionalValidator(new ConfigChunkMaxWriteLatencyValidator(),
+                        JobParametersNames.CONFIG_CHUNK_MAX_WRITE_LATENCY),
+                new OptionalValidator(new ConfigParserThreadsValidator(), JobParametersNames.CONFIG_PARSER_THREADS),
+                new OptionalValidator(new ConfigWriterThreadsValidator(), JobParametersNames.CONFIG_WRITER_THREADS),
+                new OptionalValidator(new ConfigLoadThreadsValidator(), JobParametersNames.CONFIG_LOAD_THREADS),
+                new OptionalValidator(new ConfigWriterChunksInFlightValidator(),
+                        JobParametersNames.CONFIG_WRITER_CHUNKS_IN_FLIGHT),
+                new OptionalValidator(new StatisticsDuringLoadValidator(), JobParametersNames.STATISTICS_DURING_LOAD),
+                new OptionalValidator(new DbIndexesDeferredValidator(), JobParametersNames.DB_INDEXES_DEFERRED),
+                new OptionalValidator(new DbSamplesPackedValidator(), JobParametersNames.DB_SAMPLES_PACKED),
                 new OptionalValidator(new ConfigRestartabilityAllowValidator(),
                         JobParametersNames.CONFIG_RESTARTABILITY_ALLOW)
         );
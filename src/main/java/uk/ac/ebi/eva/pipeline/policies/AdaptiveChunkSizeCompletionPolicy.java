@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.policies;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import uk.ac.ebi.eva.pipeline.io.writers.BulkWriteStatistics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completion policy that resizes the chunks before each of them starts, from the size of the documents and the time
+ * spent writing them into the database, as recorded by the writer of the step in a {@link BulkWriteStatistics}.
+ * <p>
+ * The chunk size is the largest one whose documents add up to the target number of bytes and are written within the
+ * maximum latency, if those are given. It never grows more than twice from one chunk to the next, nor beyond
+ * {@link #MAX_CHUNK_SIZE}, the largest batch of writes that MongoDB accepts in a single request. Until some writes are
+ * recorded, the chunks keep the initial size.
+ */
+public class AdaptiveChunkSizeCompletionPolicy extends SimpleCompletionPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveChunkSizeCompletionPolicy.class);
+
+    public static final int MAX_CHUNK_SIZE = 100000;
+
+    /**
+     * Weight of the last measurement in the moving average of the document size and write time
+     */
+    private static final double SMOOTHING = 0.5;
+
+    private final BulkWriteStatistics statistics;
+
+    private final Long targetBytes;
+
+    private final Long maxWriteLatencyNanos;
+
+    private int chunkSize;
+
+    private double bytesPerDocument;
+
+    private double nanosPerDocument;
+
+    /**
+     * @param targetBytes Size of the documents of a chunk, or null to not limit it
+     * @param maxWriteLatencyMillis Time to write a chunk, or null to not limit it
+     */
+    public AdaptiveChunkSizeCompletionPolicy(int initialChunkSize, BulkWriteStatistics statistics, Long targetBytes,
+                                             Long maxWriteLatencyMillis) {
+        super(initialChunkSize);
+        this.chunkSize = initialChunkSize;
+        this.statistics = statistics;
+        this.targetBytes = targetBytes;
+        this.maxWriteLatencyNanos = maxWriteLatencyMillis == null ? null
+                : TimeUnit.MILLISECONDS.toNanos(maxWriteLatencyMillis);
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext context) {
+        resize();
+        return super.start(context);
+    }
+
+    @Override
+    public void setChunkSize(int chunkSize) {
+        super.setChunkSize(chunkSize);
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private void resize() {
+        BulkWriteStatistics written = statistics.drain();
+        if (written.getSampledDocuments() > 0) {
+            bytesPerDocument = smooth(bytesPerDocument,
+                                      (double) written.getSampledBytes() / written.getSampledDocuments());
+        }
+        if (written.getDocuments() > 0) {
+            nanosPerDocument = smooth(nanosPerDocument, (double) written.getWriteNanos() / written.getDocuments());
+        }
+
+        double limit = MAX_CHUNK_SIZE;
+        boolean measured = false;
+        if (targetBytes != null && bytesPerDocument > 0) {
+            limit = Math.min(limit, targetBytes / bytesPerDocument);
+            measured = true;
+        }
+        if (maxWriteLatencyNanos != null && nanosPerDocument > 0) {
+            limit = Math.min(limit, maxWriteLatencyNanos / nanosPerDocument);
+            measured = true;
+        }
+        if (!measured) {
+            return;
+        }
+
+        int newChunkSize = (int) Math.max(1, Math.min(limit, 2L * chunkSize));
+        if (newChunkSize != chunkSize) {
+            logger.debug("Chunk size changed from {} to {} ({} bytes and {} ms per 1000 documents)", chunkSize,
+                         newChunkSize, Math.round(bytesPerDocument * 1000),
+                         Math.round(nanosPerDocument * 1000 / TimeUnit.MILLISECONDS.toNanos(1)));
+            setChunkSize(newChunkSize);
+        }
+    }
+
+    private static double smooth(double average, double measurement) {
+        return average == 0 ? measurement : average * (1 - SMOOTHING) + measurement * SMOOTHING;
+    }
+}
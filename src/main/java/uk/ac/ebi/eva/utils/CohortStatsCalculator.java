@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.utils;
+
+import org.opencb.biodata.models.pedigree.Individual;
+import org.opencb.biodata.models.pedigree.Pedigree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.commons.models.data.VariantStats;
+import uk.ac.ebi.eva.pipeline.io.readers.PedReader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+/**
+ * Calculates the population statistics of the variants of a genotyped file, for all its samples (the cohort
+ * {@link VariantSourceEntry#DEFAULT_COHORT}) and for each of the cohorts defined by a pedigree, one per family.
+ * <p>
+ * The statistics of each cohort are calculated with {@link VariantStats#calculate}, using only the genotypes of the
+ * samples in that cohort. The same cohorts are used whether the statistics are calculated while the variants are
+ * loaded or afterwards, see {@link #fromPedigreeFile}.
+ */
+public class CohortStatsCalculator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CohortStatsCalculator.class);
+
+    private static final String GENOTYPE_FIELD = "GT";
+
+    private final Map<String, int[]> cohorts;
+
+    private final GenotypeDictionary genotypeDictionary;
+
+    /**
+     * @param cohorts            the positions (in the VCF) of the samples of each cohort, apart from the default one
+     * @param genotypeDictionary where the genotypes of the samples are looked up, shared with the rest of the step
+     */
+    public CohortStatsCalculator(Map<String, int[]> cohorts, GenotypeDictionary genotypeDictionary) {
+        this.cohorts = cohorts;
+        this.genotypeDictionary = genotypeDictionary;
+    }
+
+    public CohortStatsCalculator(Map<String, int[]> cohorts) {
+        this(cohorts, new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE));
+    }
+
+    public CohortStatsCalculator(GenotypeDictionary genotypeDictionary) {
+        this(Collections.emptyMap(), genotypeDictionary);
+    }
+
+    public CohortStatsCalculator() {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * Builds the calculator for the pedigree in a PED file, or for the default cohort only if there is no file.
+     *
+     * @param samplesPosition position of each sample in the VCF, by sample name. Only requested if there is a file
+     */
+    public static CohortStatsCalculator fromPedigreeFile(String pedigreePath,
+                                                         Callable<Map<String, Integer>> samplesPosition,
+                                                         GenotypeDictionary genotypeDictionary) throws Exception {
+        if (pedigreePath == null || pedigreePath.isEmpty()) {
+            return new CohortStatsCalculator(genotypeDictionary);
+        }
+        return fromPedigree(readPedigree(pedigreePath), samplesPosition.call(), genotypeDictionary);
+    }
+
+    private static Pedigree readPedigree(String pedigreePath) throws Exception {
+        PedReader pedReader = new PedReader(pedigreePath);
+        pedReader.open(new ExecutionContext());
+        try {
+            return pedReader.read();
+        } finally {
+            pedReader.close();
+        }
+    }
+
+    /**
+     * Builds a cohort for each family of the pedigree, with the individuals of that family that are samples of the
+     * file. Families without samples in the file are ignored.
+     *
+     * @param samplesPosition position of each sample in the VCF, by sample name
+     */
+    public static CohortStatsCalculator fromPedigree(Pedigree pedigree, Map<String, Integer> samplesPosition,
+                                                     GenotypeDictionary genotypeDictionary) {
+        Map<String, int[]> cohorts = new TreeMap<>();
+        for (Map.Entry<String, Set<Individual>> family : pedigree.getFamilies().entrySet()) {
+            List<Integer> positions = new ArrayList<>();
+            for (Individual individual : family.getValue()) {
+                Integer position = samplesPosition.get(individual.getId());
+                if (position != null) {
+                    positions.add(position);
+                }
+            }
+            if (positions.isEmpty()) {
+                logger.warn("None of the individuals of family {} are samples of the file", family.getKey());
+            } else if (VariantSourceEntry.DEFAULT_COHORT.equals(family.getKey())) {
+                logger.warn("Family {} ignored, its name is reserved for the cohort of all the samples",
+                            family.getKey());
+            } else {
+                cohorts.put(family.getKey(), positions.stream().mapToInt(Integer::intValue).sorted().toArray());
+            }
+        }
+        return new CohortStatsCalculator(cohorts, genotypeDictionary);
+    }
+
+    /**
+     * Sets the statistics of every cohort in each source entry of the variant, replacing any previous ones.
+     */
+    public void calculate(Variant variant) {
+        for (VariantSourceEntry sourceEntry : variant.getSourceEntries().values()) {
+            SamplesData samplesData = sourceEntry.getSamplesData();
+            Map<String, VariantStats> cohortStats = new LinkedHashMap<>();
+            cohortStats.put(VariantSourceEntry.DEFAULT_COHORT, calculate(variant, samplesData, sourceEntry));
+            for (Map.Entry<String, int[]> cohort : cohorts.entrySet()) {
+                SamplesData cohortSamplesData = selectGenotypes(samplesData, cohort.getValue());
+                cohortStats.put(cohort.getKey(), calculate(variant, cohortSamplesData, sourceEntry));
+            }
+            sourceEntry.setCohortStats(cohortStats);
+        }
+    }
+
+    private VariantStats calculate(Variant variant, SamplesData samplesData, VariantSourceEntry sourceEntry) {
+        return new VariantStats(variant).calculate(samplesData, sourceEntry.getAttributes(), null,
+                                                   genotypeDictionary);
+    }
+
+    private SamplesData selectGenotypes(SamplesData samplesData, int[] samplePositions) {
+        SamplesData selected = new SamplesData();
+        int sourceColumn = samplesData.getColumnIndex(GENOTYPE_FIELD);
+        int column = selected.addColumn(GENOTYPE_FIELD);
+        for (int position : samplePositions) {
+            int sampleIndex = selected.addSample();
+            if (sourceColumn >= 0 && position < samplesData.size()) {
+                selected.setValue(sampleIndex, column, samplesData.getValue(position, sourceColumn));
+            }
+        }
+        return selected;
+    }
+}
@@ -15,13 +15,19 @@
  */
 package uk.ac.ebi.eva.utils;
 
-import java.io.BufferedOutputStream;
+import uk.ac.ebi.eva.pipeline.io.ParallelBgzfInputStream;
+
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 import java.util.zip.ZipException;
 
 /**
@@ -29,6 +35,25 @@ import java.util.zip.ZipException;
  */
 public class CompressionHelper {
 
+    /**
+     * Header written by {@link java.util.zip.GZIPOutputStream} in Java 8: magic number, deflate method, no flags, no
+     * modification time, no extra flags and OS 0. From JDK 16 the OS byte is 255 (unknown) instead.
+     */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final int FLAGS_OFFSET = 3;
+
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    private static final int BUFFER_SIZE = 512;
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(
+            () -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
     public static boolean isGzip(String file) throws IOException {
         return isGzip(new File(file));
     }
@@ -43,18 +68,121 @@ public class CompressionHelper {
         return true;
     }
 
-    public static byte[] gzip(String text) throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        BufferedOutputStream bufos = new BufferedOutputStream(new GZIPOutputStream(bos));
+    /**
+     * @return true if the file is compressed with bgzip, which is also a valid gzip file
+     */
+    public static boolean isBgzf(File file) throws IOException {
+        byte[] header = new byte[ParallelBgzfInputStream.HEADER_LENGTH];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int length = 0;
+            int read = 0;
+            while (length < header.length && read != -1) {
+                read = inputStream.read(header, length, header.length - length);
+                length += Math.max(read, 0);
+            }
+            return length == header.length && ParallelBgzfInputStream.isBgzfHeader(header);
+        }
+    }
+
+    /**
+     * Compresses a text in gzip format, with the same bytes as a {@link java.util.zip.GZIPOutputStream} in Java 8
+     * (newer JDKs only differ in the OS byte of the header). The {@link Deflater} of each thread is reused, instead of
+     * allocating a new one and its buffers for every text.
+     */
+    public static byte[] gzip(String text) {
+        return gzip(text.getBytes());
+    }
+
+    public static byte[] gzip(byte[] data) {
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(
+                GZIP_HEADER.length + data.length / 2 + GZIP_TRAILER_LENGTH);
+        output.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+        byte[] buffer = BUFFERS.get();
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            output.write(buffer, 0, length);
+        }
 
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        writeIntLittleEndian(output, (int) crc.getValue());
+        writeIntLittleEndian(output, data.length);
+        return output.toByteArray();
+    }
+
+    /**
+     * Decompresses a text compressed with {@link #gzip(String)}, reusing the {@link Inflater} of each thread. Texts
+     * compressed by other tools, with optional fields in the gzip header, are decompressed with a
+     * {@link GZIPInputStream}.
+     */
+    public static String gunzip(byte[] compressed) throws IOException {
+        if (compressed.length < GZIP_HEADER.length + GZIP_TRAILER_LENGTH || compressed[0] != GZIP_HEADER[0]
+                || compressed[1] != GZIP_HEADER[1] || compressed[2] != GZIP_HEADER[2]) {
+            throw new ZipException("Not in gzip format");
+        }
+        if (compressed[FLAGS_OFFSET] != 0) {
+            return new String(readAll(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        }
+
+        int trailer = compressed.length - GZIP_TRAILER_LENGTH;
+        int expectedCrc = readIntLittleEndian(compressed, trailer);
+        int size = readIntLittleEndian(compressed, trailer + 4);
+        // one byte more than expected, so a stream longer than its trailer says is detected
+        byte[] data = new byte[size + 1];
+
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(compressed, GZIP_HEADER.length, trailer - GZIP_HEADER.length);
         try {
-            bufos.write(text.getBytes());
-        } finally {
-            bufos.close();
+            int length = 0;
+            while (length < data.length && !inflater.finished()) {
+                int inflated = inflater.inflate(data, length, data.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != size || !inflater.finished()) {
+                throw new ZipException("Corrupt gzip data: expected " + size + " bytes, inflated " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Corrupt gzip data: " + e.getMessage());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, size);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new ZipException("Corrupt gzip data: CRC mismatch");
         }
+        return new String(data, 0, size);
+    }
+
+    private static void writeIntLittleEndian(ByteArrayOutputStream output, int value) {
+        output.write(value);
+        output.write(value >>> 8);
+        output.write(value >>> 16);
+        output.write(value >>> 24);
+    }
 
-        byte[] retval = bos.toByteArray();
-        bos.close();
-        return retval;
+    private static int readIntLittleEndian(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16
+                | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        try (InputStream input = inputStream) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = input.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        }
     }
 }
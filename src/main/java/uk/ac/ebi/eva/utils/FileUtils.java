@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 
+import uk.ac.ebi.eva.pipeline.io.BgzfLazyResource;
 import uk.ac.ebi.eva.pipeline.io.GzipLazyResource;
 
 import java.io.File;
@@ -56,9 +57,14 @@ public abstract class FileUtils {
         return URLHelper.createUri(path);
     }
 
+    /**
+     * Resource to read a file that may be compressed. Files compressed with bgzip are inflated in parallel.
+     */
     public static Resource getResource(File file) throws IOException {
         Resource resource;
-        if (CompressionHelper.isGzip(file)) {
+        if (CompressionHelper.isBgzf(file)) {
+            resource = new BgzfLazyResource(file);
+        } else if (CompressionHelper.isGzip(file)) {
             resource = new GzipLazyResource(file);
         } else {
             resource = new FileSystemResource(file);
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import uk.ac.ebi.eva.pipeline.io.BgzfLazyResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Counts the lines of a file that may be compressed, without counting the header lines (the ones that start with
+ * '#') nor the empty ones.
+ * <p>
+ * The lines are counted by scanning the inflated bytes for newlines, without decoding them into strings. Files
+ * compressed with bgzip are inflated by a single thread while the lines are scanned, so that a count in the background
+ * doesn't compete with the processing of the same file. The inflater thread is created by the counting thread, so it
+ * also runs with the lowest priority when counting in the background.
+ */
+public class FileWithHeaderLineCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileWithHeaderLineCounter.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int INFLATER_THREADS = 1;
+
+    private static final byte HEADER_PREFIX = '#';
+
+    private static final byte NEW_LINE = '\n';
+
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * @return the exact number of lines in the file, excluding the header and the empty lines
+     */
+    public long countLines(File file) throws IOException {
+        return countLines(file, new CompletableFuture<>());
+    }
+
+    /**
+     * Counts the lines in a daemon thread with the lowest priority. The count can be stopped by cancelling the
+     * returned future.
+     *
+     * @return a future that completes with the number of lines, or exceptionally if the file can't be read
+     */
+    public CompletableFuture<Long> countLinesInBackground(File file) {
+        CompletableFuture<Long> count = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                long lines = countLines(file, count);
+                logger.info("Number of lines in file {}: {} lines", file, lines);
+                count.complete(lines);
+            } catch (CancellationException e) {
+                logger.debug("Count of lines in file {} cancelled", file);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not count the lines in file {}: {}", file, e.getMessage());
+                count.completeExceptionally(e);
+            }
+        }, "line-counter-" + file.getName());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return count;
+    }
+
+    private long countLines(File file, CompletableFuture<Long> count) throws IOException {
+        logger.debug("Counting the lines in file {}", file);
+        long lines = 0;
+        boolean lineStart = true;
+        boolean dataLine = false;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = getResource(file).getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                if (count.isCancelled()) {
+                    throw new CancellationException();
+                }
+                for (int i = 0; i < read; i++) {
+                    byte character = buffer[i];
+                    if (lineStart) {
+                        dataLine = character != HEADER_PREFIX && character != NEW_LINE && character != CARRIAGE_RETURN;
+                        lineStart = false;
+                    }
+                    if (character == NEW_LINE) {
+                        if (dataLine) {
+                            lines++;
+                        }
+                        lineStart = true;
+                    }
+                }
+            }
+        }
+        if (!lineStart && dataLine) {
+            lines++;
+        }
+        return lines;
+    }
+
+    private Resource getResource(File file) throws IOException {
+        if (CompressionHelper.isBgzf(file)) {
+            return new BgzfLazyResource(file, INFLATER_THREADS);
+        }
+        return FileUtils.getResource(file);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import org.junit.Test;
+import org.opencb.biodata.models.feature.AllelesCode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GenotypeDictionaryTest {
+
+    @Test
+    public void equalGenotypesShouldBeTheSameInstance() {
+        GenotypeDictionary dictionary = new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE);
+
+        EncodedGenotype genotype = dictionary.get(new String("0|1"));
+        assertSame(genotype, dictionary.get(new String("0|1")));
+        assertSame(genotype.getValue(), dictionary.get(new String("0|1")).getValue());
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    public void genotypesShouldBeParsed() {
+        GenotypeDictionary dictionary = new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE);
+
+        EncodedGenotype heterozygous = dictionary.get("0|1");
+        assertEquals(2, heterozygous.ploidy());
+        assertTrue(heterozygous.isAlleleRef(0));
+        assertEquals(1, heterozygous.getAllele(1));
+        assertTrue(heterozygous.isPhased());
+        assertEquals(AllelesCode.ALLELES_OK, heterozygous.getCode());
+
+        EncodedGenotype missing = dictionary.get("./.");
+        assertEquals(-1, missing.getAllele(0));
+        assertFalse(missing.isPhased());
+        assertEquals(AllelesCode.ALLELES_MISSING, missing.getCode());
+        assertEquals("./.", missing.getNormalizedValue());
+    }
+
+    @Test
+    public void secondaryAlternatesShouldBeRemapped() {
+        GenotypeDictionary dictionary = new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE);
+
+        assertSame(dictionary.get("1/2"), dictionary.get("1/2", 0));
+        assertEquals("2/1", dictionary.get("1/2", 1).getValue());
+        assertEquals("2|3", dictionary.get("1|3", 1).getValue());
+        assertEquals("./1", dictionary.get("./2", 1).getValue());
+        assertSame(dictionary.get("2/1"), dictionary.get("1/2", 1));
+    }
+
+    @Test
+    public void genotypesShouldNotBeStoredWhenTheDictionaryIsFull() {
+        GenotypeDictionary dictionary = new GenotypeDictionary(1);
+
+        EncodedGenotype stored = dictionary.get("0/0");
+        EncodedGenotype notStored = dictionary.get("0/1");
+        assertSame(stored, dictionary.get("0/0"));
+        assertNotSame(notStored, dictionary.get("0/1"));
+        assertEquals(notStored, dictionary.get("0/1"));
+        assertEquals(1, dictionary.size());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SamplesDataTest {
+
+    private static final int NUMBER_OF_SAMPLES = 100;
+
+    @Test
+    public void addedMapsShouldBeReturnedWithTheSameValues() {
+        Map<String, String> first = new HashMap<>();
+        first.put("GT", "0|1");
+        first.put("DP", "10");
+        Map<String, String> second = Collections.singletonMap("GT", "1|1");
+
+        SamplesData samplesData = new SamplesData();
+        samplesData.add(first);
+        samplesData.add(second);
+
+        assertEquals(Arrays.asList(first, second), samplesData);
+        assertEquals("10", samplesData.getValue(0, "DP"));
+        assertNull(samplesData.getValue(1, "DP"));
+        assertNull(samplesData.getValue(1, "GQ"));
+    }
+
+    @Test
+    public void samplesShouldShareTheCodesOfEqualValues() {
+        SamplesData samplesData = new SamplesData();
+        int genotypeColumn = samplesData.addColumn("GT");
+        for (int i = 0; i < NUMBER_OF_SAMPLES; i++) {
+            int sampleIndex = samplesData.addSample();
+            if (i % 3 != 0) {
+                samplesData.setValue(sampleIndex, genotypeColumn, i % 3 == 1 ? "0|0" : "0|1");
+            }
+        }
+
+        assertEquals(NUMBER_OF_SAMPLES, samplesData.size());
+        assertEquals(Arrays.asList("0|0", "0|1"), samplesData.getDistinctValues(genotypeColumn));
+        for (int i = 0; i < NUMBER_OF_SAMPLES; i++) {
+            int expectedCode = i % 3 == 0 ? SamplesData.MISSING_CODE : i % 3 - 1;
+            assertEquals(expectedCode, samplesData.getCode(i, genotypeColumn));
+        }
+    }
+
+    @Test
+    public void columnsAddedLaterShouldBeMissingInPreviousSamples() {
+        SamplesData samplesData = new SamplesData();
+        for (int i = 0; i < NUMBER_OF_SAMPLES; i++) {
+            samplesData.add(Collections.singletonMap("GT", "0/1"));
+        }
+        samplesData.add(Collections.singletonMap("DP", "5"));
+
+        int depthColumn = samplesData.getColumnIndex("DP");
+        for (int i = 0; i < NUMBER_OF_SAMPLES; i++) {
+            assertEquals(SamplesData.MISSING_CODE, samplesData.getCode(i, depthColumn));
+        }
+        assertEquals(Collections.singletonMap("DP", "5"), samplesData.get(NUMBER_OF_SAMPLES));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void sampleOutOfBoundsShouldFail() {
+        SamplesData samplesData = new SamplesData();
+        samplesData.add(Collections.singletonMap("GT", "0/1"));
+        samplesData.getValue(1, "GT");
+    }
+}
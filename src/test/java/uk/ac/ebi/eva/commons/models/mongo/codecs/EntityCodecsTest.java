@@ -0,0 +1,378 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.codecs;
+
+import com.mongodb.MongoClient;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.opencb.biodata.models.feature.Genotype;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.commons.models.data.GenotypeDictionary;
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantStats;
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
+import uk.ac.ebi.eva.commons.models.mongo.entity.projections.SimplifiedVariant;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Score;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Xref;
+import uk.ac.ebi.eva.test.configuration.MongoOperationConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the {@link EntityCodecs} write the same documents as the Spring Data converter, and that the ones that
+ * are read back give the same entities.
+ */
+@RunWith(SpringRunner.class)
+@TestPropertySource({"classpath:test-mongo.properties"})
+@ContextConfiguration(classes = {MongoOperationConfiguration.class})
+public class EntityCodecsTest {
+
+    private static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+            EntityCodecs.CODEC_REGISTRY, MongoClient.getDefaultCodecRegistry());
+
+    private final GenotypeDictionary genotypeDictionary = new GenotypeDictionary(GenotypeDictionary.DEFAULT_MAX_SIZE);
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Test
+    public void simplifiedVariantIsEncodedAsTheConverterDoes() {
+        SimplifiedVariant variant = buildSimplifiedVariant();
+        assertEquals(convert(variant), encode(variant));
+    }
+
+    @Test
+    public void simplifiedVariantRoundTrip() {
+        SimplifiedVariant variant = buildSimplifiedVariant();
+        SimplifiedVariant decoded = decode(SimplifiedVariant.class, convert(variant));
+
+        assertEquals(variant.getId(), decoded.getId());
+        assertEquals(variant.getVariantType(), decoded.getVariantType());
+        assertEquals(variant.getChromosome(), decoded.getChromosome());
+        assertEquals(variant.getStart(), decoded.getStart());
+        assertEquals(variant.getEnd(), decoded.getEnd());
+        assertEquals(variant.getLength(), decoded.getLength());
+        assertEquals(variant.getReference(), decoded.getReference());
+        assertEquals(variant.getAlternate(), decoded.getAlternate());
+        assertEquals(convert(variant), encode(decoded));
+    }
+
+    @Test
+    public void simplifiedVariantIsDecodedFromAProjection() {
+        Document projection = new Document("_id", "1_1000_A_C").append("chr", "1").append("start", 1000)
+                                                               .append("end", 1000).append("ref", "A")
+                                                               .append("alt", "C");
+        SimplifiedVariant expected = mongoOperations.getConverter().read(SimplifiedVariant.class, projection);
+        SimplifiedVariant decoded = decode(SimplifiedVariant.class,
+                                           projection.toBsonDocument(BsonDocument.class, REGISTRY));
+
+        assertEquals(expected.getId(), decoded.getId());
+        assertEquals(expected.getChromosome(), decoded.getChromosome());
+        assertEquals(expected.getStart(), decoded.getStart());
+        assertEquals(expected.getEnd(), decoded.getEnd());
+        assertEquals(expected.getReference(), decoded.getReference());
+        assertEquals(expected.getAlternate(), decoded.getAlternate());
+    }
+
+    @Test
+    public void variantDocumentIsEncodedAsTheConverterDoes() {
+        VariantStats stats = new VariantStats(null, -1, null, null, Variant.VariantType.SNV, 0.1f, 0.01f, "A", "A/A",
+                                              10, 5, -1, -1, -1, -1, -1);
+        VariantSourceEntryMongo sourceEntry = new VariantSourceEntryMongo("fileId", "studyId", null,
+                                                                          Collections.singletonMap("QUAL", "50"));
+        VariantDocument variant = new VariantDocument(Variant.VariantType.SNV, "1", 1000, 1000, 1, "A", "C",
+                                                      Collections.emptyMap(), Collections.singleton("rs1"),
+                                                      Collections.singleton(sourceEntry),
+                                                      Collections.singleton(new VariantStatsMongo(
+                                                              "studyId", "fileId", "ALL", stats)));
+
+        assertEquals(convert(variant), encode(variant));
+    }
+
+    @Test
+    public void variantDocumentRoundTrip() {
+        VariantDocument variant = buildVariantDocument();
+        VariantDocument decoded = decode(VariantDocument.class, convert(variant));
+        VariantDocument expected = mongoOperations.getConverter().read(VariantDocument.class,
+                                                                       toDocument(convert(variant)));
+
+        assertEquals(variant.getId(), decoded.getId());
+        assertEquals(variant.getChromosome(), decoded.getChromosome());
+        assertEquals(variant.getStart(), decoded.getStart());
+        assertEquals(variant.getAt().getChunkIds(), decoded.getAt().getChunkIds());
+        assertEquals(variant.getIds(), decoded.getIds());
+        assertEquals(convert(expected), encode(decoded));
+        assertEquals(convert(variant), encode(decoded));
+    }
+
+    @Test
+    public void variantSourceEntryIsEncodedAsTheConverterDoes() {
+        VariantSourceEntryMongo sourceEntry = buildSourceEntry(false);
+        assertEquals(convert(sourceEntry), encode(sourceEntry));
+    }
+
+    @Test
+    public void variantSourceEntryRoundTrip() {
+        for (VariantSourceEntryMongo sourceEntry : Arrays.asList(buildSourceEntry(false), buildSourceEntry(true))) {
+            VariantSourceEntryMongo decoded = decode(VariantSourceEntryMongo.class, convert(sourceEntry));
+            VariantSourceEntryMongo expected = mongoOperations.getConverter().read(
+                    VariantSourceEntryMongo.class, toDocument(convert(sourceEntry)));
+
+            assertEquals(expected.getFileId(), decoded.getFileId());
+            assertEquals(expected.getStudyId(), decoded.getStudyId());
+            assertEquals(expected.getFormat(), decoded.getFormat());
+            assertEquals(expected.getAttrs().keySet(), decoded.getAttrs().keySet());
+            assertEquals(convert(expected), encode(decoded));
+            assertEquals(convert(sourceEntry), encode(decoded));
+        }
+    }
+
+    @Test
+    public void variantSourceEntryWithPackedSamplesIsEncodedAsTheConverterDoes() {
+        List<Map<String, String>> samplesData = new ArrayList<>();
+        for (String genotype : Arrays.asList("0|0", "0|1", "0|0", "./.", "1|1", "0|1")) {
+            samplesData.add(Collections.singletonMap("GT", genotype));
+        }
+        VariantSourceEntryMongo sourceEntry = new VariantSourceEntryMongo("fileId", "studyId", null,
+                                                                          Collections.singletonMap("QUAL", "50"),
+                                                                          "GT", samplesData, true,
+                                                                          genotypeDictionary);
+
+        assertEquals(convert(sourceEntry), encode(sourceEntry));
+    }
+
+    @Test
+    public void variantSourceEntryWithoutSamplesIsEncodedAsTheConverterDoes() {
+        VariantSourceEntryMongo sourceEntry = new VariantSourceEntryMongo("fileId", "studyId", null,
+                                                                          Collections.singletonMap("QUAL", "50"));
+
+        assertEquals(convert(sourceEntry), encode(sourceEntry));
+    }
+
+    @Test
+    public void variantStatsAreEncodedAsTheConverterDoes() {
+        VariantStats stats = new VariantStats(null, -1, null, null, Variant.VariantType.SNV, 0.1f, 0.01f, "A", "A/A",
+                                              10, 5, -1, -1, -1, -1, -1);
+        stats.addGenotype(new Genotype("0/0"), 100);
+        stats.addGenotype(new Genotype("0/1"), 50);
+        stats.addGenotype(new Genotype("./."), 10);
+        VariantStatsMongo variantStats = new VariantStatsMongo("studyId", "fileId", "ALL", stats);
+
+        assertEquals(convert(variantStats), encode(variantStats));
+    }
+
+    @Test
+    public void variantStatsRoundTrip() {
+        VariantStats stats = new VariantStats(null, -1, null, null, Variant.VariantType.SNV, 0.1f, 0.01f, "A", "A/A",
+                                              10, 5, -1, -1, -1, -1, -1);
+        stats.addGenotype(new Genotype("0/1"), 50);
+        VariantStatsMongo variantStats = new VariantStatsMongo("studyId", "fileId", "ALL", stats);
+        VariantStatsMongo decoded = decode(VariantStatsMongo.class, convert(variantStats));
+
+        assertEquals(variantStats.getCohortId(), decoded.getCohortId());
+        assertEquals(variantStats.getMaf(), decoded.getMaf(), 0);
+        assertEquals(variantStats.getMgf(), decoded.getMgf(), 0);
+        assertEquals(variantStats.getMafAllele(), decoded.getMafAllele());
+        assertEquals(variantStats.getMissingGenotypes(), decoded.getMissingGenotypes());
+        assertEquals(variantStats.getNumGt(), decoded.getNumGt());
+        assertEquals(convert(variantStats), encode(decoded));
+    }
+
+    @Test
+    public void variantAnnotationIsEncodedAsTheConverterDoes() {
+        VariantAnnotation variantAnnotation = new VariantAnnotation(buildAnnotation());
+        assertEquals(convert(variantAnnotation), encode(variantAnnotation));
+
+        VariantAnnotation withoutScores = new VariantAnnotation("78", "78");
+        assertEquals(convert(withoutScores), encode(withoutScores));
+    }
+
+    @Test
+    public void variantAnnotationRoundTrip() {
+        for (VariantAnnotation variantAnnotation : Arrays.asList(new VariantAnnotation(buildAnnotation()),
+                                                                 new VariantAnnotation("78", "78"))) {
+            VariantAnnotation decoded = decode(VariantAnnotation.class, convert(variantAnnotation));
+
+            assertEquals(variantAnnotation.getVepVersion(), decoded.getVepVersion());
+            assertEquals(variantAnnotation.getVepCacheVersion(), decoded.getVepCacheVersion());
+            assertEquals(variantAnnotation.getSifts(), decoded.getSifts());
+            assertEquals(variantAnnotation.getPolyphens(), decoded.getPolyphens());
+            assertEquals(variantAnnotation.getSoAccessions(), decoded.getSoAccessions());
+            assertEquals(variantAnnotation.getXrefIds(), decoded.getXrefIds());
+            assertEquals(convert(variantAnnotation), encode(decoded));
+        }
+    }
+
+    @Test
+    public void annotationIsEncodedAsTheConverterDoes() {
+        Annotation annotation = buildAnnotation();
+        assertEquals(convert(annotation), encode(annotation));
+    }
+
+    @Test
+    public void annotationRoundTrip() {
+        Annotation annotation = buildAnnotation();
+        Annotation decoded = decode(Annotation.class, convert(annotation));
+        Annotation expected = mongoOperations.getConverter().read(Annotation.class, toDocument(convert(annotation)));
+
+        assertEquals(expected.getId(), decoded.getId());
+        assertEquals(expected.getChromosome(), decoded.getChromosome());
+        assertEquals(expected.getStart(), decoded.getStart());
+        assertEquals(expected.getEnd(), decoded.getEnd());
+        assertEquals(expected.getVepVersion(), decoded.getVepVersion());
+        assertEquals(expected.getVepCacheVersion(), decoded.getVepCacheVersion());
+        assertEquals(expected.getConsequenceTypes(), decoded.getConsequenceTypes());
+        assertEquals(expected.getXrefs(), decoded.getXrefs());
+    }
+
+    @Test
+    public void consequenceTypeRoundTrip() {
+        for (ConsequenceType consequenceType : buildAnnotation().getConsequenceTypes()) {
+            assertEquals(convert(consequenceType), encode(consequenceType));
+            assertEquals(consequenceType, decode(ConsequenceType.class, encode(consequenceType)));
+        }
+    }
+
+    @Test
+    public void xrefRoundTrip() {
+        Xref xref = new Xref("ENSG00000178591", "ensemblGene");
+        assertEquals(convert(xref), encode(xref));
+        assertEquals(xref, decode(Xref.class, encode(xref)));
+    }
+
+    @Test
+    public void entitiesCanBeValuesOfAnUpdate() {
+        Annotation annotation = buildAnnotation();
+        Document update = new Document("$addToSet", new Document(
+                Annotation.CONSEQUENCE_TYPE_FIELD, new Document("$each", annotation.getConsequenceTypes())));
+        Object convertedConsequenceTypes = mongoOperations.getConverter().convertToMongoType(
+                annotation.getConsequenceTypes());
+        Document convertedUpdate = new Document("$addToSet", new Document(
+                Annotation.CONSEQUENCE_TYPE_FIELD, new Document("$each", convertedConsequenceTypes)));
+
+        assertEquals(convertedUpdate.toBsonDocument(BsonDocument.class, REGISTRY),
+                     update.toBsonDocument(BsonDocument.class, REGISTRY));
+    }
+
+    private SimplifiedVariant buildSimplifiedVariant() {
+        Map<String, Set<String>> hgvs = new HashMap<>();
+        hgvs.put("genomic", Collections.singleton("1:g.1000A>C"));
+        return new SimplifiedVariant(Variant.VariantType.SNV, "1", 1000, 1000, 1, "A", "C", hgvs);
+    }
+
+    private VariantDocument buildVariantDocument() {
+        VariantStats stats = new VariantStats(null, -1, null, null, Variant.VariantType.SNV, 0.1f, 0.01f, "A", "A/A",
+                                              10, 5, -1, -1, -1, -1, -1);
+        stats.addGenotype(new Genotype("0/1"), 50);
+        Map<String, Set<String>> hgvs = new HashMap<>();
+        hgvs.put("genomic", Collections.singleton("1:g.1000A>C"));
+        return new VariantDocument(Variant.VariantType.SNV, "1", 1000, 1000, 1, "A", "C", hgvs,
+                                   Collections.singleton("rs1"), Collections.singleton(buildSourceEntry(true)),
+                                   Collections.singleton(new VariantStatsMongo("studyId", "fileId", "ALL", stats)),
+                                   Collections.singleton(new VariantAnnotation(buildAnnotation())));
+    }
+
+    private VariantSourceEntryMongo buildSourceEntry(boolean packedSamples) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("QUAL", "50");
+        attributes.put("AC.1", "2");
+        attributes.put("src", "1\t1000\trs1\tA\tC\t50\tPASS\tAC=2\tGT");
+        List<Map<String, String>> samplesData = new ArrayList<>();
+        for (String genotype : Arrays.asList("0|0", "0|1", "0|0", "./.", "1|1")) {
+            samplesData.add(Collections.singletonMap("GT", genotype));
+        }
+        return new VariantSourceEntryMongo("fileId", "studyId", new String[]{"G", "T"}, attributes, "GT",
+                                           samplesData, packedSamples, genotypeDictionary);
+    }
+
+    private Annotation buildAnnotation() {
+        Annotation annotation = new Annotation("20", 63963, 63963, "G", "A", "78", "78");
+
+        ConsequenceType upstream = new ConsequenceType();
+        upstream.setGeneName("DEFB125");
+        upstream.setEnsemblGeneId("ENSG00000178591");
+        upstream.setEnsemblTranscriptId("ENST00000382410");
+        upstream.setStrand("+");
+        upstream.setBiotype("protein_coding");
+        upstream.setSoAccessions(Collections.singleton(1631));
+        annotation.addConsequenceType(upstream);
+
+        ConsequenceType missense = new ConsequenceType();
+        missense.setEnsemblGeneId("ENSG00000178591");
+        missense.setEnsemblTranscriptId("ENST00000608838");
+        missense.setcDnaPosition(120);
+        missense.setCdsPosition(100);
+        missense.setAaPosition(34);
+        missense.setAaChange("R/W");
+        missense.setCodon("Cgg/Tgg");
+        missense.setSift(new Score(0.02, "deleterious"));
+        missense.setPolyphen(new Score(0.9, "probably_damaging"));
+        missense.setSoAccessions(Collections.singleton(1583));
+        missense.setRelativePosition(5);
+        annotation.addConsequenceType(missense);
+
+        return annotation;
+    }
+
+    private BsonDocument convert(Object entity) {
+        Document document = (Document) mongoOperations.getConverter().convertToMongoType(entity);
+        return document.toBsonDocument(BsonDocument.class, REGISTRY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> BsonDocument encode(T entity) {
+        BsonDocument document = new BsonDocument();
+        Codec<T> codec = REGISTRY.get((Class<T>) entity.getClass());
+        codec.encode(new BsonDocumentWriter(document), entity, EncoderContext.builder().build());
+        return document;
+    }
+
+    private <T> T decode(Class<T> entityClass, BsonDocument document) {
+        return REGISTRY.get(entityClass).decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    private Document toDocument(BsonDocument document) {
+        return decode(Document.class, document);
+    }
+}
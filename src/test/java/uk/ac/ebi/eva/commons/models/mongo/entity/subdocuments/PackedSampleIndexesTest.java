@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PackedSampleIndexesTest {
+
+    @Test
+    public void sparseIndexesAreEncodedAsDeltas() {
+        List<Integer> sampleIndexes = Arrays.asList(41, 311, 342, 358, 881, 898, 903);
+
+        byte[] packed = PackedSampleIndexes.encode(sampleIndexes);
+
+        assertEquals(PackedSampleIndexes.DELTA_FORMAT, packed[0]);
+        assertEquals(1 + 1 + 2 + 1 + 1 + 2 + 1 + 1, packed.length);
+        assertEquals(sampleIndexes, decode(packed));
+    }
+
+    @Test
+    public void denseIndexesAreEncodedAsBitmap() {
+        List<Integer> sampleIndexes = new ArrayList<>();
+        for (int i = 0; i < 5000; i += 3) {
+            sampleIndexes.add(i);
+        }
+
+        byte[] packed = PackedSampleIndexes.encode(sampleIndexes);
+
+        assertEquals(PackedSampleIndexes.BITMAP_FORMAT, packed[0]);
+        assertEquals(1 + 4998 / 8 + 1, packed.length);
+        assertEquals(sampleIndexes, decode(packed));
+    }
+
+    @Test
+    public void largeIndexesRoundTrip() {
+        List<Integer> sampleIndexes = Arrays.asList(0, 127, 128, 16511, 16512, 2113663, Integer.MAX_VALUE);
+        assertEquals(sampleIndexes, decode(PackedSampleIndexes.encode(sampleIndexes)));
+    }
+
+    @Test
+    public void emptyListRoundTrip() {
+        byte[] packed = PackedSampleIndexes.encode(Collections.emptyList());
+
+        assertEquals(1, packed.length);
+        assertEquals(Collections.emptyList(), decode(packed));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void indexesMustBeAscending() {
+        PackedSampleIndexes.encode(Arrays.asList(10, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownFormatIsRejected() {
+        decode(new byte[]{3, 1, 2});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedDeltasAreRejected() {
+        decode(new byte[]{PackedSampleIndexes.DELTA_FORMAT, (byte) 0x80});
+    }
+
+    private static List<Integer> decode(byte[] packed) {
+        List<Integer> sampleIndexes = new ArrayList<>();
+        PackedSampleIndexes.decode(packed, sampleIndexes::add);
+        return sampleIndexes;
+    }
+}
@@ -109,12 +109,15 @@ public class AnnotationJobTest {
 
         assertCompleted(jobExecution);
 
-        assertEquals(2, jobExecution.getStepExecutions().size());
+        assertEquals(3, jobExecution.getStepExecutions().size());
         List<StepExecution> steps = new ArrayList<>(jobExecution.getStepExecutions());
         StepExecution generateVepAnnotationsStep = steps.get(0);
-        StepExecution loadAnnotationMetadataStep = steps.get(1);
+        StepExecution generateVepAnnotationsPartitionStep = steps.get(1);
+        StepExecution loadAnnotationMetadataStep = steps.get(2);
 
         assertEquals(BeanNames.GENERATE_VEP_ANNOTATION_STEP, generateVepAnnotationsStep.getStepName());
+        assertEquals(BeanNames.GENERATE_VEP_ANNOTATION_PARTITION_STEP + ":partition0",
+                     generateVepAnnotationsPartitionStep.getStepName());
         assertEquals(BeanNames.LOAD_ANNOTATION_METADATA_STEP, loadAnnotationMetadataStep.getStepName());
 
         //check that documents have the annotation
@@ -165,7 +168,7 @@ public class AnnotationJobTest {
 
         assertCompleted(jobExecution);
 
-        assertEquals(1, jobExecution.getStepExecutions().size());
+        assertEquals(2, jobExecution.getStepExecutions().size());
         StepExecution findVariantsToAnnotateStep = new ArrayList<>(jobExecution.getStepExecutions()).get(0);
 
         assertEquals(BeanNames.GENERATE_VEP_ANNOTATION_STEP, findVariantsToAnnotateStep.getStepName());
@@ -87,10 +87,11 @@ public class GenotypedVcfJobWorkflowTest {
             Arrays.asList(BeanNames.LOAD_VARIANTS_STEP, BeanNames.LOAD_FILE_STEP));
 
     public static final Set<String> EXPECTED_STATS_STEP_NAMES = new TreeSet<>(
-            Arrays.asList(BeanNames.CALCULATE_STATISTICS_STEP, BeanNames.LOAD_STATISTICS_STEP));
+            Arrays.asList(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP));
 
     public static final Set<String> EXPECTED_ANNOTATION_STEP_NAMES = new TreeSet<>(Arrays.asList(
             BeanNames.GENERATE_VEP_ANNOTATION_STEP,
+            BeanNames.GENERATE_VEP_ANNOTATION_PARTITION_STEP + ":partition0",
             BeanNames.LOAD_ANNOTATION_METADATA_STEP));
 
     @Before
@@ -122,12 +123,10 @@ public class GenotypedVcfJobWorkflowTest {
         assertEquals(BeanNames.LOAD_FILE_STEP, lastRequiredStep.getStepName());
 
         assertTrue(lastRequiredStep.getEndTime()
-                .before(nameToStepExecution.get(BeanNames.CALCULATE_STATISTICS_STEP).getStartTime()));
+                .before(nameToStepExecution.get(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP).getStartTime()));
         assertTrue(lastRequiredStep.getEndTime()
                 .before(nameToStepExecution.get(BeanNames.GENERATE_VEP_ANNOTATION_STEP).getStartTime()));
 
-        assertTrue(nameToStepExecution.get(BeanNames.CALCULATE_STATISTICS_STEP).getEndTime()
-                .before(nameToStepExecution.get(BeanNames.LOAD_STATISTICS_STEP).getStartTime()));
         assertTrue(nameToStepExecution.get(BeanNames.GENERATE_VEP_ANNOTATION_STEP).getEndTime()
                 .before(nameToStepExecution.get(BeanNames.LOAD_ANNOTATION_METADATA_STEP).getStartTime()));
     }
@@ -200,10 +199,7 @@ public class GenotypedVcfJobWorkflowTest {
         assertEquals(parallelStepNamesToCheck, parallelStepNamesExecuted);
 
         assertTrue(lastRequiredStep.getEndTime().before(nameToStepExecution.get(
-                BeanNames.CALCULATE_STATISTICS_STEP).getStartTime()));
-
-        assertTrue(nameToStepExecution.get(BeanNames.CALCULATE_STATISTICS_STEP).getEndTime()
-                .before(nameToStepExecution.get(BeanNames.LOAD_STATISTICS_STEP).getStartTime()));
+                BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP).getStartTime()));
     }
 
     private EvaJobParameterBuilder initVariantConfigurationJob() throws IOException {
@@ -15,6 +15,7 @@
  */
 package uk.ac.ebi.eva.pipeline.configuration.jobs;
 
+import org.bson.Document;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,16 +35,12 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import uk.ac.ebi.eva.test.configuration.BatchTestConfiguration;
-import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
 import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
 import uk.ac.ebi.eva.test.utils.GenotypedVcfJobTestUtils;
 import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
-import uk.ac.ebi.eva.utils.URLHelper;
-
-import java.io.File;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNotNull;
 import static uk.ac.ebi.eva.test.utils.JobTestUtils.assertCompleted;
 import static uk.ac.ebi.eva.test.utils.TestFileUtils.getResourceUrl;
 import static uk.ac.ebi.eva.utils.FileUtils.getResource;
@@ -59,9 +56,6 @@ public class PopulationStatisticsJobTest {
 
     private static final String MONGO_DUMP = "/dump/VariantStatsConfigurationTest_vl";
 
-    @Rule
-    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
-
     @Rule
     public TemporaryMongoRule mongoRule = new TemporaryMongoRule();
 
@@ -77,7 +71,6 @@ public class PopulationStatisticsJobTest {
     public void fullPopulationStatisticsJob() throws Exception {
         //Given a valid VCF input file
         String input = SMALL_VCF_FILE;
-        String statsDir = temporaryFolderRule.getRoot().getPath();
         String dbName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
         String fileId = "1";
         String studyId = "1";
@@ -90,18 +83,15 @@ public class PopulationStatisticsJobTest {
                 .inputVcf(getResource(input).getAbsolutePath())
                 .inputVcfAggregation("BASIC")
                 .inputVcfId(fileId)
-                .outputDirStats(statsDir)
                 .timestamp()
                 .toJobParameters();
 
         JobExecution jobExecution = jobLauncherTestUtils.launchJob(jobParameters);
         assertCompleted(jobExecution);
 
-        //and the file containing statistics should exist
-        File statsFile = new File(URLHelper.getVariantsStatsUri(statsDir, studyId, fileId));
-        assertTrue(statsFile.exists());
-        File sourceStatsFile = new File(URLHelper.getSourceStatsUri(statsDir, studyId, fileId));
-        assertTrue(sourceStatsFile.exists());
+        //and the file document should have the statistics of the whole file
+        Document file = mongoRule.getCollection(dbName, "files").find().first();
+        assertNotNull(file.get("st"));
 
         // The DB docs should have the field "st"
         VariantStorageManager variantStorageManager = StorageManagerFactory.getVariantStorageManager();
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntity;
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo;
+import uk.ac.ebi.eva.pipeline.configuration.BeanNames;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.PopulationStatisticsJobConfiguration;
+import uk.ac.ebi.eva.test.configuration.BatchTestConfiguration;
+import uk.ac.ebi.eva.test.configuration.MongoOperationConfiguration;
+import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
+import uk.ac.ebi.eva.test.utils.JobTestUtils;
+import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.test.utils.JobTestUtils.assertCompleted;
+import static uk.ac.ebi.eva.test.utils.JobTestUtils.assertFailed;
+import static uk.ac.ebi.eva.test.utils.TestFileUtils.getResourceUrl;
+
+/**
+ * Test for {@link CalculateAndLoadStatisticsStepConfiguration}
+ */
+@RunWith(SpringRunner.class)
+@TestPropertySource({"classpath:common-configuration.properties", "classpath:test-mongo.properties"})
+@ContextConfiguration(classes = {PopulationStatisticsJobConfiguration.class, BatchTestConfiguration.class,
+        MongoOperationConfiguration.class})
+public class CalculateAndLoadStatisticsStepTest {
+
+    private static final String SMALL_VCF_FILE = "/input-files/vcf/genotyped.vcf.gz";
+
+    private static final String VCF_FILE_WITH_MULTI_ALT = "/input-files/vcf/multialt_genotyped.vcf.gz";
+
+    private static final String MONGO_DUMP = "/dump/VariantStatsConfigurationTest_vl";
+
+    private static final String MONGO_DUMP_MULTI_ALT = "/dump/VariantStatsConfigurationTest_v2";
+
+    private static final String COLLECTION_VARIANTS_NAME = "variants";
+
+    private static final String COLLECTION_FILES_NAME = "files";
+
+    @Rule
+    public TemporaryMongoRule mongoRule = new TemporaryMongoRule();
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Test
+    public void statisticsStepShouldCalculateAndLoadStats() throws Exception {
+        String databaseName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP,
+                                                                    buildJobParameters(databaseName, "1", "1", "1"));
+        assertCompleted(jobExecution);
+
+        // The variants should have the field "st"
+        MongoCursor<Document> cursor = mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME).find()
+                                                .iterator();
+        assertEquals(1, JobTestUtils.getCohortStatsFromFirstVariant(cursor, mongoOperations).size());
+
+        // and so should the file
+        Document fileStats = getFileStats(databaseName, "1", "1");
+        assertNotNull(fileStats);
+        assertEquals(mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME).count(),
+                     (long) fileStats.getInteger(VariantSourceEntity.STATISTICS_NUMVARIANTS_FIELD));
+        assertTrue(fileStats.getInteger(VariantSourceEntity.STATISTICS_NUMSAMPLES_FIELD) > 0);
+    }
+
+    @Test
+    public void statisticsStepShouldGiveTheSameResultWithSeveralThreads() throws Exception {
+        String singleThreadDatabase = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
+        String multiThreadDatabase = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
+
+        assertCompleted(jobLauncherTestUtils.launchStep(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP,
+                                                        buildJobParameters(singleThreadDatabase, "1", "1", "1")));
+        assertCompleted(jobLauncherTestUtils.launchStep(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP,
+                                                        buildJobParameters(multiThreadDatabase, "1", "1", "4")));
+
+        assertEquals(getFileStats(singleThreadDatabase, "1", "1"), getFileStats(multiThreadDatabase, "1", "1"));
+        MongoCollection<Document> singleThreadVariants = mongoRule.getCollection(singleThreadDatabase,
+                                                                                 COLLECTION_VARIANTS_NAME);
+        MongoCollection<Document> multiThreadVariants = mongoRule.getCollection(multiThreadDatabase,
+                                                                                COLLECTION_VARIANTS_NAME);
+        for (Document variant : singleThreadVariants.find()) {
+            Document sameVariant = multiThreadVariants.find(new Document("_id", variant.get("_id"))).first();
+            assertEquals(variant.get(VariantDocument.STATS_FIELD), sameVariant.get(VariantDocument.STATS_FIELD));
+        }
+    }
+
+    @Test
+    public void statisticsShouldNotBeDuplicatedIfTheStepIsRunAgain() throws Exception {
+        String databaseName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
+
+        assertCompleted(jobLauncherTestUtils.launchStep(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP,
+                                                        buildJobParameters(databaseName, "1", "1", "1")));
+        assertCompleted(jobLauncherTestUtils.launchStep(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP,
+                                                        new EvaJobParameterBuilder()
+                                                                .collectionFilesName(COLLECTION_FILES_NAME)
+                                                                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                                                                .databaseName(databaseName)
+                                                                .inputStudyId("1")
+                                                                .inputVcfId("1")
+                                                                .timestamp()
+                                                                .toJobParameters()));
+
+        for (Document variant : mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME).find()) {
+            assertEquals(1, ((List) variant.get(VariantDocument.STATS_FIELD)).size());
+        }
+    }
+
+    @Test
+    public void statisticsStepShouldProcessMultiAltGenotypes() throws Exception {
+        String databaseName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP_MULTI_ALT));
+        String studyId = "PRJEB22799";
+        String fileId = "ERZ478452";
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP,
+                                                                    buildJobParameters(databaseName, studyId,
+                                                                                       fileId, "1"));
+        assertCompleted(jobExecution);
+
+        for (Document variant : mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME).find()) {
+            if (variant.getString(VariantDocument.ALTERNATE_FIELD).equals("AC")) {
+                // For variants with missing genotypes, MAF should be set to -1 and MAF allele should be set to null
+                Document stats = ((List<Document>) variant.get(VariantDocument.STATS_FIELD)).get(0);
+                assertEquals(-1, ((Number) stats.get(VariantStatsMongo.MAF_FIELD)).intValue());
+                assertNull(stats.get(VariantStatsMongo.MAFALLELE_FIELD));
+            }
+        }
+    }
+
+    /**
+     * This test has to fail because the file of the variants has not been loaded, so the number of samples is
+     * unknown.
+     */
+    @Test
+    public void statisticsStepShouldFailIfTheFileIsNotLoaded() throws Exception {
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+        String wrongId = "non-existent-id";
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.CALCULATE_AND_LOAD_STATISTICS_STEP,
+                                                                    buildJobParameters(databaseName, wrongId,
+                                                                                       wrongId, "1"));
+        assertFailed(jobExecution);
+    }
+
+    private JobParameters buildJobParameters(String databaseName, String studyId, String fileId,
+                                             String statisticsThreads) {
+        return new EvaJobParameterBuilder()
+                .collectionFilesName(COLLECTION_FILES_NAME)
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputStudyId(studyId)
+                .inputVcfId(fileId)
+                .statisticsThreads(statisticsThreads)
+                .toJobParameters();
+    }
+
+    private Document getFileStats(String databaseName, String studyId, String fileId) {
+        Document file = mongoRule.getCollection(databaseName, COLLECTION_FILES_NAME)
+                                 .find(new Document(VariantSourceEntity.STUDYID_FIELD, studyId)
+                                               .append(VariantSourceEntity.FILEID_FIELD, fileId))
+                                 .first();
+        return (Document) file.get(VariantSourceEntity.STATISTICS_FIELD);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.pipeline.Application;
+import uk.ac.ebi.eva.pipeline.configuration.BeanNames;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.GenotypedVcfJobConfiguration;
+import uk.ac.ebi.eva.pipeline.io.writers.AnnotationMongoWriter;
+import uk.ac.ebi.eva.pipeline.io.writers.VariantMongoWriter;
+import uk.ac.ebi.eva.test.configuration.BatchTestConfiguration;
+import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
+import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.ebi.eva.test.utils.JobTestUtils.assertCompleted;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+/**
+ * Test for {@link CreateDeferredIndexesStepConfiguration}
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles({Application.VARIANT_WRITER_MONGO_PROFILE, Application.VARIANT_ANNOTATION_MONGO_PROFILE})
+@TestPropertySource({"classpath:common-configuration.properties", "classpath:test-mongo.properties"})
+@ContextConfiguration(classes = {GenotypedVcfJobConfiguration.class, BatchTestConfiguration.class})
+public class CreateDeferredIndexesStepTest {
+
+    private static final String SMALL_VCF_FILE = "/input-files/vcf/genotyped.vcf.gz";
+
+    private static final String COLLECTION_VARIANTS_NAME = "variants";
+
+    private static final String COLLECTION_ANNOTATIONS_NAME = "annotations";
+
+    @Rule
+    public TemporaryMongoRule mongoRule = new TemporaryMongoRule();
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Test
+    public void deferredIndexesAreCreatedAfterTheLoad() throws Exception {
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .collectionAnnotationsName(COLLECTION_ANNOTATIONS_NAME)
+                .databaseName(databaseName)
+                .indexesDeferred(true)
+                .inputStudyId("1")
+                .inputVcf(getResource(SMALL_VCF_FILE).getAbsolutePath())
+                .inputVcfAggregation("NONE")
+                .inputVcfId("1")
+                .toJobParameters();
+
+        JobExecution loadExecution = jobLauncherTestUtils.launchStep(BeanNames.LOAD_VARIANTS_STEP, jobParameters);
+        assertCompleted(loadExecution);
+
+        // only the _id index is kept while loading
+        assertEquals(1, countIndexes(databaseName, COLLECTION_VARIANTS_NAME));
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.CREATE_DEFERRED_INDEXES_STEP,
+                                                                    jobParameters);
+        assertCompleted(jobExecution);
+
+        int variantIndexes = VariantMongoWriter.getIndexes(false).size();
+        int annotationIndexes = AnnotationMongoWriter.getIndexes(false).size();
+        assertEquals(1 + variantIndexes, countIndexes(databaseName, COLLECTION_VARIANTS_NAME));
+        assertEquals(1 + annotationIndexes, countIndexes(databaseName, COLLECTION_ANNOTATIONS_NAME));
+
+        // each index is reported as written by the step
+        StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+        assertEquals(variantIndexes + annotationIndexes, stepExecution.getWriteCount());
+    }
+
+    private int countIndexes(String databaseName, String collection) {
+        return mongoRule.getCollection(databaseName, collection).listIndexes().into(new ArrayList<>()).size();
+    }
+}
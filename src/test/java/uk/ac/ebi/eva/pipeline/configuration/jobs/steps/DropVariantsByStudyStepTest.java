@@ -21,8 +21,11 @@ import org.bson.Document;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.test.JobLauncherTestUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ActiveProfiles;
@@ -32,14 +35,21 @@ import org.springframework.test.context.junit4.SpringRunner;
 import uk.ac.ebi.eva.pipeline.Application;
 import uk.ac.ebi.eva.pipeline.configuration.BeanNames;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.DropStudyJobConfiguration;
+import uk.ac.ebi.eva.pipeline.io.readers.StudyVariantsMongoReader;
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VariantRegionPartitioner;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.test.configuration.BatchTestConfiguration;
 import uk.ac.ebi.eva.test.data.VariantData;
 import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
 import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
 
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 
 import static uk.ac.ebi.eva.test.utils.DropStudyJobTestUtils.assertDropVariantsByStudy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static uk.ac.ebi.eva.test.utils.JobTestUtils.assertCompleted;
 
 /**
@@ -93,8 +103,82 @@ public class DropVariantsByStudyStepTest {
         checkDrop(databaseName, EXPECTED_VARIANTS_AFTER_DROP_STUDY);
     }
 
+    @Test
+    public void testSeveralVariantsToDropInSeveralChunksAndPartitions() throws Exception {
+        String databaseName = mongoRule.createDBAndInsertDocuments(COLLECTION_VARIANTS_NAME, Arrays.asList(
+                VariantData.getVariantWithOneStudyToDrop(),
+                VariantData.getOtherVariantWithOneStudyToDrop(),
+                VariantData.getVariantWithOneStudy(),
+                VariantData.getVariantWithTwoStudies()));
+
+        checkDrop(databaseName, EXPECTED_VARIANTS_AFTER_DROP_STUDY, new EvaJobParameterBuilder().chunkSize("1")
+                                                                                                .dropThreads("2"));
+    }
+
+    @Test
+    public void restartOnlyRunsTheFailedPartition() throws Exception {
+        List<String> variantsToDrop = Arrays.asList(VariantData.getVariantWithOneStudyToDrop(),
+                                                    VariantData.getOtherVariantWithOneStudyToDrop());
+        String databaseName = mongoRule.createDBAndInsertDocuments(COLLECTION_VARIANTS_NAME, Arrays.asList(
+                variantsToDrop.get(0),
+                variantsToDrop.get(1),
+                VariantData.getVariantWithOneStudy(),
+                VariantData.getVariantWithTwoStudies()));
+        JobParameters jobParameters = new EvaJobParameterBuilder().chunkSize("1")
+                                                                  .dropThreads("2")
+                                                                  .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                                                                  .databaseName(databaseName)
+                                                                  .inputStudyId(STUDY_ID_TO_DROP)
+                                                                  .toJobParameters();
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.DROP_VARIANTS_BY_STUDY_STEP,
+                                                                    jobParameters);
+        assertCompleted(jobExecution);
+
+        // pretend the second partition failed before dropping anything, and the first one completed
+        String failedPartition = BeanNames.DROP_VARIANTS_BY_STUDY_PARTITION_STEP + ":"
+                + VariantRegionPartitioner.PARTITION_PREFIX + 1;
+        String completedPartition = BeanNames.DROP_VARIANTS_BY_STUDY_PARTITION_STEP + ":"
+                + VariantRegionPartitioner.PARTITION_PREFIX + 0;
+        JobRepository jobRepository = jobLauncherTestUtils.getJobRepository();
+        MongoCollection<Document> variantsCollection = mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME);
+        for (String variant : variantsToDrop) {
+            variantsCollection.insertOne(Document.parse(variant));
+        }
+        Document completedPartitionQuery = StudyVariantsMongoReader.buildQuery(STUDY_ID_TO_DROP, true);
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (stepExecution.getStepName().equals(completedPartition)) {
+                completedPartitionQuery.putAll(Document.parse(stepExecution.getExecutionContext().getString(
+                        ExecutionContextParametersNames.PARTITION_VARIANTS_QUERY)));
+            } else if (stepExecution.getStepName().equals(failedPartition)
+                    || stepExecution.getStepName().equals(BeanNames.DROP_VARIANTS_BY_STUDY_STEP)) {
+                stepExecution.setStatus(BatchStatus.FAILED);
+                jobRepository.update(stepExecution);
+            }
+        }
+        jobExecution.setStatus(BatchStatus.FAILED);
+        jobExecution.setEndTime(new Date());
+        jobRepository.update(jobExecution);
+        long variantsOfTheCompletedPartition = variantsCollection.count(completedPartitionQuery);
+
+        JobExecution restartedJobExecution = jobLauncherTestUtils.launchStep(BeanNames.DROP_VARIANTS_BY_STUDY_STEP,
+                                                                             jobParameters);
+
+        assertCompleted(restartedJobExecution);
+        assertEquals(jobExecution.getJobInstance().getId(), restartedJobExecution.getJobInstance().getId());
+        for (StepExecution stepExecution : restartedJobExecution.getStepExecutions()) {
+            assertNotEquals(completedPartition, stepExecution.getStepName());
+        }
+        assertEquals(EXPECTED_VARIANTS_AFTER_DROP_STUDY + variantsOfTheCompletedPartition,
+                     variantsCollection.count());
+    }
+
     private void checkDrop(String databaseName, long expectedVariantsAfterDropStudy) {
-        JobParameters jobParameters = new EvaJobParameterBuilder()
+        checkDrop(databaseName, expectedVariantsAfterDropStudy, new EvaJobParameterBuilder());
+    }
+
+    private void checkDrop(String databaseName, long expectedVariantsAfterDropStudy,
+                           EvaJobParameterBuilder parameterBuilder) {
+        JobParameters jobParameters = parameterBuilder
                 .collectionVariantsName(COLLECTION_VARIANTS_NAME)
                 .databaseName(databaseName)
                 .inputStudyId(STUDY_ID_TO_DROP)
@@ -22,10 +22,15 @@ import org.bson.Document;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.PartitionNameProvider;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.test.JobLauncherTestUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
@@ -46,9 +51,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnnotation.POLYPHEN_FIELD;
@@ -92,6 +99,10 @@ public class GenerateVepAnnotationStepTest {
     @Autowired
     private JobLauncherTestUtils jobLauncherTestUtils;
 
+    @Autowired
+    @Qualifier(BeanNames.VARIANT_REGION_PARTITIONER)
+    private Partitioner variantRegionPartitioner;
+
     @Test
     public void shouldGenerateVepAnnotations() throws Exception {
         String databaseName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
@@ -142,6 +153,38 @@ public class GenerateVepAnnotationStepTest {
         variantCursor.close();
     }
 
+    @Test
+    public void shouldGenerateVepAnnotationsInParallel() throws Exception {
+        String databaseName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
+        String outputDirAnnot = temporaryFolderRule.getRoot().getAbsolutePath();
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .annotationThreads("3")
+                .collectionAnnotationsName(COLLECTION_ANNOTATIONS_NAME)
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputFasta("")
+                .inputStudyId(STUDY_ID)
+                .inputVcfId(FILE_ID)
+                .outputDirAnnotation(outputDirAnnot)
+                .annotationOverwrite("false")
+                .vepCachePath("")
+                .vepCacheSpecies("")
+                .vepCacheVersion("80")
+                .vepNumForks("4")
+                .vepPath(getResource(MOCKVEP).getPath())
+                .vepVersion("80")
+                .vepTimeout("60")
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncherTestUtils
+                .launchStep(BeanNames.GENERATE_VEP_ANNOTATION_STEP, jobParameters);
+
+        assertCompleted(jobExecution);
+        assertEquals(4, jobExecution.getStepExecutions().size());
+        checkLoadedAnnotation(mongoRule, databaseName);
+    }
+
     @Test
     public void shouldResumeJob() throws Exception {
         String databaseName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
@@ -186,6 +229,62 @@ public class GenerateVepAnnotationStepTest {
         assertAnnotationsCount(databaseName, expectedTotalAnnotations);
     }
 
+    @Test
+    public void shouldResumeJobInParallel() throws Exception {
+        String databaseName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
+        String outputDirAnnot = temporaryFolderRule.getRoot().getAbsolutePath();
+        int chunkSize = 100;
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .annotationOverwrite("false")
+                .annotationThreads("3")
+                .collectionAnnotationsName(COLLECTION_ANNOTATIONS_NAME)
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .chunkSize(Integer.toString(chunkSize))
+                .databaseName(databaseName)
+                .inputFasta("")
+                .inputStudyId(STUDY_ID)
+                .inputVcfId(FILE_ID)
+                .outputDirAnnotation(outputDirAnnot)
+                .vepCachePath("")
+                .vepCacheSpecies("")
+                .vepCacheVersion("80")
+                .vepNumForks("4")
+                .vepVersion("80")
+                .vepPath(getResource(FAILING_MOCKVEP).getPath())
+                .vepTimeout("10").toJobParameters();
+
+        // the restart only finds the partitions of the first run if the step scoped proxy provides their names
+        assertTrue(variantRegionPartitioner instanceof PartitionNameProvider);
+
+        JobExecution jobExecution = jobLauncherTestUtils
+                .launchStep(BeanNames.GENERATE_VEP_ANNOTATION_STEP, jobParameters);
+
+        assertFailed(jobExecution);
+        Set<String> failedPartitions = getPartitionNames(jobExecution, false);
+        Set<String> completedPartitions = getPartitionNames(jobExecution, true);
+        assertFalse(failedPartitions.isEmpty());
+        assertEquals(3, failedPartitions.size() + completedPartitions.size());
+
+        simulateFix(databaseName, COLLECTION_VARIANTS_NAME);
+
+        JobExecution secondJobExecution = jobLauncherTestUtils
+                .launchStep(BeanNames.GENERATE_VEP_ANNOTATION_STEP, jobParameters);
+
+        assertCompleted(secondJobExecution);
+        assertEquals(failedPartitions, getPartitionNames(secondJobExecution, true));
+        assertAnnotationsCount(databaseName, 300);
+    }
+
+    private Set<String> getPartitionNames(JobExecution jobExecution, boolean completed) {
+        return jobExecution.getStepExecutions().stream()
+                           .filter(step -> step.getStepName().startsWith(
+                                   BeanNames.GENERATE_VEP_ANNOTATION_PARTITION_STEP + ":"))
+                           .filter(step -> completed == BatchStatus.COMPLETED.equals(step.getStatus()))
+                           .map(StepExecution::getStepName)
+                           .collect(Collectors.toSet());
+    }
+
     /**
      * mockvep_writeToFile_error.pl returns 1 immediately if it finds a variant on chromosome 20 and position 65900
      */
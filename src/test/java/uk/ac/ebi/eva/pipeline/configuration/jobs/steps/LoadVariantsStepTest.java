@@ -15,6 +15,8 @@
  */
 package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
 
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -28,15 +30,19 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntity;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
 import uk.ac.ebi.eva.pipeline.Application;
 import uk.ac.ebi.eva.pipeline.configuration.BeanNames;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.GenotypedVcfJobConfiguration;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.test.configuration.BatchTestConfiguration;
 import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
 import uk.ac.ebi.eva.test.utils.GenotypedVcfJobTestUtils;
 import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static uk.ac.ebi.eva.test.utils.JobTestUtils.assertCompleted;
 import static uk.ac.ebi.eva.utils.FileUtils.getResource;
 
@@ -53,6 +59,8 @@ public class LoadVariantsStepTest {
 
     private static final String SMALL_VCF_FILE = "/input-files/vcf/genotyped.vcf.gz";
 
+    private static final String INDEXED_VCF_FILE = "/input-files/vcf/genotyped_bgzip.vcf.gz";
+
     private static final String COLLECTION_VARIANTS_NAME = "variants";
 
     @Rule
@@ -90,4 +98,124 @@ public class LoadVariantsStepTest {
         // And the number of documents in the DB should be equals to the number of lines in the VCF file
         assertEquals(EXPECTED_VARIANTS, mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME).count());
     }
+
+    @Test
+    public void loaderStepShouldLoadStatisticsIfCalculatedDuringLoad() throws Exception {
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputStudyId("1")
+                .inputVcf(input)
+                .inputVcfAggregation("NONE")
+                .inputVcfId("1")
+                .statisticsDuringLoad(true)
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.LOAD_VARIANTS_STEP, jobParameters);
+        assertCompleted(jobExecution);
+
+        // every variant has the statistics of the default cohort
+        MongoCollection<Document> variants = mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME);
+        assertEquals(EXPECTED_VARIANTS, variants.count());
+        assertEquals(EXPECTED_VARIANTS, variants.count(new Document("st.cid", VariantSourceEntry.DEFAULT_COHORT)));
+
+        // and the statistics of the file are left for the load file step
+        Document fileStatistics = (Document) jobExecution.getExecutionContext()
+                                                         .get(ExecutionContextParametersNames.FILE_STATISTICS);
+        assertEquals(EXPECTED_VARIANTS, fileStatistics.get(VariantSourceEntity.STATISTICS_NUMVARIANTS_FIELD));
+    }
+
+    @Test
+    public void loaderStepShouldLoadRegionsOfIndexedVcfConcurrently() throws Exception {
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputStudyId("1")
+                .inputVcf(getResource(INDEXED_VCF_FILE).getAbsolutePath())
+                .inputVcfAggregation("NONE")
+                .inputVcfId("1")
+                .loadThreads("2")
+                .statisticsDuringLoad(true)
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.LOAD_VARIANTS_BY_REGION_STEP,
+                                                                    jobParameters);
+        assertCompleted(jobExecution);
+
+        // one execution of the partitioned step and one for each region
+        assertEquals(3, jobExecution.getStepExecutions().size());
+        assertEquals(EXPECTED_VARIANTS, mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME).count());
+
+        // and the statistics of the regions are merged
+        Document fileStatistics = (Document) jobExecution.getExecutionContext()
+                                                         .get(ExecutionContextParametersNames.FILE_STATISTICS);
+        assertEquals(EXPECTED_VARIANTS, fileStatistics.get(VariantSourceEntity.STATISTICS_NUMVARIANTS_FIELD));
+    }
+
+    @Test
+    public void loaderStepShouldWriteChunksInTheBackground() throws Exception {
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputStudyId("1")
+                .inputVcf(input)
+                .inputVcfAggregation("NONE")
+                .inputVcfId("1")
+                .chunkSize("10")
+                .writerChunksInFlight("3")
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.LOAD_VARIANTS_STEP, jobParameters);
+        assertCompleted(jobExecution);
+
+        assertEquals(EXPECTED_VARIANTS, mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME).count());
+    }
+
+    @Test
+    public void loaderStepShouldResizeChunksToTheTargetBytes() throws Exception {
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputStudyId("1")
+                .inputVcf(input)
+                .inputVcfAggregation("NONE")
+                .inputVcfId("1")
+                .chunkSize("2")
+                .chunkTargetBytes("100000")
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.LOAD_VARIANTS_STEP, jobParameters);
+        assertCompleted(jobExecution);
+
+        assertEquals(EXPECTED_VARIANTS, mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME).count());
+    }
+
+    @Test
+    public void loaderStepShouldNotLoadStatisticsByDefault() throws Exception {
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .collectionVariantsName(COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputStudyId("1")
+                .inputVcf(input)
+                .inputVcfAggregation("NONE")
+                .inputVcfId("1")
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(BeanNames.LOAD_VARIANTS_STEP, jobParameters);
+        assertCompleted(jobExecution);
+
+        MongoCollection<Document> variants = mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME);
+        assertEquals(0, variants.count(new Document("st", new Document("$exists", true))));
+        assertNull(jobExecution.getExecutionContext().get(ExecutionContextParametersNames.FILE_STATISTICS));
+    }
 }
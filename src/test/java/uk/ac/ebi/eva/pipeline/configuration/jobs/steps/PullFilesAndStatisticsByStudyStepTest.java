@@ -128,8 +128,30 @@ public class PullFilesAndStatisticsByStudyStepTest {
         checkPull(databaseName, expectedFilesAfter, expectedStatsAfter);
     }
 
+    @Test
+    public void testFileAndStatsToPullInSeveralChunksAndPartitions() throws IOException {
+        final int expectedFilesBefore = 3;
+        final int expectedFilesAfter = 0;
+        final int expectedStatsBefore = 2;
+        final int expectedStatsAfter = 0;
+
+        String databaseName = mongoRule.createDBAndInsertDocuments(COLLECTION_VARIANTS_NAME, Arrays.asList(
+                VariantData.getVariantWithOneStudy(),
+                VariantData.getVariantWithTwoStudies(),
+                VariantData.getVariantWithOneStudyToDrop(),
+                VariantData.getOtherVariantWithOneStudyToDrop()));
+
+        checkPull(databaseName, expectedFilesBefore, expectedStatsBefore);
+        executeStep(databaseName, new EvaJobParameterBuilder().chunkSize("1").dropThreads("2"));
+        checkPull(databaseName, expectedFilesAfter, expectedStatsAfter);
+    }
+
     private void executeStep(String databaseName) {
-        JobParameters jobParameters = new EvaJobParameterBuilder()
+        executeStep(databaseName, new EvaJobParameterBuilder());
+    }
+
+    private void executeStep(String databaseName, EvaJobParameterBuilder parameterBuilder) {
+        JobParameters jobParameters = parameterBuilder
                 .collectionVariantsName(COLLECTION_VARIANTS_NAME)
                 .databaseName(databaseName)
                 .inputStudyId(STUDY_ID_TO_DROP)
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType;
+import uk.ac.ebi.eva.pipeline.io.mappers.AnnotationLineMapper;
+import uk.ac.ebi.eva.test.data.VepOutputContent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AnnotationParsingWriterTest {
+
+    private static final String VEP_VERSION = "1";
+
+    private static final String VEP_CACHE_VERSION = "1";
+
+    private AnnotationLineMapper annotationLineMapper;
+
+    @Before
+    public void setUp() {
+        annotationLineMapper = new AnnotationLineMapper(VEP_VERSION, VEP_CACHE_VERSION);
+    }
+
+    @Test
+    public void consecutiveAnnotationsOfTheSameVariantAreMerged() throws Exception {
+        AnnotationParsingWriter writer = new AnnotationParsingWriter(annotationLineMapper);
+        writer.write(VepOutputContent.vepOutputContent);
+        writer.close();
+
+        List<String> lines = Arrays.asList(VepOutputContent.vepOutputContent.split("\n"));
+        Map<String, Set<ConsequenceType>> expectedConsequenceTypes = new HashMap<>();
+        for (String line : lines) {
+            Annotation annotation = annotationLineMapper.mapLine(line, 0);
+            expectedConsequenceTypes.computeIfAbsent(annotation.getId(), id -> new HashSet<>())
+                                    .addAll(annotation.getConsequenceTypes());
+        }
+
+        List<Annotation> annotations = writer.getAnnotations();
+        assertEquals(expectedConsequenceTypes.size(), annotations.size());
+        assertTrue(annotations.size() < lines.size());
+        for (Annotation annotation : annotations) {
+            assertEquals(expectedConsequenceTypes.get(annotation.getId()), annotation.getConsequenceTypes());
+        }
+    }
+
+    @Test
+    public void linesSplitAcrossSeveralWritesAreParsedOnce() throws Exception {
+        AnnotationParsingWriter writer = new AnnotationParsingWriter(annotationLineMapper);
+        String content = VepOutputContent.vepOutputContent;
+        int half = content.length() / 2;
+        writer.write(content.toCharArray(), 0, half);
+        for (int i = half; i < content.length(); i++) {
+            writer.write(content.charAt(i));
+        }
+        writer.close();
+
+        AnnotationParsingWriter referenceWriter = new AnnotationParsingWriter(annotationLineMapper);
+        referenceWriter.write(content);
+        referenceWriter.close();
+
+        assertEquals(referenceWriter.getAnnotations().size(), writer.getAnnotations().size());
+    }
+
+    @Test
+    public void lastLineWithoutLineBreakIsParsedOnClose() throws Exception {
+        AnnotationParsingWriter writer = new AnnotationParsingWriter(annotationLineMapper);
+        writer.write("20_60343_G/A\t20:60343\tA\t-\t-\t-\tintergenic_variant\t-\t-\t-\t-\t-\t-");
+        assertEquals(0, writer.getAnnotations().size());
+
+        writer.close();
+        assertEquals(1, writer.getAnnotations().size());
+    }
+}
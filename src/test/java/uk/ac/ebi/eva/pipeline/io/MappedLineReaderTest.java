@@ -0,0 +1,127 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.ac.ebi.eva.test.utils.JobTestUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+public class MappedLineReaderTest {
+
+    private static final String GZIP_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void readsTheSameLinesAsBufferedReader() throws Exception {
+        File input = temporaryFolder.newFile();
+        JobTestUtils.uncompress(getResource(GZIP_FILE_PATH).getAbsolutePath(), input);
+        List<String> expected = readWithBufferedReader(input);
+
+        for (int windowSize : new int[]{1, 100, 4096, MappedLineReader.DEFAULT_WINDOW_SIZE}) {
+            try (MappedLineReader reader = new MappedLineReader(input, StandardCharsets.UTF_8, windowSize)) {
+                assertEquals(expected, readAll(reader));
+            }
+        }
+    }
+
+    @Test
+    public void carriageReturnsAndLastLineWithoutNewline() throws Exception {
+        File input = newFile("first\r\n\nthird\nlast");
+
+        try (MappedLineReader reader = new MappedLineReader(input, StandardCharsets.UTF_8, 3)) {
+            assertEquals(Arrays.asList("first", "", "third", "last"), readAll(reader));
+        }
+    }
+
+    @Test
+    public void emptyFile() throws Exception {
+        File input = newFile("");
+
+        try (MappedLineReader reader = new MappedLineReader(input, StandardCharsets.UTF_8)) {
+            assertNull(reader.readLine());
+            assertEquals(0, reader.getPosition());
+        }
+    }
+
+    @Test
+    public void seekToThePositionOfALine() throws Exception {
+        File input = newFile("first\nsecond\nthird\n");
+
+        try (MappedLineReader reader = new MappedLineReader(input, StandardCharsets.UTF_8, 4)) {
+            assertEquals("first", reader.readLine());
+            long position = reader.getPosition();
+            assertEquals(6, position);
+            assertEquals("second", reader.readLine());
+            assertEquals("third", reader.readLine());
+            assertNull(reader.readLine());
+
+            reader.seek(position);
+            assertEquals("second", reader.readLine());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void seekBeyondTheEndOfTheFile() throws Exception {
+        File input = newFile("first\n");
+
+        try (MappedLineReader reader = new MappedLineReader(input, StandardCharsets.UTF_8)) {
+            reader.seek(input.length() + 1);
+        }
+    }
+
+    private File newFile(String content) throws Exception {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> readAll(MappedLineReader reader) throws Exception {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private static List<String> readWithBufferedReader(File file) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
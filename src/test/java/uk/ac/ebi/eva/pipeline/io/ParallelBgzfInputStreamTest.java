@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import uk.ac.ebi.eva.utils.CompressionHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+public class ParallelBgzfInputStreamTest {
+
+    private static final String BGZIP_FILE_PATH = "/input-files/vcf/genotyped_bgzip.vcf.gz";
+
+    private static final String GZIP_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void inflatesTheSameBytesAsGzip() throws Exception {
+        File input = getResource(BGZIP_FILE_PATH);
+        byte[] expected = readAll(new GZIPInputStream(new FileInputStream(input)));
+
+        for (int threads : new int[]{1, 2, 8}) {
+            assertArrayEquals(expected, readAll(new ParallelBgzfInputStream(new FileInputStream(input), threads)));
+        }
+    }
+
+    @Test
+    public void readsByteByByte() throws Exception {
+        File input = getResource(BGZIP_FILE_PATH);
+        byte[] expected = readAll(new GZIPInputStream(new FileInputStream(input)));
+
+        try (InputStream inputStream = new ParallelBgzfInputStream(new FileInputStream(input), 2)) {
+            for (byte expectedByte : expected) {
+                assertEquals(expectedByte & 0xff, inputStream.read());
+            }
+            assertEquals(-1, inputStream.read());
+        }
+    }
+
+    @Test
+    public void onlyBgzipFilesAreDetected() throws Exception {
+        assertTrue(CompressionHelper.isBgzf(getResource(BGZIP_FILE_PATH)));
+        assertFalse(CompressionHelper.isBgzf(getResource(GZIP_FILE_PATH)));
+    }
+
+    @Test
+    public void gzipFilesAreRejected() throws Exception {
+        exception.expect(ZipException.class);
+        readAll(new ParallelBgzfInputStream(new FileInputStream(getResource(GZIP_FILE_PATH)), 2));
+    }
+
+    @Test
+    public void corruptedBlocksAreRejected() throws Exception {
+        byte[] compressed = Files.readAllBytes(getResource(BGZIP_FILE_PATH).toPath());
+        int blockLength = ((compressed[16] & 0xff) | (compressed[17] & 0xff) << 8) + 1;
+        compressed[blockLength - 8] ^= 1;
+
+        exception.expect(ZipException.class);
+        readAll(new ParallelBgzfInputStream(new ByteArrayInputStream(compressed), 2));
+    }
+
+    @Test
+    public void truncatedFilesAreRejected() throws Exception {
+        byte[] compressed = Files.readAllBytes(getResource(BGZIP_FILE_PATH).toPath());
+        byte[] truncated = new byte[compressed.length / 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+
+        exception.expect(ZipException.class);
+        readAll(new ParallelBgzfInputStream(new ByteArrayInputStream(truncated), 2));
+    }
+
+    @Test
+    public void rangesOfVirtualOffsetsAreReadExactlyOnce() throws Exception {
+        File input = getResource(BGZIP_FILE_PATH);
+        byte[] expected = readAll(new GZIPInputStream(new FileInputStream(input)));
+
+        long[] boundaries = {0, ParallelBgzfInputStream.virtualOffset(3546, 100),
+                ParallelBgzfInputStream.virtualOffset(3546, 16384), ParallelBgzfInputStream.virtualOffset(38914, 4337),
+                ParallelBgzfInputStream.END_OF_FILE};
+        ByteArrayOutputStream ranges = new ByteArrayOutputStream();
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            ranges.write(readAll(new ParallelBgzfInputStream(new FileInputStream(input), 2, boundaries[i],
+                                                             boundaries[i + 1])));
+        }
+        assertArrayEquals(expected, ranges.toByteArray());
+    }
+
+    @Test
+    public void offsetsBeyondTheEndOfABlockAreRejected() throws Exception {
+        File input = getResource(BGZIP_FILE_PATH);
+
+        exception.expect(ZipException.class);
+        readAll(new ParallelBgzfInputStream(new FileInputStream(input), 2,
+                                            ParallelBgzfInputStream.virtualOffset(3546, 20000),
+                                            ParallelBgzfInputStream.END_OF_FILE));
+    }
+
+    private byte[] readAll(InputStream inputStream) throws IOException {
+        try (InputStream input = inputStream) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+}
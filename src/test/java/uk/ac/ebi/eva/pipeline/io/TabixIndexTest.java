@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+public class TabixIndexTest {
+
+    private static final String BGZIP_FILE_PATH = "/input-files/vcf/genotyped_bgzip.vcf.gz";
+
+    private static final String GZIP_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
+
+    private static final Long FIRST_WINDOW_OFFSET = 0x1f0f074dL;
+
+    private static final Long SECOND_WINDOW_OFFSET = 0x980210f1L;
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void tabixIndexIsPreferred() throws Exception {
+        File vcf = getResource(BGZIP_FILE_PATH);
+        assertEquals(new File(vcf.getPath() + TabixIndex.TABIX_EXTENSION), TabixIndex.findIndex(vcf));
+        assertNull(TabixIndex.findIndex(getResource(GZIP_FILE_PATH)));
+    }
+
+    @Test
+    public void recordOffsetsAreReadFromTabixIndex() throws Exception {
+        File vcf = getResource(BGZIP_FILE_PATH);
+        TabixIndex index = TabixIndex.read(new File(vcf.getPath() + TabixIndex.TABIX_EXTENSION));
+
+        assertEquals(Collections.singletonList("20"), index.getSequenceNames());
+        assertEquals(Arrays.asList(FIRST_WINDOW_OFFSET, SECOND_WINDOW_OFFSET),
+                     Arrays.asList(index.getRecordOffsets().keySet().toArray()));
+        assertRecordsStartAtOffsets(vcf, index);
+    }
+
+    @Test
+    public void recordOffsetsAreReadFromCsiIndexWithoutThePseudoBin() throws Exception {
+        File vcf = getResource(BGZIP_FILE_PATH);
+        TabixIndex index = TabixIndex.read(new File(vcf.getPath() + TabixIndex.CSI_EXTENSION));
+
+        assertEquals(Collections.singletonList("20"), index.getSequenceNames());
+        assertEquals(Arrays.asList(FIRST_WINDOW_OFFSET, SECOND_WINDOW_OFFSET),
+                     Arrays.asList(index.getRecordOffsets().keySet().toArray()));
+        assertRecordsStartAtOffsets(vcf, index);
+    }
+
+    @Test
+    public void otherFilesAreRejected() throws Exception {
+        exception.expect(IOException.class);
+        TabixIndex.read(getResource(GZIP_FILE_PATH));
+    }
+
+    private void assertRecordsStartAtOffsets(File vcf, TabixIndex index) throws IOException {
+        for (Long offset : index.getRecordOffsets().keySet()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new ParallelBgzfInputStream(new FileInputStream(vcf), 1, offset,
+                                                ParallelBgzfInputStream.END_OF_FILE)))) {
+                String sequenceName = index.getRecordOffsets().get(offset);
+                assertTrue(reader.readLine().startsWith(sequenceName + "\t"));
+            }
+        }
+    }
+}
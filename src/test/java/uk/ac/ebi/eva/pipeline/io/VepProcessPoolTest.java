@@ -0,0 +1,194 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.batch.item.ItemStreamException;
+
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+public class VepProcessPoolTest {
+
+    private static final int CHUNK_SIZE = 4;
+
+    private static final long VEP_TIMEOUT = 5;
+
+    private static final int POOL_SIZE = 2;
+
+    private static final String FAILING_MOCKVEP = "/mockvep_persistent_errors.pl";
+
+    private static final int CRASHING_START = 1000;
+
+    private static final int HANGING_START = 2000;
+
+    private static final int EXITING_START = 3000;
+
+    private static final long WAIT_FOR_VEP_TO_EXIT = 1000;
+
+    private AnnotationParameters annotationParameters;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolder = new PipelineTemporaryFolderRule();
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Before
+    public void setUp() throws Exception {
+        annotationParameters = new AnnotationParameters();
+        annotationParameters.setVepCacheVersion("1");
+        annotationParameters.setVepCachePath("cache");
+        annotationParameters.setVepPath(getResource("/mockvep_persistent.pl").getAbsolutePath());
+        annotationParameters.setVepCacheSpecies("hsapiens");
+        annotationParameters.setInputFasta("fasta");
+        annotationParameters.setVepNumForks(1);
+        annotationParameters.setOutputDirAnnotation(temporaryFolder.newFolder().getAbsolutePath());
+    }
+
+    @Test
+    public void annotateSeveralChunksWithTheSameProcesses() throws Exception {
+        VepProcessPool pool = new VepProcessPool(annotationParameters, CHUNK_SIZE, VEP_TIMEOUT, POOL_SIZE);
+        pool.open();
+        try {
+            for (int chunk = 0; chunk < 5; chunk++) {
+                List<String> variants = buildVariants(chunk * 10, 1 + chunk);
+                StringWriter writer = new StringWriter();
+
+                assertEquals(variants.size(), pool.annotate(variants, writer));
+
+                String[] lines = writer.toString().split("\n");
+                assertEquals(variants.size(), lines.length);
+                for (int i = 0; i < variants.size(); i++) {
+                    assertTrue(lines[i].startsWith("20_" + (chunk * 10 + i) + "_A/T\t"));
+                }
+            }
+        } finally {
+            pool.close();
+        }
+        assertFalse(pool.isOpen());
+    }
+
+    @Test
+    public void emptyChunkIsNotSentToVep() throws Exception {
+        VepProcessPool pool = new VepProcessPool(annotationParameters, CHUNK_SIZE, VEP_TIMEOUT, POOL_SIZE);
+        pool.open();
+        StringWriter writer = new StringWriter();
+        assertEquals(0, pool.annotate(Collections.emptyList(), writer));
+        assertEquals("", writer.toString());
+        pool.close();
+    }
+
+    @Test(timeout = 30000)
+    public void crashedProcessIsReplaced() throws Exception {
+        annotationParameters.setVepPath(getResource(FAILING_MOCKVEP).getAbsolutePath());
+        VepProcessPool pool = new VepProcessPool(annotationParameters, CHUNK_SIZE, VEP_TIMEOUT, 1);
+        pool.open();
+        try {
+            assertAnnotationFails(pool, buildVariants(CRASHING_START, 1));
+            assertChunkIsAnnotated(pool, 10, 3);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void processReachingTheTimeoutIsReplaced() throws Exception {
+        annotationParameters.setVepPath(getResource(FAILING_MOCKVEP).getAbsolutePath());
+        VepProcessPool pool = new VepProcessPool(annotationParameters, CHUNK_SIZE, 1L, 1);
+        pool.open();
+        try {
+            assertAnnotationFails(pool, buildVariants(HANGING_START, 1));
+            assertChunkIsAnnotated(pool, 10, 3);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void processThatExitedWhileIdleIsRestarted() throws Exception {
+        annotationParameters.setVepPath(getResource(FAILING_MOCKVEP).getAbsolutePath());
+        VepProcessPool pool = new VepProcessPool(annotationParameters, CHUNK_SIZE, VEP_TIMEOUT, 1);
+        pool.open();
+        try {
+            assertChunkIsAnnotated(pool, EXITING_START, 1);
+            Thread.sleep(WAIT_FOR_VEP_TO_EXIT);
+            assertChunkIsAnnotated(pool, 10, 3);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void annotateWithoutOpeningThrowsException() throws Exception {
+        VepProcessPool pool = new VepProcessPool(annotationParameters, CHUNK_SIZE, VEP_TIMEOUT, POOL_SIZE);
+
+        exception.expect(IllegalStateException.class);
+        pool.annotate(Arrays.asList("20\t1\t1\tA/T\t+"), new StringWriter());
+    }
+
+    @Test
+    public void poolSizeMustBePositive() {
+        exception.expect(IllegalArgumentException.class);
+        new VepProcessPool(annotationParameters, CHUNK_SIZE, VEP_TIMEOUT, 0);
+    }
+
+    private void assertAnnotationFails(VepProcessPool pool, List<String> variants) throws Exception {
+        StringWriter writer = new StringWriter();
+        try {
+            pool.annotate(variants, writer);
+            fail("The annotation of a chunk should fail if its VEP process crashes or reaches the timeout");
+        } catch (ItemStreamException e) {
+            assertEquals("", writer.toString());
+        }
+    }
+
+    private void assertChunkIsAnnotated(VepProcessPool pool, int firstStart, int numVariants) throws Exception {
+        List<String> variants = buildVariants(firstStart, numVariants);
+        StringWriter writer = new StringWriter();
+
+        assertEquals(variants.size(), pool.annotate(variants, writer));
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(variants.size(), lines.length);
+        for (int i = 0; i < variants.size(); i++) {
+            assertTrue(lines[i].startsWith("20_" + (firstStart + i) + "_A/T\t"));
+        }
+    }
+
+    private List<String> buildVariants(int firstStart, int numVariants) {
+        List<String> variants = new ArrayList<>();
+        for (int start = firstStart; start < firstStart + numVariants; start++) {
+            variants.add(String.join("\t", "20", Integer.toString(start), Integer.toString(start), "A/T", "+"));
+        }
+        return variants;
+    }
+}
@@ -587,4 +587,17 @@ public class VariantVcfFactoryTest {
         assertEquals(expResult, result);
         assertEquals(emptySet, result.get(0).getIds());
     }
+
+    @Test
+    public void sourceLineShouldOnlyKeepTheFixedColumns() {
+        String line = "1\t1000\trs123\tT\tG,C\t50\tPASS\tAC=3,1\tGT\t0/1\t1/2";
+
+        List<Variant> result = factory.create(FILE_ID, STUDY_ID, line);
+
+        assertEquals(2, result.size());
+        for (Variant variant : result) {
+            assertEquals("1\t1000\trs123\tT\tG,C\t50\tPASS\tAC=3,1",
+                         variant.getSourceEntry(FILE_ID, STUDY_ID).getAttribute("src"));
+        }
+    }
 }
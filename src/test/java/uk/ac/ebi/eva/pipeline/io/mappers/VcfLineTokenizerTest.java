@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link VcfLineTokenizer}
+ * <p>
+ * input: a String, or a region of it, and a separator
+ * <p>
+ * output: the same tokens as {@link String#split(String)}
+ */
+public class VcfLineTokenizerTest {
+
+    @Test
+    public void tokensShouldBeTheSameAsSplit() {
+        String[] texts = {"0/1:12:3,4", "a", "", ":", "::", "a:", "a::", ":a", "a::b", "::a::", "a:b:c:"};
+        for (String text : texts) {
+            assertEquals("Splitting '" + text + "'", Arrays.asList(text.split(":")),
+                         toList(new VcfLineTokenizer().tokenize(text, ':')));
+        }
+    }
+
+    @Test
+    public void regionShouldBeTokenized() {
+        String line = "1\t100\t.\tA\tT\t.\t.\t.\tGT:DP\t0/1:12\t1/1:";
+        VcfLineTokenizer fields = new VcfLineTokenizer().tokenize(line, '\t');
+        assertEquals(11, fields.size());
+
+        VcfLineTokenizer sampleFields = new VcfLineTokenizer();
+        assertEquals(Arrays.asList("0/1", "12"),
+                     toList(sampleFields.tokenize(line, fields.start(9), fields.end(9), ':')));
+        assertEquals(Arrays.asList("1/1"), toList(sampleFields.tokenize(line, fields.start(10), fields.end(10), ':')));
+    }
+
+    @Test
+    public void tokenizerShouldGrowWithManyTokens() {
+        StringBuilder line = new StringBuilder("0/0");
+        for (int i = 1; i < 1000; i++) {
+            line.append('\t').append(i);
+        }
+        VcfLineTokenizer fields = new VcfLineTokenizer().tokenize(line.toString(), '\t');
+        assertEquals(1000, fields.size());
+        assertEquals("999", fields.get(999));
+    }
+
+    @Test
+    public void tokensShouldBeComparedWithoutCopying() {
+        VcfLineTokenizer fields = new VcfLineTokenizer().tokenize("1\t.\t..", '\t');
+        assertFalse(fields.equals(0, "."));
+        assertTrue(fields.equals(1, "."));
+        assertFalse(fields.equals(2, "."));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void missingTokenShouldThrow() {
+        new VcfLineTokenizer().tokenize("a,b", ',').get(2);
+    }
+
+    private List<String> toList(VcfLineTokenizer tokenizer) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < tokenizer.size(); i++) {
+            tokens.add(tokenizer.get(i));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.io.mappers.VcfLineMapper;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+import uk.ac.ebi.eva.test.utils.JobTestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+/**
+ * {@link MappedFileItemReader}
+ * <p>
+ * input: an uncompressed Vcf file
+ * <p>
+ * output: the same list of variants as a {@link VcfReader} each time its `.read()` is called
+ */
+public class MappedFileItemReaderTest {
+
+    private static final String INPUT_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
+
+    private static final String INPUT_WRONG_FILE_PATH = "/input-files/vcf/wrong_same_ref_alt.vcf.gz";
+
+    private static final String FILE_ID = "5";
+
+    private static final String STUDY_ID = "7";
+
+    private static final int LINES_BEFORE_RESTART = 100;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void shouldReadTheSameVariantsAsVcfReader() throws Exception {
+        File input = uncompress(INPUT_FILE_PATH);
+
+        VcfReader vcfReader = new VcfReader(FILE_ID, STUDY_ID, input);
+        vcfReader.setSaveState(false);
+        vcfReader.open(new ExecutionContext());
+        List<String> expected = readAll(vcfReader);
+        vcfReader.close();
+
+        MappedFileItemReader<List<Variant>> reader = newReader(input);
+        reader.open(new ExecutionContext());
+        List<String> variants = readAll(reader);
+        reader.close();
+
+        assertEquals(JobTestUtils.getLines(new GZIPInputStream(new FileInputStream(getResource(INPUT_FILE_PATH)))),
+                     variants.size());
+        assertEquals(expected, variants);
+    }
+
+    @Test
+    public void restartsFromTheSavedPosition() throws Exception {
+        File input = uncompress(INPUT_FILE_PATH);
+
+        MappedFileItemReader<List<Variant>> reader = newReader(input);
+        reader.open(new ExecutionContext());
+        List<String> expected = readAll(reader);
+        reader.close();
+
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+        reader = newReader(input);
+        reader.open(executionContext);
+        List<String> variants = new ArrayList<>();
+        for (int i = 0; i < LINES_BEFORE_RESTART; i++) {
+            variants.add(reader.read().toString());
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        reader = newReader(input);
+        reader.open(executionContext);
+        variants.addAll(readAll(reader));
+        reader.close();
+
+        assertEquals(expected, variants);
+    }
+
+    @Test
+    public void restartsFromTheContextOfAFlatFileItemReader() throws Exception {
+        File input = uncompress(INPUT_FILE_PATH);
+
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+        VcfReader vcfReader = new VcfReader(FILE_ID, STUDY_ID, input);
+        vcfReader.open(executionContext);
+        for (int i = 0; i < LINES_BEFORE_RESTART; i++) {
+            vcfReader.read();
+        }
+        List<String> expected = readAll(vcfReader);
+        vcfReader.close();
+
+        vcfReader = new VcfReader(FILE_ID, STUDY_ID, input);
+        vcfReader.open(executionContext);
+        for (int i = 0; i < LINES_BEFORE_RESTART; i++) {
+            vcfReader.read();
+        }
+        vcfReader.update(executionContext);
+        vcfReader.close();
+
+        MappedFileItemReader<List<Variant>> reader = newReader(input);
+        reader.open(executionContext);
+        assertEquals(expected, readAll(reader));
+        reader.close();
+    }
+
+    @Test(expected = FlatFileParseException.class)
+    public void invalidFileShouldFail() throws Exception {
+        MappedFileItemReader<List<Variant>> reader = newReader(uncompress(INPUT_WRONG_FILE_PATH));
+        reader.open(new ExecutionContext());
+
+        while (reader.read() != null) {
+        }
+    }
+
+    private File uncompress(String resourcePath) throws Exception {
+        File file = temporaryFolderRule.newFile();
+        JobTestUtils.uncompress(getResource(resourcePath).getAbsolutePath(), file);
+        return file;
+    }
+
+    private MappedFileItemReader<List<Variant>> newReader(File input) {
+        return new MappedFileItemReader<>(new VcfLineMapper(FILE_ID, STUDY_ID), input);
+    }
+
+    private static List<String> readAll(ItemReader<List<Variant>> reader) throws Exception {
+        List<String> variants = new ArrayList<>();
+        List<Variant> read;
+        while ((read = reader.read()) != null) {
+            variants.add(read.toString());
+        }
+        return variants;
+    }
+}
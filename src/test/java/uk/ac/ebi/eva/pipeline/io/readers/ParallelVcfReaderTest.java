@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.io.mappers.VcfLineMapper;
+import uk.ac.ebi.eva.test.utils.JobTestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+/**
+ * {@link ParallelVcfReader}
+ * <p>
+ * input: a Vcf file
+ * <p>
+ * output: a list of variants each time its `.read()` is called, in the same order as {@link VcfReader}
+ */
+public class ParallelVcfReaderTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private static final String INPUT_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
+
+    private static final String INPUT_WRONG_FILE_PATH = "/input-files/vcf/wrong_same_ref_alt.vcf.gz";
+
+    private static final String FILE_ID = "5";
+
+    private static final String STUDY_ID = "7";
+
+    private static final int PARSER_THREADS = 4;
+
+    private static final int LINES_PER_BATCH = 7;
+
+    private static final int ITEMS_READ_BEFORE_RESTART = 10;
+
+    @Test
+    public void shouldReadTheSameVariantsAsVcfReader() throws Exception {
+        File input = getResource(INPUT_FILE_PATH);
+
+        List<List<Variant>> expectedVariants = consumeReader(new VcfReader(FILE_ID, STUDY_ID, input),
+                                                             new ExecutionContext());
+        List<List<Variant>> variants = consumeReader(buildReader(input), new ExecutionContext());
+
+        long expectedCount = JobTestUtils.getLines(new GZIPInputStream(new FileInputStream(input)));
+        assertEquals(expectedCount, variants.size());
+        assertEquals(expectedVariants, variants);
+    }
+
+    @Test
+    public void invalidFileShouldFail() throws Exception {
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+
+        ParallelVcfReader reader = buildReader(getResource(INPUT_WRONG_FILE_PATH));
+        reader.setSaveState(false);
+        reader.open(executionContext);
+
+        // consume the reader and check that a wrong variant raise an exception
+        exception.expect(FlatFileParseException.class);
+        try {
+            while (reader.read() != null) {
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void shouldRestartAfterTheLastSavedItem() throws Exception {
+        File input = getResource(INPUT_FILE_PATH);
+        assertRestart(input, buildReader(input));
+    }
+
+    @Test
+    public void shouldRestartAfterTheLastItemSavedByVcfReader() throws Exception {
+        File input = getResource(INPUT_FILE_PATH);
+        assertRestart(input, new VcfReader(FILE_ID, STUDY_ID, input));
+    }
+
+    private void assertRestart(File input, ItemStreamReader<List<Variant>> firstReader) throws Exception {
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+        List<List<Variant>> variants = new ArrayList<>();
+
+        firstReader.open(executionContext);
+        for (int i = 0; i < ITEMS_READ_BEFORE_RESTART; i++) {
+            variants.add(firstReader.read());
+        }
+        firstReader.update(executionContext);
+        firstReader.close();
+
+        variants.addAll(consumeReader(buildReader(input), executionContext));
+
+        List<List<Variant>> expectedVariants = consumeReader(new VcfReader(FILE_ID, STUDY_ID, input),
+                                                             new ExecutionContext());
+        assertEquals(expectedVariants, variants);
+    }
+
+    private ParallelVcfReader buildReader(File input) throws Exception {
+        return new ParallelVcfReader(new VcfLineMapper(FILE_ID, STUDY_ID), input, PARSER_THREADS, LINES_PER_BATCH);
+    }
+
+    private List<List<Variant>> consumeReader(ItemStreamReader<List<Variant>> reader,
+                                              ExecutionContext executionContext) throws Exception {
+        List<List<Variant>> variants = new ArrayList<>();
+        reader.open(executionContext);
+        try {
+            List<Variant> lineVariants;
+            while ((lineVariants = reader.read()) != null) {
+                assertTrue(lineVariants.size() > 0);
+                variants.add(lineVariants);
+            }
+        } finally {
+            reader.close();
+        }
+        return variants;
+    }
+}
@@ -9,12 +9,17 @@ import org.springframework.batch.test.MetaDataInstanceFactory;
 
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.pipeline.io.BgzfLazyResource;
+import uk.ac.ebi.eva.pipeline.io.mappers.VcfLineMapper;
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VcfRegionPartitioner;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
 import uk.ac.ebi.eva.test.utils.JobTestUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.assertEquals;
@@ -35,6 +40,8 @@ public class VcfReaderTest {
 
     private static final String INPUT_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
 
+    private static final String INPUT_BGZIP_FILE_PATH = "/input-files/vcf/genotyped_bgzip.vcf.gz";
+
     private static final String INPUT_WRONG_FILE_PATH = "/input-files/vcf/wrong_same_ref_alt.vcf.gz";
 
     private static final String FILE_ID = "5";
@@ -91,6 +98,44 @@ public class VcfReaderTest {
         consumeReader(input, vcfReader);
     }
 
+    @Test
+    public void testBgzippedVcf() throws Exception {
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+
+        File input = getResource(INPUT_BGZIP_FILE_PATH);
+
+        VcfReader vcfReader = new VcfReader(FILE_ID, STUDY_ID, input);
+        vcfReader.setSaveState(false);
+        vcfReader.open(executionContext);
+
+        consumeReader(input, vcfReader);
+    }
+
+    @Test
+    public void testRegionsOfIndexedVcf() throws Exception {
+        File input = getResource(INPUT_BGZIP_FILE_PATH);
+        long expectedCount = JobTestUtils.getLines(new GZIPInputStream(new FileInputStream(input)));
+
+        Map<String, ExecutionContext> partitions = new VcfRegionPartitioner(input, 2).partition(2);
+        assertEquals(2, partitions.size());
+
+        int count = 0;
+        for (ExecutionContext partition : partitions.values()) {
+            BgzfLazyResource region = new BgzfLazyResource(
+                    input, 2, partition.getLong(ExecutionContextParametersNames.PARTITION_VCF_START_OFFSET),
+                    partition.getLong(ExecutionContextParametersNames.PARTITION_VCF_END_OFFSET));
+            VcfReader vcfReader = new VcfReader(new VcfLineMapper(FILE_ID, STUDY_ID), region);
+            vcfReader.setSaveState(false);
+            vcfReader.open(MetaDataInstanceFactory.createStepExecution().getExecutionContext());
+            while (vcfReader.read() != null) {
+                count++;
+            }
+            vcfReader.close();
+        }
+
+        assertEquals(expectedCount, count);
+    }
+
     private void consumeReader(File inputFile, VcfReader vcfReader) throws Exception {
         List<Variant> variants;
         int count = 0;
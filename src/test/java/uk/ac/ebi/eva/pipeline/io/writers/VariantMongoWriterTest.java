@@ -22,6 +22,7 @@ import org.bson.Document;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
@@ -103,6 +104,28 @@ public class VariantMongoWriterTest {
         assertEquals(2, collection.countDocuments());
     }
 
+    @Test
+    public void variantsShouldBeWrittenIntoMongoDbBySeveralThreadsUntilClosed() throws Exception {
+        Variant variant1 = new Variant("1", 1, 2, "A", "T");
+        Variant variant2 = new Variant("2", 3, 4, "C", "G");
+        Variant variant3 = new Variant("3", 5, 6, "G", "A");
+        Variant variant4 = new Variant("4", 7, 8, "T", "C");
+
+        String dbName = mongoRule.getRandomTemporaryDatabaseName();
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(dbName, mongoConnection,
+                                                                                mongoMappingContext);
+        MongoCollection<Document> collection = mongoOperations.getCollection(collectionName);
+
+        VariantMongoWriter variantMongoWriter = new VariantMongoWriter(collectionName, mongoOperations, false, false,
+                                                                       2);
+        variantMongoWriter.open(new ExecutionContext());
+        variantMongoWriter.write(Arrays.asList(variant1, variant2));
+        variantMongoWriter.write(Arrays.asList(variant3, variant4));
+        variantMongoWriter.close();
+
+        assertEquals(4, collection.countDocuments());
+    }
+
     @Test
     public void indexesShouldBeCreatedInBackground() throws UnknownHostException {
         String dbName = mongoRule.getRandomTemporaryDatabaseName();
@@ -146,6 +169,26 @@ public class VariantMongoWriterTest {
         assertEquals(1, ((List<Document>) storedVariant.get("files")).size());
     }
 
+    @Test
+    public void sameVariantTwiceInAChunkShouldBeMerged() throws Exception {
+        Variant variant1 = buildVariant("1", 1, 2, "A", "T", "test_file", "test_study_id");
+        Variant variant2 = buildVariant("1", 1, 2, "A", "T", "other_file", "test_study_id");
+        Variant variant3 = buildVariant("1", 3, 4, "C", "G", "test_file", "test_study_id");
+
+        String dbName = mongoRule.getRandomTemporaryDatabaseName();
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(dbName, mongoConnection,
+                                                                                mongoMappingContext);
+
+        VariantMongoWriter variantMongoWriter = new VariantMongoWriter(collectionName, mongoOperations, true, false);
+        variantMongoWriter.write(Arrays.asList(variant1, variant2, variant3));
+
+        MongoCollection<Document> collection = mongoOperations.getCollection(collectionName);
+        assertEquals(2, collection.countDocuments());
+        Document storedVariant = collection.find(new Document("_id", "1_1_A_T")).first();
+        assertEquals(2, ((List<Document>) storedVariant.get("files")).size());
+        assertEquals(2, ((List<Document>) storedVariant.get("st")).size());
+    }
+
     @Test
     public void allFieldsOfVariantShouldBeStored() throws Exception {
         final String chromosome = "12";
@@ -0,0 +1,425 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.listener.ItemListenerSupport;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WriteBehindItemWriterTest {
+
+    private static final String READ_COUNT = "reader.read.count";
+
+    private StepExecution stepExecution;
+
+    private ExecutionContext executionContext;
+
+    private BlockingWriter delegate;
+
+    @Before
+    public void setUp() throws Exception {
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        executionContext = stepExecution.getExecutionContext();
+        delegate = new BlockingWriter();
+    }
+
+    @Test
+    public void oneChunkInFlightIsWrittenByTheStepThread() throws Exception {
+        delegate.permits.release(2);
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 1);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(2), writer);
+        open(reader, writer);
+
+        processChunk(reader, writer, 2);
+        assertSame(Thread.currentThread(), delegate.lastThread);
+
+        assertEquals(2, executionContext.getInt(READ_COUNT));
+        assertNull(writer.afterStep(stepExecution));
+        close(reader, writer);
+    }
+
+    @Test
+    public void chunksAreWrittenInOrder() throws Exception {
+        delegate.permits.release(Integer.MAX_VALUE);
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 3);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(200), writer);
+        open(reader, writer);
+
+        for (int chunk = 0; chunk < 100; chunk++) {
+            processChunk(reader, writer, 2);
+        }
+        assertNull(writer.afterStep(stepExecution));
+        close(reader, writer);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int item = 0; item < 200; item++) {
+            expected.add(item);
+        }
+        assertEquals(expected, delegate.written);
+    }
+
+    @Test
+    public void checkpointIsTheStateAfterTheLastCompletedWrite() throws Exception {
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 2);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(3), writer);
+        open(reader, writer);
+
+        processChunk(reader, writer, 1);
+        assertEquals(0, executionContext.getInt(READ_COUNT));
+
+        delegate.permits.release();
+        processChunk(reader, writer, 1);
+        assertEquals(1, executionContext.getInt(READ_COUNT));
+
+        delegate.permits.release();
+        assertNull(writer.afterStep(stepExecution));
+        assertEquals(2, executionContext.getInt(READ_COUNT));
+        close(reader, writer);
+
+        assertEquals(Arrays.asList(0, 1), delegate.written);
+    }
+
+    @Test
+    public void checkpointDoesNotDependOnTheOrderOfTheStreams() throws Exception {
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 2);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(3), writer);
+        writer.open(executionContext);
+        reader.open(executionContext);
+
+        writer.write(Collections.singletonList(reader.read()));
+        writer.update(executionContext);
+        reader.update(executionContext);
+        assertEquals(0, executionContext.getInt(READ_COUNT));
+
+        delegate.permits.release(Integer.MAX_VALUE);
+        writer.close();
+        reader.close();
+    }
+
+    @Test
+    public void endOfInputWaitsForThePendingWrites() throws Exception {
+        delegate.permits.release(Integer.MAX_VALUE);
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 3);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(2), writer);
+        open(reader, writer);
+
+        processChunk(reader, writer, 2);
+        assertNull(reader.read());
+        reader.update(executionContext);
+
+        assertEquals(Arrays.asList(0, 1), delegate.written);
+        assertEquals(2, executionContext.getInt(READ_COUNT));
+        close(reader, writer);
+    }
+
+    @Test
+    public void failedWriteIsThrownWhenTheNextChunkIsWritten() throws Exception {
+        delegate.failure = new IllegalStateException("write failed");
+        delegate.permits.release(Integer.MAX_VALUE);
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 2);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(2), writer);
+        open(reader, writer);
+
+        processChunk(reader, writer, 1);
+        try {
+            writer.write(Collections.singletonList(reader.read()));
+            fail("The failure of the first write should have been thrown");
+        } catch (IllegalStateException e) {
+            assertSame(delegate.failure, e);
+        } finally {
+            close(reader, writer);
+        }
+    }
+
+    @Test
+    public void failedWriteIsThrownAtTheEndOfInput() throws Exception {
+        delegate.failure = new IllegalStateException("write failed");
+        delegate.permits.release(Integer.MAX_VALUE);
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 2);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(1), writer);
+        open(reader, writer);
+
+        processChunk(reader, writer, 1);
+        assertNull(reader.read());
+        try {
+            reader.update(executionContext);
+            fail("The failure of the write should have been thrown");
+        } catch (ItemStreamException e) {
+            assertSame(delegate.failure, e.getCause());
+        } finally {
+            close(reader, writer);
+        }
+    }
+
+    @Test
+    public void failedWriteFailsTheStep() throws Exception {
+        delegate.failure = new IllegalStateException("write failed");
+        delegate.permits.release(Integer.MAX_VALUE);
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 2);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(2), writer);
+        open(reader, writer);
+
+        processChunk(reader, writer, 1);
+        ExitStatus exitStatus = writer.afterStep(stepExecution);
+        close(reader, writer);
+
+        assertEquals(ExitStatus.FAILED.getExitCode(), exitStatus.getExitCode());
+        assertEquals(BatchStatus.FAILED, stepExecution.getStatus());
+        assertSame(delegate.failure, stepExecution.getFailureExceptions().get(0));
+        assertEquals(0, executionContext.getInt(READ_COUNT));
+    }
+
+    @Test
+    public void listenersAreNotifiedWhenTheWriteCompletes() throws Exception {
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 2);
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(new CountingReader(1), writer);
+        RecordingListener listener = new RecordingListener();
+        WriteBehindItemWriter.writeListeners(writer, listener).beforeStep(stepExecution);
+        writer.beforeStep(stepExecution);
+        open(reader, writer);
+
+        processChunk(reader, writer, 1);
+        assertTrue(listener.written.isEmpty());
+
+        delegate.permits.release();
+        assertNull(writer.afterStep(stepExecution));
+        close(reader, writer);
+
+        assertEquals(Collections.singletonList(0), listener.written);
+        assertSame(delegate.lastThread, listener.lastThread);
+        assertFalse(Thread.currentThread().equals(listener.lastThread));
+    }
+
+    @Test(timeout = 10000)
+    public void partitionsSharingTheReaderKeepTheirOwnEndOfInput() throws Exception {
+        Partitions partitions = new Partitions();
+        ItemStreamReader<Integer> reader = WriteBehindItemWriter.checkpointedReader(
+                partitions.proxy(ItemStreamReader.class, Partition::getReader),
+                partitions.proxy(WriteBehindItemWriter.class, Partition::getWriter));
+        BlockingWriter unfinishedDelegate = new BlockingWriter();
+        Partition unfinished = new Partition(new CountingReader(2), unfinishedDelegate);
+        delegate.permits.release(Integer.MAX_VALUE);
+        Partition finished = new Partition(new CountingReader(1), delegate);
+
+        partitions.current = unfinished;
+        reader.open(unfinished.executionContext);
+        unfinished.writer.open(unfinished.executionContext);
+        unfinished.writer.write(Collections.singletonList(reader.read()));
+
+        partitions.current = finished;
+        reader.open(finished.executionContext);
+        finished.writer.open(finished.executionContext);
+        finished.writer.write(Collections.singletonList(reader.read()));
+        assertNull(reader.read());
+
+        partitions.current = unfinished;
+        reader.update(unfinished.executionContext);
+        assertEquals(0, unfinished.executionContext.getInt(READ_COUNT));
+
+        partitions.current = finished;
+        reader.update(finished.executionContext);
+        assertEquals(1, finished.executionContext.getInt(READ_COUNT));
+        assertEquals(Collections.singletonList(0), delegate.written);
+
+        unfinishedDelegate.permits.release(Integer.MAX_VALUE);
+        for (Partition partition : Arrays.asList(unfinished, finished)) {
+            partitions.current = partition;
+            reader.close();
+            partition.writer.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writesInTheBackgroundRequireTheCheckpointedReader() throws Exception {
+        WriteBehindItemWriter<Integer> writer = new WriteBehindItemWriter<>(delegate, 2);
+        writer.open(executionContext);
+        try {
+            writer.write(Collections.singletonList(1));
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void open(ItemStreamReader<Integer> reader, WriteBehindItemWriter<Integer> writer) {
+        reader.open(executionContext);
+        writer.open(executionContext);
+    }
+
+    private void processChunk(ItemStreamReader<Integer> reader, WriteBehindItemWriter<Integer> writer,
+                              int chunkSize) throws Exception {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < chunkSize; i++) {
+            items.add(reader.read());
+        }
+        writer.write(items);
+        reader.update(executionContext);
+        writer.update(executionContext);
+    }
+
+    private void close(ItemStreamReader<Integer> reader, WriteBehindItemWriter<Integer> writer) {
+        reader.close();
+        writer.close();
+    }
+
+    /**
+     * Partitions of a step, whose reader and writer are resolved by proxies, the same as step scoped beans
+     */
+    private static class Partitions {
+
+        private Partition current;
+
+        @SuppressWarnings("unchecked")
+        private <T> T proxy(Class<?> type, Function<Partition, Object> target) {
+            ProxyFactory proxyFactory = new ProxyFactory();
+            proxyFactory.setProxyTargetClass(!type.isInterface());
+            if (type.isInterface()) {
+                proxyFactory.addInterface(type);
+            }
+            proxyFactory.setTargetSource(new TargetSource() {
+                @Override
+                public Class<?> getTargetClass() {
+                    return type;
+                }
+
+                @Override
+                public boolean isStatic() {
+                    return false;
+                }
+
+                @Override
+                public Object getTarget() {
+                    return target.apply(current);
+                }
+
+                @Override
+                public void releaseTarget(Object target) {
+                }
+            });
+            return (T) proxyFactory.getProxy();
+        }
+    }
+
+    private static class Partition {
+
+        private final ItemStreamReader<Integer> reader;
+
+        private final WriteBehindItemWriter<Integer> writer;
+
+        private final ExecutionContext executionContext;
+
+        Partition(ItemStreamReader<Integer> reader, ItemWriter<Integer> delegate) {
+            this.reader = reader;
+            this.writer = new WriteBehindItemWriter<>(delegate, 2);
+            this.executionContext = new ExecutionContext();
+        }
+
+        private ItemStreamReader<Integer> getReader() {
+            return reader;
+        }
+
+        private WriteBehindItemWriter<Integer> getWriter() {
+            return writer;
+        }
+    }
+
+    private static class CountingReader implements ItemStreamReader<Integer> {
+
+        private final int items;
+
+        private int readCount;
+
+        CountingReader(int items) {
+            this.items = items;
+        }
+
+        @Override
+        public Integer read() {
+            return readCount < items ? readCount++ : null;
+        }
+
+        @Override
+        public void open(ExecutionContext executionContext) {
+            readCount = executionContext.getInt(READ_COUNT, 0);
+        }
+
+        @Override
+        public void update(ExecutionContext executionContext) {
+            executionContext.putInt(READ_COUNT, readCount);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class BlockingWriter implements ItemWriter<Integer> {
+
+        private final Semaphore permits = new Semaphore(0);
+
+        private final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile Thread lastThread;
+
+        private volatile RuntimeException failure;
+
+        @Override
+        public void write(List<? extends Integer> items) throws Exception {
+            permits.acquire();
+            lastThread = Thread.currentThread();
+            if (failure != null) {
+                throw failure;
+            }
+            written.addAll(items);
+        }
+    }
+
+    private static class RecordingListener extends ItemListenerSupport<Integer, Integer> {
+
+        private final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile Thread lastThread;
+
+        @Override
+        public void afterWrite(List<? extends Integer> items) {
+            lastThread = Thread.currentThread();
+            written.addAll(items);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.deciders;
+
+import org.junit.Test;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+public class LoadByRegionDeciderTest {
+
+    private static final String INDEXED_VCF_FILE = "/input-files/vcf/genotyped_bgzip.vcf.gz";
+
+    private static final String NOT_INDEXED_VCF_FILE = "/input-files/vcf/genotyped.vcf.gz";
+
+    @Test
+    public void indexedVcfIsLoadedByRegion() throws Exception {
+        assertEquals(LoadByRegionDecider.LOAD_BY_REGION, decide(INDEXED_VCF_FILE, "2"));
+    }
+
+    @Test
+    public void indexedVcfIsLoadedWholeWithOneThread() throws Exception {
+        assertEquals(LoadByRegionDecider.LOAD_WHOLE_FILE, decide(INDEXED_VCF_FILE, "1"));
+        assertEquals(LoadByRegionDecider.LOAD_WHOLE_FILE, decide(INDEXED_VCF_FILE, null));
+    }
+
+    @Test
+    public void vcfWithoutIndexIsLoadedWhole() throws Exception {
+        assertEquals(LoadByRegionDecider.LOAD_WHOLE_FILE, decide(NOT_INDEXED_VCF_FILE, "2"));
+    }
+
+    private String decide(String vcf, String loadThreads) throws Exception {
+        EvaJobParameterBuilder parameterBuilder = new EvaJobParameterBuilder().inputVcf(
+                getResource(vcf).getAbsolutePath());
+        if (loadThreads != null) {
+            parameterBuilder.loadThreads(loadThreads);
+        }
+        JobParameters jobParameters = parameterBuilder.toJobParameters();
+        return new LoadByRegionDecider().decide(MetaDataInstanceFactory.createJobExecution("job", 1L, 1L,
+                                                                                           jobParameters), null)
+                                        .getName();
+    }
+}
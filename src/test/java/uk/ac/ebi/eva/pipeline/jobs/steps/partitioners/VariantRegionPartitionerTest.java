@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.SimpleStepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.MapJobRepositoryFactoryBean;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VariantRegionPartitioner.Region;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VariantRegionPartitionerTest {
+
+    @Test
+    public void onePartitionReadsAllTheVariants() {
+        VariantRegionPartitioner partitioner = new VariantRegionPartitioner(null, "variants", new Document(), 1);
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(6);
+
+        assertEquals(1, partitions.size());
+        ExecutionContext context = partitions.get(VariantRegionPartitioner.PARTITION_PREFIX + 0);
+        assertFalse(context.containsKey(ExecutionContextParametersNames.PARTITION_VARIANTS_QUERY));
+    }
+
+    @Test
+    public void restartRunsTheUnfinishedPartitionsOfTheFirstRun() throws Exception {
+        List<Region> chromosomes = new ArrayList<>(Arrays.asList(new Region("1", 1, 100, 10, true),
+                                                                 new Region("2", 1, 100, 10, true),
+                                                                 new Region("3", 1, 100, 10, true),
+                                                                 new Region("4", 1, 100, 10, true)));
+        VariantRegionPartitioner partitioner = new VariantRegionPartitioner(null, "variants", new Document(), 4) {
+            @Override
+            List<Region> countVariantsByChromosome() {
+                return chromosomes;
+            }
+        };
+        MapJobRepositoryFactoryBean repositoryFactory = new MapJobRepositoryFactoryBean();
+        repositoryFactory.afterPropertiesSet();
+        JobRepository jobRepository = repositoryFactory.getObject();
+        SimpleStepExecutionSplitter splitter = new SimpleStepExecutionSplitter(jobRepository, false, "step",
+                                                                               partitioner);
+
+        JobExecution firstJobExecution = jobRepository.createJobExecution("job", new JobParameters());
+        StepExecution firstManager = firstJobExecution.createStepExecution("step");
+        jobRepository.add(firstManager);
+        Set<StepExecution> firstWorkers = splitter.split(firstManager, 4);
+        jobRepository.updateExecutionContext(firstManager);
+        assertEquals(4, firstWorkers.size());
+
+        String failedQuery = null;
+        for (StepExecution worker : firstWorkers) {
+            boolean failed = worker.getStepName().equals("step:" + VariantRegionPartitioner.PARTITION_PREFIX + 3);
+            if (failed) {
+                failedQuery = worker.getExecutionContext().getString(
+                        ExecutionContextParametersNames.PARTITION_VARIANTS_QUERY);
+            }
+            finish(jobRepository, worker, failed ? BatchStatus.FAILED : BatchStatus.COMPLETED);
+        }
+        finish(jobRepository, firstManager, BatchStatus.FAILED);
+        firstJobExecution.setStatus(BatchStatus.FAILED);
+        firstJobExecution.setEndTime(new Date());
+        jobRepository.update(firstJobExecution);
+
+        // the completed partitions removed their variants, so the same count would now assign other regions
+        chromosomes.subList(0, 3).clear();
+
+        JobExecution secondJobExecution = jobRepository.createJobExecution("job", new JobParameters());
+        StepExecution secondManager = secondJobExecution.createStepExecution("step");
+        secondManager.setExecutionContext(jobRepository.getLastStepExecution(firstJobExecution.getJobInstance(),
+                                                                             "step").getExecutionContext());
+        jobRepository.add(secondManager);
+        Set<StepExecution> secondWorkers = splitter.split(secondManager, 4);
+
+        assertEquals(1, secondWorkers.size());
+        StepExecution restartedWorker = secondWorkers.iterator().next();
+        assertEquals("step:" + VariantRegionPartitioner.PARTITION_PREFIX + 3, restartedWorker.getStepName());
+        assertEquals(failedQuery, restartedWorker.getExecutionContext().getString(
+                ExecutionContextParametersNames.PARTITION_VARIANTS_QUERY));
+    }
+
+    private void finish(JobRepository jobRepository, StepExecution stepExecution, BatchStatus status) {
+        stepExecution.setStatus(status);
+        stepExecution.setEndTime(new Date());
+        jobRepository.update(stepExecution);
+    }
+
+    @Test
+    public void emptyPartitionsMatchNoVariant() {
+        Document query = VariantRegionPartitioner.toQuery(new ArrayList<>());
+
+        assertEquals(query, Document.parse(query.toJson()));
+        assertFalse(query.containsKey("$or"));
+    }
+
+    @Test
+    public void smallChromosomesAreNotSplit() {
+        List<Region> chromosomes = Arrays.asList(new Region("1", 100, 1000, 10, true),
+                                                 new Region("2", 100, 1000, 10, true),
+                                                 new Region("3", 100, 1000, 10, true));
+
+        List<Region> regions = VariantRegionPartitioner.split(chromosomes, 3);
+
+        assertEquals(chromosomes, regions);
+        assertEquals(new Document("chr", "1"), regions.get(0).toQuery());
+    }
+
+    @Test
+    public void bigChromosomesAreSplitInRangesOfTheSameLength() {
+        List<Region> chromosomes = Arrays.asList(new Region("1", 1, 1000, 90, true),
+                                                 new Region("2", 1, 1000, 10, true));
+
+        List<Region> regions = VariantRegionPartitioner.split(chromosomes, 4);
+
+        assertEquals(5, regions.size());
+        for (int i = 0; i < 4; i++) {
+            Region region = regions.get(i);
+            assertEquals("1", region.getChromosome());
+            assertEquals(1 + 250 * i, region.getStart());
+            assertEquals(250 * (i + 1), region.getEnd());
+            assertEquals(22, region.getVariants());
+        }
+        assertEquals(new Document("chr", "1").append("start", new Document("$gte", 1L).append("$lte", 250L)),
+                     regions.get(0).toQuery());
+        assertEquals("2", regions.get(4).getChromosome());
+    }
+
+    @Test
+    public void chromosomesAreNotSplitBeyondSinglePositions() {
+        List<Region> regions = VariantRegionPartitioner.split(
+                Arrays.asList(new Region("1", 500, 501, 100, true)), 10);
+
+        assertEquals(2, regions.size());
+        assertEquals(500, regions.get(0).getEnd());
+        assertEquals(501, regions.get(1).getStart());
+    }
+
+    @Test
+    public void regionsAreAssignedToTheLightestPartition() {
+        Region big = new Region("1", 1, 100, 50, true);
+        Region medium = new Region("2", 1, 100, 30, true);
+        Region small = new Region("3", 1, 100, 20, true);
+        Region tiny = new Region("4", 1, 100, 10, true);
+
+        List<List<Region>> partitions = VariantRegionPartitioner.assign(Arrays.asList(tiny, medium, small, big), 2);
+
+        assertEquals(2, partitions.size());
+        assertEquals(Arrays.asList(big, tiny), partitions.get(0));
+        assertEquals(Arrays.asList(medium, small), partitions.get(1));
+    }
+
+    @Test
+    public void emptyPartitionsAreNotCreated() {
+        List<List<Region>> partitions = VariantRegionPartitioner.assign(
+                Arrays.asList(new Region("1", 1, 100, 50, true)), 4);
+
+        assertEquals(1, partitions.size());
+    }
+
+    @Test
+    public void severalRegionsAreJoinedInOneQuery() {
+        Document query = VariantRegionPartitioner.toQuery(Arrays.asList(new Region("1", 1, 100, 50, true),
+                                                                        new Region("2", 1, 100, 50, false)));
+
+        List<Document> regions = (List<Document>) query.get("$or");
+        assertEquals(2, regions.size());
+        assertTrue(regions.get(1).containsKey("start"));
+        assertEquals(query, Document.parse(query.toJson()));
+    }
+}
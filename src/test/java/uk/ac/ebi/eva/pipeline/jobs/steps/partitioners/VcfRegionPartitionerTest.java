@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.pipeline.io.ParallelBgzfInputStream;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static uk.ac.ebi.eva.pipeline.io.ParallelBgzfInputStream.END_OF_FILE;
+import static uk.ac.ebi.eva.pipeline.io.ParallelBgzfInputStream.virtualOffset;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+public class VcfRegionPartitionerTest {
+
+    private static final String BGZIP_FILE_PATH = "/input-files/vcf/genotyped_bgzip.vcf.gz";
+
+    private static final String GZIP_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
+
+    @Test
+    public void onePartitionReadsTheWholeFile() {
+        VcfRegionPartitioner partitioner = new VcfRegionPartitioner(getResource(BGZIP_FILE_PATH), 1);
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(6);
+
+        assertEquals(1, partitions.size());
+        ExecutionContext context = partitions.get(VcfRegionPartitioner.PARTITION_PREFIX + 0);
+        assertFalse(context.containsKey(ExecutionContextParametersNames.PARTITION_VCF_START_OFFSET));
+    }
+
+    @Test
+    public void filesWithoutIndexAreNotSplit() {
+        VcfRegionPartitioner partitioner = new VcfRegionPartitioner(getResource(GZIP_FILE_PATH), 4);
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(6);
+
+        assertEquals(1, partitions.size());
+        ExecutionContext context = partitions.get(VcfRegionPartitioner.PARTITION_PREFIX + 0);
+        assertFalse(context.containsKey(ExecutionContextParametersNames.PARTITION_VCF_START_OFFSET));
+    }
+
+    @Test
+    public void indexedFilesAreSplitInRegionsReadExactlyOnce() throws Exception {
+        File vcf = getResource(BGZIP_FILE_PATH);
+        VcfRegionPartitioner partitioner = new VcfRegionPartitioner(vcf, 4);
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(6);
+
+        // the index only has two points where records start, so there can't be more than 2 partitions with records
+        assertEquals(2, partitions.size());
+        long previousEnd = 0;
+        StringBuilder regions = new StringBuilder();
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get(VcfRegionPartitioner.PARTITION_PREFIX + i);
+            long start = context.getLong(ExecutionContextParametersNames.PARTITION_VCF_START_OFFSET);
+            long end = context.getLong(ExecutionContextParametersNames.PARTITION_VCF_END_OFFSET);
+            assertEquals(previousEnd, start);
+            regions.append(readAll(new ParallelBgzfInputStream(new FileInputStream(vcf), 1, start, end)));
+            previousEnd = end;
+        }
+        assertEquals(END_OF_FILE, previousEnd);
+        assertEquals(readAll(new GZIPInputStream(new FileInputStream(vcf))), regions.toString());
+    }
+
+    @Test
+    public void boundariesAreTheRecordsClosestToEqualParts() {
+        TreeSet<Long> recordOffsets = new TreeSet<>(Arrays.asList(virtualOffset(100, 10), virtualOffset(250, 0),
+                                                                  virtualOffset(390, 5), virtualOffset(420, 7),
+                                                                  virtualOffset(800, 0)));
+
+        List<Long> boundaries = VcfRegionPartitioner.split(recordOffsets, 1000, 3);
+
+        assertEquals(Arrays.asList(0L, virtualOffset(390, 5), virtualOffset(800, 0), END_OF_FILE), boundaries);
+    }
+
+    @Test
+    public void closeRecordsAreNotUsedTwice() {
+        TreeSet<Long> recordOffsets = new TreeSet<>(Arrays.asList(virtualOffset(100, 10), virtualOffset(900, 0),
+                                                                  virtualOffset(900, 5)));
+
+        List<Long> boundaries = VcfRegionPartitioner.split(recordOffsets, 1000, 4);
+
+        assertEquals(Arrays.asList(0L, virtualOffset(900, 0), virtualOffset(900, 5), END_OF_FILE), boundaries);
+    }
+
+    @Test
+    public void indexesWithoutRecordsLeaveOneRegion() {
+        List<Long> boundaries = VcfRegionPartitioner.split(new TreeSet<>(), 1000, 4);
+
+        assertEquals(Arrays.asList(0L, END_OF_FILE), boundaries);
+    }
+
+    private String readAll(InputStream inputStream) throws Exception {
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            char[] buffer = new char[1000];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+        }
+        return content.toString();
+    }
+}
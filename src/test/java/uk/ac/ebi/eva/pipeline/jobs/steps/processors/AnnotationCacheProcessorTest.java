@@ -0,0 +1,156 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.processors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType;
+import uk.ac.ebi.eva.pipeline.configuration.MongoConfiguration;
+import uk.ac.ebi.eva.pipeline.io.writers.AnnotationMongoWriter;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.MongoConnection;
+import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link AnnotationCacheProcessor}
+ * input: a list of variant coordinates, some of them already annotated in the annotations collection
+ * output: the annotations of all of them, running VEP only for the ones not found in the collection
+ */
+@RunWith(SpringRunner.class)
+@TestPropertySource({"classpath:test-mongo.properties"})
+@ContextConfiguration(classes = {MongoConnection.class, MongoMappingContext.class})
+public class AnnotationCacheProcessorTest {
+
+    private static final String COLLECTION_ANNOTATIONS_NAME = "annotations";
+
+    private static final String VEP_VERSION = "90";
+
+    private static final String VEP_CACHE_VERSION = "89";
+
+    private static final String GENE_NAME = "DEFB125";
+
+    @Autowired
+    private MongoConnection mongoConnection;
+
+    @Autowired
+    private MongoMappingContext mongoMappingContext;
+
+    @Rule
+    public TemporaryMongoRule mongoRule = new TemporaryMongoRule();
+
+    private MongoOperations mongoOperations;
+
+    private List<EnsemblVariant> variantsSentToVep;
+
+    @Before
+    public void setUp() throws Exception {
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+        mongoOperations = MongoConfiguration.getMongoOperations(databaseName, mongoConnection, mongoMappingContext);
+        variantsSentToVep = new ArrayList<>();
+    }
+
+    @Test
+    public void storedAnnotationsAreNotSentToVep() throws Exception {
+        EnsemblVariant stored = new EnsemblVariant("20", 60343, 60343, "G", "A");
+        EnsemblVariant notStored = new EnsemblVariant("20", 60419, 60419, "A", "G");
+        storeAnnotation(stored, VEP_VERSION, VEP_CACHE_VERSION);
+
+        List<Annotation> annotations = buildProcessor().process(Arrays.asList(stored, notStored));
+
+        assertEquals(Collections.singletonList(notStored), variantsSentToVep);
+        assertEquals(2, annotations.size());
+        Annotation storedAnnotation = annotations.get(0);
+        assertEquals(buildAnnotation(stored, VEP_VERSION, VEP_CACHE_VERSION).getId(), storedAnnotation.getId());
+        assertEquals(GENE_NAME, storedAnnotation.getConsequenceTypes().iterator().next().getGeneName());
+    }
+
+    @Test
+    public void annotationsOfOtherVersionsAreIgnored() throws Exception {
+        EnsemblVariant variant = new EnsemblVariant("20", 60343, 60343, "G", "A");
+        storeAnnotation(variant, VEP_VERSION, "88");
+
+        buildProcessor().process(Collections.singletonList(variant));
+
+        assertEquals(Collections.singletonList(variant), variantsSentToVep);
+    }
+
+    @Test
+    public void vepIsNotRunIfAllTheVariantsAreStored() throws Exception {
+        EnsemblVariant insertion = new EnsemblVariant("20", 60344, 60343, "", "T");
+        storeAnnotation(insertion, VEP_VERSION, VEP_CACHE_VERSION);
+
+        List<Annotation> annotations = buildProcessor().process(Collections.singletonList(insertion));
+
+        assertTrue(variantsSentToVep.isEmpty());
+        assertEquals(1, annotations.size());
+    }
+
+    @Test
+    public void nothingIsReturnedIfNoVariantIsAnnotated() throws Exception {
+        AnnotationCacheProcessor processor = new AnnotationCacheProcessor(variants -> null, mongoOperations,
+                                                                          COLLECTION_ANNOTATIONS_NAME, VEP_VERSION,
+                                                                          VEP_CACHE_VERSION);
+
+        assertNull(processor.process(Collections.singletonList(new EnsemblVariant("20", 60343, 60343, "G", "A"))));
+    }
+
+    private AnnotationCacheProcessor buildProcessor() {
+        return new AnnotationCacheProcessor(variants -> {
+            variantsSentToVep.addAll(variants);
+            List<Annotation> annotations = new ArrayList<>();
+            for (EnsemblVariant variant : variants) {
+                annotations.add(buildAnnotation(variant, VEP_VERSION, VEP_CACHE_VERSION));
+            }
+            return annotations;
+        }, mongoOperations, COLLECTION_ANNOTATIONS_NAME, VEP_VERSION, VEP_CACHE_VERSION);
+    }
+
+    private void storeAnnotation(EnsemblVariant variant, String vepVersion, String vepCacheVersion)
+            throws Exception {
+        AnnotationMongoWriter writer = new AnnotationMongoWriter(mongoOperations, COLLECTION_ANNOTATIONS_NAME);
+        writer.write(Collections.singletonList(
+                Collections.singletonList(buildAnnotation(variant, vepVersion, vepCacheVersion))));
+    }
+
+    private Annotation buildAnnotation(EnsemblVariant variant, String vepVersion, String vepCacheVersion) {
+        Annotation annotation = new Annotation(variant.getChr(), variant.getStart(), variant.getEnd(),
+                                               variant.getReference(), variant.getAlternate(), vepVersion,
+                                               vepCacheVersion);
+        ConsequenceType consequenceType = new ConsequenceType();
+        consequenceType.setGeneName(GENE_NAME);
+        annotation.addConsequenceType(consequenceType);
+        return annotation;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.processors;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.commons.models.data.VariantStats;
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.PackedSampleIndexes;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+import uk.ac.ebi.eva.utils.CohortStatsCalculator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class VariantStatsProcessorTest {
+
+    private static final String STUDY_ID = "studyId";
+
+    private static final String FILE_ID = "fileId";
+
+    private static final int NUMBER_OF_SAMPLES = 6;
+
+    private final VariantStatsProcessor processor = new VariantStatsProcessor(STUDY_ID, FILE_ID, NUMBER_OF_SAMPLES);
+
+    @Test
+    public void samplesAreDecodedFromLists() throws Exception {
+        Document samples = new Document("def", "0|0").append("0|1", Arrays.asList(1, 5))
+                                                     .append("-1|-1", Collections.singletonList(3));
+
+        assertGenotypes(processor.process(buildVariant(samples)), "0|0", "0|1", "0|0", ".|.", "0|0", "0|1");
+    }
+
+    @Test
+    public void samplesAreDecodedFromPackedIndexes() throws Exception {
+        Document samples = new Document("def", "0|0")
+                .append("0|1", new Binary(PackedSampleIndexes.encode(Arrays.asList(1, 5))))
+                .append("-1|-1", PackedSampleIndexes.encode(Collections.singletonList(3)));
+
+        assertGenotypes(processor.process(buildVariant(samples)), "0|0", "0|1", "0|0", ".|.", "0|0", "0|1");
+    }
+
+    @Test
+    public void packedAndListedSamplesGiveTheSameStatistics() throws Exception {
+        Document listed = new Document("def", "0|0").append("1|1", Arrays.asList(0, 2, 4));
+        Document packed = new Document("def", "0|0")
+                .append("1|1", new Binary(PackedSampleIndexes.encode(Arrays.asList(0, 2, 4))));
+
+        assertEquals(getStats(processor.process(buildVariant(listed))),
+                     getStats(processor.process(buildVariant(packed))));
+    }
+
+    @Test
+    public void statisticsAreCalculatedForTheCohortsOfTheCalculator() throws Exception {
+        Map<String, int[]> cohorts = Collections.singletonMap("family", new int[]{0, 2, 4});
+        VariantStatsProcessor cohortsProcessor = new VariantStatsProcessor(STUDY_ID, FILE_ID, NUMBER_OF_SAMPLES,
+                                                                           new CohortStatsCalculator(cohorts));
+        Document samples = new Document("def", "0|0").append("1|1", Arrays.asList(0, 2, 4));
+
+        VariantSourceEntry sourceEntry = cohortsProcessor.process(buildVariant(samples)).getSourceEntry(FILE_ID,
+                                                                                                        STUDY_ID);
+
+        assertEquals(new HashSet<>(Arrays.asList(VariantSourceEntry.DEFAULT_COHORT, "family")),
+                     sourceEntry.getCohortStats().keySet());
+        assertEquals(NUMBER_OF_SAMPLES, sourceEntry.getCohortStats(VariantSourceEntry.DEFAULT_COHORT).getNumSamples());
+        assertEquals(3, sourceEntry.getCohortStats("family").getNumSamples());
+        assertEquals(0, sourceEntry.getCohortStats("family").getMaf(), 0);
+    }
+
+    @Test
+    public void variantsWithoutSamplesAreFilteredOut() throws Exception {
+        assertNull(processor.process(buildVariant(null)));
+    }
+
+    private Document buildVariant(Document samples) {
+        Document file = new Document(VariantSourceEntryMongo.FILEID_FIELD, FILE_ID)
+                .append(VariantSourceEntryMongo.STUDYID_FIELD, STUDY_ID);
+        if (samples != null) {
+            file.append(VariantSourceEntryMongo.SAMPLES_FIELD, samples);
+        }
+        return new Document("_id", "1_1000_A_C").append(VariantDocument.CHROMOSOME_FIELD, "1")
+                                                 .append(VariantDocument.START_FIELD, 1000)
+                                                 .append(VariantDocument.END_FIELD, 1000)
+                                                 .append(VariantDocument.REFERENCE_FIELD, "A")
+                                                 .append(VariantDocument.ALTERNATE_FIELD, "C")
+                                                 .append(VariantDocument.FILES_FIELD, Collections.singletonList(file));
+    }
+
+    private void assertGenotypes(Variant variant, String... genotypes) {
+        SamplesData samplesData = variant.getSourceEntry(FILE_ID, STUDY_ID).getSamplesData();
+        assertEquals(genotypes.length, samplesData.size());
+        for (int i = 0; i < genotypes.length; i++) {
+            assertEquals(genotypes[i], samplesData.get(i).get("GT"));
+        }
+    }
+
+    private VariantStats getStats(Variant variant) {
+        return variant.getSourceEntry(FILE_ID, STUDY_ID).getCohortStats(VariantSourceEntry.DEFAULT_COHORT);
+    }
+}
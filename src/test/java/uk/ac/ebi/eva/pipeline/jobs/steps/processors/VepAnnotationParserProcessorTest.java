@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.processors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.io.VepProcessPool;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+public class VepAnnotationParserProcessorTest {
+
+    private static final long TIMEOUT_IN_SECONDS = 5L;
+
+    private static final int CHUNK_SIZE = 3;
+
+    private AnnotationParameters annotationParameters;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolder = new PipelineTemporaryFolderRule();
+
+    @Before
+    public void setUp() throws Exception {
+        annotationParameters = new AnnotationParameters();
+        annotationParameters.setVepVersion("1");
+        annotationParameters.setVepCacheVersion("1");
+        annotationParameters.setVepCachePath("cache");
+        annotationParameters.setVepPath(getResource("/mockvep_persistent.pl").getAbsolutePath());
+        annotationParameters.setVepCacheSpecies("hsapiens");
+        annotationParameters.setInputFasta("fasta");
+        annotationParameters.setVepNumForks(1);
+        annotationParameters.setOutputDirAnnotation(temporaryFolder.newFolder().getAbsolutePath());
+    }
+
+    @Test
+    public void annotationsAreParsedWithANewProcessPerChunk() throws Exception {
+        VepAnnotationProcessor vepAnnotationProcessor = new VepAnnotationProcessor(annotationParameters, CHUNK_SIZE,
+                                                                                   TIMEOUT_IN_SECONDS);
+        VepAnnotationParserProcessor processor = new VepAnnotationParserProcessor(vepAnnotationProcessor,
+                                                                                  annotationParameters);
+
+        List<EnsemblVariant> variants = buildVariants(5);
+        List<Annotation> annotations = processor.process(variants);
+
+        assertAnnotationsMatchVariants(variants, annotations);
+    }
+
+    @Test
+    public void annotationsAreParsedWithAPoolOfProcesses() throws Exception {
+        VepProcessPool pool = new VepProcessPool(annotationParameters, CHUNK_SIZE, TIMEOUT_IN_SECONDS, 1);
+        VepAnnotationProcessor vepAnnotationProcessor = new VepAnnotationProcessor(annotationParameters, CHUNK_SIZE,
+                                                                                   TIMEOUT_IN_SECONDS, pool);
+        VepAnnotationParserProcessor processor = new VepAnnotationParserProcessor(vepAnnotationProcessor,
+                                                                                  annotationParameters);
+
+        vepAnnotationProcessor.open(null);
+        try {
+            for (int chunk = 0; chunk < 3; chunk++) {
+                List<EnsemblVariant> variants = buildVariants(4);
+                assertAnnotationsMatchVariants(variants, processor.process(variants));
+            }
+        } finally {
+            vepAnnotationProcessor.close();
+        }
+    }
+
+    private void assertAnnotationsMatchVariants(List<EnsemblVariant> variants, List<Annotation> annotations) {
+        assertEquals(variants.size(), annotations.size());
+        for (int i = 0; i < variants.size(); i++) {
+            assertEquals(variants.get(i).getChr(), annotations.get(i).getChromosome());
+            assertEquals(variants.get(i).getStart(), annotations.get(i).getStart());
+        }
+    }
+
+    private List<EnsemblVariant> buildVariants(int numVariants) {
+        List<EnsemblVariant> variants = new ArrayList<>();
+        for (int i = 0; i < numVariants; i++) {
+            variants.add(new EnsemblVariant("20", 60000 + i, 60000 + i, "A", "T"));
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.listeners;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.STATISTICS_MEANQUALITY_FIELD;
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.STATISTICS_NUMPASSFILTERS_FIELD;
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.STATISTICS_NUMSAMPLES_FIELD;
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.STATISTICS_NUMSNPS_FIELD;
+import static uk.ac.ebi.eva.commons.models.data.VariantSourceEntity.STATISTICS_NUMVARIANTS_FIELD;
+import static uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames.FILE_STATISTICS;
+
+public class FileStatisticsAggregatorTest {
+
+    private static final String MANAGER_STEP = "manager";
+
+    @Test
+    public void statisticsOfAllThePartitionsAreMerged() {
+        StepExecution manager = MetaDataInstanceFactory.createStepExecution(MANAGER_STEP, 1L);
+        StepExecution first = partition(manager.getJobExecution(), "partition0", BatchStatus.COMPLETED,
+                                        statistics(10, 4, 2, 8.0f));
+        StepExecution second = partition(manager.getJobExecution(), "partition1", BatchStatus.COMPLETED,
+                                         statistics(30, 6, 20, 4.0f));
+
+        new FileStatisticsAggregator().aggregate(manager, Arrays.asList(first, second));
+
+        Document fileStatistics = (Document) manager.getJobExecution().getExecutionContext().get(FILE_STATISTICS);
+        assertEquals(6, fileStatistics.get(STATISTICS_NUMSAMPLES_FIELD));
+        assertEquals(40, fileStatistics.get(STATISTICS_NUMVARIANTS_FIELD));
+        assertEquals(22, fileStatistics.get(STATISTICS_NUMPASSFILTERS_FIELD));
+        assertEquals(0, fileStatistics.get(STATISTICS_NUMSNPS_FIELD));
+        assertEquals(5.0f, (float) fileStatistics.get(STATISTICS_MEANQUALITY_FIELD), 0.0001);
+    }
+
+    @Test
+    public void statisticsAreNotLeftUntilEveryPartitionIsCompleted() {
+        StepExecution manager = MetaDataInstanceFactory.createStepExecution(MANAGER_STEP, 1L);
+        StepExecution first = partition(manager.getJobExecution(), "partition0", BatchStatus.COMPLETED,
+                                        statistics(10, 4, 2, 8.0f));
+        StepExecution second = partition(manager.getJobExecution(), "partition1", BatchStatus.FAILED, null);
+
+        new FileStatisticsAggregator().aggregate(manager, Arrays.asList(first, second));
+        assertNull(manager.getJobExecution().getExecutionContext().get(FILE_STATISTICS));
+
+        // on a restart, only the failed partition runs again, and the manager keeps its previous execution context
+        JobExecution restart = MetaDataInstanceFactory.createJobExecution("job", 1L, 2L);
+        StepExecution restartedManager = restart.createStepExecution(MANAGER_STEP);
+        restartedManager.setExecutionContext(manager.getExecutionContext());
+        StepExecution restartedSecond = partition(restart, "partition1", BatchStatus.COMPLETED,
+                                                  statistics(30, 6, 20, 4.0f));
+
+        new FileStatisticsAggregator().aggregate(restartedManager, Collections.singletonList(restartedSecond));
+
+        Document fileStatistics = (Document) restart.getExecutionContext().get(FILE_STATISTICS);
+        assertEquals(40, fileStatistics.get(STATISTICS_NUMVARIANTS_FIELD));
+    }
+
+    @Test
+    public void nothingIsLeftIfTheStatisticsWereNotCalculated() {
+        StepExecution manager = MetaDataInstanceFactory.createStepExecution(MANAGER_STEP, 1L);
+        StepExecution partition = partition(manager.getJobExecution(), "partition0", BatchStatus.COMPLETED, null);
+
+        new FileStatisticsAggregator().aggregate(manager, Collections.singletonList(partition));
+
+        assertNull(manager.getExecutionContext().get(FILE_STATISTICS));
+        assertNull(manager.getJobExecution().getExecutionContext().get(FILE_STATISTICS));
+    }
+
+    private StepExecution partition(JobExecution jobExecution, String name, BatchStatus status, Document statistics) {
+        StepExecution partition = jobExecution.createStepExecution("partition-step:" + name);
+        partition.setStatus(status);
+        if (statistics != null) {
+            partition.getExecutionContext().put(FILE_STATISTICS, statistics);
+        }
+        return partition;
+    }
+
+    private Document statistics(int variants, int samples, int pass, float meanQuality) {
+        return new Document(STATISTICS_NUMSAMPLES_FIELD, samples)
+                .append(STATISTICS_NUMVARIANTS_FIELD, variants)
+                .append(STATISTICS_NUMSNPS_FIELD, 0)
+                .append(STATISTICS_NUMPASSFILTERS_FIELD, pass)
+                .append(STATISTICS_MEANQUALITY_FIELD, meanQuality);
+    }
+}
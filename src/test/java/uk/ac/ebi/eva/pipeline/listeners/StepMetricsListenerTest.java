@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.listeners;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.OPERATION_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.PHASE_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.PROCESS;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.READ;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.STEP_CHUNK;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.STEP_ITEMS;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.STEP_TAG;
+import static uk.ac.ebi.eva.pipeline.metrics.PipelineMetrics.WRITE;
+
+public class StepMetricsListenerTest {
+
+    private static final String STEP = "step-metrics-listener-test";
+
+    private SimpleMeterRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    @Test
+    public void recordsEachPhaseOncePerChunk() {
+        StepMetricsListener<String, String> listener = new StepMetricsListener<>(STEP);
+        for (int chunk = 0; chunk < 3; chunk++) {
+            runChunk(listener, Arrays.asList("a", "b", "c"));
+        }
+
+        assertEquals(3, getChunkTimer(READ).count());
+        assertEquals(3, getChunkTimer(PROCESS).count());
+        assertEquals(3, getChunkTimer(WRITE).count());
+        assertEquals(9, registry.get(STEP_ITEMS).tags(STEP_TAG, STEP, OPERATION_TAG, READ).counter().count(), 0);
+        assertEquals(9, registry.get(STEP_ITEMS).tags(STEP_TAG, STEP, OPERATION_TAG, WRITE).counter().count(), 0);
+    }
+
+    @Test
+    public void failedAndEmptyChunksAreNotRecorded() {
+        StepMetricsListener<String, String> listener = new StepMetricsListener<>(STEP);
+        runChunk(listener, Arrays.asList("a", "b"));
+
+        listener.beforeChunk(null);
+        listener.beforeRead();
+        listener.afterRead("c");
+        listener.beforeWrite(Arrays.asList("c"));
+        listener.onWriteError(new RuntimeException(), Arrays.asList("c"));
+        listener.afterChunkError(null);
+
+        listener.beforeChunk(null);
+        listener.beforeRead();
+        listener.afterChunk(null);
+
+        assertEquals(1, getChunkTimer(READ).count());
+        assertEquals(1, getChunkTimer(WRITE).count());
+        assertEquals(2, registry.get(STEP_ITEMS).tags(STEP_TAG, STEP, OPERATION_TAG, READ).counter().count(), 0);
+    }
+
+    @Test
+    public void phasesWithoutItemsAreNotRecorded() {
+        StepMetricsListener<String, String> listener = new StepMetricsListener<>(STEP);
+        listener.beforeChunk(null);
+        listener.beforeRead();
+        listener.afterRead("a");
+        listener.afterChunk(null);
+
+        assertEquals(1, getChunkTimer(READ).count());
+        assertEquals(0, getChunkTimer(PROCESS).count());
+        assertEquals(0, getChunkTimer(WRITE).count());
+    }
+
+    @Test
+    public void writesOutsideTheChunkAreRecorded() throws Exception {
+        StepMetricsListener<String, String> listener = new StepMetricsListener<>(STEP);
+        Thread writerThread = new Thread(() -> {
+            listener.beforeWrite(Arrays.asList("a", "b"));
+            listener.afterWrite(Arrays.asList("a", "b"));
+        });
+        writerThread.start();
+        writerThread.join();
+
+        assertEquals(1, getChunkTimer(WRITE).count());
+        assertEquals(2, registry.get(STEP_ITEMS).tags(STEP_TAG, STEP, OPERATION_TAG, WRITE).counter().count(), 0);
+    }
+
+    @Test
+    public void nothingIsRecordedWithoutRegistries() {
+        Metrics.removeRegistry(registry);
+        StepMetricsListener<String, String> listener = new StepMetricsListener<>("unregistered-step");
+        runChunk(listener, Arrays.asList("a"));
+
+        assertNull(registry.find(STEP_CHUNK).tags(STEP_TAG, "unregistered-step").timer());
+    }
+
+    private void runChunk(StepMetricsListener<String, String> listener, List<String> items) {
+        listener.beforeChunk(null);
+        for (String item : items) {
+            listener.beforeRead();
+            listener.afterRead(item);
+        }
+        for (String item : items) {
+            listener.beforeProcess(item);
+            listener.afterProcess(item, item);
+        }
+        listener.beforeWrite(items);
+        listener.afterWrite(items);
+        listener.afterChunk(null);
+    }
+
+    private Timer getChunkTimer(String phase) {
+        return registry.get(STEP_CHUNK).tags(STEP_TAG, STEP, PHASE_TAG, phase).timer();
+    }
+}
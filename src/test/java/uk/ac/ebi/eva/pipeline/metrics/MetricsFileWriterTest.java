@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.boot.autoconfigure.batch.JobExecutionEvent;
+
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.File;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsFileWriterTest {
+
+    private static final String JOB_NAME = "job";
+
+    private static final String STEP_NAME = "step";
+
+    private static final String METER_NAME = "eva.test.items";
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolder = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void metricsAreWrittenWhenTheJobFinishes() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Counter counter = registry.counter(METER_NAME, PipelineMetrics.STEP_TAG, STEP_NAME);
+        counter.increment(3);
+        File output = new File(temporaryFolder.getRoot(), "metrics.json");
+        MetricsFileWriter writer = new MetricsFileWriter(registry, output.getAbsolutePath());
+        assertFalse(output.exists());
+
+        writer.onApplicationEvent(new JobExecutionEvent(buildFinishedJobExecution(100, 10)));
+
+        assertTrue(output.exists());
+        JsonNode metrics = new ObjectMapper().readTree(output);
+        assertEquals(JOB_NAME, metrics.get("job").asText());
+        assertEquals(BatchStatus.COMPLETED.toString(), metrics.get("status").asText());
+
+        JsonNode step = metrics.get("steps").get(0);
+        assertEquals(STEP_NAME, step.get("name").asText());
+        assertEquals(100, step.get("read").asInt());
+        assertEquals(100, step.get("written").asInt());
+        assertEquals(10.0, step.get("seconds").asDouble(), 0.0);
+        assertEquals(10.0, step.get("readPerSecond").asDouble(), 0.0);
+
+        JsonNode meter = metrics.get("meters").get(0);
+        assertEquals(METER_NAME, meter.get("name").asText());
+        assertEquals(STEP_NAME, meter.get("tags").get(PipelineMetrics.STEP_TAG).asText());
+        assertEquals(3.0, meter.get("count").asDouble(), 0.0);
+    }
+
+    private JobExecution buildFinishedJobExecution(int items, int seconds) {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, JOB_NAME), 1L, new JobParameters(), null);
+        StepExecution stepExecution = jobExecution.createStepExecution(STEP_NAME);
+        stepExecution.setReadCount(items);
+        stepExecution.setWriteCount(items);
+        stepExecution.setStartTime(new Date(0));
+        stepExecution.setEndTime(new Date(seconds * 1000L));
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        return jobExecution;
+    }
+}
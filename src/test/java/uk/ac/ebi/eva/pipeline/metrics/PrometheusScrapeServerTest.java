@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.metrics;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.Scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrometheusScrapeServerTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void registryIsServedOnTheConfiguredPortUntilStopped() throws Exception {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.counter("eva.test.items").increment(3);
+        int port = findFreePort();
+        PrometheusScrapeServer server = new PrometheusScrapeServer(registry, port);
+
+        server.start();
+        try {
+            HttpURLConnection connection = connect(port);
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(TextFormat.CONTENT_TYPE_004, connection.getContentType());
+            try (InputStream body = connection.getInputStream()) {
+                String metrics = new Scanner(body, "UTF-8").useDelimiter("\\A").next();
+                assertTrue(metrics.contains("eva_test_items_total 3.0"));
+            }
+        } finally {
+            server.stop();
+        }
+
+        exception.expect(ConnectException.class);
+        connect(port).getResponseCode();
+    }
+
+    @Test
+    public void portMustBePositive() {
+        exception.expect(IllegalArgumentException.class);
+        new PrometheusScrapeServer(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), 0);
+    }
+
+    private int findFreePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private HttpURLConnection connect(int port) throws Exception {
+        URL url = new URL("http://localhost:" + port + PrometheusScrapeServer.SCRAPE_PATH);
+        return (HttpURLConnection) url.openConnection();
+    }
+}
@@ -94,7 +94,7 @@ public class GenotypedVcfJobParametersValidatorTest {
 
         // statistics
         statsParameters = new TreeMap<>();
-        statsParameters.put(JobParametersNames.OUTPUT_DIR_STATISTICS, new JobParameter(dir));
+        statsParameters.put(JobParametersNames.CONFIG_STATISTICS_THREADS, new JobParameter("2"));
 
 
         // optionals
@@ -219,8 +219,8 @@ public class GenotypedVcfJobParametersValidatorTest {
         validator.validate(new JobParameters(parameters));
     }
 
-    @Test(expected = JobParametersInvalidException.class)
-    public void statsParametersAreRequiredIfStatsIsNotSkipped() throws JobParametersInvalidException {
+    @Test
+    public void outputDirStatisticsIsNotRequiredIfStatsIsNotSkipped() throws JobParametersInvalidException {
         Map<String, JobParameter> parameters = new TreeMap<>();
         parameters.putAll(requiredParameters);
         parameters.putAll(optionalParameters);
@@ -229,13 +229,23 @@ public class GenotypedVcfJobParametersValidatorTest {
     }
 
     @Test(expected = JobParametersInvalidException.class)
-    public void outputDirStatistitcsIsRequiredIfStatsIsNotSkipped() throws JobParametersInvalidException {
+    public void statsParametersAreValidatedIfStatsIsNotSkipped() throws JobParametersInvalidException {
         Map<String, JobParameter> parameters = new TreeMap<>();
         parameters.putAll(requiredParameters);
         parameters.putAll(optionalParameters);
         parameters.putAll(annotationParameters);
-        parameters.putAll(statsParameters);
-        parameters.remove(JobParametersNames.OUTPUT_DIR_STATISTICS);
+        parameters.put(JobParametersNames.CONFIG_STATISTICS_THREADS, new JobParameter("0"));
+        validator.validate(new JobParameters(parameters));
+    }
+
+    @Test
+    public void statsParametersAreNotValidatedIfStatsAreCalculatedDuringLoad() throws JobParametersInvalidException {
+        Map<String, JobParameter> parameters = new TreeMap<>();
+        parameters.putAll(requiredParameters);
+        parameters.putAll(optionalParameters);
+        parameters.putAll(annotationParameters);
+        parameters.put(JobParametersNames.CONFIG_STATISTICS_THREADS, new JobParameter("0"));
+        parameters.put(JobParametersNames.STATISTICS_DURING_LOAD, new JobParameter("true"));
         validator.validate(new JobParameters(parameters));
     }
 }
@@ -16,56 +16,49 @@
 package uk.ac.ebi.eva.pipeline.parameters.validation.step;
 
 import org.junit.Before;
-import org.junit.Rule;
 import org.junit.Test;
 import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersInvalidException;
 
-import uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.CalculateStatisticsTasklet;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CalculateAndLoadStatisticsStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
-import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
 
-import java.io.IOException;
 import java.util.Map;
 import java.util.TreeMap;
 
 /**
- * Tests that the arguments necessary to run a {@link CalculateStatisticsTasklet}
+ * Tests that the arguments necessary to run a {@link CalculateAndLoadStatisticsStepConfiguration}
  * are correctly validated
  */
-public class CalculateStatisticsStepParametersValidatorTest {
+public class CalculateAndLoadStatisticsStepParametersValidatorTest {
 
-    private CalculateStatisticsStepParametersValidator validator;
-
-    @Rule
-    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+    private CalculateAndLoadStatisticsStepParametersValidator validator;
 
     private Map<String, JobParameter> requiredParameters;
 
     private Map<String, JobParameter> optionalParameters;
 
     @Before
-    public void setUp() throws IOException {
-        validator = new CalculateStatisticsStepParametersValidator();
+    public void setUp() {
+        validator = new CalculateAndLoadStatisticsStepParametersValidator();
         requiredParameters = new TreeMap<>();
         requiredParameters.put(JobParametersNames.DB_NAME, new JobParameter("dbName"));
-        requiredParameters.put(JobParametersNames.OUTPUT_DIR_STATISTICS,
-                               new JobParameter(temporaryFolderRule.getRoot().getCanonicalPath()));
         requiredParameters.put(JobParametersNames.INPUT_STUDY_ID, new JobParameter("inputStudyId"));
         requiredParameters.put(JobParametersNames.INPUT_VCF_ID, new JobParameter("inputVcfId"));
 
         optionalParameters = new TreeMap<>();
         optionalParameters.put(JobParametersNames.STATISTICS_OVERWRITE, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.CONFIG_STATISTICS_THREADS, new JobParameter("4"));
     }
 
     @Test
-    public void allJobParametersAreValid() throws JobParametersInvalidException, IOException {
+    public void allJobParametersAreValid() throws JobParametersInvalidException {
         validator.validate(new JobParameters(requiredParameters));
     }
 
     @Test
-    public void allJobParametersIncludingOptionalAreValid() throws JobParametersInvalidException, IOException {
+    public void allJobParametersIncludingOptionalAreValid() throws JobParametersInvalidException {
         Map<String, JobParameter> parameters = new TreeMap<>();
         parameters.putAll(requiredParameters);
         parameters.putAll(optionalParameters);
@@ -73,25 +66,19 @@ public class CalculateStatisticsStepParametersValidatorTest {
     }
 
     @Test(expected = JobParametersInvalidException.class)
-    public void dbNameIsRequired() throws JobParametersInvalidException, IOException {
+    public void dbNameIsRequired() throws JobParametersInvalidException {
         requiredParameters.remove(JobParametersNames.DB_NAME);
         validator.validate(new JobParameters(requiredParameters));
     }
 
     @Test(expected = JobParametersInvalidException.class)
-    public void outputDirStatisticsIsRequired() throws JobParametersInvalidException, IOException {
-        requiredParameters.remove(JobParametersNames.OUTPUT_DIR_STATISTICS);
-        validator.validate(new JobParameters(requiredParameters));
-    }
-
-    @Test(expected = JobParametersInvalidException.class)
-    public void inputStudyIdIsRequired() throws JobParametersInvalidException, IOException {
+    public void inputStudyIdIsRequired() throws JobParametersInvalidException {
         requiredParameters.remove(JobParametersNames.INPUT_STUDY_ID);
         validator.validate(new JobParameters(requiredParameters));
     }
 
     @Test(expected = JobParametersInvalidException.class)
-    public void inputVcfIdIsRequired() throws JobParametersInvalidException, IOException {
+    public void inputVcfIdIsRequired() throws JobParametersInvalidException {
         requiredParameters.remove(JobParametersNames.INPUT_VCF_ID);
         validator.validate(new JobParameters(requiredParameters));
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 EMBL - European Bioinformatics Institute
+ * Copyright 2021 EMBL - European Bioinformatics Institute
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,50 +16,43 @@
 package uk.ac.ebi.eva.pipeline.parameters.validation.step;
 
 import org.junit.Before;
-import org.junit.Rule;
 import org.junit.Test;
 import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersInvalidException;
 
-import uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.LoadStatisticsTasklet;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CreateDeferredIndexesStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
-import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
 
 import java.io.IOException;
 import java.util.Map;
 import java.util.TreeMap;
 
 /**
- * Tests that the arguments necessary to run a {@link LoadStatisticsTasklet} are
+ * Tests that the arguments necessary to run a {@link CreateDeferredIndexesStepConfiguration} are
  * correctly validated
  */
-public class LoadStatisticsStepParametersValidatorTest {
-
-    private LoadStatisticsStepParametersValidator validator;
-
-    @Rule
-    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+public class CreateDeferredIndexesStepParametersValidatorTest {
+    private CreateDeferredIndexesStepParametersValidator validator;
 
     private Map<String, JobParameter> requiredParameters;
 
     private Map<String, JobParameter> optionalParameters;
 
     @Before
-    public void setUp() throws IOException {
-        validator = new LoadStatisticsStepParametersValidator();
+    public void setUp() throws Exception {
+        validator = new CreateDeferredIndexesStepParametersValidator();
 
         requiredParameters = new TreeMap<>();
-        requiredParameters.put(JobParametersNames.INPUT_STUDY_ID, new JobParameter("inputStudyId"));
-        requiredParameters.put(JobParametersNames.INPUT_VCF_ID, new JobParameter("inputVcfId"));
-        requiredParameters.put(JobParametersNames.DB_COLLECTIONS_FILES_NAME, new JobParameter("files"));
-        requiredParameters.put(JobParametersNames.DB_COLLECTIONS_VARIANTS_NAME, new JobParameter("variants"));
-        requiredParameters.put(JobParametersNames.DB_NAME, new JobParameter("database"));
-        requiredParameters.put(JobParametersNames.OUTPUT_DIR_STATISTICS,
-                               new JobParameter(temporaryFolderRule.getRoot().getCanonicalPath()));
+        requiredParameters.put(JobParametersNames.DB_NAME, new JobParameter("dbName"));
+        requiredParameters.put(JobParametersNames.DB_COLLECTIONS_VARIANTS_NAME,
+                               new JobParameter("dbCollectionsVariantsName"));
 
         optionalParameters = new TreeMap<>();
-        optionalParameters.put(JobParametersNames.STATISTICS_OVERWRITE, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.DB_COLLECTIONS_ANNOTATIONS_NAME,
+                               new JobParameter("dbCollectionsAnnotationsName"));
+        optionalParameters.put(JobParametersNames.DB_INDEXES_DEFERRED, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.CONFIG_RESTARTABILITY_ALLOW, new JobParameter("true"));
     }
 
     @Test
@@ -75,24 +68,6 @@ public class LoadStatisticsStepParametersValidatorTest {
         validator.validate(new JobParameters(parameters));
     }
 
-    @Test(expected = JobParametersInvalidException.class)
-    public void inputStudyIdIsRequired() throws JobParametersInvalidException, IOException {
-        requiredParameters.remove(JobParametersNames.INPUT_STUDY_ID);
-        validator.validate(new JobParameters(requiredParameters));
-    }
-
-    @Test(expected = JobParametersInvalidException.class)
-    public void inputVcfIdIsRequired() throws JobParametersInvalidException, IOException {
-        requiredParameters.remove(JobParametersNames.INPUT_VCF_ID);
-        validator.validate(new JobParameters(requiredParameters));
-    }
-
-    @Test(expected = JobParametersInvalidException.class)
-    public void dbCollectionsFilesNameIsRequired() throws JobParametersInvalidException, IOException {
-        requiredParameters.remove(JobParametersNames.DB_COLLECTIONS_FILES_NAME);
-        validator.validate(new JobParameters(requiredParameters));
-    }
-
     @Test(expected = JobParametersInvalidException.class)
     public void dbCollectionsVariantsNameIsRequired() throws JobParametersInvalidException, IOException {
         requiredParameters.remove(JobParametersNames.DB_COLLECTIONS_VARIANTS_NAME);
@@ -106,8 +81,8 @@ public class LoadStatisticsStepParametersValidatorTest {
     }
 
     @Test(expected = JobParametersInvalidException.class)
-    public void outputDirStatisticsIsRequired() throws JobParametersInvalidException, IOException {
-        requiredParameters.remove(JobParametersNames.OUTPUT_DIR_STATISTICS);
+    public void indexesDeferredMustBeBoolean() throws JobParametersInvalidException, IOException {
+        requiredParameters.put(JobParametersNames.DB_INDEXES_DEFERRED, new JobParameter("blabla"));
         validator.validate(new JobParameters(requiredParameters));
     }
 
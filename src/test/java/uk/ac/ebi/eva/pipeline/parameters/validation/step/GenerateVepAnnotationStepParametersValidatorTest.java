@@ -72,6 +72,8 @@ public class GenerateVepAnnotationStepParametersValidatorTest {
 
         optionalParameters = new TreeMap<>();
         optionalParameters.put(JobParametersNames.CONFIG_CHUNK_SIZE, new JobParameter("100"));
+        optionalParameters.put(JobParametersNames.APP_VEP_POOL_SIZE, new JobParameter("2"));
+        optionalParameters.put(JobParametersNames.CONFIG_ANNOTATION_THREADS, new JobParameter("4"));
     }
 
     @Test
@@ -63,6 +63,14 @@ public class LoadVariantsStepParametersValidatorTest {
 
         optionalParameters = new TreeMap<>();
         optionalParameters.put(JobParametersNames.CONFIG_CHUNK_SIZE, new JobParameter("100"));
+        optionalParameters.put(JobParametersNames.CONFIG_CHUNK_TARGET_BYTES, new JobParameter("8000000"));
+        optionalParameters.put(JobParametersNames.CONFIG_CHUNK_MAX_WRITE_LATENCY, new JobParameter("2000"));
+        optionalParameters.put(JobParametersNames.CONFIG_PARSER_THREADS, new JobParameter("4"));
+        optionalParameters.put(JobParametersNames.CONFIG_LOAD_THREADS, new JobParameter("4"));
+        optionalParameters.put(JobParametersNames.CONFIG_WRITER_THREADS, new JobParameter("2"));
+        optionalParameters.put(JobParametersNames.CONFIG_WRITER_CHUNKS_IN_FLIGHT, new JobParameter("2"));
+        optionalParameters.put(JobParametersNames.STATISTICS_DURING_LOAD, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.DB_SAMPLES_PACKED, new JobParameter("true"));
         optionalParameters.put(JobParametersNames.CONFIG_RESTARTABILITY_ALLOW, new JobParameter("true"));
     }
 
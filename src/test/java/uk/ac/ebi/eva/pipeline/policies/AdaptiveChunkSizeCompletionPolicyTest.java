@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.policies;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+
+import uk.ac.ebi.eva.pipeline.io.writers.BulkWriteStatistics;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveChunkSizeCompletionPolicyTest {
+
+    private static final int INITIAL_CHUNK_SIZE = 100;
+
+    private BulkWriteStatistics statistics;
+
+    @Before
+    public void setUp() throws Exception {
+        statistics = new BulkWriteStatistics();
+    }
+
+    @Test
+    public void chunkSizeIsKeptUntilSomethingIsWritten() {
+        AdaptiveChunkSizeCompletionPolicy policy = new AdaptiveChunkSizeCompletionPolicy(INITIAL_CHUNK_SIZE,
+                                                                                          statistics, 1000L, 1000L);
+
+        RepeatContext context = policy.start(null);
+
+        assertEquals(INITIAL_CHUNK_SIZE, policy.getChunkSize());
+        for (int i = 0; i < INITIAL_CHUNK_SIZE - 1; i++) {
+            policy.update(context);
+            assertFalse(policy.isComplete(context));
+        }
+        policy.update(context);
+        assertTrue(policy.isComplete(context));
+    }
+
+    @Test
+    public void chunksGrowGraduallyUntilTheTargetSize() {
+        AdaptiveChunkSizeCompletionPolicy policy = new AdaptiveChunkSizeCompletionPolicy(INITIAL_CHUNK_SIZE,
+                                                                                          statistics, 100000L, null);
+
+        statistics.recordDocumentSize(100);
+        policy.start(new RepeatContextSupport(null));
+        assertEquals(2 * INITIAL_CHUNK_SIZE, policy.getChunkSize());
+
+        statistics.recordDocumentSize(100);
+        policy.start(new RepeatContextSupport(null));
+        assertEquals(4 * INITIAL_CHUNK_SIZE, policy.getChunkSize());
+
+        statistics.recordDocumentSize(100);
+        policy.start(new RepeatContextSupport(null));
+        assertEquals(800, policy.getChunkSize());
+
+        statistics.recordDocumentSize(100);
+        policy.start(new RepeatContextSupport(null));
+        assertEquals(1000, policy.getChunkSize());
+    }
+
+    @Test
+    public void chunksShrinkWhenTheDocumentsAreLarge() {
+        AdaptiveChunkSizeCompletionPolicy policy = new AdaptiveChunkSizeCompletionPolicy(INITIAL_CHUNK_SIZE,
+                                                                                          statistics, 100000L, null);
+
+        statistics.recordDocumentSize(10000);
+        policy.start(new RepeatContextSupport(null));
+
+        assertEquals(10, policy.getChunkSize());
+    }
+
+    @Test
+    public void chunksShrinkWhenTheWritesAreSlow() {
+        AdaptiveChunkSizeCompletionPolicy policy = new AdaptiveChunkSizeCompletionPolicy(INITIAL_CHUNK_SIZE,
+                                                                                          statistics, null, 1000L);
+
+        statistics.recordWrite(INITIAL_CHUNK_SIZE, TimeUnit.SECONDS.toNanos(4));
+        policy.start(new RepeatContextSupport(null));
+
+        assertEquals(25, policy.getChunkSize());
+    }
+
+    @Test
+    public void bothLimitsAreApplied() {
+        AdaptiveChunkSizeCompletionPolicy policy = new AdaptiveChunkSizeCompletionPolicy(INITIAL_CHUNK_SIZE,
+                                                                                          statistics, 100000L, 1000L);
+
+        statistics.recordDocumentSize(2000);
+        statistics.recordWrite(INITIAL_CHUNK_SIZE, TimeUnit.MILLISECONDS.toNanos(2500));
+        policy.start(new RepeatContextSupport(null));
+
+        assertEquals(40, policy.getChunkSize());
+    }
+
+    @Test
+    public void chunksHaveAtLeastOneItem() {
+        AdaptiveChunkSizeCompletionPolicy policy = new AdaptiveChunkSizeCompletionPolicy(INITIAL_CHUNK_SIZE,
+                                                                                          statistics, 1000L, null);
+
+        statistics.recordDocumentSize(16 * 1024 * 1024);
+        policy.start(new RepeatContextSupport(null));
+
+        assertEquals(1, policy.getChunkSize());
+    }
+}
@@ -12,7 +12,6 @@ import uk.ac.ebi.eva.utils.URLHelper;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -120,17 +119,6 @@ public class GenotypedVcfJobTestUtils {
         iterator.close();
     }
 
-    /**
-     * 2 create stats step
-     *
-     * @param variantsStatsFile
-     * @param sourceStatsFile
-     */
-    public static void checkCreateStatsStep(File variantsStatsFile, File sourceStatsFile) {
-        assertTrue(variantsStatsFile.exists());
-        assertTrue(sourceStatsFile.exists());
-    }
-
     public static void checkSkippedOneMalformedLine(JobExecution jobExecution) {
         //check that one line is skipped because malformed
         List<StepExecution> annotationLoadStepExecution = jobExecution.getStepExecutions().stream()
@@ -139,14 +127,6 @@ public class GenotypedVcfJobTestUtils {
         assertEquals(1, annotationLoadStepExecution.get(0).getReadSkipCount());
     }
 
-    public static File getVariantsStatsFile(String outputDirStats) throws URISyntaxException {
-        return new File(URLHelper.getVariantsStatsUri(outputDirStats, INPUT_STUDY_ID, INPUT_VCF_ID));
-    }
-
-    public static File getSourceStatsFile(String outputDirStats) throws URISyntaxException {
-        return new File(URLHelper.getSourceStatsUri(outputDirStats, INPUT_STUDY_ID, INPUT_VCF_ID));
-    }
-
     public static File getVepOutputFile(String outputDirAnnotation) {
         return new File(URLHelper.resolveVepOutput(outputDirAnnotation, INPUT_STUDY_ID, INPUT_VCF_ID));
     }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.commons.models.data.VariantStats;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class CohortStatsCalculatorTest {
+
+    private Variant variant;
+
+    @Before
+    public void setUp() {
+        variant = new Variant("1", 1000, 1000, "A", "C");
+        VariantSourceEntry sourceEntry = new VariantSourceEntry("fileId", "studyId");
+        addGenotype(sourceEntry, "0|0");
+        addGenotype(sourceEntry, "0|1");
+        addGenotype(sourceEntry, "1|1");
+        addGenotype(sourceEntry, "./.");
+        sourceEntry.addAttribute("QUAL", "50");
+        sourceEntry.addAttribute("FILTER", "PASS");
+        variant.addSourceEntry(sourceEntry);
+    }
+
+    private void addGenotype(VariantSourceEntry sourceEntry, String genotype) {
+        sourceEntry.addSampleData(Collections.singletonMap("GT", genotype));
+    }
+
+    @Test
+    public void defaultCohortHasAllTheSamples() {
+        new CohortStatsCalculator().calculate(variant);
+
+        VariantSourceEntry sourceEntry = variant.getSourceEntry("fileId", "studyId");
+        assertEquals(1, sourceEntry.getCohortStats().size());
+        VariantStats stats = sourceEntry.getStats();
+        assertEquals(4, stats.getNumSamples());
+        assertEquals(3, stats.getRefAlleleCount());
+        assertEquals(3, stats.getAltAlleleCount());
+        assertEquals(1, stats.getMissingGenotypes());
+        assertEquals(50, stats.getQuality(), 0.001);
+    }
+
+    @Test
+    public void eachCohortHasOnlyItsSamples() {
+        Map<String, int[]> cohorts = new LinkedHashMap<>();
+        cohorts.put("reference", new int[]{0});
+        cohorts.put("alternate", new int[]{1, 2});
+        new CohortStatsCalculator(cohorts).calculate(variant);
+
+        VariantSourceEntry sourceEntry = variant.getSourceEntry("fileId", "studyId");
+        assertEquals(3, sourceEntry.getCohortStats().size());
+
+        VariantStats reference = sourceEntry.getCohortStats("reference");
+        assertEquals(1, reference.getNumSamples());
+        assertEquals(2, reference.getRefAlleleCount());
+        assertEquals(0, reference.getAltAlleleCount());
+
+        VariantStats alternate = sourceEntry.getCohortStats("alternate");
+        assertEquals(2, alternate.getNumSamples());
+        assertEquals(1, alternate.getRefAlleleCount());
+        assertEquals(3, alternate.getAltAlleleCount());
+        assertEquals(0.25, alternate.getMaf(), 0.001);
+    }
+
+    @Test
+    public void previousStatisticsAreReplaced() {
+        Map<String, int[]> cohorts = Collections.singletonMap("first", new int[]{0});
+        new CohortStatsCalculator(cohorts).calculate(variant);
+        new CohortStatsCalculator().calculate(variant);
+
+        VariantSourceEntry sourceEntry = variant.getSourceEntry("fileId", "studyId");
+        assertEquals(Collections.singleton(VariantSourceEntry.DEFAULT_COHORT), sourceEntry.getCohortStats().keySet());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CompressionHelperTest {
+
+    private static final int OS_OFFSET = 9;
+
+    private static final String SOURCE_LINE = "20\t60343\trs527639301\tG\tA\t100\tPASS\tAC=1;AF=0.000199681;AN=5008";
+
+    @Test
+    public void gzipShouldWriteTheSameBytesAsGzipOutputStream() throws IOException {
+        assertSameGzip(gzipWithStream(SOURCE_LINE), CompressionHelper.gzip(SOURCE_LINE));
+        assertSameGzip(gzipWithStream(""), CompressionHelper.gzip(""));
+    }
+
+    @Test
+    public void gzipShouldWriteTheOsByteOfJava8() {
+        assertEquals(0, CompressionHelper.gzip(SOURCE_LINE)[OS_OFFSET]);
+    }
+
+    /**
+     * The OS byte of the header is ignored, because it depends on the JDK version: 0 until Java 15, 255 from Java 16
+     */
+    private static void assertSameGzip(byte[] expected, byte[] actual) {
+        assertEquals(expected.length, actual.length);
+        expected[OS_OFFSET] = actual[OS_OFFSET];
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void gzipShouldBeReadableByGzipInputStream() throws IOException {
+        String text = repeat(SOURCE_LINE, 200);
+        assertEquals(text, gunzipWithStream(CompressionHelper.gzip(text)));
+    }
+
+    @Test
+    public void gunzipShouldRoundTripSeveralTextsWithTheSameInflater() throws IOException {
+        assertEquals(SOURCE_LINE, CompressionHelper.gunzip(CompressionHelper.gzip(SOURCE_LINE)));
+        assertEquals("", CompressionHelper.gunzip(CompressionHelper.gzip("")));
+        String longText = repeat(SOURCE_LINE, 1000);
+        assertEquals(longText, CompressionHelper.gunzip(CompressionHelper.gzip(longText)));
+    }
+
+    @Test
+    public void gunzipShouldReadGzipWithOptionalHeaderFields() throws IOException {
+        byte[] compressed = CompressionHelper.gzip(SOURCE_LINE);
+        byte[] withName = new byte[compressed.length + 2];
+        System.arraycopy(compressed, 0, withName, 0, 10);
+        withName[3] = 8;
+        withName[10] = 'a';
+        withName[11] = 0;
+        System.arraycopy(compressed, 10, withName, 12, compressed.length - 10);
+
+        assertEquals(SOURCE_LINE, CompressionHelper.gunzip(withName));
+    }
+
+    @Test(expected = ZipException.class)
+    public void gunzipShouldFailWithAWrongChecksum() throws IOException {
+        byte[] compressed = CompressionHelper.gzip(SOURCE_LINE);
+        compressed[compressed.length - 8] ^= 1;
+        CompressionHelper.gunzip(compressed);
+    }
+
+    @Test(expected = ZipException.class)
+    public void gunzipShouldFailWithoutGzipHeader() throws IOException {
+        CompressionHelper.gunzip(SOURCE_LINE.getBytes());
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(text).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static byte[] gzipWithStream(String text) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(text.getBytes());
+        }
+        return output.toByteArray();
+    }
+
+    private static String gunzipWithStream(byte[] compressed) throws IOException {
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = input.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+            return output.toString();
+        }
+    }
+}
@@ -96,6 +96,16 @@ public class EvaJobParameterBuilder extends JobParametersBuilder {
         return this;
     }
 
+    public EvaJobParameterBuilder indexesDeferred(boolean indexesDeferred) {
+        addParameter(JobParametersNames.DB_INDEXES_DEFERRED, new JobParameter(Boolean.toString(indexesDeferred)));
+        return this;
+    }
+
+    public EvaJobParameterBuilder samplesPacked(boolean samplesPacked) {
+        addParameter(JobParametersNames.DB_SAMPLES_PACKED, new JobParameter(Boolean.toString(samplesPacked)));
+        return this;
+    }
+
     public EvaJobParameterBuilder vepPath(String vepPath) {
         addParameter(JobParametersNames.APP_VEP_PATH, new JobParameter(vepPath));
         return this;
@@ -161,6 +171,47 @@ public class EvaJobParameterBuilder extends JobParametersBuilder {
         return this;
     }
 
+    public EvaJobParameterBuilder statisticsDuringLoad(boolean statisticsDuringLoad) {
+        addParameter(JobParametersNames.STATISTICS_DURING_LOAD,
+                     new JobParameter(Boolean.toString(statisticsDuringLoad)));
+        return this;
+    }
+
+    public EvaJobParameterBuilder statisticsThreads(String statisticsThreads) {
+        addParameter(JobParametersNames.CONFIG_STATISTICS_THREADS, new JobParameter(statisticsThreads));
+        return this;
+    }
+
+    public EvaJobParameterBuilder annotationThreads(String annotationThreads) {
+        addParameter(JobParametersNames.CONFIG_ANNOTATION_THREADS, new JobParameter(annotationThreads));
+        return this;
+    }
+
+    public EvaJobParameterBuilder loadThreads(String loadThreads) {
+        addParameter(JobParametersNames.CONFIG_LOAD_THREADS, new JobParameter(loadThreads));
+        return this;
+    }
+
+    public EvaJobParameterBuilder dropThreads(String dropThreads) {
+        addParameter(JobParametersNames.CONFIG_DROP_THREADS, new JobParameter(dropThreads));
+        return this;
+    }
+
+    public EvaJobParameterBuilder chunkTargetBytes(String chunkTargetBytes) {
+        addParameter(JobParametersNames.CONFIG_CHUNK_TARGET_BYTES, new JobParameter(chunkTargetBytes));
+        return this;
+    }
+
+    public EvaJobParameterBuilder chunkMaxWriteLatency(String chunkMaxWriteLatency) {
+        addParameter(JobParametersNames.CONFIG_CHUNK_MAX_WRITE_LATENCY, new JobParameter(chunkMaxWriteLatency));
+        return this;
+    }
+
+    public EvaJobParameterBuilder writerChunksInFlight(String writerChunksInFlight) {
+        addParameter(JobParametersNames.CONFIG_WRITER_CHUNKS_IN_FLIGHT, new JobParameter(writerChunksInFlight));
+        return this;
+    }
+
     public EvaJobParameterBuilder inputGtf(String inputGtf) {
         addParameter(JobParametersNames.INPUT_GTF, new JobParameter(inputGtf));
         return this;
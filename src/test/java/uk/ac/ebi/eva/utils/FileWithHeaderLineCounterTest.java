@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+/**
+ * Test for {@link FileWithHeaderLineCounter}
+ */
+public class FileWithHeaderLineCounterTest {
+
+    private static final String GENOTYPED_VCF = "/input-files/vcf/genotyped.vcf.gz";
+
+    private static final String BGZIPPED_GENOTYPED_VCF = "/input-files/vcf/genotyped_bgzip.vcf.gz";
+
+    private static final String AGGREGATED_VCF = "/input-files/vcf/aggregated.vcf.gz";
+
+    private static final String SMALL_VCF = "/input-files/vcf/small_genotyped.vcf.gz";
+
+    private static final String VEP_ANNOTATIONS = "/input-files/annotation/vep-annotations.tsv.gz";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FileWithHeaderLineCounter lineCounter;
+
+    @Before
+    public void setUp() throws Exception {
+        lineCounter = new FileWithHeaderLineCounter();
+    }
+
+    @Test
+    public void gzippedFilesAreCounted() throws Exception {
+        assertEquals(298, lineCounter.countLines(getResource(GENOTYPED_VCF)));
+        assertEquals(156, lineCounter.countLines(getResource(AGGREGATED_VCF)));
+        assertEquals(21, lineCounter.countLines(getResource(SMALL_VCF)));
+        assertEquals(199948, lineCounter.countLines(getResource(VEP_ANNOTATIONS)));
+    }
+
+    @Test
+    public void bgzippedFilesAreCounted() throws Exception {
+        assertEquals(298, lineCounter.countLines(getResource(BGZIPPED_GENOTYPED_VCF)));
+    }
+
+    @Test
+    public void headerAndEmptyLinesAreNotCounted() throws Exception {
+        File file = temporaryFolder.newFile("lines.vcf");
+        Files.write(file.toPath(), "##header\n#CHROM\n1\t100\n\n1\t200\r\n\r\n1\t300".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(3, lineCounter.countLines(file));
+    }
+
+    @Test
+    public void linesAreCountedInTheBackground() throws Exception {
+        long lines = lineCounter.countLinesInBackground(getResource(GENOTYPED_VCF)).get(60, TimeUnit.SECONDS);
+
+        assertEquals(298, lines);
+    }
+}
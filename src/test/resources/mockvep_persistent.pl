@@ -0,0 +1,36 @@
+# mockvep_persistent.pl
+#
+# This file is a mock for VEP, just as mockvep_writeToFile.pl, with the difference that it writes to STDOUT the
+# annotations of each buffer as soon as the buffer is full, and that the first column of each annotation is the
+# identifier of the variant (6th column of the input), as VEP does. This is used for testing a VEP process that is kept
+# running to annotate several chunks.
+
+use warnings;
+use strict;
+use IO::Handle;
+
+use Getopt::Long;
+my $batchSize = 2;
+my $result = GetOptions (
+        "o=s" => \my $file, # -o string
+        "buffer_size=i" => \$batchSize # -b integer
+        );
+
+STDOUT->autoflush(1);
+
+print "## This line acts as the beginning of the header\n";
+print "# This line acts as the end of the header\n";
+my @buffer = ();
+my $line;
+while ($line = <STDIN>) {
+    chomp ($line);
+    my @columns = split(/\t/, $line);
+    my $id = scalar(@columns) > 5 ? $columns[5] : "$columns[0]_$columns[1]_$columns[3]";
+    push (@buffer, "$id\t$columns[0]:$columns[1]\t-\t-\t-\t-\tintergenic_variant\t-\t-\t-\t-\t-\t-\n");
+    if (scalar (@buffer) == $batchSize) {
+        print @buffer;
+        @buffer = ();
+    }
+}
+
+print @buffer;
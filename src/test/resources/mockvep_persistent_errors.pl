@@ -0,0 +1,49 @@
+# mockvep_persistent_errors.pl
+#
+# This file is a mock for VEP, just as mockvep_persistent.pl, with the difference that some variants make it fail:
+# for a variant on position 1000 it stops and returns 1, for a variant on position 2000 it stops responding, and for a
+# variant on position 3000 it exits after writing the annotations of its buffer. This is used for testing that a pool
+# of persistent VEP processes replaces the processes that crashed or timed out.
+
+use warnings;
+use strict;
+use IO::Handle;
+
+use Getopt::Long;
+my $batchSize = 2;
+my $result = GetOptions (
+        "o=s" => \my $file, # -o string
+        "buffer_size=i" => \$batchSize # -b integer
+        );
+
+STDOUT->autoflush(1);
+
+print "## This line acts as the beginning of the header\n";
+print "# This line acts as the end of the header\n";
+my @buffer = ();
+my $exitAfterBuffer = 0;
+my $line;
+while ($line = <STDIN>) {
+    chomp ($line);
+    my @columns = split(/\t/, $line);
+    if ($columns[1] == 1000) {
+        exit 1;
+    }
+    if ($columns[1] == 2000) {
+        sleep;
+    }
+    if ($columns[1] == 3000) {
+        $exitAfterBuffer = 1;
+    }
+    my $id = scalar(@columns) > 5 ? $columns[5] : "$columns[0]_$columns[1]_$columns[3]";
+    push (@buffer, "$id\t$columns[0]:$columns[1]\t-\t-\t-\t-\tintergenic_variant\t-\t-\t-\t-\t-\t-\n");
+    if (scalar (@buffer) == $batchSize) {
+        print @buffer;
+        @buffer = ();
+        if ($exitAfterBuffer) {
+            exit 0;
+        }
+    }
+}
+
+print @buffer;